@@ -0,0 +1,26 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.AdaptiveReadBiasingDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "adaptive_read_biasing"
+
+for (def adaptiveReadBiasing in [false, true]) {
+    def policy = adaptiveReadBiasing ? "adaptive" : "fixed"
+    for (def k in [1, 2, 4, 8, 16]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "${policy}_read_biasing_with_${k}_read_threads"
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.readThreadCount = k
+        testCase.refCount = 10
+        testCase.adaptiveReadBiasing = adaptiveReadBiasing
+        testCase.phaseCount = 6
+        testCase.phaseDurationMs = 2000
+        testCase.readHeavyUpdateIntervalUs = 10 * 1000
+        testCase.writeHeavyUpdateIntervalUs = 100
+        testCase.driver = AdaptiveReadBiasingDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
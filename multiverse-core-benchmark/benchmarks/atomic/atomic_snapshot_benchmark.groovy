@@ -0,0 +1,25 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.AtomicSnapshotDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "atomic_snapshot"
+
+for (def atomicSnapshot in [false, true]) {
+    def readMethod = atomicSnapshot ? "atomic_snapshot" : "lean_transaction"
+    for (def refCount in [1, 2, 4, 8]) {
+        for (def k in 1..processorCount) {
+            def testCase = new GroovyTestCase()
+            testCase.name = "${readMethod}_with_${refCount}_refs_and_${k}_threads"
+            testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+            testCase.threadCount = k
+            testCase.refCount = refCount
+            testCase.transactionsPerThread = 100 * 1000 * 1000L
+            testCase.atomicSnapshot = atomicSnapshot
+            testCase.driver = AtomicSnapshotDriver.class
+            benchmark.add(testCase)
+        }
+    }
+}
+
+benchmark
@@ -0,0 +1,21 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.BatchInsertDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "batch_insert"
+
+for (def batchSize in [1, 16, 256]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "batch_insert_${batchSize}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.batchSize = batchSize
+        testCase.insertsPerThread = 1000 * 1000
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = BatchInsertDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,45 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.IntrinsicLockStackDriver
+import org.multiverse.stms.gamma.benchmarks.JucLockStackDriver
+import org.multiverse.stms.gamma.benchmarks.SimpleStackDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "flat_combining_stack"
+
+for (def k in 1..processorCount) {
+    for (def flatCombining in [true, false]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "simple_stack_${flatCombining ? 'flat_combining' : 'plain'}_with_${k}_threads"
+        testCase.pushThreadCount = k
+        testCase.popThreadCount = k
+        testCase.durationInSeconds = 30
+        testCase.poolCallables = true
+        testCase.flatCombining = flatCombining
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0
+        testCase.driver = SimpleStackDriver.class
+        benchmark.add(testCase)
+    }
+
+    def jucTestCase = new GroovyTestCase()
+    jucTestCase.name = "juc_lock_stack_with_${k}_threads"
+    jucTestCase.pushThreadCount = k
+    jucTestCase.popThreadCount = k
+    jucTestCase.durationInSeconds = 30
+    jucTestCase.capacity = Integer.MAX_VALUE
+    jucTestCase.warmupRunIterationCount = 0
+    jucTestCase.driver = JucLockStackDriver.class
+    benchmark.add(jucTestCase)
+
+    def intrinsicTestCase = new GroovyTestCase()
+    intrinsicTestCase.name = "intrinsic_lock_stack_with_${k}_threads"
+    intrinsicTestCase.pushThreadCount = k
+    intrinsicTestCase.popThreadCount = k
+    intrinsicTestCase.durationInSeconds = 30
+    intrinsicTestCase.capacity = Integer.MAX_VALUE
+    intrinsicTestCase.warmupRunIterationCount = 0
+    intrinsicTestCase.driver = IntrinsicLockStackDriver.class
+    benchmark.add(intrinsicTestCase)
+}
+
+benchmark
@@ -0,0 +1,25 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.CacheDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "cache"
+
+for (def weightBound in [false, true]) {
+    def policy = weightBound ? "weight" : "size"
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "cache_${policy}_bound_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.operationCount = 1000 * 1000
+        testCase.readPercentage = 90
+        testCase.maxSize = 10000
+        testCase.keyCount = 20000
+        testCase.weightBound = weightBound
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = CacheDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
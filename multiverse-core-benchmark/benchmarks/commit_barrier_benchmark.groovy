@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.CommitBarrierDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "commit_barrier"
+
+for (def async in [true, false]) {
+    for (def parties in [10, 100, 1000]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "commit_barrier_${async ? 'async' : 'blocking'}_with_${parties}_parties"
+        testCase.parties = parties
+        testCase.async = async
+        testCase.threadCount = Math.min(parties, processorCount)
+        testCase.roundCount = (100 * 1000) / parties
+        testCase.warmupRunIterationCount = 1
+        testCase.driver = CommitBarrierDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.CommitStreamDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "commit_stream"
+
+for (def streamed in [true, false]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "commit_stream_${streamed}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.streamed = streamed
+        testCase.writeCount = 4
+        testCase.transactionsPerThread = 2 * 1000 * 1000
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = CommitStreamDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.ComposedOrElseDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "composed_orelse"
+
+for (def orElse in [true, false]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "composed_orelse_${orElse}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.orElse = orElse
+        testCase.privateRefCount = 100
+        testCase.transactionsPerThread = 1000 * 1000
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = ComposedOrElseDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
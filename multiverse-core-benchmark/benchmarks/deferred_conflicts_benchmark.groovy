@@ -0,0 +1,28 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.DeferredConflictsDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "deferred_conflicts"
+
+for (def deferredConflicts in [false, true]) {
+    def conflictMode = deferredConflicts ? "deferred_conflicts" : "thrown_conflicts"
+    for (def controlFlowErrorsReused in [true, false]) {
+        def errorMode = controlFlowErrorsReused ? "reused_errors" : "new_errors"
+        for (def k in [1, 2, 4, 8, 16]) {
+            def testCase = new GroovyTestCase()
+            testCase.name = "${conflictMode}_with_${errorMode}_and_${k}_threads"
+            testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+            testCase.threadCount = k
+            testCase.refCount = 10
+            testCase.transactionsPerThread = 1000 * 1000L
+            testCase.forcedConflicts = true
+            testCase.deferredConflicts = deferredConflicts
+            testCase.controlFlowErrorsReused = controlFlowErrorsReused
+            testCase.driver = DeferredConflictsDriver.class
+            benchmark.add(testCase)
+        }
+    }
+}
+
+benchmark
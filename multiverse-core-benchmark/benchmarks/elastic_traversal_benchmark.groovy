@@ -0,0 +1,24 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.ElasticTraversalDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "elastic_traversal"
+
+for (def elastic in [false, true]) {
+    def mode = elastic ? "elastic" : "regular"
+    for (def k in [1, 2, 4, 8, 16]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "elastic_traversal_${mode}_with_${k}_search_threads"
+        testCase.searchThreadCount = k
+        testCase.updateThreadCount = 1
+        testCase.listSize = 100
+        testCase.searchCount = 100 * 1000
+        testCase.elastic = elastic
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = ElasticTraversalDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,26 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.InvisibleReadsDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "invisible_reads"
+
+for (def invisibleReads in [false, true]) {
+    def readMode = invisibleReads ? "invisible_reads" : "visible_reads"
+    for (def updateIntervalMs in [0, 1]) {
+        for (def k in [1, 2, 4, 8, 16, 32, 64]) {
+            def testCase = new GroovyTestCase()
+            testCase.name = "${readMode}_with_update_interval_${updateIntervalMs}_ms_and_${k}_threads"
+            testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+            testCase.threadCount = k
+            testCase.refCount = 1
+            testCase.transactionsPerThread = 10 * 1000 * 1000L
+            testCase.invisibleReads = invisibleReads
+            testCase.updateIntervalMs = updateIntervalMs
+            testCase.driver = InvisibleReadsDriver.class
+            benchmark.add(testCase)
+        }
+    }
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.LargeReadSetDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "large_readset"
+
+for (def readSetSize in [100, 1000, 10000, 100000]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "large_readset_${readSetSize}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.readSetSize = readSetSize
+        testCase.writeCount = 1
+        testCase.transactionsPerThread = (100 * 1000 * 1000) / readSetSize
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = LargeReadSetDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,20 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.PriorityQueueDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "priority_queue"
+
+for (def k in [1, 2, 4, 8, 16, 32]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = "priority_queue_with_${k}_threads"
+    testCase.threadCount = k
+    testCase.operationCount = 1000 * 1000
+    testCase.insertPercentage = 50
+    testCase.initialSize = 10000
+    testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+    testCase.driver = PriorityQueueDriver.class
+    benchmark.add(testCase)
+}
+
+benchmark
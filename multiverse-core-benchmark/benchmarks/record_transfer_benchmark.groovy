@@ -0,0 +1,26 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.RecordTransferDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "record_transfer"
+
+for (def useRecord in [false, true]) {
+    def layout = useRecord ? "record" : "ref_per_field"
+    for (def fieldCount in [1, 5, 10]) {
+        for (def k in [1, 2, 4, 8, 16]) {
+            def testCase = new GroovyTestCase()
+            testCase.name = "${layout}_with_${fieldCount}_fields_and_${k}_threads"
+            testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+            testCase.threadCount = k
+            testCase.accountCount = 1000
+            testCase.fieldCount = fieldCount
+            testCase.useRecord = useRecord
+            testCase.transactionsPerThread = 1000 * 1000L
+            testCase.driver = RecordTransferDriver.class
+            benchmark.add(testCase)
+        }
+    }
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.RefSubscriptionDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "ref_subscription"
+
+for (def subscriberCount in [0, 10 * 1000, 100 * 1000]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "ref_subscription_${subscriberCount}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.refCount = 10 * 1000
+        testCase.subscriberCount = subscriberCount
+        testCase.transactionsPerThread = 1000 * 1000
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = RefSubscriptionDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,27 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.stamp.IntruderDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "stamp_intruder"
+
+//the low and high contention configurations of STAMP.
+def contentions = [
+        low: [flowCount: 2048, maxFragmentCount: 4],
+        high: [flowCount: 1024, maxFragmentCount: 128]]
+
+for (def contention in contentions) {
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "stamp_intruder_${contention.key}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.flowCount = contention.value.flowCount
+        testCase.maxFragmentCount = contention.value.maxFragmentCount
+        testCase.attackPercentage = 10
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = IntruderDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,26 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.stamp.KMeansDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "stamp_kmeans"
+
+//the low and high contention configurations of STAMP.
+def contentions = [low: 40, high: 15]
+
+for (def contention in contentions) {
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "stamp_kmeans_${contention.key}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.pointCount = 65536
+        testCase.dimensionCount = 32
+        testCase.clusterCount = contention.value
+        testCase.iterationCount = 10
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = KMeansDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
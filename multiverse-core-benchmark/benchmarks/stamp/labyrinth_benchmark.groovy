@@ -0,0 +1,28 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.stamp.LabyrinthDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "stamp_labyrinth"
+
+//the small STAMP input, and a larger grid with more paths.
+def grids = [
+        small: [width: 32, height: 32, depth: 3, pathCount: 96],
+        large: [width: 128, height: 128, depth: 5, pathCount: 512]]
+
+for (def grid in grids) {
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "stamp_labyrinth_${grid.key}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.width = grid.value.width
+        testCase.height = grid.value.height
+        testCase.depth = grid.value.depth
+        testCase.pathCount = grid.value.pathCount
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = LabyrinthDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,29 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.stamp.VacationDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "stamp_vacation"
+
+//the low and high contention configurations of STAMP.
+def contentions = [
+        low: [queryCount: 2, queryPercentage: 90, userPercentage: 98],
+        high: [queryCount: 4, queryPercentage: 60, userPercentage: 90]]
+
+for (def contention in contentions) {
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "stamp_vacation_${contention.key}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.relationCount = 16384
+        testCase.taskCount = 256 * 1024
+        testCase.queryCount = contention.value.queryCount
+        testCase.queryPercentage = contention.value.queryPercentage
+        testCase.userPercentage = contention.value.userPercentage
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = VacationDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
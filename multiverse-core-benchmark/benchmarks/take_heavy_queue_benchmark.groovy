@@ -0,0 +1,18 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.TakeHeavyQueueDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "take_heavy_queue"
+
+for (def consumerCount in [1, 10, 100, 500]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = "take_heavy_queue_with_${consumerCount}_consumers"
+    testCase.consumerCount = consumerCount
+    testCase.itemsPerConsumer = 1000 * 1000 / consumerCount
+    testCase.warmupRunIterationCount = 0;
+    testCase.driver = TakeHeavyQueueDriver.class
+    benchmark.add(testCase)
+}
+
+benchmark
@@ -0,0 +1,21 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.TwoPhaseCommitDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "two_phase_commit"
+
+for (def participantCount in 2..8) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "two_phase_commit_${participantCount}_stms_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.participantCount = participantCount
+        testCase.transactionsPerThread = 100 * 1000
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = TwoPhaseCommitDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,25 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.WriteSkewDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "write_skew"
+
+for (def serializableSnapshot in [false, true]) {
+    def isolationLevel = serializableSnapshot ? "serializable_snapshot" : "serializable"
+    for (def k in [1, 2, 4, 8, 16, 32]) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "write_skew_${isolationLevel}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.transactionsPerThread = 1000 * 1000
+        testCase.customerCount = 10
+        testCase.sharedReadCount = 10
+        testCase.sharedUpdatePercentage = 1
+        testCase.serializableSnapshot = serializableSnapshot
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        testCase.driver = WriteSkewDriver.class
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
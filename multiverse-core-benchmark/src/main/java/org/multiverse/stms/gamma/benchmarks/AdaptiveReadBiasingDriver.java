@@ -0,0 +1,168 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnLongCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the adaptive read biasing (see {@link GammaStmConfig#adaptiveReadBiasing}).
+ * <p/>
+ * The read threads execute non speculative readonly transactions that read a hot ref and a number of other refs, so
+ * they use the rich mans conflict scan. The update thread alternates between a read heavy phase, where the hot ref is
+ * updated now and then, and a write heavy phase, where it is updated frequently. Every update of the hot ref while it
+ * is readbiased causes a conflict for all readers (and a full conflict scan). With adaptive read biasing the hot ref
+ * stops becoming readbiased during the write heavy phase.
+ */
+public class AdaptiveReadBiasingDriver extends BenchmarkDriver {
+
+    private int readThreadCount = 1;
+    private int refCount = 10;
+    private boolean adaptiveReadBiasing = true;
+    private int phaseCount = 6;
+    private int phaseDurationMs = 1000;
+    private int readHeavyUpdateIntervalUs = 10 * 1000;
+    private int writeHeavyUpdateIntervalUs = 100;
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private ReadThread[] readThreads;
+    private UpdateThread updateThread;
+    private volatile boolean stop;
+    private long durationMs;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Read thread count %s\n", readThreadCount);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Adaptive read biasing %s\n", adaptiveReadBiasing);
+        System.out.printf("Multiverse > Phase count %s\n", phaseCount);
+        System.out.printf("Multiverse > Phase duration %s ms\n", phaseDurationMs);
+        System.out.printf("Multiverse > Read heavy update interval %s us\n", readHeavyUpdateIntervalUs);
+        System.out.printf("Multiverse > Write heavy update interval %s us\n", writeHeavyUpdateIntervalUs);
+
+        GammaStmConfig config = new GammaStmConfig();
+        config.adaptiveReadBiasing = adaptiveReadBiasing;
+        stm = new GammaStm(config);
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        stop = false;
+        readThreads = new ReadThread[readThreadCount];
+        for (int k = 0; k < readThreads.length; k++) {
+            readThreads[k] = new ReadThread(k);
+        }
+        updateThread = new UpdateThread();
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        final long startMs = System.currentTimeMillis();
+        startAll(readThreads);
+        startAll(updateThread);
+        joinAll(updateThread);
+        stop = true;
+        joinAll(readThreads);
+        durationMs = System.currentTimeMillis() - startMs;
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long transactions = 0;
+        for (ReadThread t : readThreads) {
+            transactions += t.transactions;
+        }
+
+        final double transactionsPerSecond = (1000d * transactions) / Math.max(1, durationMs);
+        final long conflicts = stm.getGlobalConflictCounter().count();
+
+        System.out.printf("Multiverse > Updates %s, global conflicts %s, readbiased revocations %s\n",
+                updateThread.updates, conflicts, refs[0].getReadBiasedRevocationCount());
+        System.out.printf("Multiverse > Readbiased threshold of the hot ref %s\n", refs[0].getReadBiasedThreshold());
+        System.out.printf("Multiverse > Performance %s read transactions/second\n", format(transactionsPerSecond));
+
+        testCaseResult.put("updates", updateThread.updates);
+        testCaseResult.put("conflicts", conflicts);
+        testCaseResult.put("revocations", refs[0].getReadBiasedRevocationCount());
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class ReadThread extends TestThread {
+        private long transactions;
+
+        public ReadThread(int id) {
+            super("ReadThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .setReadonly(true)
+                    .newTxnExecutor();
+
+            final TxnLongCallable callable = new TxnLongCallable() {
+                @Override
+                public long call(Txn tx) throws Exception {
+                    long sum = 0;
+                    for (GammaTxnLong ref : refs) {
+                        sum += ref.get(tx);
+                    }
+                    return sum;
+                }
+            };
+
+            while (!stop) {
+                executor.execute(callable);
+                transactions++;
+            }
+        }
+    }
+
+    class UpdateThread extends TestThread {
+        private long updates;
+
+        public UpdateThread() {
+            super("UpdateThread");
+        }
+
+        @Override
+        public void doRun() {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+
+            final TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    refs[0].increment(tx);
+                }
+            };
+
+            for (int phase = 0; phase < phaseCount; phase++) {
+                final boolean writeHeavy = phase % 2 == 1;
+                final long intervalNs = TimeUnit.MICROSECONDS.toNanos(
+                        writeHeavy ? writeHeavyUpdateIntervalUs : readHeavyUpdateIntervalUs);
+                final long phaseEndMs = System.currentTimeMillis() + phaseDurationMs;
+
+                while (System.currentTimeMillis() < phaseEndMs) {
+                    executor.execute(callable);
+                    updates++;
+                    LockSupport.parkNanos(intervalNs);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaAtomicSnapshot;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.lean.LeanFixedLengthGammaTxn;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark that compares reading a number of refs consistently using the {@link GammaAtomicSnapshot} with
+ * reading them using a readonly {@link LeanFixedLengthGammaTxn}.
+ * <p/>
+ * All threads read the same refs, so with the transaction every read does an arrive/depart on a shared orec (unless
+ * the ref has become read biased), while the GammaAtomicSnapshot doesn't write to shared memory at all.
+ */
+public class AtomicSnapshotDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int threadCount = 1;
+    private int refCount = 2;
+    private long transactionsPerThread = 100 * 1000 * 1000;
+    private boolean atomicSnapshot = true;
+    private GammaStm stm;
+    private GammaTxnRef<String>[] refs;
+    private ReadThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Atomic snapshot %s\n", atomicSnapshot);
+
+        stm = new GammaStm();
+        refs = new GammaTxnRef[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnRef<String>(stm, "" + k);
+        }
+
+        threads = new ReadThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new ReadThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (ReadThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        final double transactionsPerSecondPerThread =
+                (1000d * transactionsPerThread * threadCount) / Math.max(1, totalDurationMs);
+        final double transactionsPerSecond = transactionsPerSecondPerThread * threadCount;
+
+        System.out.printf("Multiverse > Performance %s transactions/second/thread\n",
+                format(transactionsPerSecondPerThread));
+        System.out.printf("Multiverse > Performance %s transactions/second\n",
+                format(transactionsPerSecond));
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class ReadThread extends TestThread {
+        private long durationMs;
+
+        public ReadThread(int id) {
+            super("ReadThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final long startMs = System.currentTimeMillis();
+            if (atomicSnapshot) {
+                runWithAtomicSnapshot();
+            } else {
+                runWithTransaction();
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+
+        private void runWithAtomicSnapshot() {
+            final GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(refs);
+            final long _transactionsPerThread = transactionsPerThread;
+            final int _refCount = refCount;
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                snapshot.take();
+                for (int i = 0; i < _refCount; i++) {
+                    if (snapshot.get(i) == null) {
+                        throw new IllegalStateException();
+                    }
+                }
+            }
+        }
+
+        private void runWithTransaction() {
+            final LeanFixedLengthGammaTxn tx = new LeanFixedLengthGammaTxn(stm);
+            final GammaTxnRef<String>[] _refs = refs;
+            final long _transactionsPerThread = transactionsPerThread;
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                for (GammaTxnRef<String> ref : _refs) {
+                    if (ref.openForRead(tx, LOCKMODE_NONE).ref_value == null) {
+                        throw new IllegalStateException();
+                    }
+                }
+                tx.commit();
+                tx.hardReset();
+            }
+        }
+    }
+}
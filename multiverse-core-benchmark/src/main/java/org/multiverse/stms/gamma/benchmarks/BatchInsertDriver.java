@@ -0,0 +1,109 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.collections.NaiveTxnHashMap;
+import org.multiverse.stms.gamma.GammaStm;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for {@link TxnExecutor#executeBatch(List)}. Every thread inserts items in its own NaiveTxnHashMap;
+ * batchSize inserts are executed using a single executeBatch call. With a batchSize of 1 every insert pays for its
+ * own commit.
+ */
+public class BatchInsertDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long insertsPerThread = 1000 * 1000;
+    private int batchSize = 16;
+    private GammaStm stm;
+    private InsertThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Inserts per thread %s\n", insertsPerThread);
+        System.out.printf("Multiverse > Batch size %s\n", batchSize);
+
+        stm = new GammaStm();
+        threads = new InsertThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new InsertThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        long commitCount = 0;
+        for (InsertThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+            commitCount += t.batchCount;
+        }
+
+        double insertsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                insertsPerThread, totalDurationMs, threadCount);
+        double commitsPerSecond = (commitCount * 1000.0d * threadCount) / totalDurationMs;
+        System.out.printf("Multiverse > Performance %s inserts/second with %s threads\n",
+                format(insertsPerSecond), threadCount);
+        System.out.printf("Multiverse > Performance %s commits/second with batch size %s\n",
+                format(commitsPerSecond), batchSize);
+
+        testCaseResult.put("transactionsPerSecond", insertsPerSecond);
+        testCaseResult.put("commitsPerSecond", commitsPerSecond);
+    }
+
+    class InsertThread extends TestThread {
+        private final NaiveTxnHashMap<Long, Long> map = new NaiveTxnHashMap<Long, Long>(stm);
+        private long batchCount;
+
+        public InsertThread(int id) {
+            super("InsertThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+            final List<InsertCallable> batch = new ArrayList<InsertCallable>(batchSize);
+            for (int k = 0; k < batchSize; k++) {
+                batch.add(new InsertCallable());
+            }
+
+            long key = 0;
+            while (key < insertsPerThread) {
+                for (InsertCallable callable : batch) {
+                    callable.key = key;
+                    key++;
+                }
+
+                executor.executeBatch(batch);
+                batchCount++;
+            }
+        }
+
+        class InsertCallable implements TxnVoidCallable {
+            long key;
+
+            @Override
+            public void call(Txn tx) throws Exception {
+                map.put(tx, key, key);
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnCache;
+import org.multiverse.collections.NaiveTxnCollectionFactory;
+import org.multiverse.stms.gamma.GammaStm;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the {@link TxnCache}. All threads share a single cache and do a mix of gets and puts on random
+ * keys. The gets are executed using a readonly transaction, the puts using an update transaction. The key space is
+ * larger than the cache, so a part of the gets misses and the puts cause evictions.
+ * <p/>
+ * If weightBound is set, the cache is bound on the total weight and every entry gets a weight between 1 and 10.
+ */
+public class CacheDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long operationCount = 1000 * 1000;
+    private int readPercentage = 90;
+    private int maxSize = 10000;
+    private int keyCount = 20000;
+    private boolean weightBound = false;
+    private GammaStm stm;
+    private TxnCache<Integer, Integer> cache;
+    private OperationThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Operation count %s\n", operationCount);
+        System.out.printf("Multiverse > Read percentage %s\n", readPercentage);
+        System.out.printf("Multiverse > Max size %s\n", maxSize);
+        System.out.printf("Multiverse > Key count %s\n", keyCount);
+        System.out.printf("Multiverse > Weight bound %s\n", weightBound);
+
+        stm = new GammaStm();
+        NaiveTxnCollectionFactory factory = new NaiveTxnCollectionFactory(stm);
+        if (weightBound) {
+            cache = factory.newCache(maxSize * 5L, new TxnCache.Weigher<Integer, Integer>() {
+                @Override
+                public long weigh(Integer key, Integer value) {
+                    return 1 + value % 10;
+                }
+            });
+        } else {
+            cache = factory.newCache(maxSize);
+        }
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < maxSize; k++) {
+                    cache.put(tx, k, k);
+                }
+            }
+        });
+
+        threads = new OperationThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new OperationThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (OperationThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                operationCount, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class OperationThread extends TestThread {
+
+        public OperationThread(int id) {
+            super("OperationThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final Random random = new Random();
+            final TxnExecutor readExecutor = stm.newTxnFactoryBuilder()
+                    .setReadonly(true)
+                    .newTxnExecutor();
+            final TxnExecutor updateExecutor = stm.newTxnFactoryBuilder()
+                    .setReadonly(false)
+                    .newTxnExecutor();
+
+            final GetCallable getCallable = new GetCallable();
+            final PutCallable putCallable = new PutCallable();
+
+            for (long k = 0; k < operationCount; k++) {
+                final int key = random.nextInt(keyCount);
+                if (random.nextInt(100) < readPercentage) {
+                    getCallable.key = key;
+                    readExecutor.execute(getCallable);
+                } else {
+                    putCallable.key = key;
+                    updateExecutor.execute(putCallable);
+                }
+            }
+        }
+    }
+
+    class GetCallable implements TxnVoidCallable {
+        int key;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            cache.get(tx, key);
+        }
+    }
+
+    class PutCallable implements TxnVoidCallable {
+        int key;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            cache.put(tx, key, key);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.commitbarriers.AsyncCommitBarrier;
+import org.multiverse.commitbarriers.CountDownCommitBarrier;
+import org.multiverse.commitbarriers.JoinCommitFuture;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the latency of a coordinated commit of a number of parties. Every round all parties update their
+ * own ref and join the same commit barrier.
+ * <p/>
+ * With async disabled every party is a thread that blocks in the {@link CountDownCommitBarrier}. With async enabled
+ * the parties are spread over threadCount threads that join the {@link AsyncCommitBarrier} without blocking, and
+ * only wait for the outcome at the end of the round.
+ */
+public class CommitBarrierDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private int parties = 10;
+    private int roundCount = 1000;
+    private boolean async = true;
+    private GammaStm stm;
+    private GammaTxnFactory txnFactory;
+    private CountDownCommitBarrier[] countDownBarriers;
+    private AsyncCommitBarrier[] asyncBarriers;
+    private TestThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Parties %s\n", parties);
+        System.out.printf("Multiverse > Round count %s\n", roundCount);
+        System.out.printf("Multiverse > Async %s\n", async);
+        if (async) {
+            System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        }
+
+        stm = new GammaStm();
+        txnFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory();
+
+        if (async) {
+            asyncBarriers = new AsyncCommitBarrier[roundCount];
+            for (int k = 0; k < roundCount; k++) {
+                asyncBarriers[k] = new AsyncCommitBarrier(parties);
+            }
+
+            threads = new TestThread[threadCount];
+            for (int k = 0; k < threadCount; k++) {
+                int partiesForThread = parties / threadCount + (k < parties % threadCount ? 1 : 0);
+                threads[k] = new AsyncJoinThread(k, partiesForThread);
+            }
+        } else {
+            countDownBarriers = new CountDownCommitBarrier[roundCount];
+            for (int k = 0; k < roundCount; k++) {
+                countDownBarriers[k] = new CountDownCommitBarrier(parties);
+            }
+
+            threads = new TestThread[parties];
+            for (int k = 0; k < parties; k++) {
+                threads[k] = new BlockingJoinThread(k);
+            }
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long maxDurationMs = 0;
+        for (TestThread t : threads) {
+            maxDurationMs = Math.max(maxDurationMs, t.getDurationMs());
+        }
+
+        double latencyUs = (1000.0d * maxDurationMs) / roundCount;
+        double commitsPerSecond = (1000.0d * roundCount) / Math.max(1, maxDurationMs);
+        System.out.printf("Multiverse > Latency %s us per coordinated commit of %s parties\n",
+                format(latencyUs), parties);
+        System.out.printf("Multiverse > Performance %s coordinated commits/second\n",
+                format(commitsPerSecond));
+
+        testCaseResult.put("latencyUs", latencyUs);
+        testCaseResult.put("commitsPerSecond", commitsPerSecond);
+    }
+
+    class BlockingJoinThread extends TestThread {
+        private final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        public BlockingJoinThread(int id) {
+            super("BlockingJoinThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final GammaTxn tx = txnFactory.newTxn();
+            for (int k = 0; k < roundCount; k++) {
+                tx.hardReset();
+                ref.increment(tx);
+                countDownBarriers[k].joinCommitUninterruptibly(tx);
+            }
+        }
+    }
+
+    class AsyncJoinThread extends TestThread {
+        private final GammaTxnLong[] refs;
+        private final GammaTxn[] txs;
+        private final JoinCommitFuture[] futures;
+
+        public AsyncJoinThread(int id, int partyCount) {
+            super("AsyncJoinThread-" + id);
+            refs = new GammaTxnLong[partyCount];
+            txs = new GammaTxn[partyCount];
+            futures = new JoinCommitFuture[partyCount];
+            for (int k = 0; k < partyCount; k++) {
+                refs[k] = new GammaTxnLong(stm);
+                txs[k] = txnFactory.newTxn();
+            }
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < roundCount; k++) {
+                final AsyncCommitBarrier barrier = asyncBarriers[k];
+                for (int i = 0; i < txs.length; i++) {
+                    final GammaTxn tx = txs[i];
+                    tx.hardReset();
+                    refs[i].increment(tx);
+                    futures[i] = barrier.joinCommit(tx);
+                }
+
+                //the transactions are reused, so they need to be completed before the next round starts.
+                for (JoinCommitFuture future : futures) {
+                    future.getUninterruptibly();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.CommitStream;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the cost of publishing committed writes to a {@link CommitStream}. Every transaction updates
+ * writeCount refs private to the thread. With streamed enabled the refs publish their writes and a consumer thread
+ * drains the stream; comparing the results with streamed disabled gives the publish cost per committed write.
+ */
+public class CommitStreamDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long transactionsPerThread = 10 * 1000 * 1000;
+    private int writeCount = 1;
+    private boolean streamed = true;
+    private int capacity = 64 * 1024;
+    private int batchSize = 256;
+    private GammaStm stm;
+    private CommitStream stream;
+    private UpdateThread[] threads;
+    private ConsumerThread consumer;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Write count %s\n", writeCount);
+        System.out.printf("Multiverse > Streamed %s\n", streamed);
+
+        stm = new GammaStm();
+        stream = streamed ? new CommitStream(capacity) : null;
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+        consumer = new ConsumerThread();
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        if (streamed) {
+            startAll(consumer);
+        }
+        startAll(threads);
+        joinAll(threads);
+        if (streamed) {
+            joinAll(consumer);
+        }
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double nsPerWrite = (1000d * 1000 * totalDurationMs) / (transactionsPerThread * threadCount * writeCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        System.out.printf("Multiverse > Performance %s ns per committed write (streamed %s)\n",
+                format(nsPerWrite), streamed);
+
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("nsPerWrite", nsPerWrite);
+    }
+
+    class ConsumerThread extends TestThread {
+        public ConsumerThread() {
+            super("ConsumerThread");
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long expected = transactionsPerThread * threadCount * writeCount;
+            final CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[batchSize];
+            long consumed = 0;
+            while (consumed < expected) {
+                final int count = stream.drain(batch);
+                if (count == 0) {
+                    Thread.yield();
+                }
+                consumed += count;
+            }
+        }
+    }
+
+    class UpdateThread extends TestThread {
+        private final GammaTxnLong[] refs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+            refs = new GammaTxnLong[writeCount];
+            for (int k = 0; k < refs.length; k++) {
+                refs[k] = new GammaTxnLong(stm);
+                refs[k].setCommitStream(stream);
+            }
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _transactionsPerThread = transactionsPerThread;
+
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    for (GammaTxnLong ref : refs) {
+                        ref.increment(tx);
+                    }
+                }
+            };
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                executor.execute(callable);
+            }
+        }
+    }
+}
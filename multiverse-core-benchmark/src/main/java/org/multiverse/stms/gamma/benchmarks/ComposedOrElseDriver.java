@@ -0,0 +1,141 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.OrElseBlock;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for large composed transactions where only the nested part is contended. Every transaction updates a
+ * number of refs that are private to the thread, and then executes an orelse on 2 shared refs. The either branch
+ * does a retry on half of the executions, so the nested block is rolled back to its savepoint and the orelse branch
+ * is executed without restarting the whole transaction.
+ * <p/>
+ * With orElse disabled the same logic is done using a plain if/else, so the difference shows the overhead of the
+ * savepoints.
+ */
+public class ComposedOrElseDriver extends BenchmarkDriver {
+
+    private int threadCount;
+    private long transactionsPerThread;
+    private int privateRefCount = 100;
+    private boolean orElse = true;
+    private GammaStm stm;
+    private GammaTxnLong primary;
+    private GammaTxnLong secondary;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Private ref count %s\n", privateRefCount);
+        System.out.printf("Multiverse > OrElse %s\n", orElse);
+
+        stm = new GammaStm();
+        primary = new GammaTxnLong(stm);
+        secondary = new GammaTxnLong(stm);
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second/thread with %s threads\n",
+                format(transactionsPerSecondPerThread), threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class UpdateThread extends TestThread {
+
+        private final GammaTxnLong[] privateRefs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+            privateRefs = new GammaTxnLong[privateRefCount];
+            for (int k = 0; k < privateRefs.length; k++) {
+                privateRefs[k] = new GammaTxnLong(stm);
+            }
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _transactionsPerThread = transactionsPerThread;
+            final boolean _orElse = orElse;
+            final OrElseBlock orElseBlock = stm.newOrElseBlock();
+
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .newTxnExecutor();
+
+            final TxnVoidCallable either = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    long value = primary.get(tx);
+                    if (value % 2 == 1) {
+                        tx.retry();
+                    }
+                    primary.set(tx, value + 1);
+                }
+            };
+
+            final TxnVoidCallable orelse = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    primary.increment(tx);
+                    secondary.increment(tx);
+                }
+            };
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    for (GammaTxnLong ref : privateRefs) {
+                        ref.increment(tx);
+                    }
+
+                    if (_orElse) {
+                        orElseBlock.execute(either, orelse);
+                    } else if (primary.get(tx) % 2 == 1) {
+                        orelse.call(tx);
+                    } else {
+                        either.call(tx);
+                    }
+                }
+            };
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                executor.execute(callable);
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for deferred conflicts (see {@link org.multiverse.api.TxnFactoryBuilder#setDeferredConflictsEnabled(boolean)}).
+ * <p/>
+ * Every transaction reads all refs of a small shared array and increments one of them, so under contention a lot
+ * of transactions abort on a read/write-conflict. The cpu time used by the threads is measured using the
+ * ThreadMXBean, and the aborts are counted by counting how often the closure is called. The cpu time per attempt
+ * shows what an abort costs; with deferred conflicts no ReadWriteConflict is thrown through the closure.
+ * <p/>
+ * With forcedConflicts every transaction updates the first ref outside of the transaction on its first attempt,
+ * after having read it, so every transaction aborts exactly once. This makes the cost of an abort measurable
+ * without depending on the number of cores.
+ * <p/>
+ * With controlFlowErrorsReused set to false, every thrown conflict is a new exception including a stacktrace.
+ */
+public class DeferredConflictsDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long transactionsPerThread = 1000 * 1000;
+    private int refCount = 10;
+    private boolean deferredConflicts = true;
+    private boolean forcedConflicts = false;
+    private boolean controlFlowErrorsReused = true;
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Deferred conflicts %s\n", deferredConflicts);
+        System.out.printf("Multiverse > Forced conflicts %s\n", forcedConflicts);
+        System.out.printf("Multiverse > Control flow errors reused %s\n", controlFlowErrorsReused);
+
+        stm = new GammaStm();
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long sum = 0;
+        for (GammaTxnLong ref : refs) {
+            sum += ref.atomicGet();
+        }
+
+        long forcedUpdates = 0;
+        for (UpdateThread t : threads) {
+            forcedUpdates += t.callable.forcedUpdates;
+        }
+
+        final long commits = transactionsPerThread * threadCount;
+        if (sum != commits + forcedUpdates) {
+            throw new IllegalStateException("expected sum " + (commits + forcedUpdates) + ", found " + sum);
+        }
+
+        long totalDurationMs = 0;
+        long cpuTimeNs = 0;
+        long attempts = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+            cpuTimeNs += t.cpuTimeNs;
+            attempts += t.callable.attempts;
+        }
+
+        final long aborts = attempts - commits;
+        final double abortsPerCommit = ((double) aborts) / commits;
+        final double cpuNsPerAttempt = ((double) cpuTimeNs) / attempts;
+        final double transactionsPerSecond = (1000d * commits * threadCount) / Math.max(1, totalDurationMs);
+
+        System.out.printf("Multiverse > Commits %s, aborts %s (%s aborts/commit)\n",
+                commits, aborts, format(abortsPerCommit));
+        System.out.printf("Multiverse > Cpu time %s ms, %s ns/attempt\n",
+                cpuTimeNs / 1000000, format(cpuNsPerAttempt));
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("commits", commits);
+        testCaseResult.put("aborts", aborts);
+        testCaseResult.put("abortsPerCommit", abortsPerCommit);
+        testCaseResult.put("cpuTimeNs", cpuTimeNs);
+        testCaseResult.put("cpuNsPerAttempt", cpuNsPerAttempt);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class UpdateThread extends TestThread {
+        private final UpdateCallable callable = new UpdateCallable();
+        private long cpuTimeNs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            final Random random = new Random();
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .setDeferredConflictsEnabled(deferredConflicts)
+                    .setControlFlowErrorsReused(controlFlowErrorsReused)
+                    .setMaxRetries(100000)
+                    .newTxnExecutor();
+
+            final long startCpuTimeNs = threadMXBean.getCurrentThreadCpuTime();
+            for (long k = 0; k < transactionsPerThread; k++) {
+                callable.index = random.nextInt(refs.length);
+                executor.execute(callable);
+            }
+            cpuTimeNs = threadMXBean.getCurrentThreadCpuTime() - startCpuTimeNs;
+        }
+    }
+
+    class UpdateCallable implements TxnVoidCallable {
+        int index;
+        long attempts;
+        long forcedUpdates;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            attempts++;
+
+            for (int k = 0; k < refs.length; k++) {
+                refs[k].get(tx);
+                if (k == 0 && forcedConflicts && tx.getAttempt() == 1) {
+                    refs[0].atomicIncrementAndGet(1);
+                    forcedUpdates++;
+                }
+            }
+
+            refs[index].increment(tx);
+        }
+    }
+}
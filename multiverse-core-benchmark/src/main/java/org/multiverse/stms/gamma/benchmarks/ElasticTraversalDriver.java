@@ -0,0 +1,182 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.collections.NaiveTxnLinkedList;
+import org.multiverse.stms.gamma.GammaStm;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for elastic transactions (see {@link org.multiverse.api.TxnFactoryBuilder#setElastic(boolean)}).
+ * <p/>
+ * The search threads look up random items in a shared linked list, while the update threads concurrently insert
+ * and remove items at the front of the list. A search that is not elastic conflicts with every update that is
+ * done on the part of the list it already has traversed, an elastic search only with updates at the position it
+ * currently is at.
+ * <p/>
+ * The aborts of the searches are counted by counting how often the search closure is called.
+ */
+public class ElasticTraversalDriver extends BenchmarkDriver {
+
+    private int searchThreadCount = 1;
+    private int updateThreadCount = 1;
+    private int listSize = 100;
+    private long searchCount = 100 * 1000;
+    private boolean elastic = true;
+    private GammaStm stm;
+    private NaiveTxnLinkedList<Integer> list;
+    private SearchThread[] searchThreads;
+    private UpdateThread[] updateThreads;
+    private volatile boolean stop;
+    private long durationMs;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Search thread count %s\n", searchThreadCount);
+        System.out.printf("Multiverse > Update thread count %s\n", updateThreadCount);
+        System.out.printf("Multiverse > List size %s\n", listSize);
+        System.out.printf("Multiverse > Search count %s\n", searchCount);
+        System.out.printf("Multiverse > Elastic %s\n", elastic);
+
+        stm = new GammaStm();
+        list = new NaiveTxnLinkedList<Integer>(stm);
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < listSize; k++) {
+                    list.add(tx, k);
+                }
+            }
+        });
+
+        stop = false;
+        searchThreads = new SearchThread[searchThreadCount];
+        for (int k = 0; k < searchThreads.length; k++) {
+            searchThreads[k] = new SearchThread(k);
+        }
+        updateThreads = new UpdateThread[updateThreadCount];
+        for (int k = 0; k < updateThreads.length; k++) {
+            updateThreads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        final long startMs = System.currentTimeMillis();
+        startAll(updateThreads);
+        startAll(searchThreads);
+        joinAll(searchThreads);
+        durationMs = System.currentTimeMillis() - startMs;
+        stop = true;
+        joinAll(updateThreads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long attempts = 0;
+        for (SearchThread t : searchThreads) {
+            attempts += t.attempts;
+        }
+        long updates = 0;
+        for (UpdateThread t : updateThreads) {
+            updates += t.updates;
+        }
+
+        final long searches = searchCount * searchThreadCount;
+        final long aborts = attempts - searches;
+        final double abortsPerSearch = ((double) aborts) / searches;
+        final double searchesPerSecond = (1000d * searches) / Math.max(1, durationMs);
+
+        System.out.printf("Multiverse > Searches %s, aborts %s (%s aborts/search), concurrent updates %s\n",
+                searches, aborts, format(abortsPerSearch), updates);
+        System.out.printf("Multiverse > Performance %s searches/second\n", format(searchesPerSecond));
+
+        testCaseResult.put("searches", searches);
+        testCaseResult.put("aborts", aborts);
+        testCaseResult.put("abortsPerSearch", abortsPerSearch);
+        testCaseResult.put("updates", updates);
+        testCaseResult.put("searchesPerSecond", searchesPerSecond);
+    }
+
+    class SearchThread extends TestThread {
+        private long attempts;
+
+        public SearchThread(int id) {
+            super("SearchThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final Random random = new Random();
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setElastic(elastic)
+                    .newTxnExecutor();
+
+            final SearchCallable callable = new SearchCallable();
+
+            for (long k = 0; k < searchCount; k++) {
+                //the items at the end of the list are searched, so the whole list is traversed.
+                callable.item = listSize - 1 - random.nextInt(Math.max(1, listSize / 10));
+                executor.execute(callable);
+            }
+            attempts = callable.attempts;
+        }
+    }
+
+    class SearchCallable implements TxnVoidCallable {
+        int item;
+        long attempts;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            attempts++;
+            if (!list.contains(tx, item)) {
+                throw new IllegalStateException("item " + item + " not found");
+            }
+        }
+    }
+
+    class UpdateThread extends TestThread {
+        private long updates;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+
+            final TxnVoidCallable addCallable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    list.addFirst(tx, -1);
+                }
+            };
+
+            final TxnVoidCallable removeCallable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    if (list.peekFirst(tx) < 0) {
+                        list.removeFirst(tx);
+                    }
+                }
+            };
+
+            while (!stop) {
+                executor.execute(addCallable);
+                executor.execute(removeCallable);
+                updates += 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnLongCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.sleepMs;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the invisible reads (see
+ * {@link org.multiverse.api.TxnFactoryBuilder#setInvisibleReadsEnabled(boolean)}).
+ * <p/>
+ * All threads execute readonly (non speculative, so fat) transactions that read the same hot refs. Without invisible
+ * reads every read does an arrive and a depart on the orec of the ref until the orec becomes read biased. An
+ * optional update thread updates the first ref every updateIntervalMs, which makes the orec write biased again
+ * and, when it is read biased, signals a conflict to all transactions that registered their reads.
+ */
+public class InvisibleReadsDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private int refCount = 1;
+    private long transactionsPerThread = 10 * 1000 * 1000;
+    private boolean invisibleReads = true;
+    private int updateIntervalMs = 0;
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private ReadThread[] readThreads;
+    private UpdateThread updateThread;
+    private volatile boolean stop;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Invisible reads %s\n", invisibleReads);
+        System.out.printf("Multiverse > Update interval %s ms\n", updateIntervalMs);
+
+        stm = new GammaStm();
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        stop = false;
+        readThreads = new ReadThread[threadCount];
+        for (int k = 0; k < readThreads.length; k++) {
+            readThreads[k] = new ReadThread(k);
+        }
+        updateThread = new UpdateThread();
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        if (updateIntervalMs > 0) {
+            updateThread.start();
+        }
+        startAll(readThreads);
+        joinAll(readThreads);
+        stop = true;
+        if (updateIntervalMs > 0) {
+            joinAll(updateThread);
+        }
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (ReadThread t : readThreads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        final double transactionsPerSecondPerThread =
+                (1000d * transactionsPerThread * threadCount) / Math.max(1, totalDurationMs);
+        final double transactionsPerSecond = transactionsPerSecondPerThread * threadCount;
+
+        System.out.printf("Multiverse > Performance %s transactions/second/thread\n",
+                format(transactionsPerSecondPerThread));
+        System.out.printf("Multiverse > Performance %s transactions/second\n",
+                format(transactionsPerSecond));
+        System.out.printf("Multiverse > Orec of the first ref %s\n", refs[0].___toOrecString());
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class ReadThread extends TestThread {
+        private long durationMs;
+
+        public ReadThread(int id) {
+            super("ReadThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .setReadonly(true)
+                    .setInvisibleReadsEnabled(invisibleReads)
+                    .newTxnExecutor();
+
+            final TxnLongCallable callable = new TxnLongCallable() {
+                @Override
+                public long call(Txn tx) throws Exception {
+                    long sum = 0;
+                    for (GammaTxnLong ref : refs) {
+                        sum += ref.get(tx);
+                    }
+                    return sum;
+                }
+            };
+
+            final long _transactionsPerThread = transactionsPerThread;
+            final long startMs = System.currentTimeMillis();
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                executor.execute(callable);
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+    }
+
+    class UpdateThread extends TestThread {
+
+        public UpdateThread() {
+            super("UpdateThread");
+        }
+
+        @Override
+        public void doRun() {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+
+            final TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    refs[0].increment(tx);
+                }
+            };
+
+            while (!stop) {
+                executor.execute(callable);
+                sleepMs(updateIntervalMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for transactions with a large read set, so it measures the cost of the lookup table of the
+ * FatVariableLengthGammaTxn. Every transaction reads all refs private to the thread and, when writeCount is larger
+ * than 0, updates the first writeCount refs.
+ */
+public class LargeReadSetDriver extends BenchmarkDriver {
+
+    private int threadCount;
+    private long transactionsPerThread;
+    private int readSetSize = 1000;
+    private int writeCount = 1;
+    private GammaStm stm;
+    private ReadThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Read set size %s\n", readSetSize);
+        System.out.printf("Multiverse > Write count %s\n", writeCount);
+
+        stm = new GammaStm();
+        threads = new ReadThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new ReadThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (ReadThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double readsPerSecond = transactionsPerSecond * readSetSize;
+        System.out.printf("Multiverse > Performance %s transactions/second/thread with %s threads\n",
+                format(transactionsPerSecondPerThread), threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        System.out.printf("Multiverse > Performance %s reads/second with %s threads\n",
+                format(readsPerSecond), threadCount);
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("readsPerSecond", readsPerSecond);
+    }
+
+    class ReadThread extends TestThread {
+
+        private final GammaTxnLong[] refs;
+
+        public ReadThread(int id) {
+            super("ReadThread-" + id);
+            refs = new GammaTxnLong[readSetSize];
+            for (int k = 0; k < refs.length; k++) {
+                refs[k] = new GammaTxnLong(stm);
+            }
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _transactionsPerThread = transactionsPerThread;
+            final int _writeCount = writeCount;
+
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setFat()
+                    .setSpeculative(false)
+                    .setReadTrackingEnabled(true)
+                    .setReadonly(_writeCount == 0)
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    long sum = 0;
+                    for (GammaTxnLong ref : refs) {
+                        sum += ref.get(tx);
+                    }
+
+                    for (int k = 0; k < _writeCount; k++) {
+                        refs[k].set(tx, sum);
+                    }
+                }
+            };
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                executor.execute(callable);
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnPriorityQueue;
+import org.multiverse.collections.NaiveTxnCollectionFactory;
+import org.multiverse.stms.gamma.GammaStm;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the {@link TxnPriorityQueue}. All threads share a single queue and do a mix of inserts with a
+ * random priority and polls. The queue is filled up front, so the polls don't run into an empty queue.
+ */
+public class PriorityQueueDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long operationCount = 1000 * 1000;
+    private int insertPercentage = 50;
+    private int initialSize = 10000;
+    private GammaStm stm;
+    private TxnPriorityQueue<Integer> queue;
+    private OperationThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Operation count %s\n", operationCount);
+        System.out.printf("Multiverse > Insert percentage %s\n", insertPercentage);
+        System.out.printf("Multiverse > Initial size %s\n", initialSize);
+
+        stm = new GammaStm();
+        queue = new NaiveTxnCollectionFactory(stm).newPriorityQueue();
+
+        final Random random = new Random();
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < initialSize; k++) {
+                    queue.offer(tx, random.nextInt());
+                }
+            }
+        });
+
+        threads = new OperationThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new OperationThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (OperationThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                operationCount, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class OperationThread extends TestThread {
+
+        public OperationThread(int id) {
+            super("OperationThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final Random random = new Random();
+            final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+
+            final OfferCallable offerCallable = new OfferCallable();
+            final TxnVoidCallable pollCallable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    queue.poll(tx);
+                }
+            };
+
+            for (long k = 0; k < operationCount; k++) {
+                if (random.nextInt(100) < insertPercentage) {
+                    offerCallable.item = random.nextInt();
+                    executor.execute(offerCallable);
+                } else {
+                    executor.execute(pollCallable);
+                }
+            }
+        }
+    }
+
+    class OfferCallable implements TxnVoidCallable {
+        int item;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            queue.offer(tx, item);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRecord;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark that compares a {@link GammaTxnRecord} with a ref per field.
+ * <p/>
+ * Every account has a balance and a number of other long fields and a reference field (the last transfer) that all
+ * are updated by a transfer. With a ref per field, a transfer between 2 accounts touches 2 * (fieldCount + 1) orecs;
+ * with records it touches 2. The footprint of the accounts is measured by comparing the used heap before and after
+ * creating them.
+ */
+public class RecordTransferDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private int accountCount = 1000;
+    private int fieldCount = 5;
+    private boolean useRecord = true;
+    private long transactionsPerThread = 1000 * 1000;
+
+    private GammaStm stm;
+    private Account[] accounts;
+    private TransferThread[] threads;
+    private long footprintBytes;
+    private long durationMs;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Account count %s\n", accountCount);
+        System.out.printf("Multiverse > Field count %s\n", fieldCount);
+        System.out.printf("Multiverse > Use record %s\n", useRecord);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+
+        stm = new GammaStm();
+
+        final long usedBefore = usedHeap();
+        accounts = new Account[accountCount];
+        for (int k = 0; k < accounts.length; k++) {
+            accounts[k] = useRecord ? new RecordAccount() : new RefPerFieldAccount();
+        }
+        footprintBytes = usedHeap() - usedBefore;
+
+        threads = new TransferThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TransferThread(k);
+        }
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 4; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        final long startMs = System.currentTimeMillis();
+        startAll(threads);
+        joinAll(threads);
+        durationMs = System.currentTimeMillis() - startMs;
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        final long transactions = transactionsPerThread * threadCount;
+        final double transactionsPerSecond = (1000d * transactions) / Math.max(1, durationMs);
+        final long bytesPerAccount = footprintBytes / accountCount;
+
+        System.out.printf("Multiverse > Footprint %s bytes per account\n", bytesPerAccount);
+        System.out.printf("Multiverse > Performance %s transfers/second\n", format(transactionsPerSecond));
+
+        testCaseResult.put("bytesPerAccount", bytesPerAccount);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    interface Account {
+        void update(Txn tx, long amount, Object transfer);
+    }
+
+    class RefPerFieldAccount implements Account {
+        private final GammaTxnLong[] longs = new GammaTxnLong[fieldCount + 1];
+        private final GammaTxnRef<Object> lastTransfer = new GammaTxnRef<Object>(stm);
+
+        RefPerFieldAccount() {
+            for (int k = 0; k < longs.length; k++) {
+                longs[k] = new GammaTxnLong(stm);
+            }
+        }
+
+        @Override
+        public void update(Txn tx, long amount, Object transfer) {
+            for (GammaTxnLong field : longs) {
+                field.increment(tx, amount);
+            }
+            lastTransfer.set(tx, transfer);
+        }
+    }
+
+    class RecordAccount implements Account {
+        private final GammaTxnRecord record = new GammaTxnRecord(stm, fieldCount + 1, 1);
+
+        @Override
+        public void update(Txn tx, long amount, Object transfer) {
+            for (int k = 0; k <= fieldCount; k++) {
+                record.incrementLongField(tx, k, amount);
+            }
+            record.setRefField(tx, 0, transfer);
+        }
+    }
+
+    class TransferThread extends TestThread {
+        private final int id;
+
+        public TransferThread(int id) {
+            super("TransferThread-" + id);
+            this.id = id;
+        }
+
+        @Override
+        public void doRun() {
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .newTxnExecutor();
+
+            final Account[] pair = new Account[2];
+            final Integer transfer = id;
+            final TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    pair[0].update(tx, -1, transfer);
+                    pair[1].update(tx, 1, transfer);
+                }
+            };
+
+            final Random random = new Random();
+            for (long k = 0; k < transactionsPerThread; k++) {
+                pair[0] = accounts[random.nextInt(accounts.length)];
+                pair[1] = accounts[random.nextInt(accounts.length)];
+                executor.execute(callable);
+            }
+        }
+    }
+}
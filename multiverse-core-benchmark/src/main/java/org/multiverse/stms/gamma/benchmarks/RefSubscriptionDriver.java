@@ -0,0 +1,149 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Flow;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.TxnRefPublisher;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for subscriptions on ref value changes using the {@link TxnRefPublisher}. A large number of
+ * subscribers is spread over the refs, and the update threads increment random refs. Because values are coalesced,
+ * the number of deliveries can be lower than the number of commits times the subscribers per ref.
+ */
+public class RefSubscriptionDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long transactionsPerThread = 1000 * 1000;
+    private int refCount = 10 * 1000;
+    private int subscriberCount = 100 * 1000;
+    private int deliveryThreadCount = Runtime.getRuntime().availableProcessors();
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private ExecutorService executor;
+    private AtomicLong deliveries;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Subscriber count %s\n", subscriberCount);
+        System.out.printf("Multiverse > Delivery thread count %s\n", deliveryThreadCount);
+
+        stm = new GammaStm();
+        executor = Executors.newFixedThreadPool(deliveryThreadCount);
+        deliveries = new AtomicLong();
+        refs = new GammaTxnLong[refCount];
+        TxnRefPublisher<Long>[] publishers = new TxnRefPublisher[refCount];
+        for (int k = 0; k < refCount; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            publishers[k] = TxnRefPublisher.newPublisher(refs[k], executor);
+        }
+
+        for (int k = 0; k < subscriberCount; k++) {
+            publishers[k % refCount].subscribe(new CountingSubscriber());
+        }
+
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        System.out.printf("Multiverse > Deliveries %s\n", deliveries.get());
+
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("deliveries", deliveries.get());
+    }
+
+    class CountingSubscriber implements Flow.Subscriber<Long> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(Long item) {
+            deliveries.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            throwable.printStackTrace();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    class UpdateThread extends TestThread {
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _transactionsPerThread = transactionsPerThread;
+            final Random random = new Random(getName().hashCode());
+
+            TxnExecutor txnExecutor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .newTxnExecutor();
+
+            final GammaTxnLong[] ref = new GammaTxnLong[1];
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref[0].increment(tx);
+                }
+            };
+
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                ref[0] = refs[random.nextInt(refs.length)];
+                txnExecutor.execute(callable);
+            }
+        }
+    }
+}
@@ -25,8 +25,10 @@ public class SimpleStackDriver extends BenchmarkDriver {
     private LockMode readLockMode = LockMode.None;
     private LockMode writeLockMode = LockMode.None;
     private boolean dirtyCheck = false;
+    private boolean flatCombining = false;
 
     private GammaStm stm;
+    private TxnExecutor flatCombiningBlock;
     private PopThread[] popThreads;
     private PushThread[] pushThreads;
     private Stack<String> stack;
@@ -43,8 +45,15 @@ public class SimpleStackDriver extends BenchmarkDriver {
         System.out.printf("Multiverse > Pool Callables %s\n", poolCallables);
         System.out.printf("Multiverse > LockLevel %s\n", readLockMode);
         System.out.printf("Multiverse > DirtyCheck %s\n", dirtyCheck);
+        System.out.printf("Multiverse > FlatCombining %s\n", flatCombining);
 
         stm = new GammaStm();
+        //a single executor is shared by all threads, so that pushes and pops are combined in the same batches.
+        flatCombiningBlock = stm.newTxnFactoryBuilder()
+                .setDirtyCheckEnabled(dirtyCheck)
+                .setReadLockMode(readLockMode)
+                .setWriteLockMode(writeLockMode)
+                .newFlatCombiningTxnExecutor();
         stack = new Stack<String>();
 
         pushThreads = new PushThread[pushThreadCount];
@@ -95,7 +104,7 @@ public class SimpleStackDriver extends BenchmarkDriver {
     class PushThread extends TestThread {
         private final Stack<String> stack;
         private long count;
-        private final TxnExecutor pushBlock = stm.newTxnFactoryBuilder()
+        private final TxnExecutor pushBlock = flatCombining ? flatCombiningBlock : stm.newTxnFactoryBuilder()
                 .setDirtyCheckEnabled(dirtyCheck)
                 .setReadLockMode(readLockMode)
                 .setWriteLockMode(writeLockMode)
@@ -167,7 +176,7 @@ public class SimpleStackDriver extends BenchmarkDriver {
 
         private final Stack<String> stack;
         private long count;
-        private final TxnExecutor popBlock = stm.newTxnFactoryBuilder()
+        private final TxnExecutor popBlock = flatCombining ? flatCombiningBlock : stm.newTxnFactoryBuilder()
                 .setDirtyCheckEnabled(dirtyCheck)
                 .setReadLockMode(readLockMode)
                 .setWriteLockMode(writeLockMode)
@@ -0,0 +1,126 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.collections.NaiveTxnLinkedList;
+import org.multiverse.stms.gamma.GammaStm;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for a {@link NaiveTxnLinkedList} with many blocked consumers. A single producer puts items one by one,
+ * and every consumer takes items using {@link NaiveTxnLinkedList#take(Txn)}. The executions per take show how many
+ * consumers were woken up for nothing; a take only needs to wake up a single consumer.
+ */
+public class TakeHeavyQueueDriver extends BenchmarkDriver {
+
+    private int consumerCount = 100;
+    private long itemsPerConsumer = 10 * 1000;
+    private GammaStm stm;
+    private NaiveTxnLinkedList<Long> queue;
+    private ProducerThread producer;
+    private ConsumerThread[] consumers;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Consumer count %s\n", consumerCount);
+        System.out.printf("Multiverse > Items per consumer %s\n", itemsPerConsumer);
+
+        stm = new GammaStm();
+        queue = new NaiveTxnLinkedList<Long>(stm);
+        producer = new ProducerThread();
+        consumers = new ConsumerThread[consumerCount];
+        for (int k = 0; k < consumers.length; k++) {
+            consumers[k] = new ConsumerThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(consumers);
+        startAll(producer);
+        joinAll(producer);
+        joinAll(consumers);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long executions = 0;
+        for (ConsumerThread consumer : consumers) {
+            executions += consumer.executions;
+        }
+
+        long takes = consumerCount * itemsPerConsumer;
+        double takesPerSecond = (1000d * takes) / producer.getDurationMs();
+        double executionsPerTake = (double) executions / takes;
+        System.out.printf("Multiverse > Performance %s takes/second with %s consumers\n",
+                format(takesPerSecond), consumerCount);
+        System.out.printf("Multiverse > Executions per take %s\n", format(executionsPerTake));
+
+        testCaseResult.put("takesPerSecond", takesPerSecond);
+        testCaseResult.put("executionsPerTake", executionsPerTake);
+    }
+
+    class ProducerThread extends TestThread {
+        public ProducerThread() {
+            super("ProducerThread");
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setFat()
+                    .setSpeculative(false)
+                    .newTxnExecutor();
+
+            final long puts = consumerCount * itemsPerConsumer;
+            for (long k = 0; k < puts; k++) {
+                final Long item = k;
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        queue.put(tx, item);
+                    }
+                });
+            }
+        }
+    }
+
+    class ConsumerThread extends TestThread {
+        private long executions;
+
+        public ConsumerThread(int id) {
+            super("ConsumerThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _itemsPerConsumer = itemsPerConsumer;
+
+            //every wakeup that doesn't find an item counts as a retry.
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setFat()
+                    .setSpeculative(false)
+                    .setMaxRetries(Integer.MAX_VALUE)
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    executions++;
+                    queue.take(tx);
+                }
+            };
+
+            for (long k = 0; k < _itemsPerConsumer; k++) {
+                executor.execute(callable);
+            }
+        }
+    }
+}
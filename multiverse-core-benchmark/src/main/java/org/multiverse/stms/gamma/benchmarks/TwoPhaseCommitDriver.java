@@ -0,0 +1,124 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.commitbarriers.DecisionLog;
+import org.multiverse.commitbarriers.TwoPhaseCommitCoordinator;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the latency of a two phase commit over a number of independent stm instances. Every transaction
+ * updates a ref in each participating stm and is committed using the {@link TwoPhaseCommitCoordinator}.
+ */
+public class TwoPhaseCommitDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private int participantCount = 2;
+    private long transactionsPerThread = 100 * 1000;
+    private int logSlotCount = 1024;
+    private GammaStm[] stms;
+    private GammaTxnFactory[] txnFactories;
+    private File logFile;
+    private DecisionLog log;
+    private TwoPhaseCommitCoordinator coordinator;
+    private CommitThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Participant count %s\n", participantCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+
+        stms = new GammaStm[participantCount];
+        txnFactories = new GammaTxnFactory[participantCount];
+        for (int k = 0; k < participantCount; k++) {
+            stms[k] = new GammaStm();
+            txnFactories[k] = stms[k].newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .newTransactionFactory();
+        }
+
+        try {
+            logFile = File.createTempFile("decisionlog", ".log");
+            log = new DecisionLog(logFile, logSlotCount);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        coordinator = new TwoPhaseCommitCoordinator(log);
+
+        threads = new CommitThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new CommitThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (CommitThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+        }
+
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double latencyUs = (1000.0d * totalDurationMs) / (transactionsPerThread * threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        System.out.printf("Multiverse > Latency %s us per commit over %s stms\n",
+                format(latencyUs), participantCount);
+        System.out.printf("Multiverse > Log forces %s\n", log.getForceCount());
+
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("latencyUs", latencyUs);
+        testCaseResult.put("logForces", log.getForceCount());
+
+        try {
+            log.close();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        logFile.delete();
+    }
+
+    class CommitThread extends TestThread {
+        private final GammaTxnLong[] refs = new GammaTxnLong[participantCount];
+        private final GammaTxn[] txs = new GammaTxn[participantCount];
+
+        public CommitThread(int id) {
+            super("CommitThread-" + id);
+            for (int k = 0; k < participantCount; k++) {
+                refs[k] = new GammaTxnLong(stms[k]);
+                txs[k] = txnFactories[k].newTxn();
+            }
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final long _transactionsPerThread = transactionsPerThread;
+            for (long k = 0; k < _transactionsPerThread; k++) {
+                for (int i = 0; i < txs.length; i++) {
+                    txs[i].hardReset();
+                    refs[i].increment(txs[i]);
+                }
+                coordinator.commit(txs);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.IsolationLevel;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for the isolation levels that prevent the writeskew problem: {@link IsolationLevel#Serializable}
+ * and {@link IsolationLevel#SerializableSnapshot}.
+ * <p/>
+ * Every customer has 2 accounts and the sum of both accounts is not allowed to become negative. A withdrawal reads
+ * both accounts of a customer and withdraws from one of them (or deposits if the balance is too low), so 2
+ * concurrent withdrawals from the same customer are prone to writeskew. Next to that every withdrawal reads a
+ * number of shared refs (e.g. exchange rates) that are updated now and then, so the transactions are read heavy.
+ * <p/>
+ * At the end the invariant is verified, and the number of aborts is counted by counting how often the withdrawal
+ * closure is called.
+ */
+public class WriteSkewDriver extends BenchmarkDriver {
+
+    private int threadCount = 1;
+    private long transactionsPerThread = 1000 * 1000;
+    private int customerCount = 100;
+    private int sharedReadCount = 10;
+    private int sharedUpdatePercentage = 1;
+    private boolean serializableSnapshot = true;
+    private GammaStm stm;
+    private GammaTxnLong[] accounts;
+    private GammaTxnLong[] shared;
+    private WithdrawThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Customer count %s\n", customerCount);
+        System.out.printf("Multiverse > Shared read count %s\n", sharedReadCount);
+        System.out.printf("Multiverse > Shared update percentage %s\n", sharedUpdatePercentage);
+        System.out.printf("Multiverse > Isolation level %s\n", getIsolationLevel());
+
+        stm = new GammaStm();
+        accounts = new GammaTxnLong[customerCount * 2];
+        for (int k = 0; k < accounts.length; k++) {
+            accounts[k] = new GammaTxnLong(stm, 1000);
+        }
+        shared = new GammaTxnLong[sharedReadCount];
+        for (int k = 0; k < shared.length; k++) {
+            shared[k] = new GammaTxnLong(stm, 1);
+        }
+
+        threads = new WithdrawThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new WithdrawThread(k);
+        }
+    }
+
+    private IsolationLevel getIsolationLevel() {
+        return serializableSnapshot ? IsolationLevel.SerializableSnapshot : IsolationLevel.Serializable;
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        for (int k = 0; k < customerCount; k++) {
+            final long sum = accounts[2 * k].atomicGet() + accounts[2 * k + 1].atomicGet();
+            if (sum < 0) {
+                throw new IllegalStateException("writeskew detected for customer " + k + ", sum " + sum);
+            }
+        }
+
+        long totalDurationMs = 0;
+        long attempts = 0;
+        for (WithdrawThread t : threads) {
+            totalDurationMs += t.getDurationMs();
+            attempts += t.callable.attempts;
+        }
+
+        final long commits = transactionsPerThread * threadCount;
+        final long aborts = attempts - commits;
+        final double abortsPerCommit = ((double) aborts) / commits;
+        final double transactionsPerSecond = (1000d * commits * threadCount) / Math.max(1, totalDurationMs);
+
+        System.out.printf("Multiverse > Commits %s, aborts %s (%s aborts/commit)\n",
+                commits, aborts, format(abortsPerCommit));
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("commits", commits);
+        testCaseResult.put("aborts", aborts);
+        testCaseResult.put("abortsPerCommit", abortsPerCommit);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class WithdrawThread extends TestThread {
+        private final WithdrawCallable callable = new WithdrawCallable();
+
+        public WithdrawThread(int id) {
+            super("WithdrawThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final Random random = new Random();
+            final TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setIsolationLevel(getIsolationLevel())
+                    .setSpeculative(false)
+                    .setMaxRetries(100000)
+                    .newTxnExecutor();
+
+            for (long k = 0; k < transactionsPerThread; k++) {
+                callable.customer = random.nextInt(customerCount);
+                callable.fromFirst = random.nextBoolean();
+                callable.updateShared = random.nextInt(100) < sharedUpdatePercentage;
+                executor.execute(callable);
+            }
+        }
+    }
+
+    class WithdrawCallable implements TxnVoidCallable {
+        int customer;
+        boolean fromFirst;
+        boolean updateShared;
+        long attempts;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            attempts++;
+
+            long rate = 0;
+            for (GammaTxnLong ref : shared) {
+                rate += ref.get(tx);
+            }
+
+            final GammaTxnLong account1 = accounts[2 * customer];
+            final GammaTxnLong account2 = accounts[2 * customer + 1];
+            final GammaTxnLong account = fromFirst ? account1 : account2;
+            if (account1.get(tx) + account2.get(tx) >= rate) {
+                account.decrement(tx, rate);
+            } else {
+                account.increment(tx, 1000);
+            }
+
+            if (updateShared) {
+                shared[customer % shared.length].increment(tx);
+            }
+        }
+    }
+}
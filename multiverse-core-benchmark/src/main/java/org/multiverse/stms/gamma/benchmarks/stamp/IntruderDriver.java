@@ -0,0 +1,234 @@
+package org.multiverse.stms.gamma.benchmarks.stamp;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnQueue;
+import org.multiverse.api.references.TxnRef;
+import org.multiverse.api.references.TxnRefFactory;
+import org.multiverse.collections.NaiveTxnLinkedList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A port of the STAMP intruder application: signature based network intrusion detection.
+ * <p/>
+ * The flows are split up in fragments that arrive in random order. Every worker repeatedly:
+ * <ol>
+ * <li>captures a fragment from the shared packet stream (a transaction).</li>
+ * <li>reassembles the flow of the fragment; when all fragments of a flow are received, the flow is placed on the
+ * decoded queue (a transaction).</li>
+ * <li>takes a decoded flow from the decoded queue (a transaction), and scans it for the attack signature outside of
+ * a transaction.</li>
+ * </ol>
+ * The contention is controlled by the number of flows and the number of fragments per flow. The STAMP
+ * configurations are 2048 flows of at most 4 fragments for low contention, and 1024 flows of at most 128 fragments
+ * for high contention.
+ */
+public class IntruderDriver extends StampDriver {
+
+    private static final String SIGNATURE = "ATTACK";
+    private static final int FRAGMENT_LENGTH = 8;
+
+    private int threadCount = 1;
+    private int flowCount = 2048;
+    private int maxFragmentCount = 4;
+    private int attackPercentage = 10;
+
+    private int attackCount;
+    private TxnQueue<Fragment> packets;
+    private TxnRef<FlowState>[] flows;
+    private TxnQueue<String> decoded;
+    private final AtomicInteger decodedCount = new AtomicInteger();
+    private final AtomicInteger detectedCount = new AtomicInteger();
+
+    @Override
+    protected int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setUpApplication() {
+        System.out.printf("Multiverse > Flow count %s\n", flowCount);
+        System.out.printf("Multiverse > Max fragment count %s\n", maxFragmentCount);
+        System.out.printf("Multiverse > Attack percentage %s\n", attackPercentage);
+
+        final TxnRefFactory refFactory = stm.getDefaultRefFactory();
+        final Random random = new Random();
+
+        final List<Fragment> fragments = new ArrayList<Fragment>();
+        flows = new TxnRef[flowCount];
+        attackCount = 0;
+        for (int flowId = 0; flowId < flowCount; flowId++) {
+            final int fragmentCount = random.nextInt(maxFragmentCount) + 1;
+            final char[] data = new char[fragmentCount * FRAGMENT_LENGTH];
+            for (int k = 0; k < data.length; k++) {
+                //lower case only, so the signature can't appear by accident.
+                data[k] = (char) ('a' + random.nextInt(26));
+            }
+
+            if (random.nextInt(100) < attackPercentage && data.length >= SIGNATURE.length()) {
+                final int offset = random.nextInt(data.length - SIGNATURE.length() + 1);
+                SIGNATURE.getChars(0, SIGNATURE.length(), data, offset);
+                attackCount++;
+            }
+
+            for (int k = 0; k < fragmentCount; k++) {
+                fragments.add(new Fragment(flowId, k, fragmentCount,
+                        new String(data, k * FRAGMENT_LENGTH, FRAGMENT_LENGTH)));
+            }
+
+            flows[flowId] = refFactory.newTxnRef(null);
+        }
+        Collections.shuffle(fragments, random);
+
+        packets = new NaiveTxnLinkedList<Fragment>(stm);
+        decoded = new NaiveTxnLinkedList<String>(stm);
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (Fragment fragment : fragments) {
+                    packets.offer(tx, fragment);
+                }
+            }
+        });
+
+        decodedCount.set(0);
+        detectedCount.set(0);
+    }
+
+    @Override
+    protected void doWork(StampDriver.Worker worker) throws Exception {
+        final CaptureTask capture = new CaptureTask();
+        final ReassembleTask reassemble = new ReassembleTask();
+        final GetDecodedTask getDecoded = new GetDecodedTask();
+
+        while (true) {
+            worker.execute(capture);
+            if (capture.fragment == null) {
+                break;
+            }
+
+            reassemble.fragment = capture.fragment;
+            worker.execute(reassemble);
+
+            worker.execute(getDecoded);
+            detect(getDecoded.flow);
+        }
+
+        //flows completed by other workers after their last capture.
+        do {
+            worker.execute(getDecoded);
+            detect(getDecoded.flow);
+        } while (getDecoded.flow != null);
+    }
+
+    private void detect(String flow) {
+        if (flow == null) {
+            return;
+        }
+
+        decodedCount.incrementAndGet();
+        if (flow.contains(SIGNATURE)) {
+            detectedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    protected void verify() {
+        if (decodedCount.get() != flowCount) {
+            throw new IllegalStateException(
+                    "expected " + flowCount + " flows to be decoded, but found " + decodedCount.get());
+        }
+
+        if (detectedCount.get() != attackCount) {
+            throw new IllegalStateException(
+                    "expected " + attackCount + " attacks to be detected, but found " + detectedCount.get());
+        }
+    }
+
+    class CaptureTask implements TxnVoidCallable {
+        Fragment fragment;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            fragment = packets.poll(tx);
+        }
+    }
+
+    class ReassembleTask implements TxnVoidCallable {
+        Fragment fragment;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            final TxnRef<FlowState> ref = flows[fragment.flowId];
+            FlowState state = ref.get(tx);
+            if (state == null) {
+                state = new FlowState(fragment.count);
+            }
+
+            state = state.add(fragment);
+            if (state.received < fragment.count) {
+                ref.set(tx, state);
+                return;
+            }
+
+            ref.set(tx, null);
+            final StringBuilder sb = new StringBuilder();
+            for (Fragment f : state.fragments) {
+                sb.append(f.data);
+            }
+            decoded.offer(tx, sb.toString());
+        }
+    }
+
+    class GetDecodedTask implements TxnVoidCallable {
+        String flow;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            flow = decoded.poll(tx);
+        }
+    }
+
+    static class Fragment {
+        final int flowId;
+        final int index;
+        final int count;
+        final String data;
+
+        Fragment(int flowId, int index, int count, String data) {
+            this.flowId = flowId;
+            this.index = index;
+            this.count = count;
+            this.data = data;
+        }
+    }
+
+    /**
+     * The fragments of a flow received so far. Immutable, so it can be placed in a TxnRef.
+     */
+    static class FlowState {
+        final Fragment[] fragments;
+        final int received;
+
+        FlowState(int count) {
+            this(new Fragment[count], 0);
+        }
+
+        FlowState(Fragment[] fragments, int received) {
+            this.fragments = fragments;
+            this.received = received;
+        }
+
+        FlowState add(Fragment fragment) {
+            final Fragment[] copy = fragments.clone();
+            copy[fragment.index] = fragment;
+            return new FlowState(copy, received + 1);
+        }
+    }
+}
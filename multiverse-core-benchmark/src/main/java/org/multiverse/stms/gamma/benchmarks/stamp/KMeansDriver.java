@@ -0,0 +1,165 @@
+package org.multiverse.stms.gamma.benchmarks.stamp;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.references.TxnDouble;
+import org.multiverse.api.references.TxnInteger;
+import org.multiverse.api.references.TxnRefFactory;
+
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+
+/**
+ * A port of the STAMP kmeans application: K-means clustering.
+ * <p/>
+ * Every iteration the points are divided over the workers. A worker determines the nearest center of a point, which
+ * doesn't need a transaction since the centers only change between iterations, and then adds the point to the
+ * accumulator of the new center of that cluster in a short transaction. The contention is controlled by the number
+ * of clusters: the STAMP configurations are 40 clusters for low contention and 15 clusters for high contention.
+ */
+public class KMeansDriver extends StampDriver {
+
+    private int threadCount = 1;
+    private int pointCount = 65536;
+    private int dimensionCount = 32;
+    private int clusterCount = 40;
+    private int iterationCount = 10;
+
+    private double[][] points;
+    private double[][] centers;
+    private TxnInteger[] newCenterSizes;
+    private TxnDouble[][] newCenters;
+    private CyclicBarrier barrier;
+
+    @Override
+    protected int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    protected void setUpApplication() {
+        System.out.printf("Multiverse > Point count %s\n", pointCount);
+        System.out.printf("Multiverse > Dimension count %s\n", dimensionCount);
+        System.out.printf("Multiverse > Cluster count %s\n", clusterCount);
+        System.out.printf("Multiverse > Iteration count %s\n", iterationCount);
+
+        final TxnRefFactory refFactory = stm.getDefaultRefFactory();
+        final Random random = new Random();
+
+        points = new double[pointCount][dimensionCount];
+        for (double[] point : points) {
+            for (int d = 0; d < dimensionCount; d++) {
+                point[d] = random.nextDouble();
+            }
+        }
+
+        //the initial centers are the first points, just like STAMP does.
+        centers = new double[clusterCount][];
+        for (int c = 0; c < clusterCount; c++) {
+            centers[c] = points[c].clone();
+        }
+
+        newCenterSizes = new TxnInteger[clusterCount];
+        newCenters = new TxnDouble[clusterCount][dimensionCount];
+        for (int c = 0; c < clusterCount; c++) {
+            newCenterSizes[c] = refFactory.newTxnInteger(0);
+            for (int d = 0; d < dimensionCount; d++) {
+                newCenters[c][d] = refFactory.newTxnDouble(0);
+            }
+        }
+
+        barrier = new CyclicBarrier(threadCount, new Runnable() {
+            @Override
+            public void run() {
+                recalculateCenters();
+            }
+        });
+    }
+
+    @Override
+    protected void doWork(StampDriver.Worker worker) throws Exception {
+        final int from = firstItem(worker.id, pointCount);
+        final int to = firstItem(worker.id + 1, pointCount);
+        final AddPointTask addPoint = new AddPointTask();
+
+        for (int iteration = 0; iteration < iterationCount; iteration++) {
+            for (int k = from; k < to; k++) {
+                addPoint.point = points[k];
+                addPoint.cluster = nearestCenter(points[k]);
+                worker.execute(addPoint);
+            }
+
+            barrier.await();
+        }
+    }
+
+    private int nearestCenter(double[] point) {
+        int nearest = 0;
+        double minDistance = Double.MAX_VALUE;
+        for (int c = 0; c < clusterCount; c++) {
+            final double[] center = centers[c];
+            double distance = 0;
+            for (int d = 0; d < dimensionCount; d++) {
+                final double delta = point[d] - center[d];
+                distance += delta * delta;
+            }
+
+            if (distance < minDistance) {
+                minDistance = distance;
+                nearest = c;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Called by the last worker arriving at the barrier, so no other worker is running. Also checks that every
+     * point was added exactly once.
+     */
+    private void recalculateCenters() {
+        int total = 0;
+        for (int c = 0; c < clusterCount; c++) {
+            final int size = newCenterSizes[c].atomicGet();
+            total += size;
+            if (size > 0) {
+                for (int d = 0; d < dimensionCount; d++) {
+                    centers[c][d] = newCenters[c][d].atomicGet() / size;
+                }
+            }
+
+            newCenterSizes[c].atomicSet(0);
+            for (int d = 0; d < dimensionCount; d++) {
+                newCenters[c][d].atomicSet(0);
+            }
+        }
+
+        if (total != pointCount) {
+            throw new IllegalStateException("expected " + pointCount + " points to be added, but found " + total);
+        }
+    }
+
+    @Override
+    protected void verify() {
+        for (double[] center : centers) {
+            for (double value : center) {
+                if (value < 0 || value > 1) {
+                    throw new IllegalStateException("center out of range: " + value);
+                }
+            }
+        }
+    }
+
+    class AddPointTask implements TxnVoidCallable {
+        double[] point;
+        int cluster;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            newCenterSizes[cluster].increment(tx);
+            final TxnDouble[] newCenter = newCenters[cluster];
+            for (int d = 0; d < dimensionCount; d++) {
+                newCenter[d].getAndIncrement(tx, point[d]);
+            }
+        }
+    }
+}
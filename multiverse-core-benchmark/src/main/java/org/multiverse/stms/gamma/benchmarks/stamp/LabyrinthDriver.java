@@ -0,0 +1,252 @@
+package org.multiverse.stms.gamma.benchmarks.stamp;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnQueue;
+import org.multiverse.api.references.TxnInteger;
+import org.multiverse.api.references.TxnRefFactory;
+import org.multiverse.collections.NaiveTxnLinkedList;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A port of the STAMP labyrinth application: routing paths through a three dimensional maze using Lee's algorithm.
+ * <p/>
+ * Every worker takes a pair of points from the shared work queue (a transaction). It then makes a private copy of the
+ * grid without tracking the reads, just like the STAMP version does, and does a breadth first expansion on the copy
+ * to find the shortest path. Finally the cells of the path are claimed in a transaction; if one of the cells was
+ * claimed by another path in the meantime, the path is routed again using a fresh copy of the grid.
+ * <p/>
+ * The contention is controlled by the size of the grid and the number of paths. The STAMP configurations are a
+ * 32x32x3 grid with 96 paths, and a 512x512x7 grid with 512 paths.
+ */
+public class LabyrinthDriver extends StampDriver {
+
+    private static final int EMPTY = 0;
+
+    private int threadCount = 1;
+    private int width = 32;
+    private int height = 32;
+    private int depth = 3;
+    private int pathCount = 96;
+
+    private int cellCount;
+    private TxnInteger[] grid;
+    private TxnQueue<int[]> work;
+    private AtomicIntegerArray pathLengths;
+    private final AtomicInteger routedCount = new AtomicInteger();
+    private final AtomicInteger reroutedCount = new AtomicInteger();
+
+    @Override
+    protected int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    protected void setUpApplication() {
+        System.out.printf("Multiverse > Grid %sx%sx%s\n", width, height, depth);
+        System.out.printf("Multiverse > Path count %s\n", pathCount);
+
+        final TxnRefFactory refFactory = stm.getDefaultRefFactory();
+        final Random random = new Random();
+
+        cellCount = width * height * depth;
+        grid = new TxnInteger[cellCount];
+        for (int k = 0; k < cellCount; k++) {
+            grid[k] = refFactory.newTxnInteger(EMPTY);
+        }
+
+        //every endpoint is used once, so two paths never need the same endpoint.
+        final boolean[] used = new boolean[cellCount];
+        final int[][] pairs = new int[pathCount][];
+        for (int k = 0; k < pathCount; k++) {
+            pairs[k] = new int[]{k + 1, randomFreeCell(random, used), randomFreeCell(random, used)};
+        }
+
+        work = new NaiveTxnLinkedList<int[]>(stm);
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int[] pair : pairs) {
+                    work.offer(tx, pair);
+                }
+            }
+        });
+
+        pathLengths = new AtomicIntegerArray(pathCount + 1);
+        routedCount.set(0);
+        reroutedCount.set(0);
+    }
+
+    private int randomFreeCell(Random random, boolean[] used) {
+        while (true) {
+            final int cell = random.nextInt(cellCount);
+            if (!used[cell]) {
+                used[cell] = true;
+                return cell;
+            }
+        }
+    }
+
+    @Override
+    protected void doWork(StampDriver.Worker worker) throws Exception {
+        final GetWorkTask getWork = new GetWorkTask();
+        final ClaimTask claim = new ClaimTask();
+        final int[] copy = new int[cellCount];
+        final int[] distances = new int[cellCount];
+        final int[] frontier = new int[cellCount];
+
+        while (true) {
+            worker.execute(getWork);
+            final int[] pair = getWork.pair;
+            if (pair == null) {
+                return;
+            }
+
+            while (true) {
+                for (int k = 0; k < cellCount; k++) {
+                    copy[k] = grid[k].atomicWeakGet();
+                }
+
+                final int[] path = findPath(copy, distances, frontier, pair[1], pair[2]);
+                if (path == null) {
+                    break;
+                }
+
+                claim.pathId = pair[0];
+                claim.path = path;
+                worker.execute(claim);
+                if (claim.claimed) {
+                    pathLengths.set(pair[0], path.length);
+                    routedCount.incrementAndGet();
+                    break;
+                }
+
+                reroutedCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Does a breadth first expansion from the source over the empty cells of the grid, and traces the shortest path
+     * back from the destination.
+     *
+     * @return the cells of the path, or null if the destination can't be reached.
+     */
+    private int[] findPath(int[] copy, int[] distances, int[] frontier, int src, int dst) {
+        if (copy[src] != EMPTY || copy[dst] != EMPTY) {
+            return null;
+        }
+
+        Arrays.fill(distances, -1);
+        distances[src] = 0;
+        frontier[0] = src;
+        int head = 0;
+        int tail = 1;
+        while (head < tail && distances[dst] == -1) {
+            final int cell = frontier[head++];
+            for (int direction = 0; direction < 6; direction++) {
+                final int neighbour = neighbour(cell, direction);
+                if (neighbour != -1 && copy[neighbour] == EMPTY && distances[neighbour] == -1) {
+                    distances[neighbour] = distances[cell] + 1;
+                    frontier[tail++] = neighbour;
+                }
+            }
+        }
+
+        if (distances[dst] == -1) {
+            return null;
+        }
+
+        final int[] path = new int[distances[dst] + 1];
+        int cell = dst;
+        for (int k = path.length - 1; k >= 0; k--) {
+            path[k] = cell;
+            for (int direction = 0; direction < 6 && k > 0; direction++) {
+                final int neighbour = neighbour(cell, direction);
+                if (neighbour != -1 && distances[neighbour] == k - 1) {
+                    cell = neighbour;
+                    break;
+                }
+            }
+        }
+        return path;
+    }
+
+    private int neighbour(int cell, int direction) {
+        final int x = cell % width;
+        final int y = (cell / width) % height;
+        final int z = cell / (width * height);
+        switch (direction) {
+            case 0:
+                return x > 0 ? cell - 1 : -1;
+            case 1:
+                return x < width - 1 ? cell + 1 : -1;
+            case 2:
+                return y > 0 ? cell - width : -1;
+            case 3:
+                return y < height - 1 ? cell + width : -1;
+            case 4:
+                return z > 0 ? cell - width * height : -1;
+            case 5:
+                return z < depth - 1 ? cell + width * height : -1;
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    @Override
+    protected void verify() {
+        System.out.printf("Multiverse > Routed %s of %s paths, %s reroutes\n",
+                routedCount.get(), pathCount, reroutedCount.get());
+
+        final int[] cells = new int[pathCount + 1];
+        for (TxnInteger cell : grid) {
+            final int pathId = cell.atomicGet();
+            if (pathId != EMPTY) {
+                cells[pathId]++;
+            }
+        }
+
+        for (int pathId = 1; pathId <= pathCount; pathId++) {
+            if (cells[pathId] != pathLengths.get(pathId)) {
+                throw new IllegalStateException("path " + pathId + " has " + cells[pathId]
+                        + " cells, but a length of " + pathLengths.get(pathId));
+            }
+        }
+    }
+
+    class GetWorkTask implements TxnVoidCallable {
+        int[] pair;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            pair = work.poll(tx);
+        }
+    }
+
+    class ClaimTask implements TxnVoidCallable {
+        int pathId;
+        int[] path;
+        boolean claimed;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            claimed = false;
+            for (int cell : path) {
+                if (grid[cell].get(tx) != EMPTY) {
+                    //claimed by another path after the grid was copied, so the path needs to be routed again.
+                    return;
+                }
+            }
+
+            for (int cell : path) {
+                grid[cell].set(tx, pathId);
+            }
+            claimed = true;
+        }
+    }
+}
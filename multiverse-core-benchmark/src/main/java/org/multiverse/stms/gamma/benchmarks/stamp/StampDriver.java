@@ -0,0 +1,149 @@
+package org.multiverse.stms.gamma.benchmarks.stamp;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * The base of the ports of the STAMP applications. A STAMP application does a fixed amount of work that is divided
+ * over the threads, so the result is the time needed to do the work, together with the number of commits and the
+ * number of aborts needed for it.
+ * <p/>
+ * The aborts are counted by counting how often the transactional closures are called; every call that didn't lead to
+ * a commit was aborted (because of a conflict, a speculative failure or a retry). This doesn't need a TxnListener,
+ * which would force the use of fat transactions.
+ * <p/>
+ * When the work is done, the application verifies that the end state is consistent, so a broken STM doesn't go
+ * unnoticed as a fast one.
+ */
+public abstract class StampDriver extends BenchmarkDriver {
+
+    protected GammaStm stm;
+    private Worker[] workers;
+    private long durationMs;
+
+    @Override
+    public final void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", getThreadCount());
+
+        stm = new GammaStm();
+        setUpApplication();
+
+        workers = new Worker[getThreadCount()];
+        for (int k = 0; k < workers.length; k++) {
+            workers[k] = new Worker(k);
+        }
+    }
+
+    @Override
+    public final void run(TestCaseResult testCaseResult) {
+        final long startMs = System.currentTimeMillis();
+        startAll(workers);
+        joinAll(workers);
+        durationMs = System.currentTimeMillis() - startMs;
+    }
+
+    @Override
+    public final void processResults(TestCaseResult testCaseResult) {
+        verify();
+
+        long commits = 0;
+        long attempts = 0;
+        for (Worker worker : workers) {
+            commits += worker.commits;
+            attempts += worker.attempts;
+        }
+        final long aborts = attempts - commits;
+        final double transactionsPerSecond = (1000d * commits) / Math.max(1, durationMs);
+        final double abortsPerCommit = commits == 0 ? 0 : ((double) aborts) / commits;
+
+        System.out.printf("Multiverse > Duration %s ms with %s threads\n", durationMs, getThreadCount());
+        System.out.printf("Multiverse > Commits %s, aborts %s (%s aborts/commit)\n",
+                commits, aborts, format(abortsPerCommit));
+        System.out.printf("Multiverse > Performance %s transactions/second\n", format(transactionsPerSecond));
+
+        testCaseResult.put("durationMs", durationMs);
+        testCaseResult.put("commits", commits);
+        testCaseResult.put("aborts", aborts);
+        testCaseResult.put("abortsPerCommit", abortsPerCommit);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    protected abstract int getThreadCount();
+
+    /**
+     * Creates the initial state of the application. Called before the workers are created.
+     */
+    protected abstract void setUpApplication();
+
+    /**
+     * Does the part of the work of a single worker.
+     *
+     * @param worker the worker.
+     * @throws Exception if something fails.
+     */
+    protected abstract void doWork(Worker worker) throws Exception;
+
+    /**
+     * Verifies the end state of the application.
+     *
+     * @throws IllegalStateException if the end state is not consistent.
+     */
+    protected abstract void verify();
+
+    /**
+     * Divides count items over the workers, and returns the first item of the given worker. The last item of the
+     * worker is the first item of the next worker.
+     */
+    protected final int firstItem(int workerId, int count) {
+        return (int) (((long) count * workerId) / getThreadCount());
+    }
+
+    public final class Worker extends TestThread {
+        public final int id;
+        private final TxnExecutor executor;
+        private final CountingCallable countingCallable = new CountingCallable();
+        private long attempts;
+        private long commits;
+
+        Worker(int id) {
+            super("StampWorker-" + id);
+            this.id = id;
+            this.executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+        }
+
+        /**
+         * Executes the callable in its own transaction, counting the attempts needed to commit it.
+         *
+         * @param callable the callable to execute.
+         */
+        public void execute(TxnVoidCallable callable) {
+            countingCallable.callable = callable;
+            executor.execute(countingCallable);
+            commits++;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            doWork(this);
+        }
+
+        private final class CountingCallable implements TxnVoidCallable {
+            private TxnVoidCallable callable;
+
+            @Override
+            public void call(Txn tx) throws Exception {
+                attempts++;
+                callable.call(tx);
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.multiverse.stms.gamma.benchmarks.stamp;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnIterator;
+import org.multiverse.api.collections.TxnList;
+import org.multiverse.api.references.TxnInteger;
+import org.multiverse.api.references.TxnRef;
+import org.multiverse.api.references.TxnRefFactory;
+import org.multiverse.collections.NaiveTxnLinkedList;
+
+import java.util.Random;
+
+/**
+ * A port of the STAMP vacation application: a travel reservation system.
+ * <p/>
+ * There are three tables (cars, flights and rooms) with a number of relations each, and a table with customers. The
+ * clients execute a mix of tasks:
+ * <ol>
+ * <li>make a reservation: query a number of relations and reserve the most expensive one of every type.</li>
+ * <li>delete a customer: calculate the bill of the customer and cancel all reservations.</li>
+ * <li>update the tables: add or remove capacity of a number of relations and change their price.</li>
+ * </ol>
+ * The contention is controlled by the queryPercentage, the percentage of the relations that is used by the tasks,
+ * and the number of queries per task. The STAMP configurations are: low contention, 2 queries on 90% of the
+ * relations and 98% user tasks; high contention, 4 queries on 60% of the relations and 90% user tasks.
+ */
+public class VacationDriver extends StampDriver {
+
+    private static final int TYPE_CAR = 0;
+    private static final int TYPE_FLIGHT = 1;
+    private static final int TYPE_ROOM = 2;
+
+    private int threadCount = 1;
+    private int relationCount = 16384;
+    private int taskCount = 256 * 1024;
+    private int queryCount = 2;
+    private int queryPercentage = 90;
+    private int userPercentage = 98;
+
+    private int queryRange;
+    private Relation[][] tables;
+    private TxnRef<Customer>[] customers;
+
+    @Override
+    protected int getThreadCount() {
+        return threadCount;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setUpApplication() {
+        System.out.printf("Multiverse > Relation count %s\n", relationCount);
+        System.out.printf("Multiverse > Task count %s\n", taskCount);
+        System.out.printf("Multiverse > Query count %s\n", queryCount);
+        System.out.printf("Multiverse > Query percentage %s\n", queryPercentage);
+        System.out.printf("Multiverse > User percentage %s\n", userPercentage);
+
+        final TxnRefFactory refFactory = stm.getDefaultRefFactory();
+        final Random random = new Random();
+
+        queryRange = Math.max(1, (int) ((queryPercentage / 100d) * relationCount));
+        tables = new Relation[3][relationCount];
+        for (Relation[] table : tables) {
+            for (int k = 0; k < relationCount; k++) {
+                final int capacity = (random.nextInt(5) + 1) * 100;
+                table[k] = new Relation(refFactory, capacity, (random.nextInt(5) * 10) + 50);
+            }
+        }
+
+        customers = new TxnRef[relationCount];
+        for (int k = 0; k < relationCount; k++) {
+            customers[k] = refFactory.newTxnRef(new Customer(k));
+        }
+    }
+
+    @Override
+    protected void doWork(StampDriver.Worker worker) throws Exception {
+        final Random random = new Random();
+        final int from = firstItem(worker.id, taskCount);
+        final int to = firstItem(worker.id + 1, taskCount);
+
+        final MakeReservationTask makeReservation = new MakeReservationTask();
+        final DeleteCustomerTask deleteCustomer = new DeleteCustomerTask();
+        final UpdateTablesTask updateTables = new UpdateTablesTask();
+
+        for (int k = from; k < to; k++) {
+            final int r = random.nextInt(100);
+            if (r < userPercentage) {
+                for (int q = 0; q < queryCount; q++) {
+                    makeReservation.types[q] = random.nextInt(3);
+                    makeReservation.ids[q] = random.nextInt(queryRange);
+                }
+                makeReservation.customerId = random.nextInt(queryRange);
+                worker.execute(makeReservation);
+            } else if ((r & 1) == 1) {
+                deleteCustomer.customerId = random.nextInt(queryRange);
+                worker.execute(deleteCustomer);
+            } else {
+                for (int q = 0; q < queryCount; q++) {
+                    updateTables.types[q] = random.nextInt(3);
+                    updateTables.ids[q] = random.nextInt(queryRange);
+                    updateTables.add[q] = random.nextBoolean();
+                    updateTables.prices[q] = (random.nextInt(5) * 10) + 50;
+                }
+                worker.execute(updateTables);
+            }
+        }
+    }
+
+    @Override
+    protected void verify() {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                final int[][] reserved = new int[3][relationCount];
+                for (TxnRef<Customer> ref : customers) {
+                    final Customer customer = ref.get(tx);
+                    if (customer == null) {
+                        continue;
+                    }
+
+                    final TxnIterator<Reservation> it = customer.reservations.iterator(tx);
+                    while (it.hasNext(tx)) {
+                        final Reservation reservation = it.next(tx);
+                        reserved[reservation.type][reservation.id]++;
+                    }
+                }
+
+                for (int type = 0; type < 3; type++) {
+                    for (int id = 0; id < relationCount; id++) {
+                        final Relation relation = tables[type][id];
+                        final int used = relation.used.get(tx);
+                        if (used != reserved[type][id]) {
+                            throw new IllegalStateException("relation " + type + "/" + id + " has " + used
+                                    + " used, but " + reserved[type][id] + " reservations were found");
+                        }
+
+                        if (used + relation.free.get(tx) != relation.total.get(tx)) {
+                            throw new IllegalStateException("relation " + type + "/" + id + " is inconsistent");
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    class MakeReservationTask implements TxnVoidCallable {
+        final int[] types = new int[queryCount];
+        final int[] ids = new int[queryCount];
+        int customerId;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            final int[] maxPrices = new int[]{-1, -1, -1};
+            final int[] maxIds = new int[]{-1, -1, -1};
+
+            for (int q = 0; q < queryCount; q++) {
+                final int type = types[q];
+                final Relation relation = tables[type][ids[q]];
+                if (relation.free.get(tx) > 0) {
+                    final int price = relation.price.get(tx);
+                    if (price > maxPrices[type]) {
+                        maxPrices[type] = price;
+                        maxIds[type] = ids[q];
+                    }
+                }
+            }
+
+            if (maxIds[TYPE_CAR] == -1 && maxIds[TYPE_FLIGHT] == -1 && maxIds[TYPE_ROOM] == -1) {
+                return;
+            }
+
+            final TxnRef<Customer> ref = customers[customerId];
+            Customer customer = ref.get(tx);
+            if (customer == null) {
+                customer = new Customer(customerId);
+                ref.set(tx, customer);
+            }
+
+            for (int type = TYPE_CAR; type <= TYPE_ROOM; type++) {
+                final int id = maxIds[type];
+                if (id == -1) {
+                    continue;
+                }
+
+                final Relation relation = tables[type][id];
+                relation.free.decrement(tx);
+                relation.used.increment(tx);
+                customer.reservations.add(tx, new Reservation(type, id, maxPrices[type]));
+            }
+        }
+    }
+
+    class DeleteCustomerTask implements TxnVoidCallable {
+        int customerId;
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            final TxnRef<Customer> ref = customers[customerId];
+            final Customer customer = ref.get(tx);
+            if (customer == null) {
+                return;
+            }
+
+            long bill = 0;
+            final TxnIterator<Reservation> it = customer.reservations.iterator(tx);
+            while (it.hasNext(tx)) {
+                final Reservation reservation = it.next(tx);
+                final Relation relation = tables[reservation.type][reservation.id];
+                relation.used.decrement(tx);
+                relation.free.increment(tx);
+                bill += reservation.price;
+            }
+
+            if (bill < 0) {
+                throw new IllegalStateException();
+            }
+
+            //clearing the reservations makes a concurrent reservation for this customer conflict.
+            customer.reservations.clear(tx);
+            ref.set(tx, null);
+        }
+    }
+
+    class UpdateTablesTask implements TxnVoidCallable {
+        final int[] types = new int[queryCount];
+        final int[] ids = new int[queryCount];
+        final boolean[] add = new boolean[queryCount];
+        final int[] prices = new int[queryCount];
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            for (int q = 0; q < queryCount; q++) {
+                final Relation relation = tables[types[q]][ids[q]];
+                if (add[q]) {
+                    relation.total.increment(tx, 100);
+                    relation.free.increment(tx, 100);
+                    relation.price.set(tx, prices[q]);
+                } else if (relation.free.get(tx) >= 100) {
+                    relation.total.decrement(tx, 100);
+                    relation.free.decrement(tx, 100);
+                }
+            }
+        }
+    }
+
+    static class Relation {
+        final TxnInteger total;
+        final TxnInteger used;
+        final TxnInteger free;
+        final TxnInteger price;
+
+        Relation(TxnRefFactory refFactory, int capacity, int price) {
+            this.total = refFactory.newTxnInteger(capacity);
+            this.used = refFactory.newTxnInteger(0);
+            this.free = refFactory.newTxnInteger(capacity);
+            this.price = refFactory.newTxnInteger(price);
+        }
+    }
+
+    class Customer {
+        final int id;
+        final TxnList<Reservation> reservations = new NaiveTxnLinkedList<Reservation>(stm);
+
+        Customer(int id) {
+            this.id = id;
+        }
+    }
+
+    static class Reservation {
+        final int type;
+        final int id;
+        final int price;
+
+        Reservation(int type, int id, int price) {
+            this.type = type;
+            this.id = id;
+            this.price = price;
+        }
+    }
+}
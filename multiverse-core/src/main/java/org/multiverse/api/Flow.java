@@ -0,0 +1,84 @@
+package org.multiverse.api;
+
+/**
+ * Interfaces for push based subscriptions with back pressure. They have the same shape and contract as the
+ * Flow interfaces introduced in Java 9 (and the Reactive Streams interfaces), so that an adapter is trivial. They
+ * are defined here since Multiverse still runs on Java 6.
+ *
+ * @author Peter Veentjer.
+ */
+public final class Flow {
+
+    /**
+     * A producer of items that are received by Subscribers.
+     *
+     * @param <T> the type of the items.
+     */
+    public interface Publisher<T> {
+
+        /**
+         * Adds the Subscriber. The {@link Subscriber#onSubscribe(Subscription)} is called with the new Subscription
+         * before any item is delivered.
+         *
+         * @param subscriber the Subscriber
+         * @throws NullPointerException if subscriber is null.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * A receiver of items.
+     *
+     * @param <T> the type of the items.
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called before any other method of the Subscriber is called for the Subscription.
+         *
+         * @param subscription the Subscription.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called with the next item. Is only called when there is outstanding demand.
+         *
+         * @param item the item.
+         */
+        void onNext(T item);
+
+        /**
+         * Called when the Subscription failed. No other method is called after this.
+         *
+         * @param throwable the cause of the failure.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Called when no more items are going to be delivered.
+         */
+        void onComplete();
+    }
+
+    /**
+     * The link between a Publisher and a Subscriber.
+     */
+    public interface Subscription {
+
+        /**
+         * Adds n to the number of items the Subscriber is willing to receive.
+         *
+         * @param n the additional demand. If n is not positive, the Subscriber receives an onError with an
+         *          IllegalArgumentException.
+         */
+        void request(long n);
+
+        /**
+         * Stops the delivery of items. Items could still be delivered for a short time after this call.
+         */
+        void cancel();
+    }
+
+    private Flow() {
+    }
+}
@@ -112,7 +112,24 @@ public enum IsolationLevel {
      * isolation level where no isolation anomalies are allowed to happen. So the writeSkew problem is not allowed to
      * happen.
      */
-    Serializable(false, false, false);
+    Serializable(false, false, false),
+
+    /**
+     * Provides the same guarantees as the {@link #Serializable} isolation level, but is implemented on top of
+     * {@link #Snapshot} (Serializable Snapshot Isolation) instead of by read locking.
+     * <p/>
+     * With the Serializable isolation level every read of an update transaction is read locked when the transaction
+     * prepares, so the transaction pays for a lock (and an unlock) per read and it prevents other transactions from
+     * writing what it read while it is committing. With SerializableSnapshot nothing that is read gets locked. After
+     * the writes are locked, the transaction checks that nothing it read has been overwritten by a transaction that
+     * committed in the meantime (an rw-antidependency to a committed transaction) or is about to be overwritten by a
+     * transaction that is committing; only in that case the transaction is aborted. Because every update transaction
+     * does this check while holding its write locks, of 2 transactions that both read what the other writes, at
+     * least one is aborted.
+     * <p/>
+     * A readonly transaction doesn't do this check since it already sees a consistent snapshot.
+     */
+    SerializableSnapshot(false, false, false);
 
     private final boolean allowWriteSkew;
     private final boolean allowUnrepeatableRead;
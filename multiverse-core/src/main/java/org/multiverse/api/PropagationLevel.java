@@ -20,6 +20,9 @@ public enum PropagationLevel {
     /**
      * Indicates that a new transaction will be used if none exists. If one exists, the logic will lift on that
      * transaction. This is the default propagation level.
+     *
+     * <p>The nested logic is flattened into the existing transaction; it is not rolled back on its own. So a
+     * conflict or an exception in the nested logic fails the complete transaction.
      */
     Requires,
 
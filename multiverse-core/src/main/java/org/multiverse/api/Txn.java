@@ -175,6 +175,29 @@ public interface Txn {
      */
     boolean isAbortOnly();
 
+    /**
+     * Releases the read of a {@link TxnObject} before the transaction completes (early release). A released read is
+     * no longer tracked, so a change made by another transaction on that object doesn't cause a read conflict, and
+     * a {@link #retry()} doesn't wait for a change on it.
+     *
+     * <p>This is meant for the traversal of linked structures: the nodes that are passed, often aren't needed for
+     * the correctness of the result. Releasing a read that does matter, breaks the isolation of the transaction.
+     * The transactional collections only release the nodes they traverse if the transaction is elastic, see
+     * {@link TxnFactoryBuilder#setElastic(boolean)}.
+     *
+     * <p>The release is a hint; nothing happens if the object is not read by this transaction, if it is written,
+     * locked or ensured, or if the transaction can't release reads (e.g. a lean transaction or a transaction
+     * inside a nested block).
+     *
+     * <p>This method is not threadsafe, so can only be called by the thread that used the transaction.
+     *
+     * @param object the TxnObject to release.
+     * @throws NullPointerException if object is null. If the transaction is still alive, it is aborted.
+     * @throws org.multiverse.api.exceptions.IllegalTxnStateException
+     *                              if the transaction is not active.
+     */
+    void release(TxnObject object);
+
     /**
      * Registers a TxnListener. Every time a transaction is retried, the listener needs to
      * be registered again if you want the task to be executed again. If you want a permanent listener, have
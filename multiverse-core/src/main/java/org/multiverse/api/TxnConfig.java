@@ -144,6 +144,50 @@ public interface TxnConfig {
      */
     boolean isDirtyCheckEnabled();
 
+    /**
+     * Checks if the pessimistic locks are acquired in a global order during the prepare instead of
+     * when the transactional objects are encountered.
+     *
+     * @return true if ordered locking is enabled.
+     * @see TxnFactoryBuilder#setOrderedLockingEnabled(boolean)
+     */
+    boolean isOrderedLockingEnabled();
+
+    /**
+     * Checks if the transaction is irrevocable. An irrevocable transaction never aborts because of a conflict.
+     *
+     * @return true if the transaction is irrevocable.
+     * @see TxnFactoryBuilder#setIrrevocable(boolean)
+     */
+    boolean isIrrevocable();
+
+    /**
+     * Checks if the transaction is elastic. An elastic transaction lets the transactional collections release the
+     * reads of the nodes they traverse.
+     *
+     * @return true if the transaction is elastic.
+     * @see TxnFactoryBuilder#setElastic(boolean)
+     */
+    boolean isElastic();
+
+    /**
+     * Checks if the transaction does invisible reads. With invisible reads a read doesn't register itself on the
+     * transactional object, but is validated using the version only.
+     *
+     * @return true if the transaction does invisible reads.
+     * @see TxnFactoryBuilder#setInvisibleReadsEnabled(boolean)
+     */
+    boolean isInvisibleReadsEnabled();
+
+    /**
+     * Checks if read/write-conflicts detected while reading are deferred until the transaction ends, instead of
+     * being thrown immediately.
+     *
+     * @return true if conflicts are deferred.
+     * @see TxnFactoryBuilder#setDeferredConflictsEnabled(boolean)
+     */
+    boolean isDeferredConflictsEnabled();
+
     /**
      * Checks if this transaction does automatic read tracking. Read tracking is needed for blocking transactions,
      * but also for writeskew detection. Disadvantage of read tracking is that it is more expensive because
@@ -2,6 +2,7 @@ package org.multiverse.api;
 
 import org.multiverse.*;
 import org.multiverse.api.callables.*;
+import java.util.List;
 import java.util.concurrent.Callable;
 
 /**
@@ -236,4 +237,27 @@ public interface TxnExecutor extends MultiverseConstants{
     */
      void executeChecked(TxnVoidCallable callable)throws Exception;
 
+   /**
+    * Executes a batch of independent callables in as few transactions as possible, so that the cost of the commit
+    * is amortized over all of them. The callables are executed in the order of the list.
+    *
+    * <p>All callables are first executed in a single transaction. If that transaction fails because of a conflict
+    * or a retry, the batch is split in two halves that are executed independently (and split again if needed). A
+    * single callable is executed just like with {@link #execute(org.multiverse.api.callables.TxnVoidCallable)}, so
+    * it is retried on conflicts and it blocks on a retry.
+    *
+    * <p>The exceptions thrown by the callables are not propagated, but are returned, so the other callables in the
+    * batch are not affected by a failing callable. Every callable is executed within a savepoint, so the changes
+    * of a failing callable are rolled back. Checked exceptions are returned as is. Errors, other than the
+    * {@link org.multiverse.api.exceptions.ControlFlowError}s used by the STM itself, are propagated.
+    *
+    * <p>If there already is an alive transaction, the callables are executed one by one using
+    * {@link #execute(org.multiverse.api.callables.TxnVoidCallable)}, and the changes of a failing callable are
+    * rolled back to the savepoint taken before it, so they are not committed with the outer transaction.
+    *
+    * @param callables the callables to execute.
+    * @return an array with for every callable the exception it has thrown, or null if it was committed.
+    * @throws NullPointerException if callables is null or contains a null element.
+    */
+    Throwable[] executeBatch(List<? extends TxnVoidCallable> callables);
 }
@@ -165,6 +165,100 @@ public interface TxnFactoryBuilder {
      */
     TxnFactoryBuilder setDirtyCheckEnabled(boolean dirtyCheckEnabled);
 
+    /**
+     * Sets if the {@link Txn} acquires its pessimistic locks in a global order. Normally the locks required by the
+     * read/write {@link LockMode} are acquired in the order the transactional objects are encountered, and two
+     * transactions that encounter the same objects in a different order can block each other until the spinCount
+     * is exceeded and one of them retries. If ordered locking is enabled, the locks are acquired all at once
+     * during the prepare, sorted on the identity of the transactional objects, so this cycle can't happen. The
+     * price is that the reads/writes are not protected by the lock before the transaction prepares.
+     *
+     * <p>This setting is only useful in combination with a read or write LockMode that is not {@link LockMode#None}.
+     *
+     * @param orderedLockingEnabled true if the locks should be acquired in a global order, false otherwise.
+     * @return the updated TxnFactoryBuilder.
+     * @see TxnConfig#isOrderedLockingEnabled()
+     */
+    TxnFactoryBuilder setOrderedLockingEnabled(boolean orderedLockingEnabled);
+
+    /**
+     * Sets if the {@link Txn} is irrevocable. An irrevocable transaction never aborts because of a conflict, so
+     * it is executed only once and can safely do non undoable actions like IO. There can be at most 1 irrevocable
+     * transaction active at any moment; other irrevocable transactions wait till it completes.
+     *
+     * <p>An irrevocable transaction acquires an exclusive lock on everything it reads or writes (so the read/write
+     * {@link LockMode} is ignored) and waits for a lock instead of failing if it is already locked. Transactions
+     * that are not irrevocable are not affected, apart from not being able to lock what the irrevocable transaction
+     * has locked.
+     *
+     * <p>An irrevocable transaction still aborts if it is explicitly aborted, if an exception is thrown from the
+     * transactional closure or when it does a blocking {@link Txn#retry()}, so it should avoid those if the
+     * non undoable actions already have been executed.
+     *
+     * @param irrevocable true if the transaction should be irrevocable.
+     * @return the updated TxnFactoryBuilder.
+     * @see TxnConfig#isIrrevocable()
+     */
+    TxnFactoryBuilder setIrrevocable(boolean irrevocable);
+
+    /**
+     * Sets if the {@link Txn} is elastic. In an elastic transaction the transactional collections release the
+     * reads of the nodes they pass while traversing (see {@link Txn#release(TxnObject)}), so a change on an earlier
+     * node, e.g. a concurrent insert, doesn't cause a conflict. Only the nodes around the position found are kept.
+     *
+     * <p>The consequence is that a traversal is no longer isolated as a whole: e.g. a contains that doesn't find an
+     * item can miss one that is inserted concurrently in the part that already is traversed. The result is still the
+     * result of a traversal of a valid state of the structure. Operations whose result depends on all the nodes
+     * passed (e.g. an indexOf, which depends on the number of nodes before the found one) don't release them.
+     *
+     * @param elastic true if the transaction should be elastic.
+     * @return the updated TxnFactoryBuilder.
+     * @see TxnConfig#isElastic()
+     */
+    TxnFactoryBuilder setElastic(boolean elastic);
+
+    /**
+     * Sets if the {@link Txn} does invisible reads. Normally a transaction that reads a lot of transactional objects
+     * registers every read on the transactional object (and deregisters it when it commits or aborts), so that an
+     * updating transaction can signal a conflict and the reading transaction only needs to check all its reads again
+     * when such a conflict has happened. This costs 2 writes to shared memory per read, and on transactional objects
+     * that are read by a lot of threads this causes a lot of contention.
+     *
+     * <p>With invisible reads the reads are not registered; every time a transactional object is read, the
+     * transaction checks the versions of all its reads instead. So a readonly transaction doesn't write to shared
+     * memory at all, but the cost of a read grows with the number of reads done, so it is meant for transactions
+     * with a small number of reads on heavily read transactional objects. Locks are acquired as usual.
+     *
+     * @param invisibleReadsEnabled true if the transaction should do invisible reads.
+     * @return the updated TxnFactoryBuilder.
+     * @see TxnConfig#isInvisibleReadsEnabled()
+     */
+    TxnFactoryBuilder setInvisibleReadsEnabled(boolean invisibleReadsEnabled);
+
+    /**
+     * Sets if read/write-conflicts that are detected while reading are deferred. Normally when a {@link Txn} detects
+     * that its reads are not consistent anymore, it aborts and throws a ReadWriteConflict through the code of the
+     * user, which is caught by the {@link TxnExecutor} that retries the transaction. Under high contention a lot of
+     * transactions abort, and the throwing and unwinding of all these exceptions costs a lot of cpu.
+     *
+     * <p>With deferred conflicts the transaction doesn't throw, but marks itself as doomed and stops checking the
+     * consistency of its reads. The TxnExecutor detects the doomed transaction when the callable returns and retries
+     * it without an exception being thrown, and a commit of a doomed transaction always fails. An exception thrown by
+     * the callable of a doomed transaction is also treated as a conflict, since it could be caused by the inconsistent
+     * reads. Conflicts that can't be deferred, like failing to acquire a lock, are still thrown.
+     *
+     * <p>The price is that the callable can see inconsistent data until it returns. To bound the work done on
+     * inconsistent data, a doomed transaction only gets a limited number of opens (16 by default for the GammaStm);
+     * the next open throws the deferred ReadWriteConflict. And a doomed transaction executes the rest of the callable
+     * instead of stopping at the conflict, so when the control flow errors are reused (see
+     * {@link #setControlFlowErrorsReused(boolean)}) and throwing is cheap, it doesn't need to be faster.
+     *
+     * @param deferredConflictsEnabled true if conflicts should be deferred.
+     * @return the updated TxnFactoryBuilder.
+     * @see TxnConfig#isDeferredConflictsEnabled()
+     */
+    TxnFactoryBuilder setDeferredConflictsEnabled(boolean deferredConflictsEnabled);
+
     /**
      * Sets the maximum number of spins that are allowed when a {@link Txn} can't be read/written/locked
      * because it is locked by another transaction.
@@ -0,0 +1,137 @@
+package org.multiverse.api.collections;
+
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+
+/**
+ * A transactional cache: a bounded map that evicts entries when it runs out of room.
+ * <p/>
+ * The bound can be expressed as a maximum number of entries, or as a maximum total weight where the weight of
+ * every entry is determined by a {@link Weigher}. Entries that are not accessed recently are evicted first.
+ * <p/>
+ * A cache hit doesn't modify any transactional state, so a hit doesn't cause conflicts with other transactions and
+ * a readonly transaction remains readonly. The consequence is that the recency information is not transactional: if
+ * the transaction doing a hit aborts, the entry still is considered recently used.
+ * <p/>
+ * Null keys and null values are not allowed.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ * @author Peter Veentjer.
+ */
+public interface TxnCache<K, V> {
+
+    /**
+     * Determines the weight of an entry in a weight bound {@link TxnCache}.
+     *
+     * @param <K> the type of the key
+     * @param <V> the type of the value
+     */
+    interface Weigher<K, V> {
+
+        /**
+         * Returns the weight of an entry. The weight of an entry should not change while it is in the cache.
+         *
+         * @param key   the key of the entry.
+         * @param value the value of the entry.
+         * @return the weight, should be 0 or larger.
+         */
+        long weigh(K key, V value);
+    }
+
+    /**
+     * Returns the STM this TxnCache belongs to.
+     *
+     * @return the STM this TxnCache belongs to.
+     */
+    Stm getStm();
+
+    /**
+     * Returns the maximum total weight of the entries in this cache. For a cache that is bound on the number of
+     * entries, this is the maximum number of entries.
+     *
+     * @return the maximum weight.
+     */
+    long getMaximumWeight();
+
+    V get(K key);
+
+    /**
+     * Returns the value for the key, or null if the cache doesn't contain the key.
+     *
+     * @param txn the transaction used for this operation.
+     * @param key the key.
+     * @return the value, or null if not found.
+     * @throws NullPointerException if key is null.
+     */
+    V get(Txn txn, K key);
+
+    V put(K key, V value);
+
+    /**
+     * Puts an entry in the cache, evicting as many of the least recently used entries as needed to stay within
+     * the maximum weight.
+     *
+     * @param txn   the transaction used for this operation.
+     * @param key   the key.
+     * @param value the value.
+     * @return the previous value for the key, or null if there was none.
+     * @throws NullPointerException     if key or value is null.
+     * @throws IllegalArgumentException if the weight of the entry is negative or exceeds the maximum weight.
+     */
+    V put(Txn txn, K key, V value);
+
+    V remove(K key);
+
+    /**
+     * Removes the entry for the key.
+     *
+     * @param txn the transaction used for this operation.
+     * @param key the key.
+     * @return the removed value, or null if the cache didn't contain the key.
+     * @throws NullPointerException if key is null.
+     */
+    V remove(Txn txn, K key);
+
+    boolean containsKey(K key);
+
+    /**
+     * Checks if the cache contains the key. In contrast to a {@link #get(Txn, Object)}, this doesn't mark the
+     * entry as recently used.
+     *
+     * @param txn the transaction used for this operation.
+     * @param key the key.
+     * @return true if the cache contains the key, false otherwise.
+     * @throws NullPointerException if key is null.
+     */
+    boolean containsKey(Txn txn, K key);
+
+    int size();
+
+    /**
+     * Returns the number of entries in this cache.
+     *
+     * @param txn the transaction used for this operation.
+     * @return the number of entries.
+     */
+    int size(Txn txn);
+
+    long getWeight();
+
+    /**
+     * Returns the total weight of the entries in this cache.
+     *
+     * @param txn the transaction used for this operation.
+     * @return the total weight.
+     */
+    long getWeight(Txn txn);
+
+    void clear();
+
+    /**
+     * Removes all entries from this cache.
+     *
+     * @param txn the transaction used for this operation.
+     */
+    void clear(Txn txn);
+}
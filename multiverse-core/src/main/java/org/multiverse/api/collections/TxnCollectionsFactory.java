@@ -2,6 +2,8 @@ package org.multiverse.api.collections;
 
 import org.multiverse.api.Stm;
 
+import java.util.Comparator;
+
 /**
  * A factory responsible for creating Transactional collections.
  *
@@ -23,9 +25,17 @@ public interface TxnCollectionsFactory {
 
     <E> TxnDeque<E> newDeque(int capacity);
 
+    <E extends Comparable<? super E>> TxnPriorityQueue<E> newPriorityQueue();
+
+    <E> TxnPriorityQueue<E> newPriorityQueue(Comparator<? super E> comparator);
+
     <E> TxnSet<E> newHashSet();
 
     <K, V> TxnMap<K, V> newHashMap();
 
     <E> TxnList<E> newLinkedList();
+
+    <K, V> TxnCache<K, V> newCache(int maxSize);
+
+    <K, V> TxnCache<K, V> newCache(long maxWeight, TxnCache.Weigher<? super K, ? super V> weigher);
 }
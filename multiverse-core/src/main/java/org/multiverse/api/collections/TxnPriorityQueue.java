@@ -0,0 +1,23 @@
+package org.multiverse.api.collections;
+
+import java.util.Comparator;
+
+/**
+ * A {@link TxnQueue} that orders its items on priority, either using their natural ordering or using a
+ * {@link Comparator}. The head of the queue is the least item; items with the same priority are taken in
+ * the order they were inserted.
+ * <p/>
+ * Just like the other queues, a take blocks (using a retry) as long as the queue is empty.
+ *
+ * @param <E>
+ * @author Peter Veentjer.
+ */
+public interface TxnPriorityQueue<E> extends TxnQueue<E> {
+
+    /**
+     * Returns the Comparator used to order the items, or null if the natural ordering is used.
+     *
+     * @return the Comparator.
+     */
+    Comparator<? super E> comparator();
+}
@@ -0,0 +1,412 @@
+package org.multiverse.collections;
+
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.collections.TxnCache;
+import org.multiverse.api.references.TxnInteger;
+import org.multiverse.api.references.TxnLong;
+import org.multiverse.api.references.TxnRef;
+import org.multiverse.api.references.TxnRefFactory;
+
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxn;
+
+/**
+ * A {@link TxnCache} that uses the CLOCK algorithm to approximate LRU eviction.
+ * <p/>
+ * All entries are placed on a circular list, the clock, and every entry has an access bit. A hit only sets the access
+ * bit of the entry; the access bit is a plain volatile field and not a transactional ref, and it only is written when
+ * it isn't set already. So hits don't write transactional state and don't conflict with each other. When room needs
+ * to be made, the hand of the clock sweeps over the entries: an entry with the access bit set gets a second chance
+ * and its access bit is cleared, the first entry without it is evicted. New entries are placed just before the hand,
+ * so they are the last ones the hand reaches.
+ * <p/>
+ * The entries are stored in a fixed number of buckets and every bucket is an immutable array in a TxnRef, so a lookup
+ * only reads the bucket of the key. Every modification writes the total weight, so modifications conflict with each
+ * other; this cache is meant for read mostly workloads.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ * @author Peter Veentjer.
+ */
+public final class NaiveTxnCache<K, V> implements TxnCache<K, V> {
+
+    public static final int DEFAULT_BUCKET_COUNT = 1024;
+
+    private static final int MAX_BUCKET_COUNT = 1 << 20;
+
+    private static final Weigher<Object, Object> SINGLETON_WEIGHER = new Weigher<Object, Object>() {
+        @Override
+        public long weigh(Object key, Object value) {
+            return 1;
+        }
+    };
+
+    private final Stm stm;
+    private final TxnRefFactory refFactory;
+    private final long maxWeight;
+    private final Weigher<? super K, ? super V> weigher;
+    private final TxnRef<Entry<K, V>[]>[] buckets;
+    private final TxnRef<Entry<K, V>> hand;
+    private final TxnLong weight;
+    private final TxnInteger size;
+
+    /**
+     * Creates a NaiveTxnCache that is bound on the number of entries.
+     *
+     * @param stm     the Stm the cache belongs to.
+     * @param maxSize the maximum number of entries.
+     * @throws NullPointerException     if stm is null.
+     * @throws IllegalArgumentException if maxSize is smaller than 1.
+     */
+    public NaiveTxnCache(Stm stm, int maxSize) {
+        this(stm, maxSize, SINGLETON_WEIGHER, maxSize);
+    }
+
+    /**
+     * Creates a NaiveTxnCache that is bound on the total weight of the entries, using {@link #DEFAULT_BUCKET_COUNT}
+     * buckets.
+     *
+     * @param stm       the Stm the cache belongs to.
+     * @param maxWeight the maximum total weight.
+     * @param weigher   the Weigher that determines the weight of an entry.
+     * @throws NullPointerException     if stm or weigher is null.
+     * @throws IllegalArgumentException if maxWeight is smaller than 1.
+     */
+    public NaiveTxnCache(Stm stm, long maxWeight, Weigher<? super K, ? super V> weigher) {
+        this(stm, maxWeight, weigher, DEFAULT_BUCKET_COUNT);
+    }
+
+    /**
+     * Creates a NaiveTxnCache that is bound on the total weight of the entries.
+     *
+     * @param stm          the Stm the cache belongs to.
+     * @param maxWeight    the maximum total weight.
+     * @param weigher      the Weigher that determines the weight of an entry.
+     * @param expectedSize the expected number of entries, used to determine the number of buckets.
+     * @throws NullPointerException     if stm or weigher is null.
+     * @throws IllegalArgumentException if maxWeight or expectedSize is smaller than 1.
+     */
+    @SuppressWarnings("unchecked")
+    public NaiveTxnCache(Stm stm, long maxWeight, Weigher<? super K, ? super V> weigher, int expectedSize) {
+        if (stm == null) {
+            throw new NullPointerException();
+        }
+
+        if (weigher == null) {
+            throw new NullPointerException();
+        }
+
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight can't be smaller than 1, maxWeight was " + maxWeight);
+        }
+
+        if (expectedSize < 1) {
+            throw new IllegalArgumentException(
+                    "expectedSize can't be smaller than 1, expectedSize was " + expectedSize);
+        }
+
+        this.stm = stm;
+        this.refFactory = stm.getDefaultRefFactory();
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+
+        int bucketCount = 1;
+        while (bucketCount < expectedSize && bucketCount < MAX_BUCKET_COUNT) {
+            bucketCount <<= 1;
+        }
+
+        final Entry<K, V>[] empty = new Entry[0];
+        this.buckets = new TxnRef[bucketCount];
+        for (int k = 0; k < bucketCount; k++) {
+            buckets[k] = refFactory.newTxnRef(empty);
+        }
+
+        this.hand = refFactory.newTxnRef(null);
+        this.weight = refFactory.newTxnLong(0);
+        this.size = refFactory.newTxnInteger(0);
+    }
+
+    @Override
+    public Stm getStm() {
+        return stm;
+    }
+
+    @Override
+    public long getMaximumWeight() {
+        return maxWeight;
+    }
+
+    @Override
+    public V get(K key) {
+        return get(getThreadLocalTxn(), key);
+    }
+
+    @Override
+    public V get(Txn txn, K key) {
+        final Entry<K, V> entry = find(txn, key);
+        if (entry == null) {
+            return null;
+        }
+
+        //only written when needed, so the cache line of the entry isn't invalidated on every hit.
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+
+        return entry.value;
+    }
+
+    @Override
+    public boolean containsKey(K key) {
+        return containsKey(getThreadLocalTxn(), key);
+    }
+
+    @Override
+    public boolean containsKey(Txn txn, K key) {
+        return find(txn, key) != null;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return put(getThreadLocalTxn(), key, value);
+    }
+
+    @Override
+    public V put(Txn txn, K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        if (value == null) {
+            throw new NullPointerException();
+        }
+
+        final long entryWeight = weigher.weigh(key, value);
+        if (entryWeight < 0) {
+            throw new IllegalArgumentException("weight can't be smaller than 0, weight was " + entryWeight);
+        }
+
+        if (entryWeight > maxWeight) {
+            throw new IllegalArgumentException(
+                    "weight can't be larger than maxWeight " + maxWeight + ", weight was " + entryWeight);
+        }
+
+        final int hash = hash(key);
+        final Entry<K, V> old = find(txn, key, hash);
+        if (old != null) {
+            removeEntry(txn, old);
+        }
+
+        evict(txn, entryWeight);
+
+        final Entry<K, V> entry = new Entry<K, V>(refFactory, key, hash, value, entryWeight);
+        addToBucket(txn, entry);
+        addToClock(txn, entry);
+        weight.set(txn, weight.get(txn) + entryWeight);
+        size.set(txn, size.get(txn) + 1);
+        return old == null ? null : old.value;
+    }
+
+    @Override
+    public V remove(K key) {
+        return remove(getThreadLocalTxn(), key);
+    }
+
+    @Override
+    public V remove(Txn txn, K key) {
+        final Entry<K, V> entry = find(txn, key);
+        if (entry == null) {
+            return null;
+        }
+
+        removeEntry(txn, entry);
+        return entry.value;
+    }
+
+    @Override
+    public int size() {
+        return size(getThreadLocalTxn());
+    }
+
+    @Override
+    public int size(Txn txn) {
+        return size.get(txn);
+    }
+
+    @Override
+    public long getWeight() {
+        return getWeight(getThreadLocalTxn());
+    }
+
+    @Override
+    public long getWeight(Txn txn) {
+        return weight.get(txn);
+    }
+
+    @Override
+    public void clear() {
+        clear(getThreadLocalTxn());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void clear(Txn txn) {
+        if (size.get(txn) == 0) {
+            return;
+        }
+
+        final Entry<K, V>[] empty = new Entry[0];
+        for (TxnRef<Entry<K, V>[]> bucket : buckets) {
+            if (bucket.get(txn).length > 0) {
+                bucket.set(txn, empty);
+            }
+        }
+
+        hand.set(txn, null);
+        weight.set(txn, 0);
+        size.set(txn, 0);
+    }
+
+    /**
+     * Makes room for an entry with the given weight. The sweep is bounded by the number of entries, so hits done
+     * concurrently can't keep the hand going round forever; if no victim is found, the entry under the hand is
+     * evicted.
+     */
+    private void evict(Txn txn, long entryWeight) {
+        Entry<K, V> current = hand.get(txn);
+        int secondChances = size.get(txn);
+        while (current != null && weight.get(txn) + entryWeight > maxWeight) {
+            if (current.referenced && secondChances > 0) {
+                current.referenced = false;
+                secondChances--;
+                current = current.next.get(txn);
+                continue;
+            }
+
+            hand.set(txn, current);
+            removeEntry(txn, current);
+            current = hand.get(txn);
+        }
+
+        if (current != null) {
+            hand.set(txn, current);
+        }
+    }
+
+    private void removeEntry(Txn txn, Entry<K, V> entry) {
+        removeFromBucket(txn, entry);
+        removeFromClock(txn, entry);
+        weight.set(txn, weight.get(txn) - entry.weight);
+        size.set(txn, size.get(txn) - 1);
+    }
+
+    private void addToClock(Txn txn, Entry<K, V> entry) {
+        final Entry<K, V> h = hand.get(txn);
+        if (h == null) {
+            entry.prev.set(txn, entry);
+            entry.next.set(txn, entry);
+            hand.set(txn, entry);
+            return;
+        }
+
+        final Entry<K, V> prev = h.prev.get(txn);
+        entry.prev.set(txn, prev);
+        entry.next.set(txn, h);
+        prev.next.set(txn, entry);
+        h.prev.set(txn, entry);
+    }
+
+    /**
+     * Removes the entry from the clock. The pointers of the removed entry are cleared, so a concurrent removal of a
+     * neighbour, which writes one of them, conflicts with this removal.
+     */
+    private void removeFromClock(Txn txn, Entry<K, V> entry) {
+        final Entry<K, V> prev = entry.prev.get(txn);
+        final Entry<K, V> next = entry.next.get(txn);
+        if (next == entry) {
+            hand.set(txn, null);
+        } else {
+            prev.next.set(txn, next);
+            next.prev.set(txn, prev);
+            if (hand.get(txn) == entry) {
+                hand.set(txn, next);
+            }
+        }
+
+        entry.prev.set(txn, null);
+        entry.next.set(txn, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addToBucket(Txn txn, Entry<K, V> entry) {
+        final TxnRef<Entry<K, V>[]> bucket = bucketFor(entry.hash);
+        final Entry<K, V>[] entries = bucket.get(txn);
+        final Entry<K, V>[] newEntries = new Entry[entries.length + 1];
+        System.arraycopy(entries, 0, newEntries, 0, entries.length);
+        newEntries[entries.length] = entry;
+        bucket.set(txn, newEntries);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeFromBucket(Txn txn, Entry<K, V> entry) {
+        final TxnRef<Entry<K, V>[]> bucket = bucketFor(entry.hash);
+        final Entry<K, V>[] entries = bucket.get(txn);
+        final Entry<K, V>[] newEntries = new Entry[entries.length - 1];
+        int index = 0;
+        for (Entry<K, V> e : entries) {
+            if (e != entry) {
+                newEntries[index] = e;
+                index++;
+            }
+        }
+        bucket.set(txn, newEntries);
+    }
+
+    private Entry<K, V> find(Txn txn, K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        return find(txn, key, hash(key));
+    }
+
+    private Entry<K, V> find(Txn txn, K key, int hash) {
+        for (Entry<K, V> entry : bucketFor(hash).get(txn)) {
+            if (entry.hash == hash && entry.key.equals(key)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private TxnRef<Entry<K, V>[]> bucketFor(int hash) {
+        return buckets[hash & (buckets.length - 1)];
+    }
+
+    private static int hash(Object key) {
+        //spreads the higher bits, since only the lower bits are used to select the bucket.
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        return h ^ (h >>> 7) ^ (h >>> 4);
+    }
+
+    static final class Entry<K, V> {
+        final K key;
+        final int hash;
+        final V value;
+        final long weight;
+        final TxnRef<Entry<K, V>> prev;
+        final TxnRef<Entry<K, V>> next;
+        volatile boolean referenced;
+
+        Entry(TxnRefFactory refFactory, K key, int hash, V value, long weight) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+            this.weight = weight;
+            this.prev = refFactory.newTxnRef(null);
+            this.next = refFactory.newTxnRef(null);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package org.multiverse.collections;
 import org.multiverse.api.Stm;
 import org.multiverse.api.collections.*;
 
+import java.util.Comparator;
+
 public final class NaiveTxnCollectionFactory implements TxnCollectionsFactory {
 
     private final Stm stm;
@@ -49,6 +51,16 @@ public final class NaiveTxnCollectionFactory implements TxnCollectionsFactory {
         return new NaiveTxnLinkedList<E>(stm, capacity);
     }
 
+    @Override
+    public <E extends Comparable<? super E>> NaiveTxnPriorityQueue<E> newPriorityQueue() {
+        return new NaiveTxnPriorityQueue<E>(stm);
+    }
+
+    @Override
+    public <E> NaiveTxnPriorityQueue<E> newPriorityQueue(Comparator<? super E> comparator) {
+        return new NaiveTxnPriorityQueue<E>(stm, comparator);
+    }
+
     @Override
     public <E> NaiveTxnHashSet<E> newHashSet() {
         return new NaiveTxnHashSet<E>(stm);
@@ -63,4 +75,14 @@ public final class NaiveTxnCollectionFactory implements TxnCollectionsFactory {
     public <E> NaiveTxnLinkedList<E> newLinkedList() {
         return new NaiveTxnLinkedList<E>(stm);
     }
+
+    @Override
+    public <K, V> NaiveTxnCache<K, V> newCache(int maxSize) {
+        return new NaiveTxnCache<K, V>(stm, maxSize);
+    }
+
+    @Override
+    public <K, V> NaiveTxnCache<K, V> newCache(long maxWeight, TxnCache.Weigher<? super K, ? super V> weigher) {
+        return new NaiveTxnCache<K, V>(stm, maxWeight, weigher);
+    }
 }
@@ -77,22 +77,46 @@ public final class NaiveTxnHashMap<K, V> extends AbstractTxnMap<K, V> {
         return entry == null ? null : entry.value.get(tnx);
     }
 
+    /**
+     * Finds the entry for the key. If the transaction is elastic, the reads of the links to the entries in the chain
+     * of the bucket that are passed are released. The link that leads to the found entry remains tracked, so a
+     * concurrent removal of the found entry still causes a conflict. The result of get and containsKey only depends
+     * on the found entry; the key and hash of an entry never change, so there are no other reads to release. The
+     * size isn't read either if the transaction is elastic, since every insert changes it.
+     *
+     * @param tnx the transaction used.
+     * @param key the key to look for.
+     * @return the found entry, or null if the key isn't found.
+     * @see org.multiverse.api.TxnFactoryBuilder#setElastic(boolean)
+     */
     private NaiveEntry<K, V> getEntry(Txn tnx, Object key) {
         if (key == null) {
             return null;
         }
 
-        if (size.get(tnx) == 0) {
+        final boolean elastic = tnx.getConfig().isElastic();
+        if (!elastic && size.get(tnx) == 0) {
             return null;
         }
 
         int hash = key.hashCode();
 
-        for (NaiveEntry<K, V> entry = table.get(tnx)[indexFor(hash, table.get(tnx).length)].get(tnx); entry != null; entry = entry.next.get(tnx)) {
+        final TxnRef<NaiveEntry>[] tab = table.get(tnx);
+        TxnRef<NaiveEntry<K, V>> link = (TxnRef) tab[indexFor(hash, tab.length)];
+        NaiveEntry<K, V> entry = link.get(tnx);
+        while (entry != null) {
             Object k;
             if (entry.hash == hash && ((k = entry.key) == key || key.equals(k))) {
                 return entry;
             }
+
+            final TxnRef<NaiveEntry<K, V>> nextLink = entry.next;
+            final NaiveEntry<K, V> next = nextLink.get(tnx);
+            if (elastic) {
+                tnx.release(link);
+            }
+            link = nextLink;
+            entry = next;
         }
         return null;
     }
@@ -0,0 +1,396 @@
+package org.multiverse.collections;
+
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.collections.TxnIterator;
+import org.multiverse.api.collections.TxnPriorityQueue;
+import org.multiverse.api.references.TxnBoolean;
+import org.multiverse.api.references.TxnInteger;
+import org.multiverse.api.references.TxnRef;
+import org.multiverse.api.references.TxnRefFactory;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxn;
+
+/**
+ * A {@link TxnPriorityQueue} based on a skip list.
+ * <p/>
+ * Every forward pointer of every node is a separate TxnRef, so an insert only writes the forward pointers of its
+ * direct predecessors. Concurrent inserts of different priorities end up in different places of the list and
+ * therefore rarely conflict, unlike a heap stored in a single ref where every operation conflicts. Only taking the
+ * head, and inserting a new head, touch the same refs.
+ * <p/>
+ * The size is maintained using a commuting increment, so it doesn't cause conflicts between modifications either;
+ * asking for the size does create a dependency on it.
+ *
+ * @param <E>
+ * @author Peter Veentjer.
+ */
+public final class NaiveTxnPriorityQueue<E> extends AbstractTxnCollection<E> implements TxnPriorityQueue<E> {
+
+    public static final int MAX_LEVEL = 24;
+
+    private static final ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue() {
+            return new Random();
+        }
+    };
+
+    private final Comparator<? super E> comparator;
+    private final Node<E> head;
+    private final TxnInteger size;
+
+    /**
+     * Creates a NaiveTxnPriorityQueue that uses the natural ordering of the items.
+     *
+     * @param stm the Stm the queue belongs to.
+     * @throws NullPointerException if stm is null.
+     */
+    public NaiveTxnPriorityQueue(Stm stm) {
+        this(stm, null);
+    }
+
+    /**
+     * Creates a NaiveTxnPriorityQueue.
+     *
+     * @param stm        the Stm the queue belongs to.
+     * @param comparator the Comparator used to order the items. If null, the natural ordering is used.
+     * @throws NullPointerException if stm is null.
+     */
+    public NaiveTxnPriorityQueue(Stm stm, Comparator<? super E> comparator) {
+        super(stm);
+        this.comparator = comparator;
+        this.head = new Node<E>(defaultRefFactory, null, MAX_LEVEL);
+        this.size = defaultRefFactory.newTxnInteger(0);
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public int getCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public int size(Txn txn) {
+        return size.get(txn);
+    }
+
+    @Override
+    public boolean isEmpty(Txn txn) {
+        return head.next[0].get(txn) == null;
+    }
+
+    /**
+     * Removes all items. Every node is marked as removed, just like a single remove does, so a concurrent offer
+     * that links its node after one of them (and ensures it still is linked) conflicts instead of being lost.
+     * This makes the clear linear in the number of items.
+     */
+    @Override
+    public void clear(Txn txn) {
+        Node<E> node = head.next[0].get(txn);
+        if (node == null) {
+            return;
+        }
+
+        while (node != null) {
+            node.removed.set(txn, true);
+            node = node.next[0].get(txn);
+        }
+
+        for (int level = 0; level < MAX_LEVEL; level++) {
+            head.next[level].set(txn, null);
+        }
+        size.set(txn, 0);
+    }
+
+    @Override
+    public boolean offer(E item) {
+        return offer(getThreadLocalTxn(), item);
+    }
+
+    @Override
+    public boolean offer(Txn txn, E item) {
+        if (item == null) {
+            throw new NullPointerException();
+        }
+
+        final int level = randomLevel();
+        final Node<E> node = new Node<E>(defaultRefFactory, item, level);
+
+        //walks from the top level down; items with the same priority are inserted after the existing ones.
+        Node<E> pred = head;
+        for (int k = MAX_LEVEL - 1; k >= 0; k--) {
+            Node<E> next = pred.next[k].get(txn);
+            while (next != null && compare(next.value, item) <= 0) {
+                pred = next;
+                next = pred.next[k].get(txn);
+            }
+
+            if (k < level) {
+                ensureLinked(txn, pred);
+                node.next[k].set(txn, next);
+                pred.next[k].set(txn, node);
+            }
+        }
+
+        size.increment(txn);
+        return true;
+    }
+
+    @Override
+    public boolean add(Txn txn, E item) {
+        return offer(txn, item);
+    }
+
+    @Override
+    public void put(E item) {
+        put(getThreadLocalTxn(), item);
+    }
+
+    @Override
+    public void put(Txn txn, E item) {
+        offer(txn, item);
+    }
+
+    @Override
+    public E take() {
+        return take(getThreadLocalTxn());
+    }
+
+    @Override
+    public E take(Txn txn) {
+        final E item = poll(txn);
+        if (item == null) {
+            txn.retry();
+        }
+
+        return item;
+    }
+
+    @Override
+    public E poll() {
+        return poll(getThreadLocalTxn());
+    }
+
+    @Override
+    public E poll(Txn txn) {
+        final Node<E> first = head.next[0].get(txn);
+        if (first == null) {
+            return null;
+        }
+
+        //the first node is the first node on all its levels.
+        for (int k = 0; k < first.next.length; k++) {
+            unlink(txn, head, first, k);
+        }
+        first.removed.set(txn, true);
+
+        size.decrement(txn);
+        return first.value;
+    }
+
+    @Override
+    public E remove() {
+        return remove(getThreadLocalTxn());
+    }
+
+    @Override
+    public E remove(Txn txn) {
+        final E item = poll(txn);
+        if (item == null) {
+            throw new NoSuchElementException();
+        }
+
+        return item;
+    }
+
+    @Override
+    public E peek() {
+        return peek(getThreadLocalTxn());
+    }
+
+    @Override
+    public E peek(Txn txn) {
+        final Node<E> first = head.next[0].get(txn);
+        return first == null ? null : first.value;
+    }
+
+    @Override
+    public E element() {
+        return element(getThreadLocalTxn());
+    }
+
+    @Override
+    public E element(Txn txn) {
+        final E item = peek(txn);
+        if (item == null) {
+            throw new NoSuchElementException();
+        }
+
+        return item;
+    }
+
+    @Override
+    public boolean contains(Txn txn, Object o) {
+        return find(txn, o) != null;
+    }
+
+    @Override
+    public boolean remove(Txn txn, Object o) {
+        final Node<E> node = find(txn, o);
+        if (node == null) {
+            return false;
+        }
+
+        for (int k = node.next.length - 1; k >= 0; k--) {
+            Node<E> pred = head;
+            Node<E> next = pred.next[k].get(txn);
+            while (next != node) {
+                pred = next;
+                next = pred.next[k].get(txn);
+            }
+
+            ensureLinked(txn, pred);
+            unlink(txn, pred, node, k);
+        }
+        node.removed.set(txn, true);
+
+        size.decrement(txn);
+        return true;
+    }
+
+    /**
+     * Makes sure that the predecessor that is going to be modified, still is linked when the transaction commits.
+     * The path to the predecessor is only read, so without this a concurrent removal of the predecessor would not
+     * conflict and the modification would get lost (write skew). A removal always writes the removed flag of the
+     * node, so ensuring that flag is enough. The head never is removed.
+     */
+    private void ensureLinked(Txn txn, Node<E> pred) {
+        if (pred != head) {
+            pred.removed.ensure(txn);
+        }
+    }
+
+    /**
+     * Unlinks the node on a single level. The forward pointer of the node is only read, so it is ensured; otherwise
+     * a concurrent insert directly after the node would not conflict and get lost (write skew).
+     */
+    private void unlink(Txn txn, Node<E> pred, Node<E> node, int level) {
+        final TxnRef<Node<E>> next = node.next[level];
+        next.ensure(txn);
+        pred.next[level].set(txn, next.get(txn));
+    }
+
+    private Node<E> find(Txn txn, Object o) {
+        if (o == null) {
+            return null;
+        }
+
+        Node<E> node = head.next[0].get(txn);
+        while (node != null) {
+            if (node.value.equals(o)) {
+                return node;
+            }
+            node = node.next[0].get(txn);
+        }
+
+        return null;
+    }
+
+    @Override
+    public TxnIterator<E> iterator(Txn txn) {
+        return new It<E>(stm, head.next[0].get(txn));
+    }
+
+    @Override
+    public String toString(Txn txn) {
+        Node<E> node = head.next[0].get(txn);
+        if (node == null) {
+            return "[]";
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        while (node != null) {
+            sb.append(node.value);
+            node = node.next[0].get(txn);
+            if (node != null) {
+                sb.append(", ");
+            }
+        }
+        sb.append("]");
+        return sb.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(E item1, E item2) {
+        if (comparator == null) {
+            return ((Comparable<? super E>) item1).compareTo(item2);
+        }
+
+        return comparator.compare(item1, item2);
+    }
+
+    private static int randomLevel() {
+        //every level is used by half of the nodes of the level below.
+        final int bits = RANDOM.get().nextInt();
+        int level = 1;
+        while (level < MAX_LEVEL && (bits & (1 << (level - 1))) != 0) {
+            level++;
+        }
+        return level;
+    }
+
+    static class It<E> extends AbstractTxnIterator<E> {
+        final TxnRef<Node<E>> node;
+
+        It(Stm stm, Node<E> node) {
+            this.node = stm.getDefaultRefFactory().newTxnRef(node);
+        }
+
+        @Override
+        public boolean hasNext(Txn txn) {
+            return node.get(txn) != null;
+        }
+
+        @Override
+        public E next(Txn txn) {
+            Node<E> n = node.get(txn);
+
+            if (n == null) {
+                throw new NoSuchElementException();
+            }
+
+            node.set(txn, n.next[0].get(txn));
+            return n.value;
+        }
+
+        @Override
+        public void remove(Txn txn) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    static final class Node<E> {
+        final E value;
+        final TxnRef<Node<E>>[] next;
+        final TxnBoolean removed;
+
+        @SuppressWarnings("unchecked")
+        Node(TxnRefFactory refFactory, E value, int level) {
+            this.value = value;
+            this.removed = refFactory.newTxnBoolean(false);
+            this.next = new TxnRef[level];
+            for (int k = 0; k < level; k++) {
+                next[k] = refFactory.newTxnRef(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.multiverse.commitbarriers;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.exceptions.DeadTxnException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
+
+/**
+ * A non blocking alternative for the {@link CountDownCommitBarrier}. Instead of parking every joining thread while
+ * it holds on to a prepared transaction, the {@link #joinCommit(org.multiverse.api.Txn)} prepares the transaction,
+ * hands it over to the barrier and returns a {@link JoinCommitFuture}. The last party to arrive commits all
+ * prepared transactions, so a thread only needs to block if it wants to know the outcome.
+ * <p/>
+ * The party counting is lock free: a party first reserves a slot with a cas on the number of reserved parties, then
+ * pushes its prepared transaction on a lock free stack and then increments the number of joined parties. The party
+ * that increments the joined count to the number of parties, is the one that commits. An abort takes over the stack,
+ * so a party that pushes after an abort aborts its own transaction.
+ * <p/>
+ * The transactions that join should not be committed by the caller; once joined, the barrier owns the transaction.
+ * So the transaction should not be one that is managed by a {@link org.multiverse.api.TxnExecutor} since it commits
+ * the transaction when the callable completes. A transaction created using a
+ * {@link org.multiverse.api.TxnFactory} can be used instead.
+ * <p/>
+ * The AsyncCommitBarrier can't be reused.
+ *
+ * @author Peter Veentjer.
+ * @see CountDownCommitBarrier
+ */
+public final class AsyncCommitBarrier {
+
+    private static final Node DRAINED = new Node(null, null);
+
+    private final int parties;
+    private final AtomicReference<CommitBarrier.Status> status = new AtomicReference<CommitBarrier.Status>();
+    private final AtomicInteger reserved = new AtomicInteger();
+    private final AtomicInteger joined = new AtomicInteger();
+    private final AtomicReference<Node> head = new AtomicReference<Node>();
+
+    /**
+     * Creates a new AsyncCommitBarrier.
+     *
+     * @param parties the number of parties that need to join before the transactions commit. If the number of parties
+     *                is 0, the AsyncCommitBarrier is created committed, else it will be closed.
+     * @throws IllegalArgumentException if parties is smaller than 0.
+     */
+    public AsyncCommitBarrier(int parties) {
+        if (parties < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.parties = parties;
+        this.status.set(parties == 0 ? CommitBarrier.Status.Committed : CommitBarrier.Status.Closed);
+    }
+
+    /**
+     * Returns the number of parties that need to join this AsyncCommitBarrier.
+     *
+     * @return the number of parties.
+     */
+    public int getParties() {
+        return parties;
+    }
+
+    /**
+     * Returns the number of transactions that have joined and are waiting to commit. Value eventually becomes 0
+     * after a commit or abort.
+     *
+     * @return the number of transactions joined.
+     */
+    public int getNumberWaiting() {
+        return status.get() == CommitBarrier.Status.Closed ? joined.get() : 0;
+    }
+
+    /**
+     * Checks if this AsyncCommitBarrier is closed. This is the initial status of the barrier.
+     *
+     * @return true if closed, false otherwise.
+     */
+    public boolean isClosed() {
+        return status.get() == CommitBarrier.Status.Closed;
+    }
+
+    /**
+     * Checks if this AsyncCommitBarrier already is committed.
+     *
+     * @return true if committed, false otherwise.
+     */
+    public boolean isCommitted() {
+        return status.get() == CommitBarrier.Status.Committed;
+    }
+
+    /**
+     * Checks if this AsyncCommitBarrier already is aborted.
+     *
+     * @return true if aborted, false otherwise.
+     */
+    public boolean isAborted() {
+        return status.get() == CommitBarrier.Status.Aborted;
+    }
+
+    /**
+     * Joins this AsyncCommitBarrier with the provided transaction. The transaction is prepared and handed over to the
+     * barrier; this call never waits for the other parties. If this is the last party, all joined transactions are
+     * committed by the calling thread.
+     * <p/>
+     * If the AsyncCommitBarrier already is aborted or committed, or all parties already have joined, the
+     * transaction is aborted.
+     *
+     * @param tx the Txn to commit.
+     * @return the JoinCommitFuture that completes when the transaction is committed or aborted.
+     * @throws NullPointerException       if tx is null.
+     * @throws DeadTxnException           if the tx isn't alive.
+     * @throws CommitBarrierOpenException if this AsyncCommitBarrier is committed or aborted, or if all parties
+     *                                    already have joined.
+     */
+    public JoinCommitFuture joinCommit(final Txn tx) {
+        if (tx == null) {
+            throw new NullPointerException();
+        }
+
+        if (!tx.getStatus().isAlive()) {
+            throw new DeadTxnException(
+                    format("[%s] Txn can't be used for joinCommit since it isn't alive",
+                            tx.getConfig().getFamilyName()));
+        }
+
+        reserve(tx);
+
+        try {
+            tx.prepare();
+        } catch (RuntimeException ex) {
+            //the reserved slot can't be filled anymore, so the barrier never can commit.
+            abort();
+            throw ex;
+        }
+
+        final JoinCommitFuture future = new JoinCommitFuture();
+        if (!push(new Node(tx, future))) {
+            //the barrier was aborted after the slot was reserved.
+            tx.abort();
+            future.complete(false);
+            return future;
+        }
+
+        if (joined.incrementAndGet() == parties) {
+            commitAll();
+        }
+
+        return future;
+    }
+
+    private void reserve(final Txn tx) {
+        while (true) {
+            final CommitBarrier.Status current = status.get();
+            if (current != CommitBarrier.Status.Closed) {
+                tx.abort();
+                String msg = format("[%s] Can't call joinCommit on already %s AsyncCommitBarrier",
+                        tx.getConfig().getFamilyName(), current == CommitBarrier.Status.Aborted ? "aborted" : "committed");
+                throw new CommitBarrierOpenException(msg);
+            }
+
+            final int count = reserved.get();
+            if (count == parties) {
+                tx.abort();
+                String msg = format("[%s] Can't call joinCommit on AsyncCommitBarrier, all %s parties already joined",
+                        tx.getConfig().getFamilyName(), parties);
+                throw new CommitBarrierOpenException(msg);
+            }
+
+            if (reserved.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    private boolean push(final Node node) {
+        while (true) {
+            final Node current = head.get();
+            if (current == DRAINED) {
+                return false;
+            }
+
+            node.next = current;
+            if (head.compareAndSet(current, node)) {
+                return true;
+            }
+        }
+    }
+
+    private void commitAll() {
+        if (!status.compareAndSet(CommitBarrier.Status.Closed, CommitBarrier.Status.Committed)) {
+            //an abort won the race and takes care of the joined transactions.
+            return;
+        }
+
+        Node node = head.getAndSet(DRAINED);
+        RuntimeException failure = null;
+        while (node != null) {
+            try {
+                node.tx.commit();
+                node.future.complete(true);
+            } catch (RuntimeException ex) {
+                //a prepared transaction normally can't fail to commit, but other parties still need to complete.
+                node.future.complete(false);
+                if (failure == null) {
+                    failure = ex;
+                }
+            }
+            node = node.next;
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Aborts this AsyncCommitBarrier. If there are any prepared transactions that have joined, they are aborted
+     * as well and their futures complete.
+     * <p/>
+     * If the AsyncCommitBarrier already is aborted, this call is ignored.
+     *
+     * @throws CommitBarrierOpenException if this AsyncCommitBarrier already is committed.
+     */
+    public void abort() {
+        if (!status.compareAndSet(CommitBarrier.Status.Closed, CommitBarrier.Status.Aborted)) {
+            if (status.get() == CommitBarrier.Status.Committed) {
+                throw new CommitBarrierOpenException("Can't abort already committed AsyncCommitBarrier");
+            }
+            return;
+        }
+
+        Node node = head.getAndSet(DRAINED);
+        while (node != null) {
+            try {
+                node.tx.abort();
+            } finally {
+                node.future.complete(false);
+            }
+            node = node.next;
+        }
+    }
+
+    static final class Node {
+        final Txn tx;
+        final JoinCommitFuture future;
+        Node next;
+
+        Node(Txn tx, JoinCommitFuture future) {
+            this.tx = tx;
+            this.future = future;
+        }
+    }
+}
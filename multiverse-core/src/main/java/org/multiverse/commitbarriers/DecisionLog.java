@@ -0,0 +1,233 @@
+package org.multiverse.commitbarriers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A durable log of the commit decisions made by the {@link TwoPhaseCommitCoordinator}. The log is a memory mapped
+ * file with a fixed number of slots; every slot contains the id of a global transaction and its state.
+ * <p/>
+ * The coordinator uses presumed abort: only the commit decision is logged, so an abort doesn't cost a write. A
+ * global transaction without a commit record in the log, is aborted. Once all participants are committed, the slot
+ * is marked as done; this write is not forced since redoing a commit during recovery does no harm.
+ * <p/>
+ * Forcing the log is batched (group commit): a thread that needs its decision to be durable, checks if a force
+ * done by another thread already covered its write. If not, it forces the log and by doing so, also makes the
+ * decisions of all threads that wrote before the force durable.
+ * <p/>
+ * After a restart the {@link #getInDoubt()} returns the global transactions that were decided to commit, but
+ * where not all participants may have committed. Since the participants are transactions on a (volatile) stm, it
+ * is up to the application to redo or compensate them.
+ * <p/>
+ * A DecisionLog is thread-safe.
+ *
+ * @author Peter Veentjer.
+ */
+public final class DecisionLog {
+
+    private static final int SLOT_SIZE = 16;
+    private static final long STATE_COMMITTING = 1;
+    private static final long STATE_DONE = 2;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    //the id of the global transaction that currently owns a slot, or 0 if the slot is free.
+    private final AtomicLongArray claims;
+    private final List<Long> inDoubt = new LinkedList<Long>();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final Object forceLock = new Object();
+    private final AtomicLong forceCount = new AtomicLong();
+    private volatile long durableSequence;
+    private volatile boolean hasInDoubt;
+    private long maxId;
+
+    /**
+     * Opens a DecisionLog. If the file already exists and contains decisions, they are recovered.
+     *
+     * @param file      the file of the log.
+     * @param slotCount the maximum number of decisions that can be in progress concurrently.
+     * @throws NullPointerException     if file is null.
+     * @throws IllegalArgumentException if slotCount smaller than 1.
+     * @throws IOException              if the file can't be opened or mapped.
+     */
+    public DecisionLog(File file, int slotCount) throws IOException {
+        if (file == null) {
+            throw new NullPointerException();
+        }
+
+        if (slotCount < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.slotCount = slotCount;
+        this.claims = new AtomicLongArray(slotCount);
+        this.file = new RandomAccessFile(file, "rw");
+        this.channel = this.file.getChannel();
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) slotCount * SLOT_SIZE);
+        recover();
+    }
+
+    private void recover() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            final int offset = slot * SLOT_SIZE;
+            final long id = buffer.getLong(offset);
+            final long state = buffer.getLong(offset + 8);
+
+            if (id > maxId) {
+                maxId = id;
+            }
+
+            if (state == STATE_COMMITTING) {
+                inDoubt.add(id);
+            }
+        }
+
+        hasInDoubt = !inDoubt.isEmpty();
+    }
+
+    /**
+     * Returns the ids of the global transactions that were decided to commit before the last shutdown, but were not
+     * marked as done. All other global transactions that were in progress, are presumed to be aborted.
+     *
+     * @return the ids of the in doubt global transactions.
+     */
+    public synchronized List<Long> getInDoubt() {
+        return new LinkedList<Long>(inDoubt);
+    }
+
+    /**
+     * Marks the in doubt global transactions as resolved, so that they are not returned on the next recovery. This
+     * needs to be done before new commit decisions can be logged.
+     */
+    public synchronized void resolveInDoubt() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            final int offset = slot * SLOT_SIZE;
+            if (buffer.getLong(offset + 8) == STATE_COMMITTING) {
+                buffer.putLong(offset + 8, STATE_DONE);
+            }
+        }
+        buffer.force();
+        inDoubt.clear();
+        hasInDoubt = false;
+    }
+
+    /**
+     * Returns the highest global transaction id found in the log when it was opened.
+     *
+     * @return the highest recovered id, 0 if the log was empty.
+     */
+    public long getMaxRecoveredId() {
+        return maxId;
+    }
+
+    /**
+     * Returns the number of times the log was forced. Since forcing is batched, this can be lower than the number
+     * of logged commit decisions.
+     *
+     * @return the number of forces.
+     */
+    public long getForceCount() {
+        return forceCount.get();
+    }
+
+    /**
+     * Durably logs the decision to commit a global transaction. When this method returns, the decision survives a
+     * crash.
+     * <p/>
+     * If the slot of the id is still in use by an earlier decision, this call waits till that one is done.
+     *
+     * @param id the id of the global transaction (should be larger than 0).
+     * @throws IllegalStateException if there are in doubt global transactions that are not resolved.
+     */
+    public void logCommit(final long id) {
+        if (hasInDoubt) {
+            throw new IllegalStateException(
+                    "Can't log a commit decision on a DecisionLog with unresolved in doubt transactions " + getInDoubt());
+        }
+
+        final int slot = slot(id);
+        while (!claims.compareAndSet(slot, 0, id)) {
+            Thread.yield();
+        }
+
+        final int offset = slot * SLOT_SIZE;
+        buffer.putLong(offset, id);
+        buffer.putLong(offset + 8, STATE_COMMITTING);
+        final long sequence = writeSequence.incrementAndGet();
+        awaitDurable(sequence);
+    }
+
+    private void awaitDurable(final long sequence) {
+        if (durableSequence >= sequence) {
+            return;
+        }
+
+        synchronized (forceLock) {
+            if (durableSequence >= sequence) {
+                //another thread did the force for us.
+                return;
+            }
+
+            final long target = writeSequence.get();
+            buffer.force();
+            forceCount.incrementAndGet();
+            durableSequence = target;
+        }
+    }
+
+    /**
+     * Marks the commit decision of a global transaction as done, so all participants have committed. The write is
+     * not forced.
+     *
+     * @param id the id of the global transaction.
+     */
+    public void logDone(final long id) {
+        final int slot = slot(id);
+        if (claims.get(slot) != id) {
+            return;
+        }
+
+        buffer.putLong(slot * SLOT_SIZE + 8, STATE_DONE);
+        claims.set(slot, 0);
+    }
+
+    private int slot(final long id) {
+        return (int) (id % slotCount);
+    }
+
+    /**
+     * Forces and closes the log.
+     *
+     * @throws IOException if the file can't be closed.
+     */
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+        file.close();
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionLog{slotCount=" + slotCount + ", inDoubt=" + getInDoubt() + '}';
+    }
+
+    /**
+     * Checks if the slot of the given id currently contains a commit decision that isn't done.
+     *
+     * @param id the id of the global transaction.
+     * @return true if the commit of the global transaction is in progress.
+     */
+    boolean isCommitting(final long id) {
+        final int offset = slot(id) * SLOT_SIZE;
+        return buffer.getLong(offset) == id && buffer.getLong(offset + 8) == STATE_COMMITTING;
+    }
+}
@@ -0,0 +1,105 @@
+package org.multiverse.commitbarriers;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The {@link Future} returned by {@link AsyncCommitBarrier#joinCommit(org.multiverse.api.Txn)}. It completes when the
+ * transaction that joined is committed or aborted by the barrier. The result is true if the transaction committed,
+ * false if it aborted.
+ * <p/>
+ * A JoinCommitFuture can't be cancelled; the outcome of the transaction is decided by the barrier and not by the
+ * party waiting for it.
+ *
+ * @author Peter Veentjer.
+ */
+public final class JoinCommitFuture implements Future<Boolean> {
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+    private volatile Boolean committed;
+
+    JoinCommitFuture() {
+    }
+
+    void complete(boolean committed) {
+        this.committed = committed;
+        latch.countDown();
+    }
+
+    /**
+     * Checks if the transaction has been committed. This call doesn't block.
+     *
+     * @return true if committed, false if aborted or not completed yet.
+     */
+    public boolean isCommitted() {
+        return Boolean.TRUE.equals(committed);
+    }
+
+    /**
+     * Checks if the transaction has been aborted. This call doesn't block.
+     *
+     * @return true if aborted, false if committed or not completed yet.
+     */
+    public boolean isAborted() {
+        return Boolean.FALSE.equals(committed);
+    }
+
+    /**
+     * Waits for the transaction to complete without being responsive to interrupts.
+     *
+     * @return true if the transaction committed, false if it aborted.
+     */
+    public boolean getUninterruptibly() {
+        boolean restoreInterrupt = false;
+        try {
+            while (true) {
+                try {
+                    latch.await();
+                    return committed;
+                } catch (InterruptedException ex) {
+                    restoreInterrupt = true;
+                }
+            }
+        } finally {
+            if (restoreInterrupt) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return false;
+    }
+
+    @Override
+    public boolean isDone() {
+        return committed != null;
+    }
+
+    @Override
+    public Boolean get() throws InterruptedException, ExecutionException {
+        latch.await();
+        return committed;
+    }
+
+    @Override
+    public Boolean get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (unit == null) {
+            throw new NullPointerException();
+        }
+
+        if (!latch.await(timeout, unit)) {
+            throw new TimeoutException();
+        }
+        return committed;
+    }
+}
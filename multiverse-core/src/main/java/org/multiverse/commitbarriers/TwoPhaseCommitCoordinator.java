@@ -0,0 +1,164 @@
+package org.multiverse.commitbarriers;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnStatus;
+import org.multiverse.api.exceptions.DeadTxnException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * A coordinator that atomically commits transactions that run on different (independent) stm instances, using
+ * two phase commit. This makes it possible to partition state over multiple stm's, e.g. one per shard, so they
+ * don't contend on the same global conflict counter, and still update multiple partitions atomically.
+ * <p/>
+ * The protocol:
+ * <ol>
+ * <li>all participants are prepared. If one of them fails to prepare, all participants are aborted. Because of
+ * presumed abort, nothing is written to the {@link DecisionLog}.</li>
+ * <li>the decision to commit is durably written to the {@link DecisionLog}.</li>
+ * <li>all participants are committed; a prepared transaction can't fail to commit.</li>
+ * <li>the decision is marked as done in the {@link DecisionLog}.</li>
+ * </ol>
+ * Readonly participants don't take part in the second phase; once prepared they are committed directly. If there
+ * is at most 1 participant left that needs to write, no decision is logged since the commit of that single
+ * participant is atomic by itself.
+ * <p/>
+ * The transactions passed to the coordinator should not be committed or aborted by the caller.
+ * <p/>
+ * A TwoPhaseCommitCoordinator is thread-safe.
+ *
+ * @author Peter Veentjer.
+ * @see DecisionLog
+ */
+public final class TwoPhaseCommitCoordinator {
+
+    private final DecisionLog log;
+    private final AtomicLong idGenerator;
+
+    /**
+     * Creates a TwoPhaseCommitCoordinator.
+     *
+     * @param log the DecisionLog to write the commit decisions to.
+     * @throws NullPointerException if log is null.
+     */
+    public TwoPhaseCommitCoordinator(DecisionLog log) {
+        if (log == null) {
+            throw new NullPointerException();
+        }
+
+        this.log = log;
+        this.idGenerator = new AtomicLong(log.getMaxRecoveredId());
+    }
+
+    /**
+     * Returns the DecisionLog used by this TwoPhaseCommitCoordinator.
+     *
+     * @return the DecisionLog.
+     */
+    public DecisionLog getLog() {
+        return log;
+    }
+
+    /**
+     * Atomically commits all the transactions. If one of the transactions fails to prepare, all transactions are
+     * aborted and the exception of the failing prepare is rethrown.
+     *
+     * @param txs the participating transactions.
+     * @throws NullPointerException if txs or one of its elements is null.
+     * @throws DeadTxnException     if one of the transactions isn't alive. The other transactions are aborted.
+     */
+    public void commit(final Txn... txs) {
+        if (txs == null) {
+            throw new NullPointerException();
+        }
+
+        for (Txn tx : txs) {
+            if (tx == null) {
+                abortAll(txs);
+                throw new NullPointerException();
+            }
+
+            if (!tx.getStatus().isAlive()) {
+                abortAll(txs);
+                throw new DeadTxnException(
+                        format("[%s] Txn can't be used for a two phase commit since it isn't alive",
+                                tx.getConfig().getFamilyName()));
+            }
+        }
+
+        //phase 1
+        int writers = 0;
+        boolean success = false;
+        try {
+            for (Txn tx : txs) {
+                tx.prepare();
+                if (tx.getConfig().isReadonly()) {
+                    tx.commit();
+                } else {
+                    writers++;
+                }
+            }
+            success = true;
+        } finally {
+            if (!success) {
+                abortAll(txs);
+            }
+        }
+
+        if (writers <= 1) {
+            commitAll(txs);
+            return;
+        }
+
+        final long id = idGenerator.incrementAndGet();
+        try {
+            log.logCommit(id);
+        } catch (RuntimeException ex) {
+            abortAll(txs);
+            throw ex;
+        }
+
+        //phase 2. The slot of the decision is freed even if a commit fails, else a later decision mapping to the
+        //same slot would wait for it forever.
+        try {
+            commitAll(txs);
+        } finally {
+            log.logDone(id);
+        }
+    }
+
+    /**
+     * Commits all prepared transactions. Since the decision to commit has been made, a failing commit doesn't
+     * prevent the other transactions from committing; the first failure is rethrown afterwards.
+     *
+     * @param txs the participating transactions.
+     */
+    private static void commitAll(final Txn[] txs) {
+        RuntimeException failure = null;
+        for (Txn tx : txs) {
+            if (tx.getStatus() == TxnStatus.Prepared) {
+                try {
+                    tx.commit();
+                } catch (RuntimeException ex) {
+                    if (failure == null) {
+                        failure = ex;
+                    }
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void abortAll(final Txn[] txs) {
+        for (Txn tx : txs) {
+            if (tx != null && tx.getStatus().isAlive()) {
+                tx.abort();
+            }
+        }
+    }
+}
@@ -1,8 +1,25 @@
 package org.multiverse.stms.gamma;
 
 import org.multiverse.api.BackoffPolicy;
+import org.multiverse.api.TraceLevel;
+import org.multiverse.api.TxnThreadLocal;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.InvisibleCheckedException;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.RetryError;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.api.exceptions.TooManyRetriesException;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
+import org.multiverse.stms.gamma.transactions.GammaTxnPool;
+import org.multiverse.stms.gamma.transactions.Savepoint;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxnContainer;
 
 /**
  * An abstract {@link GammaTxnExecutor} implementation.
@@ -10,6 +27,8 @@ import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
  * @author Peter Veentjer.
  */
 public abstract class AbstractGammaTxnExecutor implements GammaTxnExecutor {
+    private static final Logger logger = Logger.getLogger(AbstractGammaTxnExecutor.class.getName());
+
     protected final GammaTxnFactory txnFactory;
     protected final GammaTxnConfig txnConfig;
     protected final BackoffPolicy backoffPolicy;
@@ -22,4 +41,228 @@ public abstract class AbstractGammaTxnExecutor implements GammaTxnExecutor {
         this.txnConfig = txnFactory.getConfig();
         this.backoffPolicy = txnConfig.backoffPolicy;
     }
+
+    /**
+     * Handles a failed attempt of a transaction executed by one of the generated executors. It is shared by all
+     * callable types and kept out of the generated methods, so that they remain small.
+     *
+     * @param tx                   the transaction of the failed attempt.
+     * @param transactionContainer the container of the thread local transaction.
+     * @param pool                 the GammaTxnPool.
+     * @param failure              the Throwable thrown by the attempt, or null if the transaction is doomed
+     *                             (see {@link GammaTxn#doomed}).
+     * @return the transaction to use for the next attempt; it is a different one if the transaction needed to be
+     *         upgraded after a speculative failure.
+     * @throws Exception the failure if it isn't solved by retrying.
+     */
+    protected final GammaTxn handleFailure(GammaTxn tx, final TxnThreadLocal.Container transactionContainer,
+                                           final GammaTxnPool pool, final Throwable failure) throws Exception {
+        if (failure == null) {
+            //the read/write-conflict was deferred, so the transaction is retried without throwing.
+            tx.abort();
+            backoffPolicy.delayUninterruptible(tx.getAttempt());
+            return tx;
+        }
+
+        if (failure instanceof RetryError) {
+            if (TRACING_ENABLED) {
+                if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                    logger.info(format("[%s] Encountered a retry", txnConfig.familyName));
+                }
+            }
+
+            tx.awaitUpdate();
+            return tx;
+        }
+
+        if (failure instanceof SpeculativeConfigurationError) {
+            if (TRACING_ENABLED) {
+                if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                    logger.info(format("[%s] Encountered a speculative configuration error", txnConfig.familyName));
+                }
+            }
+
+            final GammaTxn old = tx;
+            tx = txnFactory.upgradeAfterSpeculativeFailure(tx, pool);
+            pool.put(old);
+            transactionContainer.txn = tx;
+            return tx;
+        }
+
+        if (failure instanceof ReadWriteConflict) {
+            if (TRACING_ENABLED) {
+                if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                    logger.info(format("[%s] Encountered a read or write conflict", txnConfig.familyName));
+                }
+            }
+
+            backoffPolicy.delayUninterruptible(tx.getAttempt());
+            return tx;
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+
+        if (!tx.doomed) {
+            throw (Exception) failure;
+        }
+
+        //the exception could be caused by the inconsistent reads of the doomed transaction.
+        tx.abort();
+        backoffPolicy.delayUninterruptible(tx.getAttempt());
+        return tx;
+    }
+
+    protected final TooManyRetriesException newTooManyRetriesException(final Error cause) {
+        if (TRACING_ENABLED) {
+            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                logger.info(format("[%s] Maximum number of %s retries has been reached",
+                        txnConfig.familyName, txnConfig.getMaxRetries()));
+            }
+        }
+
+        return new TooManyRetriesException(
+                format("[%s] Maximum number of %s retries has been reached",
+                        txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
+    }
+
+    @Override
+    public final Throwable[] executeBatch(final List<? extends TxnVoidCallable> callables) {
+        if (callables == null) {
+            throw new NullPointerException();
+        }
+
+        final TxnVoidCallable[] batch = callables.toArray(new TxnVoidCallable[callables.size()]);
+        for (TxnVoidCallable callable : batch) {
+            if (callable == null) {
+                throw new NullPointerException();
+            }
+        }
+
+        final Throwable[] failures = new Throwable[batch.length];
+
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final GammaTxn tx = (GammaTxn) transactionContainer.txn;
+        if (tx != null && tx.isAlive()) {
+            for (int k = 0; k < batch.length; k++) {
+                failures[k] = executeInOuterTxn(tx, batch[k]);
+            }
+            return failures;
+        }
+
+        GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
+        if (pool == null) {
+            pool = new GammaTxnPool();
+            transactionContainer.txPool = pool;
+        }
+
+        executeBatch(batch, 0, batch.length, failures, transactionContainer, pool);
+        return failures;
+    }
+
+    private void executeBatch(final TxnVoidCallable[] batch, final int from, final int to, final Throwable[] failures,
+                              final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool) {
+        final int size = to - from;
+        if (size == 0) {
+            return;
+        }
+
+        if (size == 1) {
+            failures[from] = executeSingle(batch[from]);
+            return;
+        }
+
+        if (executeInSingleTxn(batch, from, to, failures, transactionContainer, pool)) {
+            return;
+        }
+
+        final int middle = from + size / 2;
+        executeBatch(batch, from, middle, failures, transactionContainer, pool);
+        executeBatch(batch, middle, to, failures, transactionContainer, pool);
+    }
+
+    private Throwable executeSingle(final TxnVoidCallable callable) {
+        try {
+            execute(callable);
+            return null;
+        } catch (InvisibleCheckedException e) {
+            return e.getCause();
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Executes a callable of the batch in the alive outer transaction. The callable is executed within a Savepoint,
+     * so that the writes of a failing callable are rolled back instead of being committed with the outer transaction.
+     *
+     * @return the exception thrown by the callable, or null if it completed.
+     */
+    private Throwable executeInOuterTxn(final GammaTxn tx, final TxnVoidCallable callable) {
+        final Savepoint savepoint = tx.createSavepoint();
+        try {
+            final Throwable failure = executeSingle(callable);
+            if (failure != null && tx.isAlive()) {
+                tx.rollbackToSavepoint(savepoint);
+            }
+            return failure;
+        } finally {
+            tx.releaseSavepoint(savepoint);
+        }
+    }
+
+    /**
+     * Executes a part of the batch in a single transaction, without retrying on a conflict or a retry. Every callable
+     * is executed within a Savepoint, so the writes of a failing callable are rolled back and the other callables
+     * still are committed.
+     *
+     * @return true if the transaction committed, false if the part needs to be split.
+     */
+    private boolean executeInSingleTxn(final TxnVoidCallable[] batch, final int from, final int to,
+                                       final Throwable[] failures, final TxnThreadLocal.Container transactionContainer,
+                                       final GammaTxnPool pool) {
+        while (true) {
+            final GammaTxn tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            try {
+                for (int k = from; k < to; k++) {
+                    failures[k] = executeInSavepoint(tx, batch[k]);
+                }
+                tx.commit();
+                return true;
+            } catch (SpeculativeConfigurationError e) {
+                //the speculative failure has been learned, so the part is executed again in a bigger transaction.
+            } catch (ReadWriteConflict e) {
+                backoffPolicy.delayUninterruptible(tx.getAttempt());
+                return false;
+            } catch (RetryError e) {
+                //only a single callable blocks on a retry.
+                return false;
+            } finally {
+                if (tx.isAlive()) {
+                    tx.abort();
+                }
+
+                pool.put(tx);
+                transactionContainer.txn = null;
+            }
+        }
+    }
+
+    private static Throwable executeInSavepoint(final GammaTxn tx, final TxnVoidCallable callable) {
+        final Savepoint savepoint = tx.createSavepoint();
+        try {
+            callable.call(tx);
+            return null;
+        } catch (InvisibleCheckedException e) {
+            tx.rollbackToSavepoint(savepoint);
+            return e.getCause();
+        } catch (Exception e) {
+            tx.rollbackToSavepoint(savepoint);
+            return e;
+        } finally {
+            tx.releaseSavepoint(savepoint);
+        }
+    }
 }
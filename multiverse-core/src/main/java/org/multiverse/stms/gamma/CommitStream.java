@@ -0,0 +1,206 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A change data capture stream of committed writes. Refs opt in using
+ * {@link BaseGammaTxnRef#setCommitStream(CommitStream)}; after a transaction commits, every write on such a ref is
+ * published in this stream as (ref, version, new value). This makes it possible to mirror the state of the stm in
+ * a cache or a search index.
+ * <p/>
+ * A write is published while the ref still is locked by the committing transaction, so for a single ref the events
+ * are in the same order as the commits. Writes done using the atomic operations (e.g. atomicSet) are not published.
+ * <p/>
+ * The stream is a lock free ring buffer that can be filled by many committing threads and that is drained by a single
+ * consumer, in batches using {@link #drain(CommitEvent[])}. If the ring buffer is full, a committing thread waits
+ * for the consumer; so a slow consumer slows down the transactions that write to refs using this stream.
+ * <p/>
+ * Refs that don't use a CommitStream only pay a null check when a write is committed.
+ *
+ * @author Peter Veentjer.
+ */
+public final class CommitStream {
+
+    private final int mask;
+    private final BaseGammaTxnRef[] refs;
+    private final long[] versions;
+    private final long[] longValues;
+    private final Object[] refValues;
+    //contains for every slot the sequence of the event that was published in it, so the consumer knows if the slot
+    //contains the event it is looking for.
+    private final AtomicLongArray published;
+    private final AtomicLong claimSequence = new AtomicLong();
+    private volatile long consumeSequence;
+
+    /**
+     * Creates a CommitStream.
+     *
+     * @param capacity the capacity of the ring buffer. It will be rounded up to the next power of 2.
+     * @throws IllegalArgumentException if capacity smaller than 1.
+     */
+    public CommitStream(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        int length = 1;
+        while (length < capacity) {
+            length <<= 1;
+        }
+
+        this.mask = length - 1;
+        this.refs = new BaseGammaTxnRef[length];
+        this.versions = new long[length];
+        this.longValues = new long[length];
+        this.refValues = new Object[length];
+        this.published = new AtomicLongArray(length);
+        for (int k = 0; k < length; k++) {
+            published.set(k, -1);
+        }
+    }
+
+    /**
+     * Returns the capacity of the ring buffer.
+     *
+     * @return the capacity.
+     */
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the total number of events published so far (including the ones in progress).
+     *
+     * @return the number of published events.
+     */
+    public long getPublishedCount() {
+        return claimSequence.get();
+    }
+
+    /**
+     * Returns the total number of events consumed so far.
+     *
+     * @return the number of consumed events.
+     */
+    public long getConsumedCount() {
+        return consumeSequence;
+    }
+
+    /**
+     * Publishes a committed write. Should only be called while the ref is locked by the committing transaction.
+     *
+     * @param ref        the ref that was written.
+     * @param version    the new version of the ref.
+     * @param longValue  the new value if the ref contains a primitive.
+     * @param refValue   the new value if the ref contains an object.
+     */
+    public void publish(final BaseGammaTxnRef ref, final long version, final long longValue, final Object refValue) {
+        final long sequence = claimSequence.getAndIncrement();
+
+        if (sequence - consumeSequence > mask) {
+            int attempt = 0;
+            while (sequence - consumeSequence > mask) {
+                attempt++;
+                if (attempt > 64) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        final int slot = (int) sequence & mask;
+        refs[slot] = ref;
+        versions[slot] = version;
+        longValues[slot] = longValue;
+        refValues[slot] = refValue;
+        published.lazySet(slot, sequence);
+    }
+
+    /**
+     * Drains the available events into the batch. The CommitEvents in the batch are reused, so if an event needs
+     * to be kept, its content should be copied. This call doesn't block.
+     * <p/>
+     * Should only be called by a single consumer thread.
+     *
+     * @param batch the array to fill. Null elements are replaced by new CommitEvent instances.
+     * @return the number of events drained.
+     * @throws NullPointerException if batch is null.
+     */
+    public int drain(final CommitEvent[] batch) {
+        if (batch == null) {
+            throw new NullPointerException();
+        }
+
+        long sequence = consumeSequence;
+        int count = 0;
+        while (count < batch.length) {
+            final int slot = (int) sequence & mask;
+            if (published.get(slot) != sequence) {
+                break;
+            }
+
+            CommitEvent event = batch[count];
+            if (event == null) {
+                event = new CommitEvent();
+                batch[count] = event;
+            }
+
+            event.sequence = sequence;
+            event.ref = refs[slot];
+            event.version = versions[slot];
+            event.longValue = longValues[slot];
+            event.refValue = refValues[slot];
+
+            refs[slot] = null;
+            refValues[slot] = null;
+            sequence++;
+            count++;
+        }
+
+        if (count > 0) {
+            consumeSequence = sequence;
+        }
+        return count;
+    }
+
+    /**
+     * A single committed write.
+     */
+    public static final class CommitEvent {
+        public long sequence;
+        public BaseGammaTxnRef ref;
+        public long version;
+        public long longValue;
+        public Object refValue;
+
+        /**
+         * Returns the new value of the ref, boxed if the ref contains a primitive.
+         *
+         * @return the new value.
+         */
+        public Object getValue() {
+            switch (ref.type) {
+                case GammaConstants.TYPE_REF:
+                    return refValue;
+                case GammaConstants.TYPE_LONG:
+                    return longValue;
+                case GammaConstants.TYPE_INT:
+                    return (int) longValue;
+                case GammaConstants.TYPE_DOUBLE:
+                    return GammaStmUtils.longAsDouble(longValue);
+                case GammaConstants.TYPE_BOOLEAN:
+                    return GammaStmUtils.longAsBoolean(longValue);
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CommitEvent{sequence=" + sequence + ", ref=" + ref + ", version=" + version
+                    + ", value=" + getValue() + '}';
+        }
+    }
+}
@@ -13,6 +13,10 @@ import static org.multiverse.api.TxnThreadLocal.*;
 /**
  * The {@link TxnExecutor} made for the GammaStm.
  *
+ * The execute methods only contain the common case: a new transaction that commits at the first attempt. All other
+ * logic (nesting, propagation levels, tracing and retrying) is done in separate methods, so that the execute
+ * methods remain small enough to be inlined by the JIT, and with them the callable.call and the commit.
+ *
  * This code is generated.
  *
  * @author Peter Veentjer
@@ -43,13 +47,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public <E> E execute(final TxnCallable<E> callable){
+    @Override
+    public final <E> E execute(final TxnCallable<E> callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -61,6 +66,19 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            return executeInTxn(tx, transactionContainer, pool, callable);
+        }
+
+        return executeWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private <E> E executeWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnCallable<E> callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -75,7 +93,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if (TRACING_ENABLED) {
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -146,7 +164,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if(TRACING_ENABLED){
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -160,7 +178,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            return execute(tx, transactionContainer, pool, callable);
+                            return executeInTxn(tx, transactionContainer, pool, callable);
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
                         }
@@ -193,55 +211,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private <E> E execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnCallable<E> callable)throws Exception{
-        Error cause = null;
+    private <E> E executeInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnCallable<E> callable){
+
+        Throwable failure = null;
+        try {
+            final E result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private <E> E executeWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnCallable<E> callable, Throwable failure){
 
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
-                    try {
-                        cause = null;
-                        E result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final E result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -254,19 +270,10 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-         @Override
+    @Override
     public final  int executeChecked(
         final TxnIntCallable callable)throws Exception{
 
@@ -277,13 +284,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public  int execute(final TxnIntCallable callable){
+    @Override
+    public final  int execute(final TxnIntCallable callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -295,6 +303,19 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            return executeIntInTxn(tx, transactionContainer, pool, callable);
+        }
+
+        return executeIntWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private  int executeIntWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnIntCallable callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -309,7 +330,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeIntInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if (TRACING_ENABLED) {
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -380,7 +401,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeIntInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if(TRACING_ENABLED){
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -394,7 +415,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            return execute(tx, transactionContainer, pool, callable);
+                            return executeIntInTxn(tx, transactionContainer, pool, callable);
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
                         }
@@ -427,55 +448,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private  int execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnIntCallable callable)throws Exception{
-        Error cause = null;
+    private  int executeIntInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnIntCallable callable){
+
+        Throwable failure = null;
+        try {
+            final int result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeIntWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  int executeIntWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnIntCallable callable, Throwable failure){
 
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
-                    try {
-                        cause = null;
-                        int result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final int result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -488,19 +507,10 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-         @Override
+    @Override
     public final  long executeChecked(
         final TxnLongCallable callable)throws Exception{
 
@@ -511,13 +521,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public  long execute(final TxnLongCallable callable){
+    @Override
+    public final  long execute(final TxnLongCallable callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -529,6 +540,19 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            return executeLongInTxn(tx, transactionContainer, pool, callable);
+        }
+
+        return executeLongWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private  long executeLongWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnLongCallable callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -543,7 +567,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeLongInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if (TRACING_ENABLED) {
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -614,7 +638,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeLongInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if(TRACING_ENABLED){
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -628,7 +652,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            return execute(tx, transactionContainer, pool, callable);
+                            return executeLongInTxn(tx, transactionContainer, pool, callable);
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
                         }
@@ -661,55 +685,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private  long execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnLongCallable callable)throws Exception{
-        Error cause = null;
+    private  long executeLongInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnLongCallable callable){
 
+        Throwable failure = null;
+        try {
+            final long result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeLongWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  long executeLongWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnLongCallable callable, Throwable failure){
+
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
-                    try {
-                        cause = null;
-                        long result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final long result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -722,19 +744,10 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-         @Override
+    @Override
     public final  double executeChecked(
         final TxnDoubleCallable callable)throws Exception{
 
@@ -745,13 +758,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public  double execute(final TxnDoubleCallable callable){
+    @Override
+    public final  double execute(final TxnDoubleCallable callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -763,6 +777,19 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            return executeDoubleInTxn(tx, transactionContainer, pool, callable);
+        }
+
+        return executeDoubleWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private  double executeDoubleWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnDoubleCallable callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -777,7 +804,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeDoubleInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if (TRACING_ENABLED) {
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -848,7 +875,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeDoubleInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if(TRACING_ENABLED){
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -862,7 +889,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            return execute(tx, transactionContainer, pool, callable);
+                            return executeDoubleInTxn(tx, transactionContainer, pool, callable);
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
                         }
@@ -895,55 +922,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private  double execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnDoubleCallable callable)throws Exception{
-        Error cause = null;
+    private  double executeDoubleInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnDoubleCallable callable){
+
+        Throwable failure = null;
+        try {
+            final double result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
 
+        return executeDoubleWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  double executeDoubleWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnDoubleCallable callable, Throwable failure){
+
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
-                    try {
-                        cause = null;
-                        double result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final double result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -956,19 +981,10 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-         @Override
+    @Override
     public final  boolean executeChecked(
         final TxnBooleanCallable callable)throws Exception{
 
@@ -979,13 +995,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public  boolean execute(final TxnBooleanCallable callable){
+    @Override
+    public final  boolean execute(final TxnBooleanCallable callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -997,6 +1014,19 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            return executeBooleanInTxn(tx, transactionContainer, pool, callable);
+        }
+
+        return executeBooleanWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private  boolean executeBooleanWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnBooleanCallable callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -1011,7 +1041,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeBooleanInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if (TRACING_ENABLED) {
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -1082,7 +1112,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        return execute(tx, transactionContainer, pool, callable);
+                        return executeBooleanInTxn(tx, transactionContainer, pool, callable);
                     } else {
                         if(TRACING_ENABLED){
                             if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
@@ -1096,7 +1126,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            return execute(tx, transactionContainer, pool, callable);
+                            return executeBooleanInTxn(tx, transactionContainer, pool, callable);
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
                         }
@@ -1129,55 +1159,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private  boolean execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnBooleanCallable callable)throws Exception{
-        Error cause = null;
+    private  boolean executeBooleanInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnBooleanCallable callable){
+
+        Throwable failure = null;
+        try {
+            final boolean result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeBooleanWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
 
+    private  boolean executeBooleanWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnBooleanCallable callable, Throwable failure){
+
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
-                    try {
-                        cause = null;
-                        boolean result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final boolean result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -1190,19 +1218,10 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-         @Override
+    @Override
     public final  void executeChecked(
         final TxnVoidCallable callable)throws Exception{
 
@@ -1213,13 +1232,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-     public  void execute(final TxnVoidCallable callable){
+    @Override
+    public final  void execute(final TxnVoidCallable callable){
 
         if(callable == null){
             throw new NullPointerException();
         }
 
-        TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
         GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
         if (pool == null) {
             pool = new GammaTxnPool();
@@ -1231,6 +1251,20 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             tx = null;
         }
 
+        if (tx == null && propagationLevel == PropagationLevel.Requires && !TRACING_ENABLED) {
+            tx = txnFactory.newTransaction(pool);
+            transactionContainer.txn = tx;
+            executeVoidInTxn(tx, transactionContainer, pool, callable);
+            return;
+        }
+
+        executeVoidWithPropagation(tx, transactionContainer, pool, callable);
+    }
+
+    private  void executeVoidWithPropagation(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnVoidCallable callable){
+
         try{
             switch (propagationLevel) {
                 case Requires:
@@ -1245,7 +1279,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        execute(tx, transactionContainer,pool, callable);
+                        executeVoidInTxn(tx, transactionContainer,pool, callable);
                         return;
                     } else {
                         if (TRACING_ENABLED) {
@@ -1320,7 +1354,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
-                        execute(tx, transactionContainer, pool, callable);
+                        executeVoidInTxn(tx, transactionContainer, pool, callable);
                         return;
                     } else {
                         if(TRACING_ENABLED){
@@ -1335,7 +1369,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                         tx = txnFactory.newTransaction(pool);
                         transactionContainer.txn = tx;
                         try {
-                            execute(tx, transactionContainer, pool, callable);
+                            executeVoidInTxn(tx, transactionContainer, pool, callable);
                             return;
                         } finally {
                             transactionContainer.txn = suspendedTransaction;
@@ -1370,55 +1404,53 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
     }
 
-    private  void execute(
-        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, GammaTxnPool pool, final TxnVoidCallable callable)throws Exception{
-        Error cause = null;
+    private  void executeVoidInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnVoidCallable callable){
+
+        Throwable failure = null;
+        try {
+            callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return;
+            }
+        } catch (Throwable e) {
+            failure = e;
+        }
 
+        executeVoidWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  void executeVoidWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnVoidCallable callable, Throwable failure){
+
+        Error cause = null;
         try{
-            boolean abort = true;
             try {
-                do {
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
+
+                    failure = null;
                     try {
-                        cause = null;
                         callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
-
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -1431,16 +1463,7 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-       }
+}
@@ -0,0 +1,583 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.api.TxnThreadLocal;
+import org.multiverse.api.callables.*;
+import org.multiverse.api.exceptions.InvisibleCheckedException;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.RetryError;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
+import org.multiverse.stms.gamma.transactions.GammaTxnPool;
+import org.multiverse.stms.gamma.transactions.Savepoint;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxnContainer;
+
+/**
+ * A {@link GammaTxnExecutor} that uses flat combining to execute many small transactions on a few highly contended
+ * refs. Instead of every thread running its own transaction (and conflicting with all the others), a thread
+ * publishes its callable in the publication list of this executor. One of the waiting threads becomes the combiner:
+ * it executes the pending callables of all threads in a single transaction that commits once, and hands back the
+ * individual results and exceptions.
+ * <p/>
+ * Every callable in a batch is executed under its own {@link Savepoint}, so a callable that throws an exception
+ * only rolls back its own changes; the exception is rethrown in the thread that published the callable, just like
+ * with a normal TxnExecutor.
+ * <p/>
+ * Combining is not always possible, in the following cases the callable is executed by a normal
+ * {@link FatGammaTxnExecutor} created with the same configuration:
+ * <ol>
+ * <li>the calling thread already has an alive transaction; the callable then is executed according to the
+ * propagation level.</li>
+ * <li>the callable does a retry. Blocking a whole batch on the condition of a single callable is not acceptable,
+ * so the callable is rolled back and executed again by the publishing thread on its own.</li>
+ * <li>the batch can't be committed within the maximum number of retries.</li>
+ * </ol>
+ * Callables can be executed by another thread than the one that called execute, so they should not depend on
+ * thread local state other than the transaction. And since all threads in a batch wait for the slowest callable,
+ * flat combining only makes sense for small transactions.
+ *
+ * @author Peter Veentjer.
+ */
+public final class FlatCombiningGammaTxnExecutor extends AbstractGammaTxnExecutor {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+
+    //the number of combining passes a record can be idle before it is removed from the publication list.
+    private static final int MAX_IDLE_PASSES = 1024;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private static final int KIND_REF = 0;
+    private static final int KIND_INT = 1;
+    private static final int KIND_LONG = 2;
+    private static final int KIND_DOUBLE = 3;
+    private static final int KIND_BOOLEAN = 4;
+    private static final int KIND_VOID = 5;
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_PENDING = 1;
+    private static final int STATE_DONE = 2;
+
+    private static final int OUTCOME_NONE = 0;
+    private static final int OUTCOME_SUCCESS = 1;
+    private static final int OUTCOME_FAILURE = 2;
+    private static final int OUTCOME_FALLBACK = 3;
+
+    private final GammaTxnExecutor fallback;
+    private final AtomicReference<Record> head = new AtomicReference<Record>();
+    private final AtomicBoolean combining = new AtomicBoolean();
+    private final ThreadLocal<Record> records = new ThreadLocal<Record>() {
+        @Override
+        protected Record initialValue() {
+            return new Record();
+        }
+    };
+    //only accessed by the combiner.
+    private final Record[] batch;
+    private long passCount;
+
+    /**
+     * Creates a FlatCombiningGammaTxnExecutor.
+     *
+     * @param txnFactory   the GammaTxnFactory used to create the transaction of a batch.
+     * @param fallback     the GammaTxnExecutor used for the callables that can't be combined.
+     * @param maxBatchSize the maximum number of callables executed in a single transaction.
+     * @throws NullPointerException     if txnFactory or fallback is null.
+     * @throws IllegalArgumentException if maxBatchSize smaller than 1.
+     */
+    public FlatCombiningGammaTxnExecutor(
+            final GammaTxnFactory txnFactory, final GammaTxnExecutor fallback, final int maxBatchSize) {
+        super(txnFactory);
+
+        if (fallback == null) {
+            throw new NullPointerException();
+        }
+
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize should be larger than 0, but was " + maxBatchSize);
+        }
+
+        this.fallback = fallback;
+        this.batch = new Record[maxBatchSize];
+    }
+
+    @Override
+    public GammaTxnFactory getTxnFactory() {
+        return txnFactory;
+    }
+
+    /**
+     * Returns the maximum number of callables executed in a single transaction.
+     *
+     * @return the maximum batch size.
+     */
+    public int getMaxBatchSize() {
+        return batch.length;
+    }
+
+    @Override
+    public <E> E executeChecked(final TxnCallable<E> callable) throws Exception {
+        try {
+            return execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <E> E execute(final TxnCallable<E> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            return fallback.execute(callable);
+        }
+
+        final Record record = combine(KIND_REF, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            return fallback.execute(callable);
+        }
+
+        final E result = (E) record.refResult;
+        record.complete();
+        return result;
+    }
+
+    @Override
+    public int executeChecked(final TxnIntCallable callable) throws Exception {
+        try {
+            return execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public int execute(final TxnIntCallable callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            return fallback.execute(callable);
+        }
+
+        final Record record = combine(KIND_INT, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            return fallback.execute(callable);
+        }
+
+        final int result = (int) record.longResult;
+        record.complete();
+        return result;
+    }
+
+    @Override
+    public long executeChecked(final TxnLongCallable callable) throws Exception {
+        try {
+            return execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public long execute(final TxnLongCallable callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            return fallback.execute(callable);
+        }
+
+        final Record record = combine(KIND_LONG, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            return fallback.execute(callable);
+        }
+
+        final long result = record.longResult;
+        record.complete();
+        return result;
+    }
+
+    @Override
+    public double executeChecked(final TxnDoubleCallable callable) throws Exception {
+        try {
+            return execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public double execute(final TxnDoubleCallable callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            return fallback.execute(callable);
+        }
+
+        final Record record = combine(KIND_DOUBLE, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            return fallback.execute(callable);
+        }
+
+        final double result = GammaStmUtils.longAsDouble(record.longResult);
+        record.complete();
+        return result;
+    }
+
+    @Override
+    public boolean executeChecked(final TxnBooleanCallable callable) throws Exception {
+        try {
+            return execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public boolean execute(final TxnBooleanCallable callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            return fallback.execute(callable);
+        }
+
+        final Record record = combine(KIND_BOOLEAN, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            return fallback.execute(callable);
+        }
+
+        final boolean result = record.longResult != 0;
+        record.complete();
+        return result;
+    }
+
+    @Override
+    public void executeChecked(final TxnVoidCallable callable) throws Exception {
+        try {
+            execute(callable);
+        } catch (InvisibleCheckedException e) {
+            throw e.getCause();
+        }
+    }
+
+    @Override
+    public void execute(final TxnVoidCallable callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+
+        if (hasAliveTxn()) {
+            fallback.execute(callable);
+            return;
+        }
+
+        final Record record = combine(KIND_VOID, callable);
+        if (record.outcome == OUTCOME_FALLBACK) {
+            record.clear();
+            fallback.execute(callable);
+            return;
+        }
+
+        record.complete();
+    }
+
+    private static boolean hasAliveTxn() {
+        final GammaTxn tx = (GammaTxn) getThreadLocalTxnContainer().txn;
+        return tx != null && tx.isAlive();
+    }
+
+    /**
+     * Publishes the callable and waits till it has been executed; either by a combiner thread or by the calling
+     * thread itself when it manages to become the combiner.
+     *
+     * @param kind     the kind of callable.
+     * @param callable the callable to execute.
+     * @return the Record of the calling thread containing the outcome.
+     */
+    private Record combine(final int kind, final Object callable) {
+        final Record record = records.get();
+        record.kind = kind;
+        record.callable = callable;
+        record.outcome = OUTCOME_NONE;
+        record.state = STATE_PENDING;
+
+        int spins = 0;
+        while (true) {
+            if (!record.linked) {
+                link(record);
+            }
+
+            if (combining.compareAndSet(false, true)) {
+                try {
+                    combinePass();
+                } finally {
+                    combining.set(false);
+                }
+            }
+
+            if (record.state == STATE_DONE) {
+                return record;
+            }
+
+            spins++;
+            if (spins > SPINS_BEFORE_YIELD) {
+                Thread.yield();
+            }
+        }
+    }
+
+    private void link(final Record record) {
+        record.linked = true;
+        while (true) {
+            final Record current = head.get();
+            record.next = current;
+            if (head.compareAndSet(current, record)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects the pending records and executes them in a single transaction. Records that have been idle for too
+     * long are removed from the publication list; the head is never removed since that would race with threads
+     * linking their record.
+     * <p/>
+     * Should only be called by the thread that owns the combining lock.
+     */
+    private void combinePass() {
+        final long pass = ++passCount;
+
+        int size = 0;
+        Record prev = null;
+        Record current = head.get();
+        while (current != null) {
+            final Record next = current.next;
+            if (current.state == STATE_PENDING) {
+                current.lastPass = pass;
+                if (size < batch.length) {
+                    batch[size] = current;
+                    size++;
+                }
+                prev = current;
+            } else if (prev != null && pass - current.lastPass > MAX_IDLE_PASSES) {
+                prev.next = next;
+                current.next = null;
+                current.linked = false;
+            } else {
+                prev = current;
+            }
+            current = next;
+        }
+
+        if (size == 0) {
+            return;
+        }
+
+        try {
+            executeBatch(size);
+        } finally {
+            for (int k = 0; k < size; k++) {
+                final Record record = batch[k];
+                batch[k] = null;
+                if (record.outcome == OUTCOME_NONE) {
+                    //the batch failed before the record was executed; so the owner needs to do it.
+                    record.outcome = OUTCOME_FALLBACK;
+                }
+                record.state = STATE_DONE;
+            }
+        }
+    }
+
+    private void executeBatch(final int size) {
+        final TxnThreadLocal.Container transactionContainer = getThreadLocalTxnContainer();
+        GammaTxnPool pool = (GammaTxnPool) transactionContainer.txPool;
+        if (pool == null) {
+            pool = new GammaTxnPool();
+            transactionContainer.txPool = pool;
+        }
+
+        GammaTxn tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        boolean committed = false;
+        try {
+            do {
+                try {
+                    if (executeCallables(tx, size)) {
+                        tx.commit();
+                        committed = true;
+                        return;
+                    }
+                } catch (SpeculativeConfigurationError e) {
+                    final GammaTxn old = tx;
+                    tx = txnFactory.upgradeAfterSpeculativeFailure(tx, pool);
+                    pool.put(old);
+                    transactionContainer.txn = tx;
+                } catch (ReadWriteConflict e) {
+                    backoffPolicy.delayUninterruptible(tx.getAttempt());
+                }
+
+                //the changes of the successful callables are lost, so they need to be executed again.
+                for (int k = 0; k < size; k++) {
+                    final Record record = batch[k];
+                    if (record.outcome == OUTCOME_SUCCESS) {
+                        record.outcome = OUTCOME_NONE;
+                        record.refResult = null;
+                    }
+                }
+            } while (tx.softReset());
+        } finally {
+            if (!committed) {
+                //too many retries or a failing commit; the callables are handed back to their owners.
+                for (int k = 0; k < size; k++) {
+                    final Record record = batch[k];
+                    if (record.outcome == OUTCOME_SUCCESS) {
+                        record.outcome = OUTCOME_FALLBACK;
+                        record.refResult = null;
+                    }
+                }
+            }
+
+            if (tx.isAlive()) {
+                tx.abort();
+            }
+
+            pool.put(tx);
+            transactionContainer.txn = null;
+        }
+    }
+
+    /**
+     * Executes the callables of the batch that don't have an outcome yet.
+     *
+     * @param tx   the transaction of the batch.
+     * @param size the number of records in the batch.
+     * @return true if the transaction can be committed, false if it was aborted and needs to be restarted.
+     */
+    private boolean executeCallables(final GammaTxn tx, final int size) {
+        for (int k = 0; k < size; k++) {
+            final Record record = batch[k];
+            if (record.outcome != OUTCOME_NONE) {
+                continue;
+            }
+
+            final Savepoint savepoint = tx.createSavepoint();
+            try {
+                record.call(tx);
+                record.outcome = OUTCOME_SUCCESS;
+            } catch (RetryError e) {
+                tx.rollbackToSavepoint(savepoint);
+                record.outcome = OUTCOME_FALLBACK;
+            } catch (SpeculativeConfigurationError e) {
+                throw e;
+            } catch (ReadWriteConflict e) {
+                throw e;
+            } catch (Throwable e) {
+                if (tx.doomed) {
+                    //the failure could be caused by the inconsistent reads of the doomed transaction.
+                    throw tx.abortOnDoomed();
+                }
+
+                record.outcome = OUTCOME_FAILURE;
+                record.exception = e;
+                if (!tx.isAlive()) {
+                    //the callable took the transaction down; the other callables need to be executed again.
+                    return false;
+                }
+                tx.rollbackToSavepoint(savepoint);
+            } finally {
+                tx.releaseSavepoint(savepoint);
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The publication record of a single thread. The fields written by the combiner are published to the owner
+     * using the volatile state field.
+     */
+    static final class Record {
+        volatile int state = STATE_IDLE;
+        volatile boolean linked;
+        volatile Record next;
+        int kind;
+        Object callable;
+        int outcome;
+        Object refResult;
+        long longResult;
+        Throwable exception;
+        long lastPass;
+
+        void call(final GammaTxn tx) throws Exception {
+            switch (kind) {
+                case KIND_REF:
+                    refResult = ((TxnCallable) callable).call(tx);
+                    break;
+                case KIND_INT:
+                    longResult = ((TxnIntCallable) callable).call(tx);
+                    break;
+                case KIND_LONG:
+                    longResult = ((TxnLongCallable) callable).call(tx);
+                    break;
+                case KIND_DOUBLE:
+                    longResult = GammaStmUtils.doubleAsLong(((TxnDoubleCallable) callable).call(tx));
+                    break;
+                case KIND_BOOLEAN:
+                    longResult = ((TxnBooleanCallable) callable).call(tx) ? 1 : 0;
+                    break;
+                case KIND_VOID:
+                    ((TxnVoidCallable) callable).call(tx);
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        /**
+         * Clears the record and rethrows the exception of the callable, if any.
+         */
+        void complete() {
+            final Throwable cause = outcome == OUTCOME_FAILURE ? exception : null;
+            clear();
+
+            if (cause == null) {
+                return;
+            }
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw new InvisibleCheckedException((Exception) cause);
+        }
+
+        void clear() {
+            callable = null;
+            refResult = null;
+            exception = null;
+            state = STATE_IDLE;
+        }
+    }
+}
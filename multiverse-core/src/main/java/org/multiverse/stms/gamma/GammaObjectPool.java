@@ -136,7 +136,7 @@ public final class GammaObjectPool {
             return;
         }
 
-        if (array.length - 1 > tranlocalArrayPool.length) {
+        if (array.length >= tranlocalArrayPool.length) {
             return;
         }
 
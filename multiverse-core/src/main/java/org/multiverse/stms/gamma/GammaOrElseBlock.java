@@ -3,6 +3,8 @@ package org.multiverse.stms.gamma;
 import org.multiverse.api.*;
 import org.multiverse.api.callables.*;
 import org.multiverse.api.exceptions.*;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 import static org.multiverse.api.TxnThreadLocal.*;
 
 public class GammaOrElseBlock implements OrElseBlock{
@@ -34,11 +36,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             return either.call(txn);
         }catch(RetryError retry){
-            return orelse.call(txn);
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        return orelse.call(txn);
     }
 
     @Override
@@ -67,11 +75,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             return either.call(txn);
         }catch(RetryError retry){
-            return orelse.call(txn);
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        return orelse.call(txn);
     }
 
     @Override
@@ -100,11 +114,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             return either.call(txn);
         }catch(RetryError retry){
-            return orelse.call(txn);
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        return orelse.call(txn);
     }
 
     @Override
@@ -133,11 +153,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             return either.call(txn);
         }catch(RetryError retry){
-            return orelse.call(txn);
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        return orelse.call(txn);
     }
 
     @Override
@@ -166,11 +192,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             return either.call(txn);
         }catch(RetryError retry){
-            return orelse.call(txn);
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        return orelse.call(txn);
     }
 
     @Override
@@ -200,12 +232,17 @@ public class GammaOrElseBlock implements OrElseBlock{
             throw new TxnMandatoryException("No txn is found, but one is required for the orelse");
         }
 
+        GammaTxn gammaTxn = (GammaTxn)txn;
+        Savepoint savepoint = gammaTxn.createSavepoint();
         try{
             either.call(txn);
             return;
         }catch(RetryError retry){
-            orelse.call(txn);
-            return;
+            gammaTxn.rollbackToSavepoint(savepoint);
+        }finally{
+            gammaTxn.releaseSavepoint(savepoint);
         }
+
+        orelse.call(txn);
     }
 }
\ No newline at end of file
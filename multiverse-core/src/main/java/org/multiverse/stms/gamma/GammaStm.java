@@ -33,6 +33,8 @@ public final class GammaStm implements Stm {
     public final int spinCount;
     public final BackoffPolicy defaultBackoffPolicy;
     public final GlobalConflictCounter globalConflictCounter = new GlobalConflictCounter();
+    public final IrrevocableToken irrevocableToken = new IrrevocableToken();
+    public final LockOwnerTable lockOwnerTable = new LockOwnerTable();
     public final GammaTxnRefFactoryImpl defaultRefFactory = new GammaTxnRefFactoryImpl();
     public final GammaTxnRefFactoryBuilder refFactoryBuilder = new GammaTxnRefFactoryBuilderImpl();
     public final GammaTxnExecutor defaultxnExecutor;
@@ -40,6 +42,8 @@ public final class GammaStm implements Stm {
     public final NaiveTxnCollectionFactory defaultTransactionalCollectionFactory
             = new NaiveTxnCollectionFactory(this);
     public final int readBiasedThreshold;
+    public final boolean adaptiveReadBiasing;
+    public final long readBiasedMinimalDurationNs;
     public final GammaOrElseBlock defaultOrElseBlock = new GammaOrElseBlock();
 
     public GammaStm() {
@@ -58,6 +62,8 @@ public final class GammaStm implements Stm {
                 .setSpeculative(false)
                 .newTxnExecutor();
         this.readBiasedThreshold = config.readBiasedThreshold;
+        this.adaptiveReadBiasing = config.adaptiveReadBiasing;
+        this.readBiasedMinimalDurationNs = config.readBiasedMinimalDurationNs;
     }
 
     @Override
@@ -215,6 +221,51 @@ public final class GammaStm implements Stm {
             return new GammaTxnFactoryBuilderImpl(config.setDirtyCheckEnabled(dirtyCheckEnabled));
         }
 
+        @Override
+        public final GammaTxnFactoryBuilder setOrderedLockingEnabled(final boolean orderedLockingEnabled) {
+            if (orderedLockingEnabled == config.orderedLocking) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setOrderedLockingEnabled(orderedLockingEnabled));
+        }
+
+        @Override
+        public final GammaTxnFactoryBuilder setIrrevocable(final boolean irrevocable) {
+            if (irrevocable == config.irrevocable) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setIrrevocable(irrevocable));
+        }
+
+        @Override
+        public final GammaTxnFactoryBuilder setElastic(final boolean elastic) {
+            if (elastic == config.elastic) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setElastic(elastic));
+        }
+
+        @Override
+        public final GammaTxnFactoryBuilder setInvisibleReadsEnabled(final boolean invisibleReadsEnabled) {
+            if (invisibleReadsEnabled == config.invisibleReads) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setInvisibleReadsEnabled(invisibleReadsEnabled));
+        }
+
+        @Override
+        public final GammaTxnFactoryBuilder setDeferredConflictsEnabled(final boolean deferredConflictsEnabled) {
+            if (deferredConflictsEnabled == config.deferredConflicts) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setDeferredConflictsEnabled(deferredConflictsEnabled));
+        }
+
         @Override
         public final GammaTxnFactoryBuilder setSpinCount(final int spinCount) {
             if (spinCount == config.spinCount) {
@@ -272,6 +323,17 @@ public final class GammaStm implements Stm {
             }
         }
 
+        @Override
+        public final GammaTxnExecutor newFlatCombiningTxnExecutor() {
+            config.init();
+
+            //savepoints are used for every callable in a batch, so a lean transaction would always fail.
+            return new FlatCombiningGammaTxnExecutor(
+                    setFat().newTransactionFactory(),
+                    newTxnExecutor(),
+                    FlatCombiningGammaTxnExecutor.DEFAULT_MAX_BATCH_SIZE);
+        }
+
         private boolean isLean() {
             return config.propagationLevel == PropagationLevel.Requires;
         }
@@ -280,7 +342,7 @@ public final class GammaStm implements Stm {
         public GammaTxnFactory newTransactionFactory() {
             config.init();
 
-            if (config.isSpeculative()) {
+            if (config.isSpeculative() && !config.irrevocable) {
                 return new SpeculativeGammaTxnFactory(config, this);
             } else {
                 return new NonSpeculativeGammaTxnFactory(config,this);
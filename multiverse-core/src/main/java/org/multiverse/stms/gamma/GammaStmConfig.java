@@ -10,6 +10,7 @@ import org.multiverse.api.lifecycle.TxnListener;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 
@@ -87,6 +88,44 @@ public final class GammaStmConfig {
      */
     public boolean dirtyCheck = true;
 
+    /**
+     * The default behavior for acquiring the pessimistic locks. If it is set to true, the locks required by the
+     * read/write LockMode are not acquired when a ref is opened, but all at once during the prepare in a global order
+     * so that transactions can't deadlock on each other.
+     */
+    public boolean orderedLocking = false;
+
+    /**
+     * The default irrevocable behavior. Setting this to true makes every transaction irrevocable, and since
+     * there can only be 1 irrevocable transaction active at any moment, it serializes all transactions.
+     */
+    public boolean irrevocable = false;
+
+    /**
+     * The default elastic behavior. If true, the transactional collections release the reads of the nodes they
+     * traverse.
+     */
+    public boolean elastic = false;
+
+    /**
+     * The default invisible reads behavior. If true, reads are not registered on the transactional objects but
+     * only validated using the version.
+     */
+    public boolean invisibleReads = false;
+
+    /**
+     * The default deferred conflicts behavior. If true, a read/write-conflict detected while reading dooms the
+     * transaction instead of being thrown, and the TxnExecutor retries the doomed transaction.
+     */
+    public boolean deferredConflicts = false;
+
+    /**
+     * The maximum number of opens a doomed transaction (see {@link #deferredConflicts}) can do before the deferred
+     * read/write-conflict is thrown. It bounds the work done by a transaction that runs on inconsistent data, e.g.
+     * a loop that never ends because of an inconsistent read.
+     */
+    public int maxDoomedOpens = 16;
+
     /**
      * The minimal size for the internal array for a variable length transaction. A variable length transaction internally uses
      * an array to store its content and when the transaction grows, the array will grow accordingly.
@@ -171,6 +210,20 @@ public final class GammaStmConfig {
      */
     public int readBiasedThreshold = 128;
 
+    /**
+     * If the readBiasedThreshold should be adapted per transactional object. If a transactional object is updated
+     * shortly (see readBiasedMinimalDurationNs) after it became readbiased, its threshold is doubled (till 1023) so
+     * that it doesn't become readbiased again if it is updated frequently. If it was readbiased for a longer
+     * period, the threshold is halved again till it is back at the readBiasedThreshold.
+     */
+    public boolean adaptiveReadBiasing = true;
+
+    /**
+     * The minimal period in nanoseconds a transactional object should be readbiased before it is updated for read
+     * biasing to be considered beneficial. Only used when adaptiveReadBiasing is enabled.
+     */
+    public long readBiasedMinimalDurationNs = TimeUnit.MILLISECONDS.toNanos(1);
+
     /**
      * Checks if the configuration is valid.
      *
@@ -195,6 +248,18 @@ public final class GammaStmConfig {
                             "readBiasedThreshold was " + readBiasedThreshold);
         }
 
+        if (readBiasedMinimalDurationNs < 0) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] readBiasedMinimalDurationNs can't be smaller than 0, " +
+                            "readBiasedMinimalDurationNs was " + readBiasedMinimalDurationNs);
+        }
+
+        if (maxDoomedOpens < 0) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] maxDoomedOpens can't be smaller than 0, " +
+                            "maxDoomedOpens was " + maxDoomedOpens);
+        }
+
         if (maximumPoorMansConflictScanLength < 0) {
             throw new IllegalStateException(
                     "[GammaStmConfig] maximumFullConflictScanSize can't be smaller than 0, " +
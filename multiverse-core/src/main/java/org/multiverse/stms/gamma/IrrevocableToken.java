@@ -0,0 +1,87 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.api.exceptions.IllegalTxnStateException;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.lang.String.format;
+
+/**
+ * The IrrevocableToken makes sure that there is at most 1 irrevocable transaction active per {@link GammaStm}.
+ * <p/>
+ * An irrevocable transaction acquires an exclusive lock on everything it reads or writes and waits for a lock instead
+ * of failing when it is already locked. Other transactions can't wait for a lock owned by the irrevocable transaction
+ * forever (they spin a limited number of times and abort), so the irrevocable transaction always makes progress.
+ * But 2 irrevocable transactions would wait for each other, hence the token.
+ * <p/>
+ * Normal transactions don't need to look at the token at all, so when no irrevocable transaction is active they are
+ * not slowed down.
+ * <p/>
+ * The token is not reentrant. If the thread that owns the token starts another irrevocable transaction (e.g. a nested
+ * executor with {@link org.multiverse.api.PropagationLevel#RequiresNew}), the new transaction would wait for the token
+ * while the owner waits for the new transaction to complete. So instead of waiting, the acquire fails.
+ *
+ * @author Peter Veentjer.
+ */
+public final class IrrevocableToken {
+
+    private final AtomicReference<GammaTxn> owner = new AtomicReference<GammaTxn>();
+    //the thread that acquired the token. It is cleared before the owner, so a thread only sees itself when it owns
+    //the token.
+    private volatile Thread ownerThread;
+
+    /**
+     * Acquires the token for the transaction. If the token is owned by another transaction, this call waits
+     * (using the BackoffPolicy of the transaction) till it is released. If the transaction already owns the token,
+     * the call is ignored.
+     *
+     * @param tx the transaction that wants to become irrevocable.
+     * @throws IllegalTxnStateException if the token is owned by another transaction of the calling thread.
+     */
+    public void acquire(final GammaTxn tx) {
+        final Thread thread = Thread.currentThread();
+        int attempt = 1;
+        while (!owner.compareAndSet(null, tx)) {
+            final GammaTxn current = owner.get();
+            //noinspection ObjectEquality
+            if (current == tx) {
+                return;
+            }
+
+            //noinspection ObjectEquality
+            if (current != null && ownerThread == thread) {
+                throw new IllegalTxnStateException(
+                        format("[%s] Failed to start irrevocable transaction, reason: the thread already executes " +
+                                "irrevocable transaction [%s]", tx.config.familyName, current.config.familyName));
+            }
+
+            tx.config.backoffPolicy.delayUninterruptible(attempt);
+            attempt++;
+        }
+
+        ownerThread = thread;
+    }
+
+    /**
+     * Releases the token if it is owned by the transaction. If it isn't owned by the transaction, the call is ignored.
+     *
+     * @param tx the transaction that releases the token.
+     */
+    public void release(final GammaTxn tx) {
+        //noinspection ObjectEquality
+        if (owner.get() == tx) {
+            ownerThread = null;
+            owner.compareAndSet(tx, null);
+        }
+    }
+
+    /**
+     * Returns the transaction that currently owns the token, or null if no irrevocable transaction is active.
+     *
+     * @return the owner of the token.
+     */
+    public GammaTxn getOwner() {
+        return owner.get();
+    }
+}
@@ -13,13 +13,15 @@ import static org.multiverse.api.TxnThreadLocal.*;
 /**
  * The {@link TxnExecutor} made for the GammaStm.
  *
+ * The execute methods only contain the common case: a new transaction that commits at the first attempt. All other
+ * logic (nesting, propagation levels, tracing and retrying) is done in separate methods, so that the execute
+ * methods remain small enough to be inlined by the JIT, and with them the callable.call and the commit.
+ *
  * This code is generated.
  *
  * @author Peter Veentjer
  */
 public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
-    private static final Logger logger = Logger.getLogger(LeanGammaTxnExecutor.class.getName());
-
 
     public LeanGammaTxnExecutor(final GammaTxnFactory txnFactory) {
         super(txnFactory);
@@ -56,62 +58,74 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            return executeInOuterTxn(tx, callable);
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        return executeInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private <E> E executeInOuterTxn(
+        final GammaTxn tx, final TxnCallable<E> callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                return callable.call(tx);
+            return callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private <E> E executeInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnCallable<E> callable){
+
+        Throwable failure = null;
+        try {
+            final E result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+    private <E> E executeWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnCallable<E> callable, Throwable failure){
+
+        Error cause = null;
+        try{
             try {
-                do {
-                    try {
-                        cause = null;
-                        E result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final E result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -124,19 +138,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-     @Override
+    @Override
     public final  int executeChecked(
         final TxnIntCallable callable)throws Exception{
 
@@ -162,62 +167,74 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            return executeIntInOuterTxn(tx, callable);
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        return executeIntInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private  int executeIntInOuterTxn(
+        final GammaTxn tx, final TxnIntCallable callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                return callable.call(tx);
+            return callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private  int executeIntInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnIntCallable callable){
+
+        Throwable failure = null;
+        try {
+            final int result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+        return executeIntWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  int executeIntWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnIntCallable callable, Throwable failure){
+
+        Error cause = null;
+        try{
             try {
-                do {
-                    try {
-                        cause = null;
-                        int result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final int result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -230,19 +247,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-     @Override
+    @Override
     public final  long executeChecked(
         final TxnLongCallable callable)throws Exception{
 
@@ -268,62 +276,74 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            return executeLongInOuterTxn(tx, callable);
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        return executeLongInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private  long executeLongInOuterTxn(
+        final GammaTxn tx, final TxnLongCallable callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                return callable.call(tx);
+            return callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private  long executeLongInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnLongCallable callable){
+
+        Throwable failure = null;
+        try {
+            final long result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeLongWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+    private  long executeLongWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnLongCallable callable, Throwable failure){
+
+        Error cause = null;
+        try{
             try {
-                do {
-                    try {
-                        cause = null;
-                        long result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final long result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -336,19 +356,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-     @Override
+    @Override
     public final  double executeChecked(
         final TxnDoubleCallable callable)throws Exception{
 
@@ -374,62 +385,74 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            return executeDoubleInOuterTxn(tx, callable);
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        return executeDoubleInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private  double executeDoubleInOuterTxn(
+        final GammaTxn tx, final TxnDoubleCallable callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                return callable.call(tx);
+            return callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private  double executeDoubleInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnDoubleCallable callable){
+
+        Throwable failure = null;
+        try {
+            final double result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        return executeDoubleWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  double executeDoubleWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnDoubleCallable callable, Throwable failure){
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+        Error cause = null;
+        try{
             try {
-                do {
-                    try {
-                        cause = null;
-                        double result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final double result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -442,19 +465,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-     @Override
+    @Override
     public final  boolean executeChecked(
         final TxnBooleanCallable callable)throws Exception{
 
@@ -480,62 +494,74 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            return executeBooleanInOuterTxn(tx, callable);
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        return executeBooleanInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private  boolean executeBooleanInOuterTxn(
+        final GammaTxn tx, final TxnBooleanCallable callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                return callable.call(tx);
+            return callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private  boolean executeBooleanInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnBooleanCallable callable){
+
+        Throwable failure = null;
+        try {
+            final boolean result = callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
+                return result;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+        return executeBooleanWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
+
+    private  boolean executeBooleanWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnBooleanCallable callable, Throwable failure){
+
+        Error cause = null;
+        try{
             try {
-                do {
-                    try {
-                        cause = null;
-                        boolean result = callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return result;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
 
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                    failure = null;
+                    try {
+                        final boolean result = callable.call(tx);
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return result;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -548,19 +574,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-     @Override
+    @Override
     public final  void executeChecked(
         final TxnVoidCallable callable)throws Exception{
 
@@ -586,63 +603,75 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
         }
 
         GammaTxn tx = (GammaTxn)transactionContainer.txn;
-        if(tx == null || !tx.isAlive()){
-            tx = null;
+        if(tx != null && tx.isAlive()){
+            executeVoidInOuterTxn(tx, callable);
+            return;
         }
 
-        Throwable cause = null;
+        tx = txnFactory.newTransaction(pool);
+        transactionContainer.txn = tx;
+        executeVoidInTxn(tx, transactionContainer, pool, callable);
+    }
+
+    private  void executeVoidInOuterTxn(
+        final GammaTxn tx, final TxnVoidCallable callable){
+
         try{
-            if(tx != null && tx.isAlive()){
-                callable.call(tx);
+            callable.call(tx);
+        }catch(RuntimeException e){
+            throw e;
+        }catch(Exception e){
+            throw new InvisibleCheckedException(e);
+        }
+    }
+
+    private  void executeVoidInTxn(
+        final GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnVoidCallable callable){
+
+        Throwable failure = null;
+        try {
+            callable.call(tx);
+            if (!tx.doomed) {
+                tx.commit();
+                pool.put(tx);
+                transactionContainer.txn = null;
                 return;
             }
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        executeVoidWithRetries(tx, transactionContainer, pool, callable, failure);
+    }
 
-            tx = txnFactory.newTransaction(pool);
-            transactionContainer.txn=tx;
-            boolean abort = true;
+    private  void executeVoidWithRetries(
+        GammaTxn tx, final TxnThreadLocal.Container transactionContainer, final GammaTxnPool pool,
+        final TxnVoidCallable callable, Throwable failure){
+
+        Error cause = null;
+        try{
             try {
-                do {
+                while (true) {
+                    cause = failure instanceof ReadWriteConflict ? (Error) failure : null;
+                    tx = handleFailure(tx, transactionContainer, pool, failure);
+                    if (!tx.softReset()) {
+                        break;
+                    }
+
+                    failure = null;
                     try {
-                        cause = null;
                         callable.call(tx);
-                        tx.commit();
-                        abort = false;
-                        return;
-                    } catch (RetryError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a retry",
-                                    txnConfig.familyName));
-                            }
-                        }
-                        tx.awaitUpdate();
-                    } catch (SpeculativeConfigurationError e) {
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a speculative configuration error",
-                                    txnConfig.familyName));
-                            }
-                        }
-
-                        abort = false;
-                        GammaTxn old = tx;
-                        tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
-                        pool.put(old);
-                        transactionContainer.txn = tx;
-                    } catch (ReadWriteConflict e) {
-                        cause = e;
-                        if(TRACING_ENABLED){
-                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                                logger.info(format("[%s] Encountered a read or write conflict",
-                                    txnConfig.familyName));
-                            }
+                        if (!tx.doomed) {
+                            tx.commit();
+                            return;
                         }
-
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                    } catch (Throwable e) {
+                        failure = e;
                     }
-                } while (tx.softReset());
+                }
             } finally {
-                if (abort) {
+                if (tx.isAlive()) {
                     tx.abort();
                 }
 
@@ -655,16 +684,7 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
             throw new InvisibleCheckedException(e);
         }
 
-        if(TRACING_ENABLED){
-            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
-                logger.info(format("[%s] Maximum number of %s retries has been reached",
-                    txnConfig.familyName, txnConfig.getMaxRetries()));
-            }
-        }
-
-        throw new TooManyRetriesException(
-            format("[%s] Maximum number of %s retries has been reached",
-                txnConfig.getFamilyName(), txnConfig.getMaxRetries()), cause);
-        }
+        throw newTooManyRetriesException(cause);
+    }
 
-   }
+}
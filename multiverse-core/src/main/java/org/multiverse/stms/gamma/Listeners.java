@@ -1,6 +1,8 @@
 package org.multiverse.stms.gamma;
 
 import org.multiverse.api.blocking.RetryLatch;
+import org.multiverse.api.predicates.LongPredicate;
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 
 /**
  * A Listeners object contains all the Latches of blockingAllowed transactions that listen to a write on a
@@ -12,13 +14,34 @@ import org.multiverse.api.blocking.RetryLatch;
  * <p/>
  * Setting the Listeners and removing the it should provide the happens before relation so that all changes made
  * to the Listener before it is getAndSet, are visible when it is removed.
+ * <p/>
+ * A Listeners object can contain a predicate; this is the case when the transaction is waiting for the value of
+ * the owner to satisfy some condition (e.g. {@link org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong#await(LongPredicate)}).
+ * The predicate is evaluated by the committing thread, and the latch is only opened when the predicate holds. If
+ * it doesn't, the Listeners object is registered again, so the waiting transaction isn't woken up for nothing.
  *
  * @author Peter Veentjer
  */
 public final class Listeners {
+
+    /**
+     * The minimal length of a chain before the stale Listeners objects in it are pruned when a listener is
+     * registered.
+     */
+    public static final int MIN_PRUNE_LENGTH = 16;
+
     public Listeners next;
     public RetryLatch listener;
     public long listenerEra;
+    //the version of the owner the listener was registered for.
+    public long version;
+    public LongPredicate predicate;
+    public BaseGammaTxnRef owner;
+    //the number of Listeners objects in the chain starting with this one when it was registered. Stale ones are
+    //only removed by pruning, so it is an upper bound of the number of waiting transactions.
+    public int chainLength;
+    //the chainLength at which the chain is pruned by the next registration.
+    public int pruneLength;
     //public String threadName;
 
     /**
@@ -27,6 +50,9 @@ public final class Listeners {
      * <li>setting the next to null</li>
      * <li>setting the listener to null</li>
      * <li>setting the listenerEra to Long.MIN_VALUE</li>
+     * <li>setting the version to 0</li>
+     * <li>setting the predicate and owner to null</li>
+     * <li>setting the chainLength and pruneLength to 0</li>
      * </ol>
      * <p/>
      * This call is not threadsafe and should only be done by a transaction that has exclusive access to
@@ -36,13 +62,21 @@ public final class Listeners {
         next = null;
         listener = null;
         listenerEra = Long.MIN_VALUE;
+        version = 0;
+        predicate = null;
+        owner = null;
+        chainLength = 0;
+        pruneLength = 0;
     }
 
     /**
      * Opens all latches.
      * <p/>
      * All Listeners are put in the pool. The Latches are not put in the pool since no guarantee can be given
-     * that the Latch is still registered on a different transactional object.
+     * that the Latch is still registered on a different transactional object. A Listeners object with a predicate
+     * that doesn't hold, or that is skipped because its owner uses wake-one semantics, is registered on its owner
+     * again instead of being opened. If the owner is updated before they are registered again, they are evaluated
+     * again against the new value.
      * <p/>
      * This call should only be done by the transaction that removed the listeners from
      * the transactional object. So it is not threadsafe,
@@ -51,12 +85,72 @@ public final class Listeners {
      */
     public void openAll(final GammaObjectPool pool) {
         Listeners current = this;
-        do {
-            Listeners next = current.next;
-            current.listener.open(current.listenerEra);
-            pool.putListeners(current);
-            current = next;
-        } while (current != null);
+        while (true) {
+            //all Listeners in the chain belong to the same owner. The value is read once, so all predicates are
+            //evaluated against the same version.
+            BaseGammaTxnRef owner = null;
+            long version = 0;
+            long value = 0;
+            boolean woken = false;
+            Listeners keepHead = null;
+            Listeners keepTail = null;
+            int keepLength = 0;
+            do {
+                final Listeners next = current.next;
+                final LongPredicate predicate = current.predicate;
+                final RetryLatch latch = current.listener;
+                if (predicate == null) {
+                    latch.open(current.listenerEra);
+                    pool.putListeners(current);
+                } else if (latch.isOpen() || latch.getEra() != current.listenerEra) {
+                    //the transaction already has been woken up by a different change, so we can drop the listener.
+                    pool.putListeners(current);
+                } else {
+                    if (owner == null) {
+                        owner = current.owner;
+                        //JMM: the version is read before the value, so the value is at least as new as the version.
+                        version = owner.version;
+                        value = owner.long_value;
+                    }
+
+                    if ((woken && owner.wakeOne) || !predicate.evaluate(value)) {
+                        current.version = version;
+                        current.next = null;
+                        if (keepHead == null) {
+                            keepHead = current;
+                        } else {
+                            keepTail.next = current;
+                        }
+                        keepTail = current;
+                        keepLength++;
+                    } else {
+                        woken = true;
+                        latch.open(current.listenerEra);
+                        pool.putListeners(current);
+                    }
+                }
+                current = next;
+            } while (current != null);
+
+            if (keepHead == null) {
+                return;
+            }
+
+            owner.reregisterChangeListeners(keepHead, keepTail, keepLength);
+
+            //JMM: the volatile read of version can't jump in front of the compareAndSwap of the registration.
+            if (owner.version == version) {
+                return;
+            }
+
+            //the owner has been updated while the listeners were not registered, so that update could have missed
+            //them. So the listeners are taken over again and evaluated against the new value.
+            current = owner.___removeListenersAfterWrite();
+            if (current == null) {
+                //another thread has taken over the listeners.
+                return;
+            }
+        }
     }
 
     /**
@@ -0,0 +1,59 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+/**
+ * The LockOwnerTable remembers which transaction owns the write or exclusive lock on a transactional object, so
+ * that a transaction that uses ordered locking can detect a wait-for cycle instead of spinning on a lock that isn't
+ * going to be released. Only transactions with ordered locking register themselves; other transactions don't touch
+ * the table at all.
+ * <p/>
+ * The owners are kept in a table per {@link GammaStm} instead of in a field of every object, so objects don't pay
+ * for something that only is needed with ordered locking. The objects are mapped on a fixed number of entries
+ * using their identityHashCode, so different objects can share an entry, and the entries are read and written
+ * without synchronization (a controlled JMM problem, just like the hashcode of String). So the table only is a
+ * hint: a wrong owner causes an earlier retry and a missing owner is dealt with by the spinCount.
+ *
+ * @author Peter Veentjer.
+ */
+public final class LockOwnerTable {
+
+    private static final int LENGTH = 1024;
+
+    private final GammaTxn[] owners = new GammaTxn[LENGTH];
+
+    /**
+     * Returns the transaction that owns the write or exclusive lock on the object, or null if unknown.
+     *
+     * @param object the object.
+     * @return the owner of the lock.
+     */
+    public GammaTxn get(final GammaObject object) {
+        return owners[indexOf(object)];
+    }
+
+    /**
+     * Registers the transaction as the owner of the write or exclusive lock on the object.
+     *
+     * @param object the locked object.
+     * @param owner  the transaction that owns the lock.
+     */
+    public void set(final GammaObject object, final GammaTxn owner) {
+        owners[indexOf(object)] = owner;
+    }
+
+    /**
+     * Clears the owner of the lock on the object. Should be called when a registered owner releases the lock.
+     *
+     * @param object the unlocked object.
+     */
+    public void clear(final GammaObject object) {
+        owners[indexOf(object)] = null;
+    }
+
+    private static int indexOf(final GammaObject object) {
+        final int hash = object.identityHashCode();
+        return (hash ^ (hash >>> 16)) & (LENGTH - 1);
+    }
+}
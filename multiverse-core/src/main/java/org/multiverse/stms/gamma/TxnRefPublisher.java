@@ -0,0 +1,329 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.api.Flow;
+import org.multiverse.api.PropagationLevel;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.blocking.DefaultRetryLatch;
+import org.multiverse.api.blocking.RetryLatch;
+import org.multiverse.api.callables.TxnCallable;
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.multiverse.stms.gamma.ThreadLocalGammaObjectPool.getThreadLocalGammaObjectPool;
+
+/**
+ * A {@link Flow.Publisher} that delivers a value to its subscribers after every commit that changes one of the
+ * watched refs. The value is calculated by a {@link TxnCallable} that is executed in a readonly transaction, so
+ * when a group of refs is watched, the subscriber sees a consistent snapshot of them.
+ * <p/>
+ * No thread is blocked per subscriber. Every subscription registers a {@link RetryLatch} in the listeners of the
+ * watched refs, just like a transaction that does a retry. The committing transaction opens the latch, which only
+ * marks the subscription as dirty and, if the subscriber has demand, schedules a delivery on the Executor.
+ * <p/>
+ * Values are coalesced: the value is calculated when the delivery runs, so if the refs change multiple times before
+ * that, or while the subscriber has no demand, only the most recent value is delivered. The first delivery contains
+ * the current value, so a subscriber doesn't need to read the refs itself.
+ * <p/>
+ * The publisher never completes. A cancel resets the latches of the subscription, so their registrations are stale:
+ * a commit on the refs doesn't notify the subscription anymore, and they are pruned from the listeners by later
+ * registrations on the refs.
+ *
+ * @param <E> the type of the delivered value.
+ * @author Peter Veentjer.
+ */
+public final class TxnRefPublisher<E> implements Flow.Publisher<E> {
+
+    /**
+     * Creates a TxnRefPublisher that delivers the value of a single GammaTxnRef.
+     *
+     * @param ref      the ref to watch.
+     * @param executor the Executor used for delivering the values.
+     * @param <E>      the type of the value.
+     * @return the created TxnRefPublisher.
+     */
+    public static <E> TxnRefPublisher<E> newPublisher(final GammaTxnRef<E> ref, final Executor executor) {
+        return new TxnRefPublisher<E>(executor, new TxnCallable<E>() {
+            @Override
+            public E call(Txn tx) throws Exception {
+                return ref.get(tx);
+            }
+        }, ref);
+    }
+
+    /**
+     * Creates a TxnRefPublisher that delivers the value of a single GammaTxnLong.
+     *
+     * @param ref      the ref to watch.
+     * @param executor the Executor used for delivering the values.
+     * @return the created TxnRefPublisher.
+     */
+    public static TxnRefPublisher<Long> newPublisher(final GammaTxnLong ref, final Executor executor) {
+        return new TxnRefPublisher<Long>(executor, new TxnCallable<Long>() {
+            @Override
+            public Long call(Txn tx) throws Exception {
+                return ref.get(tx);
+            }
+        }, ref);
+    }
+
+    private final Executor executor;
+    private final TxnCallable<E> snapshot;
+    private final BaseGammaTxnRef[] refs;
+    private final TxnExecutor txnExecutor;
+
+    /**
+     * Creates a TxnRefPublisher that watches a group of refs.
+     *
+     * @param executor the Executor used for delivering the values.
+     * @param snapshot the TxnCallable that calculates the value to deliver. It is executed in a readonly
+     *                 transaction and should only read the watched refs.
+     * @param refs     the refs to watch.
+     * @throws NullPointerException     if executor, snapshot or refs (or one of its elements) is null.
+     * @throws IllegalArgumentException if refs is empty or the refs don't belong to the same GammaStm.
+     */
+    public TxnRefPublisher(Executor executor, TxnCallable<E> snapshot, BaseGammaTxnRef... refs) {
+        if (executor == null || snapshot == null || refs == null) {
+            throw new NullPointerException();
+        }
+
+        if (refs.length == 0) {
+            throw new IllegalArgumentException("At least 1 ref should be watched");
+        }
+
+        for (BaseGammaTxnRef ref : refs) {
+            if (ref == null) {
+                throw new NullPointerException();
+            }
+
+            //noinspection ObjectEquality
+            if (ref.stm != refs[0].stm) {
+                throw new IllegalArgumentException("All watched refs should belong to the same GammaStm");
+            }
+        }
+
+        this.executor = executor;
+        this.snapshot = snapshot;
+        this.refs = refs.clone();
+        this.txnExecutor = refs[0].stm.newTxnFactoryBuilder()
+                .setReadonly(true)
+                .setPropagationLevel(PropagationLevel.RequiresNew)
+                .newTxnExecutor();
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super E> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException();
+        }
+
+        subscriber.onSubscribe(new RefSubscription(subscriber));
+    }
+
+    private final class RefSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super E> subscriber;
+        private final RefLatch[] latches;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean dirty = true;
+        private volatile boolean cancelled;
+
+        RefSubscription(Flow.Subscriber<? super E> subscriber) {
+            this.subscriber = subscriber;
+            this.latches = new RefLatch[refs.length];
+            for (int k = 0; k < refs.length; k++) {
+                latches[k] = new RefLatch(this);
+            }
+        }
+
+        @Override
+        public void request(final long n) {
+            if (cancelled) {
+                return;
+            }
+
+            if (n <= 0) {
+                cancel();
+                subscriber.onError(new IllegalArgumentException("request should be called with a positive n"));
+                return;
+            }
+
+            while (true) {
+                final long current = demand.get();
+                long update = current + n;
+                if (update < 0) {
+                    update = Long.MAX_VALUE;
+                }
+
+                if (demand.compareAndSet(current, update)) {
+                    break;
+                }
+            }
+
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            for (RefLatch latch : latches) {
+                latch.reset();
+            }
+        }
+
+        void changed() {
+            dirty = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (cancelled || !dirty || demand.get() == 0) {
+                return;
+            }
+
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                deliver();
+            } finally {
+                scheduled.set(false);
+            }
+
+            //a change or request could have been missed while the delivery was running.
+            schedule();
+        }
+
+        private void deliver() {
+            if (cancelled || !dirty || demand.get() == 0) {
+                return;
+            }
+
+            dirty = false;
+            register();
+
+            final E value;
+            try {
+                value = txnExecutor.execute(snapshot);
+            } catch (RuntimeException ex) {
+                cancel();
+                subscriber.onError(ex);
+                return;
+            }
+
+            demand.decrementAndGet();
+            try {
+                subscriber.onNext(value);
+            } catch (RuntimeException ex) {
+                cancel();
+                subscriber.onError(ex);
+            }
+        }
+
+        /**
+         * Registers the latches on the refs whose listeners were consumed by a commit. The value is read after the
+         * registration, so a commit done after reading the version is either seen by the read, or opens the latch.
+         */
+        private void register() {
+            final GammaObjectPool pool = getThreadLocalGammaObjectPool();
+            for (int k = 0; k < refs.length; k++) {
+                final RefLatch latch = latches[k];
+                if (!latch.isOpen()) {
+                    continue;
+                }
+
+                final BaseGammaTxnRef ref = refs[k];
+                final long era = latch.prepareForRegistration();
+                ref.registerChangeListener(latch, ref.version, pool, era);
+            }
+        }
+    }
+
+    /**
+     * The RetryLatch registered on a single ref of a subscription. The latch is open as long as it isn't registered;
+     * opening it notifies the subscription, so the subscription only is notified once per registration. Waiting and
+     * the eras are delegated to a {@link DefaultRetryLatch}, so it can be used as any other RetryLatch.
+     */
+    private static final class RefLatch implements RetryLatch {
+
+        private final TxnRefPublisher<?>.RefSubscription subscription;
+        private final DefaultRetryLatch latch = new DefaultRetryLatch();
+
+        RefLatch(TxnRefPublisher<?>.RefSubscription subscription) {
+            this.subscription = subscription;
+            latch.open(latch.getEra());
+        }
+
+        /**
+         * Closes the latch so that it can be registered.
+         *
+         * @return the era to register the latch with.
+         */
+        synchronized long prepareForRegistration() {
+            latch.reset();
+            return latch.getEra();
+        }
+
+        @Override
+        public void open(long expectedEra) {
+            synchronized (this) {
+                if (latch.isOpen() || latch.getEra() != expectedEra) {
+                    return;
+                }
+
+                latch.open(expectedEra);
+            }
+
+            subscription.changed();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return latch.isOpen();
+        }
+
+        @Override
+        public long getEra() {
+            return latch.getEra();
+        }
+
+        @Override
+        public void awaitUninterruptible(long expectedEra) {
+            latch.awaitUninterruptible(expectedEra);
+        }
+
+        @Override
+        public void await(long expectedEra, String transactionFamilyName) {
+            latch.await(expectedEra, transactionFamilyName);
+        }
+
+        @Override
+        public long awaitNanosUninterruptible(long expectedEra, long nanosTimeout) {
+            return latch.awaitNanosUninterruptible(expectedEra, nanosTimeout);
+        }
+
+        @Override
+        public long awaitNanos(long expectedEra, long nanosTimeout, String transactionFamilyName) {
+            return latch.awaitNanos(expectedEra, nanosTimeout, transactionFamilyName);
+        }
+
+        /**
+         * Moves the latch to a new era, so its registrations are stale and are pruned from the listeners of the ref.
+         * Opening it with the old era doesn't notify the subscription anymore.
+         */
+        @Override
+        public synchronized void reset() {
+            latch.reset();
+        }
+    }
+}
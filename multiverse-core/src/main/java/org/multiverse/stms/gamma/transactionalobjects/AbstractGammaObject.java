@@ -21,7 +21,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
     public static final long MASK_OREC_UPDATELOCK = 0x4000000000000000L;
     public static final long MASK_OREC_READBIASED = 0x2000000000000000L;
     public static final long MASK_OREC_READLOCKS = 0x1FFFFF0000000000L;
-    public static final long MASK_OREC_SURPLUS = 0x000000FFFFFFFE00L;
+    public static final long MASK_OREC_SURPLUS = 0x000000FFFFFFFC00L;
     public static final long MASK_OREC_READONLY_COUNT = 0x00000000000003FFL;
 
     protected static final Unsafe ___unsafe = ToolUnsafe.getUnsafe();
@@ -53,8 +53,18 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
     //This field has a controlled JMM problem (just like the hashcode of String).
     protected int identityHashCode;
 
-    //it is important that the maximum threshold is not larger than 1023 (there are 10 bits for the readonly count)
-    private final int readBiasedThreshold;
+    public static final int MAX_READBIASED_THRESHOLD = 1023;
+
+    //it is important that the maximum threshold is not larger than 1023 (there are 10 bits for the readonly count).
+    //With adaptive read biasing the threshold is changed when the orec is updated while it is readbiased. This
+    //is done while the exclusive lock is acquired, so there is only a controlled jmm problem for the readers
+    //(just like the identityHashCode).
+    private int readBiasedThreshold;
+
+    //the moment the orec became readbiased and the number of times a readbiased orec has been updated. Only
+    //used for adaptive read biasing and diagnostics, and they have the same controlled jmm problem.
+    private long readBiasedSinceNs;
+    private int readBiasedRevocationCount;
 
     public AbstractGammaObject(GammaStm stm) {
         assert stm != null;
@@ -203,10 +213,27 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         return hasExclusiveLock(orec);
     }
 
+    /**
+     * Returns the number of times this transactional object needs to be only read before it becomes readbiased.
+     * With adaptive read biasing (see {@link org.multiverse.stms.gamma.GammaStmConfig#adaptiveReadBiasing}) this
+     * value changes over time.
+     *
+     * @return the current readbiased threshold.
+     */
     public final int getReadBiasedThreshold() {
         return readBiasedThreshold;
     }
 
+    /**
+     * Returns the number of times this transactional object has been updated while it was readbiased (so the
+     * update caused a conflict for all transactions doing a rich mans conflict scan). Only meant for diagnostics.
+     *
+     * @return the number of readbiased revocations.
+     */
+    public final int getReadBiasedRevocationCount() {
+        return readBiasedRevocationCount;
+    }
+
     public final long getSurplus() {
         return getSurplus(orec);
     }
@@ -539,6 +566,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             if (!hasExclusiveLock && surplus == 0 && readonlyCount == readBiasedThreshold) {
                 isReadBiased = true;
                 readonlyCount = 0;
+                readBiasedSinceNs = System.nanoTime();
             }
 
             long next = setIsReadBiased(current, isReadBiased);
@@ -589,6 +617,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             if (surplus == 0 && readonlyCount == readBiasedThreshold) {
                 isReadBiased = true;
                 readonlyCount = 0;
+                readBiasedSinceNs = System.nanoTime();
             }
 
             long next = current;
@@ -631,6 +660,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
 
                 //there always is a conflict when a readbiased orec is updated.
                 surplus = 0;
+                revokeReadBiased();
             } else {
                 surplus--;
             }
@@ -648,6 +678,31 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         }
     }
 
+    /**
+     * Is called when a readbiased orec is updated, so all transactions doing a rich mans conflict scan are forced
+     * to do a full conflict scan. The exclusive lock is acquired by the calling transaction.
+     * <p/>
+     * With adaptive read biasing the readbiased threshold is doubled if the orec was readbiased for a shorter
+     * period than the readBiasedMinimalDurationNs of the stm, so that an orec that is updated frequently needs more
+     * reads before it becomes readbiased again (or doesn't become readbiased anymore if it is updated before
+     * the maximum threshold is reached). If it was readbiased longer, the threshold is halved again until it is
+     * back at the readBiasedThreshold of the stm.
+     */
+    private void revokeReadBiased() {
+        readBiasedRevocationCount++;
+
+        if (!stm.adaptiveReadBiasing) {
+            return;
+        }
+
+        final int threshold = readBiasedThreshold;
+        if (System.nanoTime() - readBiasedSinceNs < stm.readBiasedMinimalDurationNs) {
+            readBiasedThreshold = Math.min(MAX_READBIASED_THRESHOLD, Math.max(1, threshold * 2));
+        } else {
+            readBiasedThreshold = Math.max(stm.readBiasedThreshold, threshold / 2);
+        }
+    }
+
     /**
      * Departs after a transaction fails and has an arrive on this Orec. It doesn't matter what the lock level
      * is, as long as it is higher than LOCKMODE_NONE. This call can safely be made on a read or update biased
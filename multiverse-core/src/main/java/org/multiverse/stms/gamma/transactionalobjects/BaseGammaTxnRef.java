@@ -7,10 +7,13 @@ import org.multiverse.api.blocking.RetryLatch;
 import org.multiverse.api.exceptions.LockedException;
 import org.multiverse.api.exceptions.TxnMandatoryException;
 import org.multiverse.api.functions.*;
+import org.multiverse.api.predicates.LongPredicate;
+import org.multiverse.stms.gamma.CommitStream;
 import org.multiverse.stms.gamma.GammaObjectPool;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.GammaStmUtils;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.LockOwnerTable;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
@@ -29,16 +32,64 @@ import static org.multiverse.utils.Bugshaker.shakeBugs;
 @SuppressWarnings({"OverlyComplexClass", "OverlyCoupledClass"})
 public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
+    private static final int MAX_WAIT_FOR_CHAIN_LENGTH = 8;
+
     public final int type;
     @SuppressWarnings({"VolatileLongOrDoubleField"})
     public volatile long long_value;
     public volatile Object ref_value;
+    //not volatile; it should be set before the ref is used by other threads.
+    public CommitStream commitStream;
+    public boolean wakeOne;
 
     protected BaseGammaTxnRef(GammaStm stm, int type) {
         super(stm);
         this.type = type;
     }
 
+    /**
+     * Sets the {@link CommitStream} the committed writes on this ref are published to. Should be set before the ref is
+     * shared with other threads.
+     *
+     * @param commitStream the CommitStream, or null to stop publishing.
+     */
+    public final void setCommitStream(final CommitStream commitStream) {
+        this.commitStream = commitStream;
+    }
+
+    /**
+     * Returns the {@link CommitStream} the committed writes on this ref are published to.
+     *
+     * @return the CommitStream, or null if writes are not published.
+     */
+    public final CommitStream getCommitStream() {
+        return commitStream;
+    }
+
+    /**
+     * Enables or disables wake-one semantics for transactions that wait on this ref using a predicate (e.g.
+     * {@link GammaTxnLong#await(org.multiverse.api.predicates.LongPredicate)}). With wake-one enabled, a commit only
+     * wakes up the first waiting transaction for which the predicate holds, instead of all of them. This is useful
+     * for queue or semaphore like structures where a single item can only be taken by a single transaction.
+     * <p/>
+     * The woken up transaction is expected to update this ref (e.g. take the item), since that commit wakes up the next
+     * waiting transaction. Transactions that wait without a predicate are always woken up.
+     *
+     * @param wakeOne true if wake-one semantics should be used.
+     */
+    public final void setWakeOne(final boolean wakeOne) {
+        this.wakeOne = wakeOne;
+    }
+
+    /**
+     * Checks if wake-one semantics are used for transactions waiting on this ref with a predicate.
+     *
+     * @return true if wake-one semantics are used.
+     */
+    public final boolean isWakeOne() {
+        return wakeOne;
+    }
+
     @SuppressWarnings({"BooleanMethodIsAlwaysInverted"})
     public final boolean flattenCommute(final GammaTxn tx, final Tranlocal tranlocal, final int lockMode) {
         assert tranlocal.mode == TRANLOCAL_COMMUTING;
@@ -79,6 +130,29 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         return true;
     }
 
+    /**
+     * Applies commuting functions on a tranlocal that already is loaded. This is used when a transaction is rolled
+     * back to a {@link org.multiverse.stms.gamma.transactions.Savepoint} after the commute was flattened. If one of
+     * the functions fails, the transaction is aborted.
+     *
+     * @param tx        the transaction the tranlocal belongs to.
+     * @param tranlocal the loaded tranlocal.
+     * @param functions the functions to apply.
+     */
+    public final void evaluateCommutingFunctions(final GammaTxn tx, final Tranlocal tranlocal, final Function[] functions) {
+        boolean abort = true;
+        try {
+            for (Function function : functions) {
+                evaluate(tranlocal, tx, function);
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                tx.abort();
+            }
+        }
+    }
+
     private void evaluate(final Tranlocal tranlocal, GammaTxn tx, final Function function) {
         tx.evaluatingCommute = true;
 
@@ -119,16 +193,26 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             return null;
         }
 
+        final long newVersion = tranlocal.version + 1;
+        final CommitStream commitStream = this.commitStream;
         if (type == TYPE_REF) {
-            ref_value = tranlocal.ref_value;
+            final Object newValue = tranlocal.ref_value;
+            ref_value = newValue;
             //we need to set them to null to prevent memory leaks.
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            if (commitStream != null) {
+                commitStream.publish(this, newVersion, 0, newValue);
+            }
         } else {
-            long_value = tranlocal.long_value;
+            final long newValue = tranlocal.long_value;
+            long_value = newValue;
+            if (commitStream != null) {
+                commitStream.publish(this, newVersion, newValue, null);
+            }
         }
 
-        version = tranlocal.version + 1;
+        version = newVersion;
 
         Listeners listenerAfterWrite = listeners;
 
@@ -152,6 +236,11 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         ref_value = tranlocal.ref_value;
         version = tranlocal.version + 1;
 
+        final CommitStream commitStream = this.commitStream;
+        if (commitStream != null) {
+            commitStream.publish(this, tranlocal.version + 1, 0, tranlocal.ref_value);
+        }
+
         Listeners listenerAfterWrite = listeners;
 
         if (listenerAfterWrite != null) {
@@ -178,7 +267,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             if (!tranlocal.writeSkewCheck) {
                 return true;
             }
-            return tryLockAndCheckConflict(tx, tranlocal, tx.config.spinCount, LOCKMODE_READ);
+            return tryLockForPrepare(tx, tranlocal, LOCKMODE_READ);
         }
 
         if (mode == TRANLOCAL_COMMUTING) {
@@ -196,16 +285,170 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 if (!tranlocal.writeSkewCheck) {
                     return true;
                 }
-                return tryLockAndCheckConflict(tx, tranlocal, tx.config.spinCount, LOCKMODE_READ);
+                return tryLockForPrepare(tx, tranlocal, LOCKMODE_READ);
             }
 
             tranlocal.isDirty = true;
         }
 
-        return tryLockAndCheckConflict(tx, tranlocal, tx.config.spinCount, LOCKMODE_EXCLUSIVE);
+        return tryLockForPrepare(tx, tranlocal, LOCKMODE_EXCLUSIVE);
+    }
+
+    /**
+     * Acquires the lock that was deferred to the prepare because ordered locking is enabled. This is called
+     * for all tranlocals of the transaction in the global order, before they are prepared. Reads are locked with the
+     * read LockMode and writes with the write LockMode, or with an exclusive lock if they are dirty. The readlock
+     * needed for the writeskew check also is acquired here so that no lock is acquired outside of the global order.
+     *
+     * @param tx        the transaction
+     * @param tranlocal the tranlocal to lock.
+     * @return true if the lock was acquired and there was no conflict.
+     */
+    @SuppressWarnings({"BooleanMethodIsAlwaysInverted"})
+    public final boolean acquireOrderedLock(final GammaTxn tx, final Tranlocal tranlocal) {
+        final GammaTxnConfig config = tx.config;
+
+        final int lockMode;
+        switch (tranlocal.getMode()) {
+            case TRANLOCAL_CONSTRUCTING:
+                return true;
+            case TRANLOCAL_COMMUTING:
+                return flattenCommute(tx, tranlocal, LOCKMODE_EXCLUSIVE);
+            case TRANLOCAL_READ:
+                lockMode = tranlocal.writeSkewCheck
+                        ? max(LOCKMODE_READ, config.orderedReadLockModeAsInt)
+                        : config.orderedReadLockModeAsInt;
+                break;
+            default:
+                final boolean isDirty = tranlocal.isDirty || (type == TYPE_REF
+                        ? tranlocal.ref_value != tranlocal.ref_oldValue
+                        : tranlocal.long_value != tranlocal.long_oldValue);
+
+                if (isDirty) {
+                    lockMode = LOCKMODE_EXCLUSIVE;
+                } else {
+                    lockMode = tranlocal.writeSkewCheck
+                            ? max(LOCKMODE_READ, config.orderedWriteLockModeAsInt)
+                            : config.orderedWriteLockModeAsInt;
+                }
+        }
+
+        return tryLockForPrepare(tx, tranlocal, lockMode);
+    }
+
+    /**
+     * Checks if what is read still is valid for a transaction with the
+     * {@link IsolationLevel#SerializableSnapshot} isolation level. This is called after the writes of the transaction
+     * have been locked. A tranlocal that is locked by the transaction can't have been changed. Otherwise the read
+     * is invalid if it has been overwritten, or if another transaction has it locked for writing.
+     * <p/>
+     * The lock is checked before the version, so a writer that locks after the check is serialized after this
+     * transaction (and will see the locks of this transaction when it checks its own reads).
+     *
+     * @param tranlocal the tranlocal to check.
+     * @return true if the read still is valid.
+     */
+    public final boolean isReadValid(final Tranlocal tranlocal) {
+        if (tranlocal.getMode() == TRANLOCAL_CONSTRUCTING || tranlocal.getLockMode() != LOCKMODE_NONE) {
+            return true;
+        }
+
+        if (hasWriteOrExclusiveLock(orec)) {
+            return false;
+        }
+
+        return version == tranlocal.version;
+    }
+
+    /**
+     * Arrives and locks for an irrevocable transaction. Instead of failing when the lock can't be acquired within
+     * the spinCount, it keeps trying (using the BackoffPolicy of the transaction) since an irrevocable transaction
+     * is not allowed to abort. This can't wait forever: other transactions only spin a limited number of times for
+     * a lock owned by the irrevocable transaction and there is at most 1 irrevocable transaction.
+     *
+     * @param tx        the irrevocable transaction
+     * @param lockMode  the LockMode to acquire
+     * @param spinCount the number of times to spin before backing off.
+     * @return the arrive status.
+     */
+    private int arriveAndLockIrrevocably(final GammaTxn tx, final int lockMode, final int spinCount) {
+        final boolean orderedLocking = tx.config.orderedLocking;
+        if (orderedLocking) {
+            tx.waitingFor = this;
+        }
+        int attempt = 1;
+        int result;
+        while ((result = arriveAndLock(spinCount, lockMode)) == FAILURE) {
+            tx.config.backoffPolicy.delayUninterruptible(attempt);
+            attempt++;
+        }
+        if (orderedLocking) {
+            tx.waitingFor = null;
+        }
+        return result;
+    }
+
+    /**
+     * Checks if waiting for the lock on this ref would close a wait-for cycle: the transaction owning the lock
+     * is (transitively) waiting for a lock owned by the given transaction. If so there is no point in spinning since
+     * the lock won't be released before one of them gives up.
+     * <p/>
+     * The {@link org.multiverse.stms.gamma.LockOwnerTable} and the waitingFor fields are read without
+     * synchronization, so this only is a hint. A false positive causes an earlier retry and a false negative is dealt
+     * with by the spinCount. Only transactions with ordered locking are registered, so this should only be called
+     * by them.
+     *
+     * @param tx the transaction that wants to acquire the lock.
+     * @return true if a wait-for cycle was detected.
+     */
+    private boolean closesWaitForCycle(final GammaTxn tx) {
+        final LockOwnerTable lockOwnerTable = stm.lockOwnerTable;
+        GammaTxn owner = lockOwnerTable.get(this);
+        for (int k = 0; k < MAX_WAIT_FOR_CHAIN_LENGTH && owner != null && owner != tx; k++) {
+            final BaseGammaTxnRef waitingFor = owner.waitingFor;
+            if (waitingFor == null) {
+                return false;
+            }
+
+            owner = lockOwnerTable.get(waitingFor);
+            if (owner == tx) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Registers the transaction as the owner of the write or exclusive lock it holds on this ref, if it uses
+     * ordered locking. See {@link #closesWaitForCycle(GammaTxn)}.
+     *
+     * @param tx        the transaction
+     * @param tranlocal the tranlocal of the transaction for this ref.
+     */
+    private void registerLockOwner(final GammaTxn tx, final Tranlocal tranlocal) {
+        if (tx.config.orderedLocking && tranlocal.lockMode >= LOCKMODE_WRITE && !tranlocal.lockOwnerRegistered) {
+            stm.lockOwnerTable.set(this, tx);
+            tranlocal.lockOwnerRegistered = true;
+        }
+    }
+
+    /**
+     * Unregisters the transaction as the owner of the lock on this ref. Needs to be done on every path that
+     * releases the lock of a tranlocal.
+     *
+     * @param tranlocal the tranlocal that owned the lock.
+     */
+    private void unregisterLockOwner(final Tranlocal tranlocal) {
+        if (tranlocal.lockOwnerRegistered) {
+            stm.lockOwnerTable.clear(this);
+            tranlocal.lockOwnerRegistered = false;
+        }
     }
 
     public final void releaseAfterFailure(final Tranlocal tranlocal, final GammaObjectPool pool) {
+        unregisterLockOwner(tranlocal);
+
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
@@ -237,6 +480,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         tranlocal.owner = null;
+        tranlocal.awaitPredicate = null;
     }
 
     public final void releaseAfterUpdate(final Tranlocal tranlocal, final GammaObjectPool pool) {
@@ -245,13 +489,17 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             tranlocal.ref_oldValue = null;
         }
 
+        unregisterLockOwner(tranlocal);
         departAfterUpdateAndUnlock();
         tranlocal.lockMode = LOCKMODE_NONE;
         tranlocal.owner = null;
+        tranlocal.awaitPredicate = null;
         tranlocal.hasDepartObligation = false;
     }
 
     public final void releaseAfterReading(final Tranlocal tranlocal, final GammaObjectPool pool) {
+        unregisterLockOwner(tranlocal);
+
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
@@ -271,16 +519,32 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         tranlocal.owner = null;
+        tranlocal.awaitPredicate = null;
     }
 
     public final boolean load(
             final GammaTxn tx, final Tranlocal tranlocal, final int lockMode, int spinCount, final boolean arriveNeeded) {
 
         if (lockMode != LOCKMODE_NONE) {
-            final int result = arriveAndLock(spinCount, lockMode);
+            final int result;
+            if (tx.config.irrevocable) {
+                result = arriveAndLockIrrevocably(tx, lockMode, spinCount);
+            } else {
+                if (tx.config.orderedLocking) {
+                    if (closesWaitForCycle(tx)) {
+                        return false;
+                    }
 
-            if (result == FAILURE) {
-                return false;
+                    tx.waitingFor = this;
+                    result = arriveAndLock(spinCount, lockMode);
+                    tx.waitingFor = null;
+                } else {
+                    result = arriveAndLock(spinCount, lockMode);
+                }
+
+                if (result == FAILURE) {
+                    return false;
+                }
             }
 
             tranlocal.owner = this;
@@ -289,6 +553,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 final Object value = ref_value;
                 tranlocal.ref_value = value;
                 tranlocal.ref_oldValue = value;
+                tranlocal.privateRefValue = false;
             } else {
                 final long value = long_value;
                 tranlocal.long_value = value;
@@ -296,10 +561,12 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             }
             tranlocal.lockMode = lockMode;
             tranlocal.hasDepartObligation = (result & MASK_UNREGISTERED) == 0;
-            tx.commitConflict = (result & MASK_CONFLICT) != 0;
+            registerLockOwner(tx, tranlocal);
+            if ((result & MASK_CONFLICT) != 0) {
+                tx.commitConflict = true;
+            }
             return true;
         }
-
         while (true) {
             long readLong = 0;
             Object readRef = null;
@@ -344,6 +611,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 if (type == TYPE_REF) {
                     tranlocal.ref_value = readRef;
                     tranlocal.ref_oldValue = readRef;
+                    tranlocal.privateRefValue = false;
                 } else {
                     tranlocal.long_value = readLong;
                     tranlocal.long_oldValue = readLong;
@@ -622,6 +890,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 //at this point we are sure that the read was unlocked.
                 tranlocal.version = readVersion;
                 tranlocal.ref_value = readRef;
+                tranlocal.privateRefValue = false;
                 break;
             }
         }
@@ -721,6 +990,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 //at this point we are sure that the read was unlocked.
                 newNode.version = readVersion;
                 newNode.ref_value = readRef;
+                newNode.privateRefValue = false;
                 break;
             }
         }
@@ -788,6 +1058,8 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         //noinspection ObjectEquality
         if (tranlocal.owner == this) {
             //we have found the tranlocal we are looking for.
+            //the ref is read again, so an await predicate no longer is the only dependency on it.
+            tranlocal.awaitPredicate = null;
 
             int mode = tranlocal.mode;
 
@@ -831,6 +1103,10 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
         final GammaTxnConfig config = tx.config;
 
+        if (tx.doomed && ++tx.doomedOpens > config.maxDoomedOpens) {
+            throw tx.abortOnDoomed();
+        }
+
         //noinspection ObjectEquality
         if (config.stm != stm) {
             throw tx.abortOpenForReadOnBadStm(this);
@@ -860,6 +1136,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         desiredLockMode = config.readLockModeAsInt <= desiredLockMode ? desiredLockMode : config.readLockModeAsInt;
 
         if (found != null) {
+            found.awaitPredicate = null;
             final int mode = found.mode;
 
             if (mode == TRANLOCAL_CONSTRUCTING) {
@@ -917,6 +1194,10 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
         final GammaTxnConfig config = tx.config;
 
+        if (tx.doomed && ++tx.doomedOpens > config.maxDoomedOpens) {
+            throw tx.abortOnDoomed();
+        }
+
         //noinspection ObjectEquality
         if (config.stm != stm) {
             throw tx.abortOpenForReadOnBadStm(this);
@@ -933,6 +1214,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
         if (indexOf > -1) {
             final Tranlocal tranlocal = tx.array[indexOf];
+            tranlocal.awaitPredicate = null;
             final int mode = tranlocal.mode;
 
             if (mode == TRANLOCAL_CONSTRUCTING) {
@@ -1673,13 +1955,52 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             final int spinCount,
             final int desiredLockMode) {
 
-        final int currentLockMode = tranlocal.getLockMode();
-
         //if the currentLockMode mode is higher or equal than the desired lockmode, we are done.
-        if (currentLockMode >= desiredLockMode) {
+        if (tranlocal.getLockMode() >= desiredLockMode) {
             return true;
         }
 
+        final boolean success = doTryLockAndCheckConflict(tx, tranlocal, spinCount, desiredLockMode);
+        registerLockOwner(tx, tranlocal);
+        return success;
+    }
+
+    /**
+     * Does the {@link #tryLockAndCheckConflict(GammaTxn, Tranlocal, int, int)} for the prepare of the transaction,
+     * but fails immediately instead of spinning if waiting for the lock would close a wait-for cycle.
+     *
+     * @param tx              the transaction
+     * @param tranlocal       the tranlocal
+     * @param desiredLockMode the desired LockMode
+     * @return true if the lock was acquired successfully and there was no conflict.
+     */
+    private boolean tryLockForPrepare(final GammaTxn tx, final Tranlocal tranlocal, final int desiredLockMode) {
+        if (tranlocal.getLockMode() >= desiredLockMode) {
+            return true;
+        }
+
+        if (!tx.config.orderedLocking) {
+            return tryLockAndCheckConflict(tx, tranlocal, tx.config.spinCount, desiredLockMode);
+        }
+
+        if (closesWaitForCycle(tx)) {
+            return false;
+        }
+
+        tx.waitingFor = this;
+        final boolean success = tryLockAndCheckConflict(tx, tranlocal, tx.config.spinCount, desiredLockMode);
+        tx.waitingFor = null;
+        return success;
+    }
+
+    private boolean doTryLockAndCheckConflict(
+            final GammaTxn tx,
+            final Tranlocal tranlocal,
+            final int spinCount,
+            final int desiredLockMode) {
+
+        final int currentLockMode = tranlocal.getLockMode();
+
         //no lock currently is acquired, lets acquire it.
         if (currentLockMode == LOCKMODE_NONE) {
             final long expectedVersion = tranlocal.version;
@@ -1766,7 +2087,34 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             return REGISTRATION_NONE;
         }
 
-        final long version = tranlocal.version;
+        return registerChangeListener(latch, tranlocal.version, tranlocal.awaitPredicate, pool, listenerEra);
+    }
+
+    /**
+     * Registers a RetryLatch that is opened as soon as the ref contains a different version than the one provided.
+     * If that already is the case, the latch is opened directly.
+     *
+     * @param latch       the RetryLatch to open.
+     * @param version     the version the caller has seen.
+     * @param pool        the GammaObjectPool to take the Listeners from.
+     * @param listenerEra the era of the latch.
+     * @return REGISTRATION_DONE, REGISTRATION_NOT_NEEDED.
+     */
+    public final int registerChangeListener(
+            final RetryLatch latch,
+            final long version,
+            final GammaObjectPool pool,
+            final long listenerEra) {
+
+        return registerChangeListener(latch, version, null, pool, listenerEra);
+    }
+
+    private int registerChangeListener(
+            final RetryLatch latch,
+            final long version,
+            final LongPredicate predicate,
+            final GammaObjectPool pool,
+            final long listenerEra) {
 
         if (version != this.version) {
             //if it currently already contains a different version, we are done.
@@ -1781,24 +2129,59 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         //update.threadName = Thread.currentThread().getName();
         update.listener = latch;
         update.listenerEra = listenerEra;
+        update.version = version;
+        if (predicate != null) {
+            update.predicate = predicate;
+            update.owner = this;
+        }
+
+        //once the chain has grown long enough, the registered listeners are taken over so that the stale ones (e.g.
+        //of transactions that timed out) can be pruned. The remaining ones are registered again together with the
+        //update. Since the chain needs to double before it is pruned again, a registration is O(1) amortized.
+        Listeners tail = update;
+        int length = 1;
+        int pruneLength = 0;
+        final Listeners head = listeners;
+        if (head != null && head.chainLength >= head.pruneLength) {
+            final Listeners registered = ___removeListenersAfterWrite();
+            if (registered != null) {
+                tail = pruneListeners(registered, update, version, pool);
+                length = update.chainLength;
+                pruneLength = 2 * length;
+            }
+        }
 
         //we need to do this in a loop because other register thread could be contending for the same
         //listeners field.
         while (true) {
             if (version != this.version) {
-                //if it currently already contains a different version, we are done.
+                //if it currently already contains a different version, we are done. The listeners that were taken
+                //over could have missed the write, so they are opened as well.
+                tail.next = null;
+                final Listeners takenOver = update.next;
+                pool.putListeners(update);
                 latch.open(listenerEra);
+                if (takenOver != null) {
+                    takenOver.openAll(pool);
+                }
                 return REGISTRATION_NOT_NEEDED;
             }
 
             //the listeners object is mutable, but as long as it isn't yet registered, this calling
             //thread has full ownership of it.
             final Listeners current = listeners;
-            update.next = current;
+            tail.next = current;
+            if (current == null) {
+                update.chainLength = length;
+                update.pruneLength = Math.max(Listeners.MIN_PRUNE_LENGTH, pruneLength);
+            } else {
+                update.chainLength = length + current.chainLength;
+                update.pruneLength = Math.max(current.pruneLength, pruneLength);
+            }
 
             //lets try to register our listeners.
-            final boolean registered = ___unsafe.compareAndSwapObject(this, listenersOffset, current, update);
-            if (!registered) {
+            final boolean success = ___unsafe.compareAndSwapObject(this, listenersOffset, current, update);
+            if (!success) {
                 //so we are contending with another register thread, so lets try it again. Since the compareAndSwap
                 //didn't succeed, we know that the current thread still has exclusive ownership on the Listeners object
                 //so we can try to register it again, but now with the newly found listeners
@@ -1832,11 +2215,93 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                     //we have complete ownership of the listeners that are removed, so lets open them.
                     update.openAll(pool);
                 }
-                return REGISTRATION_NOT_NEEDED;
+
+                //if the predicate of the latch doesn't hold, it has been registered again instead of being opened.
+                return latch.isOpen() ? REGISTRATION_NOT_NEEDED : REGISTRATION_DONE;
+            }
+        }
+    }
+
+    /**
+     * Appends the listeners that still are waiting for a change of this ref to the update. Listeners of transactions
+     * that are not waiting anymore (their latch is open or has moved to a different era, e.g. because they timed
+     * out) are pooled. Listeners that were registered for an older version, could have missed a write while they were
+     * taken over, so they are opened.
+     *
+     * @param registered the listeners taken over from this ref; the calling thread should have exclusive ownership.
+     * @param update     the Listeners object to append the remaining listeners to.
+     * @param version    the version the update is registered for.
+     * @param pool       the GammaObjectPool to put the discarded Listeners objects in.
+     * @return the tail of the update. The chainLength of the update is set to the number of Listeners objects from
+     *         the update up to and including the tail.
+     */
+    private Listeners pruneListeners(
+            final Listeners registered, final Listeners update, final long version, final GammaObjectPool pool) {
+
+        Listeners tail = update;
+        int length = 1;
+        Listeners current = registered;
+        do {
+            final Listeners next = current.next;
+            final RetryLatch latch = current.listener;
+            if (latch.isOpen() || latch.getEra() != current.listenerEra) {
+                pool.putListeners(current);
+            } else if (current.version != version) {
+                latch.open(current.listenerEra);
+                pool.putListeners(current);
+            } else {
+                tail.next = current;
+                tail = current;
+                length++;
             }
+            current = next;
+        } while (current != null);
+
+        tail.next = null;
+        update.chainLength = length;
+        return tail;
+    }
+
+    /**
+     * Returns the number of listeners currently registered on this ref. Since the listeners can change concurrently,
+     * this is only an indication; it can be used to detect a build up of waiting transactions.
+     *
+     * @return the number of registered listeners.
+     */
+    public final int getListenerCount() {
+        int count = 0;
+        for (Listeners current = listeners; current != null; current = current.next) {
+            count++;
         }
+        return count;
     }
 
+    /**
+     * Registers a chain of Listeners objects again after a commit removed them, because the predicates of the waiting
+     * transactions don't hold for the new value. Should only be called by the thread that removed the Listeners
+     * objects. The caller is responsible for checking if this ref was updated in the meantime.
+     *
+     * @param head   the first Listeners object of the chain.
+     * @param tail   the last Listeners object of the chain (its next field will be overwritten).
+     * @param length the number of Listeners objects in the chain.
+     */
+    public final void reregisterChangeListeners(final Listeners head, final Listeners tail, final int length) {
+        final int pruneLength = Math.max(Listeners.MIN_PRUNE_LENGTH, 2 * length);
+        while (true) {
+            final Listeners current = listeners;
+            tail.next = current;
+            if (current == null) {
+                head.chainLength = length;
+                head.pruneLength = pruneLength;
+            } else {
+                head.chainLength = length + current.chainLength;
+                head.pruneLength = Math.max(current.pruneLength, pruneLength);
+            }
+            if (___unsafe.compareAndSwapObject(this, listenersOffset, current, head)) {
+                return;
+            }
+        }
+    }
 
     @SuppressWarnings({"SimplifiableIfStatement"})
     public final boolean hasReadConflict(final Tranlocal tranlocal) {
@@ -1844,6 +2309,11 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             return false;
         }
 
+        //a commuting tranlocal has not been read yet, so it can't be in conflict.
+        if (tranlocal.mode == TRANLOCAL_COMMUTING) {
+            return false;
+        }
+
         if (hasExclusiveLock()) {
             return true;
         }
@@ -0,0 +1,194 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.longAsBoolean;
+import static org.multiverse.stms.gamma.GammaStmUtils.longAsDouble;
+
+/**
+ * Reads the values of a small number of refs atomically, without using a transaction.
+ * <p/>
+ * The atomicGet of a single ref provides a consistent value, but reading multiple refs using atomicGets doesn't
+ * provide a consistent view: e.g. the balance and the lastModified of an account could be read before and after a
+ * transaction that updates both. Using a transaction solves that, but it needs tranlocals, read tracking and
+ * (unless it is a lean transaction) an arrive/depart on every ref.
+ * <p/>
+ * The GammaAtomicSnapshot works like a seqlock: it reads the version and value of every ref, and then checks that
+ * none of the refs is locked exclusively (a transaction is committing it) and that none of the versions has changed.
+ * If that is the case, all values were the current values at the moment between the reading and the checking, so
+ * they form a consistent snapshot. Otherwise it tries again. No shared memory is written, so readers don't disturb
+ * each other or the writers. The cost is 2 passes over the refs, so it is intended for a small number of refs; for
+ * a large number of refs the chance that one of them is updated while reading grows.
+ * <p/>
+ * A GammaAtomicSnapshot can be reused for taking multiple snapshots of the same refs, but it is not threadsafe.
+ * <p/>
+ * Example:
+ * <pre>
+ * GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(balance, lastModified);
+ * snapshot.take();
+ * int currentBalance = snapshot.getInt(0);
+ * Date currentLastModified = snapshot.get(1);
+ * </pre>
+ *
+ * @author Peter Veentjer.
+ */
+public final class GammaAtomicSnapshot implements GammaConstants {
+
+    private final BaseGammaTxnRef[] refs;
+    private final long[] versions;
+    private final long[] longValues;
+    private final Object[] refValues;
+    private final GammaStm stm;
+
+    /**
+     * Creates a GammaAtomicSnapshot for the given refs.
+     *
+     * @param refs the refs to read.
+     * @throws NullPointerException     if refs or one of its elements is null.
+     * @throws IllegalArgumentException if refs is empty.
+     */
+    public GammaAtomicSnapshot(BaseGammaTxnRef... refs) {
+        if (refs == null) {
+            throw new NullPointerException();
+        }
+
+        if (refs.length == 0) {
+            throw new IllegalArgumentException("refs can't be empty");
+        }
+
+        for (BaseGammaTxnRef ref : refs) {
+            if (ref == null) {
+                throw new NullPointerException();
+            }
+        }
+
+        this.refs = refs.clone();
+        this.versions = new long[refs.length];
+        this.longValues = new long[refs.length];
+        this.refValues = new Object[refs.length];
+        this.stm = refs[0].stm;
+    }
+
+    /**
+     * Returns the number of refs in this GammaAtomicSnapshot.
+     *
+     * @return the number of refs.
+     */
+    public int size() {
+        return refs.length;
+    }
+
+    /**
+     * Reads the current values of all refs atomically. If a ref is locked by a committing transaction or updated
+     * while reading, the read is tried again (using the default BackoffPolicy of the stm) up to the spinCount
+     * of the stm.
+     *
+     * @throws LockedException if no consistent snapshot could be read.
+     */
+    public void take() {
+        int attempt = 1;
+        do {
+            if (tryTake()) {
+                return;
+            }
+
+            stm.defaultBackoffPolicy.delayUninterruptible(attempt);
+            attempt++;
+        } while (attempt <= stm.spinCount);
+
+        throw new LockedException();
+    }
+
+    /**
+     * Tries to read the current values of all refs atomically, without retrying.
+     *
+     * @return true if a consistent snapshot was read, false otherwise (and the values are undefined).
+     */
+    public boolean tryTake() {
+        final BaseGammaTxnRef[] refs = this.refs;
+
+        for (int k = 0; k < refs.length; k++) {
+            final BaseGammaTxnRef ref = refs[k];
+
+            //the value is written while the exclusive lock is held and before the version is increased.
+            if (ref.hasExclusiveLock()) {
+                return false;
+            }
+
+            versions[k] = ref.version;
+            if (ref.type == TYPE_REF) {
+                refValues[k] = ref.ref_value;
+            } else {
+                longValues[k] = ref.long_value;
+            }
+        }
+
+        for (int k = 0; k < refs.length; k++) {
+            final BaseGammaTxnRef ref = refs[k];
+
+            if (ref.hasExclusiveLock() || ref.version != versions[k]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the value of a {@link GammaTxnRef} read by the last {@link #take()}.
+     *
+     * @param index the index of the ref.
+     * @return the value.
+     */
+    @SuppressWarnings("unchecked")
+    public <E> E get(int index) {
+        assert refs[index].type == TYPE_REF;
+        return (E) refValues[index];
+    }
+
+    /**
+     * Returns the value of a {@link GammaTxnLong} read by the last {@link #take()}.
+     *
+     * @param index the index of the ref.
+     * @return the value.
+     */
+    public long getLong(int index) {
+        assert refs[index].type == TYPE_LONG;
+        return longValues[index];
+    }
+
+    /**
+     * Returns the value of a {@link GammaTxnInteger} read by the last {@link #take()}.
+     *
+     * @param index the index of the ref.
+     * @return the value.
+     */
+    public int getInt(int index) {
+        assert refs[index].type == TYPE_INT;
+        return (int) longValues[index];
+    }
+
+    /**
+     * Returns the value of a {@link GammaTxnBoolean} read by the last {@link #take()}.
+     *
+     * @param index the index of the ref.
+     * @return the value.
+     */
+    public boolean getBoolean(int index) {
+        assert refs[index].type == TYPE_BOOLEAN;
+        return longAsBoolean(longValues[index]);
+    }
+
+    /**
+     * Returns the value of a {@link GammaTxnDouble} read by the last {@link #take()}.
+     *
+     * @param index the index of the ref.
+     * @return the value.
+     */
+    public double getDouble(int index) {
+        assert refs[index].type == TYPE_DOUBLE;
+        return longAsDouble(longValues[index]);
+    }
+}
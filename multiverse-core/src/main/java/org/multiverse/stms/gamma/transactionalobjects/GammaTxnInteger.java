@@ -6,6 +6,7 @@ import org.multiverse.api.exceptions.LockedException;
 import org.multiverse.api.functions.Functions;
 import org.multiverse.api.functions.IntFunction;
 import org.multiverse.api.predicates.IntPredicate;
+import org.multiverse.api.predicates.LongPredicate;
 import org.multiverse.api.references.TxnInteger;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
@@ -431,7 +432,12 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
     }
 
     public final void await(final GammaTxn tx, final int value) {
-        if (get(tx) != value) {
+        final boolean firstRead = tx.getRefTranlocal(this) == null;
+        final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
+        if ((int) tranlocal.long_value != value) {
+            if (firstRead) {
+                tranlocal.awaitPredicate = LongPredicate.newEqualsPredicate(value);
+            }
             tx.retry();
         }
     }
@@ -447,18 +453,28 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
     }
 
     public final void await(final GammaTxn tx, final IntPredicate predicate) {
+        final boolean firstRead = tx.getRefTranlocal(this) == null;
         final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
+        final boolean holds;
         boolean abort = true;
         try {
-            if (!predicate.evaluate((int) tranlocal.long_value)) {
-                tx.retry();
-            }
+            holds = predicate.evaluate((int) tranlocal.long_value);
             abort = false;
         } finally {
             if (abort) {
                 tx.abort();
             }
         }
+
+        //the retry is done outside of the try, since within an orelse it doesn't abort the transaction.
+        if (!holds) {
+            if (firstRead) {
+                //the transaction only knows that the predicate doesn't hold, so it only needs to be woken up
+                //by a change of this ref when the predicate holds.
+                tranlocal.awaitPredicate = new IntAwaitPredicate(predicate);
+            }
+            tx.retry();
+        }
     }
 
     @Override
@@ -485,4 +501,21 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
     public final String atomicToString() {
         return Integer.toString(atomicGet());
     }
+
+    /**
+     * Evaluates an IntPredicate of a failed await against the committed value when the listeners are opened. The
+     * value of an int ref is stored as a long, so it needs to be narrowed first.
+     */
+    private static final class IntAwaitPredicate extends LongPredicate {
+        private final IntPredicate predicate;
+
+        IntAwaitPredicate(final IntPredicate predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean evaluate(final long current) {
+            return predicate.evaluate((int) current);
+        }
+    }
 }
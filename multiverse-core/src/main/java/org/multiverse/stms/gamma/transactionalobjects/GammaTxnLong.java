@@ -427,7 +427,12 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
     }
 
     public final void await(final GammaTxn tx, final long value) {
-        if (openForRead(tx, LOCKMODE_NONE).long_value != value) {
+        final boolean firstRead = tx.getRefTranlocal(this) == null;
+        final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
+        if (tranlocal.long_value != value) {
+            if (firstRead) {
+                tranlocal.awaitPredicate = LongPredicate.newEqualsPredicate(value);
+            }
             tx.retry();
         }
     }
@@ -443,18 +448,28 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
     }
 
     public final void await(final GammaTxn tx, final LongPredicate predicate) {
+        final boolean firstRead = tx.getRefTranlocal(this) == null;
         final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
+        final boolean holds;
         boolean abort = true;
         try {
-            if (!predicate.evaluate(tranlocal.long_value)) {
-                tx.retry();
-            }
+            holds = predicate.evaluate(tranlocal.long_value);
             abort = false;
         } finally {
             if (abort) {
                 tx.abort();
             }
         }
+
+        //the retry is done outside of the try, since within an orelse it doesn't abort the transaction.
+        if (!holds) {
+            if (firstRead) {
+                //the transaction only knows that the predicate doesn't hold, so it only needs to be woken up
+                //by a change of this ref when the predicate holds.
+                tranlocal.awaitPredicate = predicate;
+            }
+            tx.retry();
+        }
     }
 
     @Override
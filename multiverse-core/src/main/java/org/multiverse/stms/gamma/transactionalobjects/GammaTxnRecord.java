@@ -0,0 +1,256 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.api.Txn;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.Arrays;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.asGammaTxn;
+import static org.multiverse.stms.gamma.GammaStmUtils.getRequiredThreadLocalGammaTxn;
+
+/**
+ * A transactional record: a fixed number of long and reference fields that share a single orec, version and
+ * Tranlocal. Fields that always are read and updated together (e.g. the balance and the last modified date of an
+ * account) can be placed in a single GammaTxnRecord instead of a ref per field; a transaction then only needs to
+ * arrive, lock and validate once for all fields and each field takes a few bytes instead of a complete ref.
+ * <p/>
+ * The price is the granularity: 2 transactions that update different fields of the same record conflict.
+ * <p/>
+ * The fields are stored in a {@link Values} object. The committed Values are never changed; the first write of a
+ * transaction copies them and the following writes update this private copy. So the dirty check works just like
+ * for a {@link GammaTxnRef} and a transaction that updates n fields only copies the fields once. While a
+ * {@link org.multiverse.stms.gamma.transactions.Savepoint} is in use, every write copies the fields again since the
+ * Savepoint keeps a reference to the Values it recorded. Since the value is a reference, the record can be used by
+ * the lean transactions as well.
+ * <p/>
+ * A field is identified by its index. The long fields and the reference fields are indexed separately, so the first
+ * long field and the first reference field both have index 0. A subclass can give the fields a name:
+ * <pre>
+ * class Account extends GammaTxnRecord {
+ *     //long fields
+ *     static final int BALANCE = 0;
+ *     //reference fields
+ *     static final int LAST_MODIFIED = 0;
+ *
+ *     Account(GammaStm stm) {
+ *         super(stm, 1, 1);
+ *     }
+ *
+ *     void deposit(Txn tx, long amount, Date date) {
+ *         incrementLongField(tx, BALANCE, amount);
+ *         setRefField(tx, LAST_MODIFIED, date);
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Peter Veentjer.
+ */
+public class GammaTxnRecord extends BaseGammaTxnRef {
+
+    public GammaTxnRecord(final GammaStm stm, final int longFieldCount, final int refFieldCount) {
+        super(stm, TYPE_REF);
+
+        if (longFieldCount < 0) {
+            throw new IllegalArgumentException("longFieldCount can't be smaller than 0, but was " + longFieldCount);
+        }
+
+        if (refFieldCount < 0) {
+            throw new IllegalArgumentException("refFieldCount can't be smaller than 0, but was " + refFieldCount);
+        }
+
+        this.ref_value = new Values(new long[longFieldCount], new Object[refFieldCount]);
+        //noinspection PointlessArithmeticExpression
+        this.version = VERSION_UNCOMMITTED + 1;
+    }
+
+    /**
+     * Returns the number of long fields of this record.
+     *
+     * @return the number of long fields.
+     */
+    public final int getLongFieldCount() {
+        return ((Values) ref_value).longs.length;
+    }
+
+    /**
+     * Returns the number of reference fields of this record.
+     *
+     * @return the number of reference fields.
+     */
+    public final int getRefFieldCount() {
+        return ((Values) ref_value).refs.length;
+    }
+
+    public final long getLongField(final int field) {
+        return getLongField(getRequiredThreadLocalGammaTxn(), field);
+    }
+
+    public final long getLongField(final Txn tx, final int field) {
+        return getLongField(asGammaTxn(tx), field);
+    }
+
+    public final long getLongField(final GammaTxn tx, final int field) {
+        return ((Values) openForRead(tx, LOCKMODE_NONE).ref_value).longs[field];
+    }
+
+    public final void setLongField(final int field, final long value) {
+        setLongField(getRequiredThreadLocalGammaTxn(), field, value);
+    }
+
+    public final void setLongField(final Txn tx, final int field, final long value) {
+        setLongField(asGammaTxn(tx), field, value);
+    }
+
+    public final void setLongField(final GammaTxn tx, final int field, final long value) {
+        final Tranlocal tranlocal = openForWrite(tx, LOCKMODE_NONE);
+        if (((Values) tranlocal.ref_value).longs[field] == value) {
+            return;
+        }
+
+        openValuesForWrite(tx, tranlocal).longs[field] = value;
+    }
+
+    public final long incrementLongField(final int field, final long amount) {
+        return incrementLongField(getRequiredThreadLocalGammaTxn(), field, amount);
+    }
+
+    public final long incrementLongField(final Txn tx, final int field, final long amount) {
+        return incrementLongField(asGammaTxn(tx), field, amount);
+    }
+
+    /**
+     * Increments a long field of this record.
+     *
+     * @param tx     the transaction used.
+     * @param field  the index of the long field.
+     * @param amount the amount to increment with (can be negative).
+     * @return the new value of the field.
+     */
+    public final long incrementLongField(final GammaTxn tx, final int field, final long amount) {
+        final Tranlocal tranlocal = openForWrite(tx, LOCKMODE_NONE);
+        final long newValue = ((Values) tranlocal.ref_value).longs[field] + amount;
+        if (amount != 0) {
+            openValuesForWrite(tx, tranlocal).longs[field] = newValue;
+        }
+        return newValue;
+    }
+
+    public final <E> E getRefField(final int field) {
+        return this.<E>getRefField(getRequiredThreadLocalGammaTxn(), field);
+    }
+
+    public final <E> E getRefField(final Txn tx, final int field) {
+        return this.<E>getRefField(asGammaTxn(tx), field);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    public final <E> E getRefField(final GammaTxn tx, final int field) {
+        return (E) ((Values) openForRead(tx, LOCKMODE_NONE).ref_value).refs[field];
+    }
+
+    public final void setRefField(final int field, final Object value) {
+        setRefField(getRequiredThreadLocalGammaTxn(), field, value);
+    }
+
+    public final void setRefField(final Txn tx, final int field, final Object value) {
+        setRefField(asGammaTxn(tx), field, value);
+    }
+
+    public final void setRefField(final GammaTxn tx, final int field, final Object value) {
+        final Tranlocal tranlocal = openForWrite(tx, LOCKMODE_NONE);
+        //noinspection ObjectEquality
+        if (((Values) tranlocal.ref_value).refs[field] == value) {
+            return;
+        }
+
+        openValuesForWrite(tx, tranlocal).refs[field] = value;
+    }
+
+    /**
+     * Returns the Values of the tranlocal that can be updated in place. The first time this is called in a
+     * transaction, the Values are copied so that the committed Values are not changed, and the tranlocal is marked
+     * as having a private copy ({@link Tranlocal#privateRefValue}). A load clears the mark, so committed Values loaded
+     * by a pooled tranlocal are copied again.
+     *
+     * @param tx        the transaction the tranlocal belongs to.
+     * @param tranlocal the tranlocal opened for writing.
+     * @return the Values that can be updated.
+     */
+    private Values openValuesForWrite(final GammaTxn tx, final Tranlocal tranlocal) {
+        final Values values = (Values) tranlocal.ref_value;
+        if (tranlocal.privateRefValue && tx.nestingDepth == 0) {
+            return values;
+        }
+
+        final Values copy = new Values(values.longs.clone(), values.refs.clone());
+        tranlocal.ref_value = copy;
+        tranlocal.privateRefValue = true;
+        return copy;
+    }
+
+    /**
+     * Atomically gets the value of a long field without needing a transaction.
+     *
+     * @param field the index of the long field.
+     * @return the current value of the field.
+     * @throws org.multiverse.api.exceptions.LockedException
+     *          if the record is locked.
+     */
+    public final long atomicGetLongField(final int field) {
+        return ((Values) atomicObjectGet()).longs[field];
+    }
+
+    /**
+     * Atomically gets the value of a reference field without needing a transaction.
+     *
+     * @param field the index of the reference field.
+     * @return the current value of the field.
+     * @throws org.multiverse.api.exceptions.LockedException
+     *          if the record is locked.
+     */
+    @SuppressWarnings({"unchecked"})
+    public final <E> E atomicGetRefField(final int field) {
+        return (E) ((Values) atomicObjectGet()).refs[field];
+    }
+
+    public final String toDebugString() {
+        return String.format("GammaTxnRecord{orec=%s, version=%s, value=%s, hasListeners=%s)",
+                ___toOrecString(), version, ref_value, listeners != null);
+    }
+
+    @Override
+    public final String toString() {
+        return toString(getRequiredThreadLocalGammaTxn());
+    }
+
+    public final String toString(final Txn tx) {
+        return toString(asGammaTxn(tx));
+    }
+
+    public final String toString(final GammaTxn tx) {
+        return openForRead(tx, LOCKMODE_NONE).ref_value.toString();
+    }
+
+    public final String atomicToString() {
+        return atomicObjectGet().toString();
+    }
+
+    /**
+     * The values of the fields of a GammaTxnRecord. Once committed, the Values are not changed anymore.
+     */
+    static final class Values {
+        final long[] longs;
+        final Object[] refs;
+
+        Values(final long[] longs, final Object[] refs) {
+            this.longs = longs;
+            this.refs = refs;
+        }
+
+        @Override
+        public String toString() {
+            return "longs=" + Arrays.toString(longs) + ", refs=" + Arrays.toString(refs);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.multiverse.stms.gamma.transactionalobjects;
 
 import org.multiverse.api.functions.Function;
+import org.multiverse.api.predicates.LongPredicate;
 import org.multiverse.stms.gamma.GammaConstants;
 import org.multiverse.stms.gamma.GammaObjectPool;
 
@@ -22,6 +23,15 @@ public final class Tranlocal<E> implements GammaConstants {
     public long long_oldValue;
     public E ref_oldValue;
     public long long_value;
+    //the predicate of a failed await; if set, a retry only needs to be woken up when the predicate holds.
+    public LongPredicate awaitPredicate;
+    //the index of the tranlocal in the slots of a FatVariableLengthGammaTxn, so it can be released without a scan.
+    public int slot;
+    //true if the transaction is registered in the LockOwnerTable as the owner of the lock (only with ordered locking).
+    public boolean lockOwnerRegistered;
+    //true if the ref_value is a private copy made by the transaction (see GammaTxnRecord) that can be updated in
+    //place. It is cleared when a value is loaded.
+    public boolean privateRefValue;
 
 
     public boolean isDirty() {
@@ -1,6 +1,7 @@
 package org.multiverse.stms.gamma.transactions;
 
 import org.multiverse.api.Txn;
+import org.multiverse.api.TxnObject;
 import org.multiverse.api.TxnStatus;
 import org.multiverse.api.blocking.DefaultRetryLatch;
 import org.multiverse.api.blocking.RetryLatch;
@@ -15,6 +16,8 @@ import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 
 import static java.lang.String.format;
 import static org.multiverse.stms.gamma.GammaStmUtils.toDebugString;
@@ -27,6 +30,17 @@ import static org.multiverse.stms.gamma.GammaStmUtils.toDebugString;
 @SuppressWarnings({"OverlyComplexClass", "ClassWithTooManyFields", "OverlyCoupledClass"})
 public abstract class GammaTxn implements GammaConstants, Txn {
 
+    private static final int MAX_INSERTION_SORT_LENGTH = 16;
+
+    private static final Comparator<Tranlocal> IDENTITY_ORDER = new Comparator<Tranlocal>() {
+        @Override
+        public int compare(Tranlocal t1, Tranlocal t2) {
+            final int h1 = t1.owner.identityHashCode();
+            final int h2 = t2.owner.identityHashCode();
+            return h1 < h2 ? -1 : (h1 == h2 ? 0 : 1);
+        }
+    };
+
     public final GammaObjectPool pool = new GammaObjectPool();
     public int status = TX_ACTIVE;
     public GammaTxnConfig config;
@@ -36,10 +50,22 @@ public abstract class GammaTxn implements GammaConstants, Txn {
     public final int transactionType;
     public boolean richmansMansConflictScan;
     public boolean abortOnly = false;
+    //true if a read/write-conflict was detected while the conflicts are deferred (see
+    //GammaTxnConfig.deferredConflicts). A doomed transaction can't commit.
+    public boolean doomed = false;
+    //the number of opens done since the transaction was doomed; bounded by GammaTxnConfig.maxDoomedOpens.
+    public int doomedOpens;
     public final RetryLatch retryListener = new DefaultRetryLatch();
     public ArrayList<TxnListener> listeners;
     public boolean commitConflict;
     public boolean evaluatingCommute = false;
+    //the ref this transaction is spinning on to get the lock (only set with ordered locking). It is only a hint for
+    //detecting wait-for cycles, so it has a controlled JMM problem (just like the identityHashCode).
+    public BaseGammaTxnRef waitingFor;
+    //the number of savepoints that are in use. If bigger than 0, a retry is an alternation within the transaction
+    //and not a blocking operation.
+    public int nestingDepth;
+    private Savepoint[] savepoints = new Savepoint[2];
 
     public GammaTxn(GammaTxnConfig config, int transactionType) {
         config.init();
@@ -108,6 +134,18 @@ public abstract class GammaTxn implements GammaConstants, Txn {
                         config.familyName));
     }
 
+    public final ReadWriteConflict abortOnDoomed() {
+        abortIfAlive();
+
+        if (attempt == config.maxRetries || !config.controlFlowErrorsReused) {
+            return new ReadWriteConflict(
+                    format("[%s] Failed transaction, reason: the transaction is doomed by a deferred read/write-conflict",
+                            config.familyName));
+        } else {
+            return ReadWriteConflict.INSTANCE;
+        }
+    }
+
     public final ReadWriteConflict abortOnReadWriteConflict(GammaObject object) {
         abortIfAlive();
 
@@ -251,6 +289,40 @@ public abstract class GammaTxn implements GammaConstants, Txn {
         }
     }
 
+    // ========================== savepoint ===========================
+
+    public final SpeculativeConfigurationError abortSavepointOnOrElseDetected() {
+        config.updateSpeculativeConfigurationToUseOrElse();
+        abortIfAlive();
+        if (config.controlFlowErrorsReused) {
+            return SpeculativeConfigurationError.INSTANCE;
+        }
+        return new SpeculativeConfigurationError(
+                format("[%s] Failed to execute Txn.createSavepoint, reason: the transaction is lean, but a savepoint " +
+                        "is required for the orelse",
+                        config.familyName));
+    }
+
+    public final IllegalTxnStateException abortSavepointOnBadStatus() {
+        switch (status) {
+            case TX_PREPARED:
+                abort();
+                return new PreparedTxnException(
+                        format("[%s] Failed to execute Txn.createSavepoint, reason: the transaction is prepared",
+                                config.familyName));
+            case TX_ABORTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.createSavepoint, reason: the transaction is aborted",
+                                config.familyName));
+            case TX_COMMITTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.createSavepoint, reason: the transaction is committed",
+                                config.familyName));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
     // ==========================  open for construction ===========================
 
 
@@ -399,6 +471,35 @@ public abstract class GammaTxn implements GammaConstants, Txn {
 
     }
 
+    // ====================== release ==========================================
+
+    public final IllegalTxnStateException abortReleaseOnBadStatus() {
+        switch (status) {
+            case TX_PREPARED:
+                abort();
+                return new PreparedTxnException(
+                        format("[%s] Failed to execute Txn.release, reason: the transaction is prepared",
+                                config.familyName));
+            case TX_ABORTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.release, reason: the transaction is aborted",
+                                config.familyName));
+            case TX_COMMITTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.release, reason: the transaction is committed",
+                                config.familyName));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    public final NullPointerException abortReleaseOnNullArgument() {
+        abortIfAlive();
+        return new NullPointerException(
+                format("[%s] Failed to execute Txn.release, reason: the reference is null",
+                        config.familyName));
+    }
+
     // ====================== register ==========================================
 
     private NullPointerException abortRegisterOnNullListener() {
@@ -571,6 +672,41 @@ public abstract class GammaTxn implements GammaConstants, Txn {
 
     public abstract Tranlocal locate(BaseGammaTxnRef o);
 
+    @Override
+    public final void release(final TxnObject object) {
+        if (status != TX_ACTIVE) {
+            throw abortReleaseOnBadStatus();
+        }
+
+        if (object == null) {
+            throw abortReleaseOnNullArgument();
+        }
+
+        //a Savepoint could still refer to the tranlocal.
+        if (nestingDepth > 0 || !(object instanceof BaseGammaTxnRef)) {
+            return;
+        }
+
+        final Tranlocal tranlocal = getRefTranlocal((BaseGammaTxnRef) object);
+        if (tranlocal == null
+                || tranlocal.mode != TRANLOCAL_READ
+                || tranlocal.lockMode != LOCKMODE_NONE
+                || tranlocal.writeSkewCheck
+                || tranlocal.awaitPredicate != null) {
+            return;
+        }
+
+        releaseRead(tranlocal);
+    }
+
+    /**
+     * Removes a read only tranlocal from this transaction and releases it (see
+     * {@link BaseGammaTxnRef#releaseAfterReading}). A transaction that can't release reads, ignores the call.
+     *
+     * @param tranlocal the tranlocal to release.
+     */
+    protected abstract void releaseRead(Tranlocal tranlocal);
+
     @Override
     public final GammaTxnConfig getConfig() {
         return config;
@@ -697,18 +833,31 @@ public abstract class GammaTxn implements GammaConstants, Txn {
 
         if (config.timeoutNs == Long.MAX_VALUE) {
             if (config.isInterruptible()) {
-                retryListener.await(lockEra, config.familyName);
+                try {
+                    retryListener.await(lockEra, config.familyName);
+                } catch (RetryInterruptedException e) {
+                    retryListener.reset();
+                    throw e;
+                }
             } else {
                 retryListener.awaitUninterruptible(lockEra);
             }
         } else {
             if (config.isInterruptible()) {
-                remainingTimeoutNs = retryListener.awaitNanos(lockEra, remainingTimeoutNs, config.familyName);
+                try {
+                    remainingTimeoutNs = retryListener.awaitNanos(lockEra, remainingTimeoutNs, config.familyName);
+                } catch (RetryInterruptedException e) {
+                    retryListener.reset();
+                    throw e;
+                }
             } else {
                 remainingTimeoutNs = retryListener.awaitNanosUninterruptible(lockEra, remainingTimeoutNs);
             }
 
             if (remainingTimeoutNs < 0) {
+                //the latch moves to a new era, so its listeners that still are registered become stale and
+                //are pruned on the next registration on the ref.
+                retryListener.reset();
                 throw new RetryTimeoutException(
                         format("[%s] Txn has timed out with a total timeout of %s ns",
                                 config.getFamilyName(), config.getTimeoutNs()));
@@ -752,6 +901,148 @@ public abstract class GammaTxn implements GammaConstants, Txn {
         return config.readLockModeAsInt == LOCKMODE_EXCLUSIVE && !config.dirtyCheck;
     }
 
+    /**
+     * Acquires the {@link org.multiverse.stms.gamma.IrrevocableToken} if this transaction is irrevocable. This is done
+     * when the transaction (re)starts, so it could wait till another irrevocable transaction has completed.
+     */
+    protected final void acquireIrrevocableToken() {
+        if (config.irrevocable) {
+            config.stm.irrevocableToken.acquire(this);
+        }
+    }
+
+    /**
+     * Releases the {@link org.multiverse.stms.gamma.IrrevocableToken} if this transaction is irrevocable. This is done
+     * when the transaction has committed or aborted.
+     */
+    protected final void releaseIrrevocableToken() {
+        if (config.irrevocable) {
+            config.stm.irrevocableToken.release(this);
+        }
+    }
+
+    /**
+     * Acquires the locks of the given tranlocals in a global order; the identityHashCode of the owners. This is
+     * done during the prepare when ordered locking is enabled, so that 2 transactions can't acquire the same locks
+     * in a different order. Objects with the same identityHashCode keep their encounter order, so in that rare case
+     * the order isn't global and the wait-for cycle detection/spinCount are the fallback.
+     * <p/>
+     * The tranlocals are sorted in place.
+     *
+     * @param tranlocals the tranlocals to lock.
+     * @param length     the number of tranlocals in the array.
+     * @return the first object that could not be locked or has a conflict, or null if everything was locked.
+     */
+    public final BaseGammaTxnRef lockInGlobalOrder(final Tranlocal[] tranlocals, final int length) {
+        if (length > MAX_INSERTION_SORT_LENGTH) {
+            Arrays.sort(tranlocals, 0, length, IDENTITY_ORDER);
+        } else {
+            for (int k = 1; k < length; k++) {
+                final Tranlocal tranlocal = tranlocals[k];
+                final int identityHashCode = tranlocal.owner.identityHashCode();
+                int j = k - 1;
+                while (j >= 0 && tranlocals[j].owner.identityHashCode() > identityHashCode) {
+                    tranlocals[j + 1] = tranlocals[j];
+                    j--;
+                }
+                tranlocals[j + 1] = tranlocal;
+            }
+        }
+
+        for (int k = 0; k < length; k++) {
+            final Tranlocal tranlocal = tranlocals[k];
+            final BaseGammaTxnRef owner = tranlocal.owner;
+
+            if (!owner.acquireOrderedLock(this, tranlocal)) {
+                return owner;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a {@link Savepoint} containing the current state of the tranlocals, so that the changes made after
+     * this call can be rolled back without aborting the transaction. Savepoints can be nested and every created
+     * Savepoint needs to be released using {@link #releaseSavepoint(Savepoint)}; also when it is rolled back.
+     * <p/>
+     * As long as a Savepoint is in use, a retry doesn't block, but only throws the RetryError so that the
+     * nested block can be rolled back.
+     * <p/>
+     * Lean transactions don't support savepoints; they are aborted with a SpeculativeConfigurationError so that
+     * a fat transaction is used on the next attempt.
+     *
+     * @return the created Savepoint.
+     * @throws IllegalTxnStateException if the transaction is not active.
+     * @throws SpeculativeConfigurationError if the transaction is lean.
+     */
+    public final Savepoint createSavepoint() {
+        if (status != TX_ACTIVE) {
+            throw abortSavepointOnBadStatus();
+        }
+
+        if (nestingDepth == savepoints.length) {
+            final Savepoint[] newSavepoints = new Savepoint[savepoints.length * 2];
+            System.arraycopy(savepoints, 0, newSavepoints, 0, savepoints.length);
+            savepoints = newSavepoints;
+        }
+
+        Savepoint savepoint = savepoints[nestingDepth];
+        if (savepoint == null) {
+            savepoint = new Savepoint();
+            savepoints[nestingDepth] = savepoint;
+        }
+
+        savepoint.hasWrites = hasWrites;
+        recordSavepoint(savepoint);
+        nestingDepth++;
+        return savepoint;
+    }
+
+    /**
+     * Rolls back all changes made after the Savepoint was created. The transaction remains active and the reads
+     * done after the Savepoint are still tracked.
+     *
+     * @param savepoint the Savepoint to rollback to.
+     * @throws IllegalTxnStateException if the transaction is not active.
+     */
+    public final void rollbackToSavepoint(final Savepoint savepoint) {
+        if (status != TX_ACTIVE) {
+            throw abortSavepointOnBadStatus();
+        }
+
+        revertToSavepoint(savepoint);
+        savepoint.restore(this);
+    }
+
+    /**
+     * Releases the Savepoint. If the nested block completed, the changes remain in the transaction (so they are
+     * merged with the changes of the enclosing block). This call doesn't care about the status of the transaction.
+     *
+     * @param savepoint the Savepoint to release.
+     */
+    public final void releaseSavepoint(final Savepoint savepoint) {
+        savepoint.clear();
+        if (nestingDepth > 0) {
+            nestingDepth--;
+        }
+    }
+
+    /**
+     * Records the state of all tranlocals of this transaction in the Savepoint. A lean transaction is aborted with
+     * a SpeculativeConfigurationError instead.
+     *
+     * @param savepoint the Savepoint to record in.
+     */
+    protected abstract void recordSavepoint(Savepoint savepoint);
+
+    /**
+     * Reverts all the tranlocals of this transaction using {@link Savepoint#revert(Tranlocal)}.
+     *
+     * @param savepoint the Savepoint that is rolled back to.
+     */
+    protected abstract void revertToSavepoint(Savepoint savepoint);
+
     /**
      * Initializes the local conflict counter if the transaction has a need for it.
      * It should only be initialized if there are no reads.
@@ -47,6 +47,14 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
     public LockMode writeLockMode;
     public int readLockModeAsInt;
     public int writeLockModeAsInt;
+    public boolean orderedLocking;
+    public int orderedReadLockModeAsInt;
+    public int orderedWriteLockModeAsInt;
+    public boolean irrevocable;
+    public boolean elastic;
+    public boolean invisibleReads;
+    public boolean deferredConflicts;
+    public int maxDoomedOpens;
     public String familyName;
     public boolean isAnonymous;
     public boolean interruptible;
@@ -79,9 +87,14 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         this.readonly = config.readonly;
         this.spinCount = config.spinCount;
         this.readLockMode = config.readLockMode;
-        this.readLockModeAsInt = config.readLockMode.asInt();
         this.writeLockMode = config.writeLockMode;
-        this.writeLockModeAsInt = config.writeLockMode.asInt();
+        this.orderedLocking = config.orderedLocking;
+        this.irrevocable = config.irrevocable;
+        this.elastic = config.elastic;
+        this.invisibleReads = config.invisibleReads;
+        this.deferredConflicts = config.deferredConflicts;
+        this.maxDoomedOpens = config.maxDoomedOpens;
+        initLockModes();
         this.dirtyCheck = config.dirtyCheck;
         this.minimalArrayTreeSize = config.minimalVariableLengthTransactionSize;
         this.trackReads = config.trackReads;
@@ -125,6 +138,14 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         this.readLockModeAsInt = config.readLockModeAsInt;
         this.writeLockMode = config.writeLockMode;
         this.writeLockModeAsInt = config.writeLockModeAsInt;
+        this.orderedLocking = config.orderedLocking;
+        this.orderedReadLockModeAsInt = config.orderedReadLockModeAsInt;
+        this.orderedWriteLockModeAsInt = config.orderedWriteLockModeAsInt;
+        this.irrevocable = config.irrevocable;
+        this.elastic = config.elastic;
+        this.invisibleReads = config.invisibleReads;
+        this.deferredConflicts = config.deferredConflicts;
+        this.maxDoomedOpens = config.maxDoomedOpens;
         this.familyName = config.familyName;
         this.isAnonymous = config.isAnonymous;
         this.interruptible = config.interruptible;
@@ -146,6 +167,34 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         this.permanentListeners = config.permanentListeners;
     }
 
+    /**
+     * Initializes the lock modes as int. If ordered locking is enabled, the locks are not acquired when a
+     * ref is opened, but deferred till the prepare where they are acquired in a global order. So the
+     * readLockModeAsInt and writeLockModeAsInt (the lock modes used while opening) are set to none and
+     * the configured lock modes are moved to the orderedReadLockModeAsInt and orderedWriteLockModeAsInt.
+     * <p/>
+     * An irrevocable transaction always acquires an exclusive lock when a ref is opened, no matter the configured
+     * lock modes, so that nobody can cause a conflict.
+     */
+    private void initLockModes() {
+        if (irrevocable) {
+            readLockModeAsInt = LOCKMODE_EXCLUSIVE;
+            writeLockModeAsInt = LOCKMODE_EXCLUSIVE;
+            orderedReadLockModeAsInt = LOCKMODE_NONE;
+            orderedWriteLockModeAsInt = LOCKMODE_NONE;
+        } else if (orderedLocking) {
+            readLockModeAsInt = LOCKMODE_NONE;
+            writeLockModeAsInt = LOCKMODE_NONE;
+            orderedReadLockModeAsInt = readLockMode.asInt();
+            orderedWriteLockModeAsInt = writeLockMode.asInt();
+        } else {
+            readLockModeAsInt = readLockMode.asInt();
+            writeLockModeAsInt = writeLockMode.asInt();
+            orderedReadLockModeAsInt = LOCKMODE_NONE;
+            orderedWriteLockModeAsInt = LOCKMODE_NONE;
+        }
+    }
+
     public GammaTxnConfig(GammaStm stm, int maxFixedLengthTransactionSize) {
         this(stm);
         this.maxFixedLengthTransactionSize = maxFixedLengthTransactionSize;
@@ -220,6 +269,31 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         return dirtyCheck;
     }
 
+    @Override
+    public boolean isOrderedLockingEnabled() {
+        return orderedLocking;
+    }
+
+    @Override
+    public boolean isIrrevocable() {
+        return irrevocable;
+    }
+
+    @Override
+    public boolean isElastic() {
+        return elastic;
+    }
+
+    @Override
+    public boolean isInvisibleReadsEnabled() {
+        return invisibleReads;
+    }
+
+    @Override
+    public boolean isDeferredConflictsEnabled() {
+        return deferredConflicts;
+    }
+
     @Override
     public GammaStm getStm() {
         return stm;
@@ -277,6 +351,16 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         }
     }
 
+    public void updateSpeculativeConfigurationToUseOrElse() {
+        while (true) {
+            SpeculativeGammaConfiguration current = speculativeConfiguration.get();
+            SpeculativeGammaConfiguration update = current.newWithOrElse();
+            if (speculativeConfiguration.compareAndSet(current, update)) {
+                return;
+            }
+        }
+    }
+
     public void updateSpeculativeConfigureToUseAbortOnly() {
         while (true) {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
@@ -363,7 +447,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             throw new IllegalTxnFactoryException(msg);
         }
 
-        if (readLockModeAsInt > writeLockModeAsInt) {
+        if (readLockMode.asInt() > writeLockMode.asInt()) {
             String msg = format("[%s] The used write LockMode [%s] should be equal or higher than the read LockMode [%s]",
                     familyName, readLockMode, writeLockMode);
             throw new IllegalTxnFactoryException(msg);
@@ -375,18 +459,25 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             throw new IllegalTxnFactoryException(msg);
         }
 
+        if (irrevocable && !trackReads) {
+            String msg = format("[%s] If the transaction is irrevocable, read tracking should be enabled", familyName);
+            throw new IllegalTxnFactoryException(msg);
+        }
+
         if (speculativeConfiguration.get() == null) {
             SpeculativeGammaConfiguration newSpeculativeConfiguration;
-            if (speculative) {
+            //an irrevocable transaction can't be speculative since a speculative failure causes a retry.
+            if (speculative && !irrevocable) {
 
                 newSpeculativeConfiguration = new SpeculativeGammaConfiguration(
                         isFat(), false, false, false, false, false, false, false, false, false, 1);
             } else {
                 newSpeculativeConfiguration = new SpeculativeGammaConfiguration(
-                        true, true, true, true, true, true, true, true, true, true, Integer.MAX_VALUE);
+                        true, true, true, true, true, true, true, !invisibleReads, true, true, Integer.MAX_VALUE);
             }
 
-            if (maximumPoorMansConflictScanLength == 0) {
+            //the rich mans conflict scan relies on the reads being registered on the orecs.
+            if (maximumPoorMansConflictScanLength == 0 && !invisibleReads) {
                 newSpeculativeConfiguration = newSpeculativeConfiguration.newWithRichMansConflictScan();
             }
 
@@ -421,6 +512,24 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             return true;
         }
 
+        if (orderedLocking) {
+            return true;
+        }
+
+        if (irrevocable) {
+            return true;
+        }
+
+        //only a fat transaction can release reads.
+        if (elastic) {
+            return true;
+        }
+
+        //only a fat transaction can be doomed.
+        if (deferredConflicts) {
+            return true;
+        }
+
         if (readonly) {
             return true;
         }
@@ -493,6 +602,48 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         return config;
     }
 
+    public GammaTxnConfig setOrderedLockingEnabled(boolean orderedLocking) {
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.orderedLocking = orderedLocking;
+        config.initLockModes();
+        return config;
+    }
+
+    public GammaTxnConfig setIrrevocable(boolean irrevocable) {
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.irrevocable = irrevocable;
+        config.initLockModes();
+        return config;
+    }
+
+    public GammaTxnConfig setElastic(boolean elastic) {
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.elastic = elastic;
+        return config;
+    }
+
+    public GammaTxnConfig setInvisibleReadsEnabled(boolean invisibleReads) {
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.invisibleReads = invisibleReads;
+        return config;
+    }
+
+    public GammaTxnConfig setDeferredConflictsEnabled(boolean deferredConflicts) {
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.deferredConflicts = deferredConflicts;
+        return config;
+    }
+
+    public GammaTxnConfig setMaxDoomedOpens(int maxDoomedOpens) {
+        if (maxDoomedOpens < 0) {
+            throw new IllegalStateException();
+        }
+
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.maxDoomedOpens = maxDoomedOpens;
+        return config;
+    }
+
     public GammaTxnConfig setBlockingAllowed(boolean blockingAllowed) {
         GammaTxnConfig config = new GammaTxnConfig(this);
         config.blockingAllowed = blockingAllowed;
@@ -572,7 +723,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
 
         GammaTxnConfig config = new GammaTxnConfig(this);
         config.writeLockMode = writeLockMode;
-        config.writeLockModeAsInt = writeLockMode.asInt();
+        config.initLockModes();
         return config;
     }
 
@@ -583,11 +734,10 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
 
         GammaTxnConfig config = new GammaTxnConfig(this);
         config.readLockMode = readLockMode;
-        config.readLockModeAsInt = readLockMode.asInt();
-        if (config.readLockModeAsInt > config.writeLockModeAsInt) {
-            config.writeLockMode = config.readLockMode;
-            config.writeLockModeAsInt = config.readLockModeAsInt;
+        if (readLockMode.asInt() > config.writeLockMode.asInt()) {
+            config.writeLockMode = readLockMode;
         }
+        config.initLockModes();
         return config;
     }
 
@@ -628,6 +778,12 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
                 ", writeLockMode=" + writeLockMode +
                 ", readLockModeAsInt=" + readLockModeAsInt +
                 ", writeLockModeAsInt=" + writeLockModeAsInt +
+                ", orderedLocking=" + orderedLocking +
+                ", irrevocable=" + irrevocable +
+                ", elastic=" + elastic +
+                ", invisibleReads=" + invisibleReads +
+                ", deferredConflicts=" + deferredConflicts +
+                ", maxDoomedOpens=" + maxDoomedOpens +
                 ", familyName='" + familyName + '\'' +
                 ", isAnonymous=" + isAnonymous +
                 ", interruptible=" + interruptible +
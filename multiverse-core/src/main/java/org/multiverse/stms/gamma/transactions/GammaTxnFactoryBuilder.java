@@ -50,6 +50,21 @@ public interface GammaTxnFactoryBuilder extends TxnFactoryBuilder {
     @Override
     GammaTxnFactoryBuilder setDirtyCheckEnabled(boolean dirtyCheckEnabled);
 
+    @Override
+    GammaTxnFactoryBuilder setOrderedLockingEnabled(boolean orderedLockingEnabled);
+
+    @Override
+    GammaTxnFactoryBuilder setIrrevocable(boolean irrevocable);
+
+    @Override
+    GammaTxnFactoryBuilder setElastic(boolean elastic);
+
+    @Override
+    GammaTxnFactoryBuilder setInvisibleReadsEnabled(boolean invisibleReadsEnabled);
+
+    @Override
+    GammaTxnFactoryBuilder setDeferredConflictsEnabled(boolean deferredConflictsEnabled);
+
     @Override
     GammaTxnFactoryBuilder setSpinCount(int spinCount);
 
@@ -76,4 +91,16 @@ public interface GammaTxnFactoryBuilder extends TxnFactoryBuilder {
 
     @Override
     GammaTxnExecutor newTxnExecutor();
+
+    /**
+     * Creates a GammaTxnExecutor that uses flat combining: the callables of concurrently executing threads are
+     * executed in a single transaction by one of these threads. This reduces the conflicts on highly contended
+     * refs, but only pays off for small transactions.
+     *
+     * @return the created GammaTxnExecutor.
+     * @throws org.multiverse.api.exceptions.IllegalTxnFactoryException
+     *          if the configuration isn't valid.
+     * @see org.multiverse.stms.gamma.FlatCombiningGammaTxnExecutor
+     */
+    GammaTxnExecutor newFlatCombiningTxnExecutor();
 }
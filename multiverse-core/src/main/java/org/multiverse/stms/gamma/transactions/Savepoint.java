@@ -0,0 +1,213 @@
+package org.multiverse.stms.gamma.transactions;
+
+import org.multiverse.api.functions.Function;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.transactionalobjects.CallableNode;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+
+/**
+ * A Savepoint contains the state of the tranlocals of a {@link GammaTxn} at a specific moment, so that the changes
+ * made after that moment can be undone without aborting the transaction. The either branch of an orelse that does a
+ * retry is rolled back to the savepoint and then the orelse branch is executed in the same transaction, and
+ * {@link org.multiverse.api.TxnExecutor#executeBatch(java.util.List)} rolls back a failing callable. If the nested
+ * block completes, the Savepoint is just dropped; the changes already are in the tranlocals of the transaction, so
+ * there is nothing to merge.
+ * <p/>
+ * Nested executor calls don't use savepoints: with the Requires propagation level they are flattened into the
+ * outer transaction, so a conflict in the nested block still restarts the outer transaction.
+ * <p/>
+ * A rollback doesn't forget the reads done after the savepoint; they are kept as tracked reads. This is needed for
+ * blocking: if all branches of an orelse do a retry, the transaction should wait for a change on any of the refs
+ * read by any of the branches. For the same reason locks acquired after the savepoint are not released till the
+ * transaction completes.
+ * <p/>
+ * A Savepoint is owned by a single transaction and is reused, so it should not be stored.
+ *
+ * @author Peter Veentjer.
+ */
+public final class Savepoint implements GammaConstants {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private Tranlocal[] tranlocals = new Tranlocal[INITIAL_CAPACITY];
+    private int[] modes = new int[INITIAL_CAPACITY];
+    private long[] longValues = new long[INITIAL_CAPACITY];
+    private Object[] refValues = new Object[INITIAL_CAPACITY];
+    private boolean[] dirty = new boolean[INITIAL_CAPACITY];
+    private boolean[] privateRefValues = new boolean[INITIAL_CAPACITY];
+    private Function[][] commutingFunctions = new Function[INITIAL_CAPACITY][];
+    private int size;
+    //the hasWrites of the transaction when this Savepoint was created.
+    boolean hasWrites;
+
+    /**
+     * Returns the number of tranlocals recorded in this Savepoint.
+     *
+     * @return the number of recorded tranlocals.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Records the current state of a tranlocal.
+     *
+     * @param tranlocal the Tranlocal to record.
+     */
+    public void record(final Tranlocal tranlocal) {
+        if (size == tranlocals.length) {
+            grow();
+        }
+
+        tranlocals[size] = tranlocal;
+        modes[size] = tranlocal.mode;
+        longValues[size] = tranlocal.long_value;
+        refValues[size] = tranlocal.ref_value;
+        dirty[size] = tranlocal.isDirty;
+        privateRefValues[size] = tranlocal.privateRefValue;
+
+        if (tranlocal.mode == TRANLOCAL_COMMUTING) {
+            //the CallableNodes can be pooled when the commute is flattened, so the functions need to be copied.
+            int length = 0;
+            for (CallableNode node = tranlocal.headCallable; node != null; node = node.next) {
+                length++;
+            }
+
+            final Function[] functions = new Function[length];
+            int index = 0;
+            for (CallableNode node = tranlocal.headCallable; node != null; node = node.next) {
+                functions[index] = node.function;
+                index++;
+            }
+            commutingFunctions[size] = functions;
+        }
+
+        size++;
+    }
+
+    private void grow() {
+        final int newLength = tranlocals.length * 2;
+
+        final Tranlocal[] newTranlocals = new Tranlocal[newLength];
+        System.arraycopy(tranlocals, 0, newTranlocals, 0, size);
+        tranlocals = newTranlocals;
+
+        final int[] newModes = new int[newLength];
+        System.arraycopy(modes, 0, newModes, 0, size);
+        modes = newModes;
+
+        final long[] newLongValues = new long[newLength];
+        System.arraycopy(longValues, 0, newLongValues, 0, size);
+        longValues = newLongValues;
+
+        final Object[] newRefValues = new Object[newLength];
+        System.arraycopy(refValues, 0, newRefValues, 0, size);
+        refValues = newRefValues;
+
+        final boolean[] newDirty = new boolean[newLength];
+        System.arraycopy(dirty, 0, newDirty, 0, size);
+        dirty = newDirty;
+
+        final boolean[] newPrivateRefValues = new boolean[newLength];
+        System.arraycopy(privateRefValues, 0, newPrivateRefValues, 0, size);
+        privateRefValues = newPrivateRefValues;
+
+        final Function[][] newCommutingFunctions = new Function[newLength][];
+        System.arraycopy(commutingFunctions, 0, newCommutingFunctions, 0, size);
+        commutingFunctions = newCommutingFunctions;
+    }
+
+    /**
+     * Reverts a tranlocal of the transaction to the state it had directly after it was loaded. This is the first
+     * phase of a rollback and it is done for all tranlocals of the transaction; also the ones that were opened after
+     * the savepoint. A write becomes a read, a constructed object gets its initial value again, the pending commuting
+     * functions are dropped and the await predicate is cleared. The CallableNodes are not returned to the pool since
+     * they could still be needed by the second phase.
+     *
+     * @param tranlocal the Tranlocal to revert.
+     */
+    public static void revert(final Tranlocal tranlocal) {
+        //the await that set the predicate is undone; the branch that follows could depend on other values.
+        tranlocal.awaitPredicate = null;
+
+        switch (tranlocal.mode) {
+            case TRANLOCAL_WRITE:
+                tranlocal.mode = TRANLOCAL_READ;
+                tranlocal.isDirty = false;
+                tranlocal.long_value = tranlocal.long_oldValue;
+                tranlocal.ref_value = tranlocal.ref_oldValue;
+                tranlocal.privateRefValue = false;
+                break;
+            case TRANLOCAL_CONSTRUCTING:
+                //the old values contain the value the object was initialized with (0 or null). If the object was
+                //constructed before the savepoint, the value it had then is restored in the second phase.
+                tranlocal.long_value = tranlocal.long_oldValue;
+                tranlocal.ref_value = tranlocal.ref_oldValue;
+                tranlocal.privateRefValue = false;
+                break;
+            case TRANLOCAL_COMMUTING:
+                tranlocal.headCallable = null;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Restores the recorded state of the tranlocals. This is the second phase of a rollback and should only be
+     * done after all the tranlocals of the transaction have been reverted.
+     *
+     * @param tx the transaction that owns the tranlocals.
+     */
+    @SuppressWarnings({"unchecked"})
+    public void restore(final GammaTxn tx) {
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = tranlocals[k];
+
+            switch (modes[k]) {
+                case TRANLOCAL_READ:
+                    break;
+                case TRANLOCAL_WRITE:
+                    //fall through
+                case TRANLOCAL_CONSTRUCTING:
+                    tranlocal.mode = modes[k];
+                    tranlocal.long_value = longValues[k];
+                    tranlocal.ref_value = refValues[k];
+                    tranlocal.privateRefValue = privateRefValues[k];
+                    tranlocal.isDirty = dirty[k];
+                    break;
+                case TRANLOCAL_COMMUTING:
+                    final Function[] functions = commutingFunctions[k];
+                    if (tranlocal.mode == TRANLOCAL_COMMUTING) {
+                        for (int i = functions.length - 1; i >= 0; i--) {
+                            tranlocal.addCommutingFunction(tx.pool, functions[i]);
+                        }
+                    } else {
+                        //the commute has been flattened after the savepoint, so the tranlocal now contains the
+                        //loaded value. Instead of going back to a commuting tranlocal, the functions are applied on it.
+                        tranlocal.mode = TRANLOCAL_WRITE;
+                        tranlocal.isDirty = !tx.config.dirtyCheck;
+                        tranlocal.owner.evaluateCommutingFunctions(tx, tranlocal, functions);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException();
+            }
+        }
+
+        //the writes done after the savepoint have become reads.
+        tx.hasWrites = hasWrites;
+    }
+
+    /**
+     * Clears the Savepoint so that it doesn't hold on to tranlocals and values, and can be reused.
+     */
+    public void clear() {
+        for (int k = 0; k < size; k++) {
+            tranlocals[k] = null;
+            refValues[k] = null;
+            commutingFunctions[k] = null;
+        }
+        size = 0;
+    }
+}
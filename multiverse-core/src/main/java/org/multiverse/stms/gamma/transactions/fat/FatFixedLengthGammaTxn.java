@@ -1,5 +1,6 @@
 package org.multiverse.stms.gamma.transactions.fat;
 
+import org.multiverse.api.IsolationLevel;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
@@ -8,6 +9,7 @@ import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 
 import static org.multiverse.utils.Bugshaker.shakeBugs;
 
@@ -61,6 +63,10 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             throw abortCommitOnAbortOnly();
         }
 
+        if (doomed) {
+            throw abortOnDoomed();
+        }
+
         if (status == TX_ACTIVE) {
             notifyListeners(TxnEvent.PrePrepare);
         }
@@ -88,6 +94,7 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         }
 
         status = TX_COMMITTED;
+        releaseIrrevocableToken();
         notifyListeners(TxnEvent.PostCommit);
     }
 
@@ -128,6 +135,10 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             throw abortPrepareOnAbortOnly();
         }
 
+        if (doomed) {
+            throw abortOnDoomed();
+        }
+
         notifyListeners(TxnEvent.PrePrepare);
 
         GammaObject o = prepareChainForCommit();
@@ -144,13 +155,28 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             return null;
         }
 
+        if (config.orderedLocking) {
+            final Tranlocal[] ordered = pool.takeTranlocalArray(size);
+            int length = 0;
+            for (Tranlocal node = head; node != null && node.owner != null; node = node.next) {
+                ordered[length] = node;
+                length++;
+            }
+
+            final BaseGammaTxnRef conflictingObject = lockInGlobalOrder(ordered, length);
+            pool.putTranlocalArray(ordered);
+            if (conflictingObject != null) {
+                return conflictingObject;
+            }
+        }
+
         Tranlocal node = head;
 
         do {
             final BaseGammaTxnRef owner = node.owner;
 
             if (owner == null) {
-                return null;
+                break;
             }
 
             if (SHAKE_BUGS) shakeBugs();
@@ -161,6 +187,14 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             node = node.next;
         } while (node != null);
 
+        if (config.isolationLevel == IsolationLevel.SerializableSnapshot && hasWrites) {
+            for (node = head; node != null && node.owner != null; node = node.next) {
+                if (!node.owner.isReadValid(node)) {
+                    return node.owner;
+                }
+            }
+        }
+
         return null;
     }
 
@@ -176,6 +210,7 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
         releaseChain(false);
         status = TX_ABORTED;
+        releaseIrrevocableToken();
         notifyListeners(TxnEvent.PostAbort);
     }
 
@@ -217,12 +252,63 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         return null;
     }
 
+    @Override
+    protected final void releaseRead(final Tranlocal tranlocal) {
+        tranlocal.owner.releaseAfterReading(tranlocal, pool);
+        size--;
+
+        //the used nodes are at the front of the chain, so the released node is moved to the end.
+        if (tranlocal.next == null) {
+            return;
+        }
+
+        //noinspection ObjectEquality
+        if (tranlocal == head) {
+            head = tranlocal.next;
+            head.previous = null;
+        } else {
+            tranlocal.previous.next = tranlocal.next;
+            tranlocal.next.previous = tranlocal.previous;
+        }
+
+        Tranlocal tail = head;
+        while (tail.next != null) {
+            tail = tail.next;
+        }
+        tail.next = tranlocal;
+        tranlocal.previous = tail;
+        tranlocal.next = null;
+    }
+
+    @Override
+    protected final void recordSavepoint(final Savepoint savepoint) {
+        Tranlocal node = head;
+        while (node != null && node.owner != null) {
+            savepoint.record(node);
+            node = node.next;
+        }
+    }
+
+    @Override
+    protected final void revertToSavepoint(final Savepoint savepoint) {
+        Tranlocal node = head;
+        while (node != null && node.owner != null) {
+            Savepoint.revert(node);
+            node = node.next;
+        }
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
             throw abortRetryOnBadStatus();
         }
 
+        if (nestingDepth > 0) {
+            //the retry is an alternation within the transaction, the enclosing block will rollback to its savepoint.
+            throw newRetryError();
+        }
+
         if (!config.isBlockingAllowed()) {
             throw abortRetryOnNoBlockingAllowed();
         }
@@ -262,6 +348,7 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         } while (tranlocal != null && tranlocal.owner != null);
 
         status = TX_ABORTED;
+        releaseIrrevocableToken();
 
         if (!atLeastOneRegistration) {
             throw abortRetryOnNoRetryPossible();
@@ -294,14 +381,18 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
         status = TX_ACTIVE;
         hasWrites = false;
+        nestingDepth = 0;
         size = 0;
         remainingTimeoutNs = config.timeoutNs;
         richmansMansConflictScan = config.speculativeConfiguration.get().richMansConflictScanRequired;
         attempt = 1;
         hasReads = false;
         abortOnly = false;
+        doomed = false;
+        doomedOpens = 0;
         commitConflict = false;
         evaluatingCommute = false;
+        acquireIrrevocableToken();
     }
 
     @Override
@@ -319,11 +410,15 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         commitConflict = false;
         status = TX_ACTIVE;
         hasWrites = false;
+        nestingDepth = 0;
         size = 0;
         hasReads = false;
         abortOnly = false;
+        doomed = false;
+        doomedOpens = 0;
         attempt++;
         evaluatingCommute = false;
+        acquireIrrevocableToken();
         return true;
     }
 
@@ -350,6 +445,11 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             return true;
         }
 
+        //a doomed transaction is going to fail anyway, so there is no need to check again.
+        if (doomed) {
+            return true;
+        }
+
         if (config.readLockModeAsInt > LOCKMODE_NONE) {
             return true;
         }
@@ -369,7 +469,7 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
             localConflictCount = currentConflictCount;
             //we are going to fall through to do a full conflict scan
-        } else if (size > config.maximumPoorMansConflictScanLength) {
+        } else if (size > config.maximumPoorMansConflictScanLength && !config.invisibleReads) {
             throw abortOnRichmanConflictScanDetected();
         }
 
@@ -385,6 +485,11 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
             final boolean skip = !richmansMansConflictScan && node == justAdded;
             if (!skip && node.owner.hasReadConflict(node)) {
+                if (config.deferredConflicts) {
+                    //the conflict is signalled by the TxnExecutor or the commit instead of being thrown.
+                    doomed = true;
+                    return true;
+                }
                 return false;
             }
 
@@ -7,6 +7,7 @@ import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 
 public final class FatMonoGammaTxn extends GammaTxn {
 
@@ -58,6 +59,10 @@ public final class FatMonoGammaTxn extends GammaTxn {
             if (hasWrites) {
                 if (status == TX_ACTIVE) {
                     if (!skipPrepare()) {
+                        if (config.orderedLocking && !owner.acquireOrderedLock(this, tranlocal)) {
+                            throw abortOnReadWriteConflict(owner);
+                        }
+
                         if (!owner.prepare(this, tranlocal)) {
                             throw abortOnReadWriteConflict(owner);
                         }
@@ -79,6 +84,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
         tranlocal.owner = null;
         status = TX_COMMITTED;
+        releaseIrrevocableToken();
         notifyListeners(TxnEvent.PostCommit);
     }
 
@@ -97,6 +103,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         if (owner != null) {
             owner.releaseAfterFailure(tranlocal, pool);
         }
+        releaseIrrevocableToken();
 
         notifyListeners(TxnEvent.PostAbort);
     }
@@ -119,6 +126,10 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
         final BaseGammaTxnRef owner = tranlocal.owner;
         if (owner != null) {
+            if (config.orderedLocking && !owner.acquireOrderedLock(this, tranlocal)) {
+                throw abortOnReadWriteConflict(owner);
+            }
+
             if (!owner.prepare(this, tranlocal)) {
                 throw abortOnReadWriteConflict(owner);
             }
@@ -133,12 +144,36 @@ public final class FatMonoGammaTxn extends GammaTxn {
         return tranlocal.owner == ref ? tranlocal : null;
     }
 
+    @Override
+    protected final void releaseRead(final Tranlocal tranlocal) {
+        tranlocal.owner.releaseAfterReading(tranlocal, pool);
+    }
+
+    @Override
+    protected final void recordSavepoint(final Savepoint savepoint) {
+        if (tranlocal.owner != null) {
+            savepoint.record(tranlocal);
+        }
+    }
+
+    @Override
+    protected final void revertToSavepoint(final Savepoint savepoint) {
+        if (tranlocal.owner != null) {
+            Savepoint.revert(tranlocal);
+        }
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
             throw abortRetryOnBadStatus();
         }
 
+        if (nestingDepth > 0) {
+            //the retry is an alternation within the transaction, the enclosing block will rollback to its savepoint.
+            throw newRetryError();
+        }
+
         if (!config.isBlockingAllowed()) {
             throw abortRetryOnNoBlockingAllowed();
         }
@@ -172,6 +207,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         owner.releaseAfterFailure(tranlocal, pool);
 
         status = TX_ABORTED;
+        releaseIrrevocableToken();
 
         if (!atLeastOneRegistration) {
             throw abortRetryOnNoRetryPossible();
@@ -194,10 +230,12 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
         status = TX_ACTIVE;
         hasWrites = false;
+        nestingDepth = 0;
         attempt++;
         abortOnly = false;
         commitConflict = false;
         evaluatingCommute = false;
+        acquireIrrevocableToken();
         return true;
     }
 
@@ -211,11 +249,13 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
         status = TX_ACTIVE;
         hasWrites = false;
+        nestingDepth = 0;
         remainingTimeoutNs = config.timeoutNs;
         attempt = 1;
         abortOnly = false;
         commitConflict = false;
         evaluatingCommute = false;
+        acquireIrrevocableToken();
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.multiverse.stms.gamma.transactions.fat;
 
+import org.multiverse.api.IsolationLevel;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
@@ -8,14 +9,35 @@ import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 import org.multiverse.stms.gamma.transactions.SpeculativeGammaConfiguration;
 
 import static org.multiverse.utils.Bugshaker.shakeBugs;
 
+/**
+ * A fat {@link GammaTxn} that can grow to any size.
+ * <p/>
+ * The tranlocals are stored twice:
+ * <ol>
+ * <li>in a hash table (open addressing with linear probing) to find the tranlocal of a ref. The length of the
+ * table is a power of 2 and it is expanded when it is 75% full.</li>
+ * <li>in a dense list in the order they were attached. Everything that needs to iterate over the transaction
+ * (commit, abort, prepare, conflict scan etc) uses this list so it only touches the used entries.</li>
+ * </ol>
+ * For every entry in the dense list, the index in the hash table is stored, so the table can be cleared in
+ * O(size) instead of O(length).
+ *
+ * @author Peter Veentjer.
+ */
 @SuppressWarnings({"OverlyComplexClass"})
 public final class FatVariableLengthGammaTxn extends GammaTxn {
 
+    //the hash table.
     public Tranlocal[] array;
+    //the tranlocals in the order they were attached.
+    public Tranlocal[] slots;
+    //for every slot, the index of the tranlocal in the hash table.
+    private int[] tableIndexes;
     public int size = 0;
     public boolean hasReads = false;
     public long localConflictCount;
@@ -26,7 +48,6 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
 
     public FatVariableLengthGammaTxn(GammaTxnConfig config) {
         super(config, TRANSACTIONTYPE_FAT_VARIABLE_LENGTH);
-        this.array = new Tranlocal[config.minimalArrayTreeSize];
     }
 
     @Override
@@ -43,6 +64,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             throw abortCommitOnAbortOnly();
         }
 
+        if (doomed) {
+            throw abortOnDoomed();
+        }
+
         if (status == TX_ACTIVE) {
             notifyListeners(TxnEvent.PrePrepare);
         }
@@ -72,6 +97,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         }
 
         status = TX_COMMITTED;
+        releaseIrrevocableToken();
         notifyListeners(TxnEvent.PostCommit);
     }
 
@@ -81,14 +107,12 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         int listenersIndex = 0;
         int itemCount = 0;
         //first write everything without releasing
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
-            final Tranlocal tranlocal = array[k];
-
-            if (tranlocal == null) {
-                continue;
-            }
+            final Tranlocal tranlocal = slots[k];
+            array[tableIndexes[k]] = null;
+            slots[k] = null;
 
             final BaseGammaTxnRef owner = tranlocal.owner;
             final Listeners listeners = owner.commit(tranlocal, pool);
@@ -108,21 +132,19 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
     }
 
     private void releaseArray(boolean success) {
-        for (int k = 0; k < array.length; k++) {
-
-            final Tranlocal tranlocal = array[k];
+        for (int k = 0; k < size; k++) {
+            if (SHAKE_BUGS) shakeBugs();
 
-            if (tranlocal != null) {
-                if (SHAKE_BUGS) shakeBugs();
+            final Tranlocal tranlocal = slots[k];
+            array[tableIndexes[k]] = null;
+            slots[k] = null;
 
-                array[k] = null;
-                if (success) {
-                    tranlocal.owner.releaseAfterReading(tranlocal, pool);
-                } else {
-                    tranlocal.owner.releaseAfterFailure(tranlocal, pool);
-                }
-                pool.put(tranlocal);
+            if (success) {
+                tranlocal.owner.releaseAfterReading(tranlocal, pool);
+            } else {
+                tranlocal.owner.releaseAfterFailure(tranlocal, pool);
             }
+            pool.put(tranlocal);
         }
     }
 
@@ -140,6 +162,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             throw abortPrepareOnAbortOnly();
         }
 
+        if (doomed) {
+            throw abortOnDoomed();
+        }
+
         notifyListeners(TxnEvent.PrePrepare);
 
         if (hasWrites) {
@@ -158,15 +184,22 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             return null;
         }
 
-        for (int k = 0; k < array.length; k++) {
-            if (SHAKE_BUGS) shakeBugs();
-
-            final Tranlocal tranlocal = array[k];
+        if (config.orderedLocking) {
+            //the slots are copied since sorting them would break the link with the tableIndexes.
+            final Tranlocal[] ordered = pool.takeTranlocalArray(size);
+            System.arraycopy(slots, 0, ordered, 0, size);
 
-            if (tranlocal == null) {
-                continue;
+            final BaseGammaTxnRef conflictingObject = lockInGlobalOrder(ordered, size);
+            pool.putTranlocalArray(ordered);
+            if (conflictingObject != null) {
+                return conflictingObject;
             }
+        }
+
+        for (int k = 0; k < size; k++) {
+            if (SHAKE_BUGS) shakeBugs();
 
+            final Tranlocal tranlocal = slots[k];
             final BaseGammaTxnRef owner = tranlocal.owner;
 
             if (!owner.prepare(this, tranlocal)) {
@@ -174,6 +207,15 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             }
         }
 
+        if (config.isolationLevel == IsolationLevel.SerializableSnapshot) {
+            for (int k = 0; k < size; k++) {
+                final Tranlocal tranlocal = slots[k];
+                if (!tranlocal.owner.isReadValid(tranlocal)) {
+                    return tranlocal.owner;
+                }
+            }
+        }
+
         return null;
     }
 
@@ -192,6 +234,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         }
 
         status = TX_ABORTED;
+        releaseIrrevocableToken();
 
         notifyListeners(TxnEvent.PostAbort);
     }
@@ -215,12 +258,48 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         return indexOf == -1 ? null : array[indexOf];
     }
 
+    @Override
+    protected final void releaseRead(final Tranlocal tranlocal) {
+        final int slot = tranlocal.slot;
+        removeFromTable(tableIndexes[slot]);
+
+        //the last slot is moved into the hole, so the slots remain dense.
+        size--;
+        final Tranlocal last = slots[size];
+        slots[slot] = last;
+        last.slot = slot;
+        tableIndexes[slot] = tableIndexes[size];
+        slots[size] = null;
+
+        tranlocal.owner.releaseAfterReading(tranlocal, pool);
+        pool.put(tranlocal);
+    }
+
+    @Override
+    protected final void recordSavepoint(final Savepoint savepoint) {
+        for (int k = 0; k < size; k++) {
+            savepoint.record(slots[k]);
+        }
+    }
+
+    @Override
+    protected final void revertToSavepoint(final Savepoint savepoint) {
+        for (int k = 0; k < size; k++) {
+            Savepoint.revert(slots[k]);
+        }
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
             throw abortRetryOnBadStatus();
         }
 
+        if (nestingDepth > 0) {
+            //the retry is an alternation within the transaction, the enclosing block will rollback to its savepoint.
+            throw newRetryError();
+        }
+
         if (!config.isBlockingAllowed()) {
             throw abortRetryOnNoBlockingAllowed();
         }
@@ -235,13 +314,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         boolean furtherRegistrationNeeded = true;
         boolean atLeastOneRegistration = false;
 
-        for (int k = 0; k < array.length; k++) {
-            final Tranlocal tranlocal = array[k];
-            if (tranlocal == null) {
-                continue;
-            }
-
-            array[k] = null;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = slots[k];
+            array[tableIndexes[k]] = null;
+            slots[k] = null;
 
             final BaseGammaTxnRef owner = tranlocal.owner;
 
@@ -266,6 +342,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         }
 
         status = TX_ABORTED;
+        releaseIrrevocableToken();
 
         if (!atLeastOneRegistration) {
             throw abortRetryOnNoRetryPossible();
@@ -283,8 +360,12 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         status = TX_ACTIVE;
         hasReads = false;
         hasWrites = false;
+        nestingDepth = 0;
+        clearTable();
         size = 0;
         abortOnly = false;
+        doomed = false;
+        doomedOpens = 0;
         attempt++;
         commitConflict = false;
         evaluatingCommute = false;
@@ -294,6 +375,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             listeners = null;
         }
 
+        acquireIrrevocableToken();
         return true;
     }
 
@@ -302,16 +384,28 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         status = TX_ACTIVE;
         hasReads = false;
         hasWrites = false;
-        size = 0;
+        nestingDepth = 0;
         abortOnly = false;
+        doomed = false;
+        doomedOpens = 0;
 
         attempt = 1;
         remainingTimeoutNs = config.timeoutNs;
-        //todo: only change when the array size is different.
-        if (array != null) {
-            pool.putTranlocalArray(array);
+        final int minimalLength = tableLength(config.minimalArrayTreeSize);
+        if (array == null || array.length != minimalLength) {
+            if (array != null) {
+                pool.putTranlocalArray(array);
+                pool.putTranlocalArray(slots);
+            }
+            array = pool.takeTranlocalArray(minimalLength);
+            slots = pool.takeTranlocalArray(minimalLength);
+            if (tableIndexes == null || tableIndexes.length < minimalLength) {
+                tableIndexes = new int[minimalLength];
+            }
+        } else {
+            //normally the table already is cleared by the commit/abort.
+            clearTable();
         }
-        array = pool.takeTranlocalArray(config.minimalArrayTreeSize);
         final SpeculativeGammaConfiguration speculativeConfig = config.speculativeConfiguration.get();
         richmansMansConflictScan = speculativeConfig.richMansConflictScanRequired;
         commitConflict = false;
@@ -322,6 +416,8 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             listeners = null;
         }
 
+        size = 0;
+        acquireIrrevocableToken();
     }
 
     @Override
@@ -337,6 +433,11 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             return true;
         }
 
+        //a doomed transaction is going to fail anyway, so there is no need to check again.
+        if (doomed) {
+            return true;
+        }
+
         if (config.readLockModeAsInt > LOCKMODE_NONE) {
             return true;
         }
@@ -356,20 +457,25 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
 
             localConflictCount = conflictCount;
             //we are going to fall through to do a full conflict scan
-        } else if (size > config.maximumPoorMansConflictScanLength) {
+        } else if (size > config.maximumPoorMansConflictScanLength && !config.invisibleReads) {
             throw abortOnRichmanConflictScanDetected();
         }
 
         //doing a full conflict scan
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
-            final Tranlocal tranlocal = array[k];
+            final Tranlocal tranlocal = slots[k];
 
             //noinspection ObjectEquality
-            final boolean skip = tranlocal == null || (!richmansMansConflictScan && justAdded == tranlocal);
+            final boolean skip = !richmansMansConflictScan && justAdded == tranlocal;
 
             if (!skip && tranlocal.owner.hasReadConflict(tranlocal)) {
+                if (config.deferredConflicts) {
+                    //the conflict is signalled by the TxnExecutor or the commit instead of being thrown.
+                    doomed = true;
+                    return true;
+                }
                 return false;
             }
         }
@@ -385,16 +491,22 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         return size;
     }
 
+    /**
+     * Returns the index of the tranlocal of the ref in the hash table ({@link #array}).
+     *
+     * @param ref  the ref to look for.
+     * @param hash the identityHashCode of the ref.
+     * @return the index, or -1 if the ref isn't attached to this transaction.
+     */
     public final int indexOf(final BaseGammaTxnRef ref, final int hash) {
-        int jump = 0;
-        boolean goLeft = true;
-
-        do {
-            final int offset = goLeft ? -jump : jump;
-            final int index = (hash + offset) % array.length;
+        final Tranlocal[] array = this.array;
+        final int mask = array.length - 1;
+        int index = spread(hash) & mask;
 
+        //there always is a free entry since the table is never full, so this loop ends.
+        while (true) {
             final Tranlocal current = array[index];
-            if (current == null || current.owner == null) {
+            if (current == null) {
                 return -1;
             }
 
@@ -403,53 +515,105 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
                 return index;
             }
 
-            final int currentHash = current.owner.identityHashCode();
-            goLeft = currentHash > hash;
-            jump = jump == 0 ? 1 : jump * 2;
-        } while (jump < array.length);
-
-        return -1;
+            index = (index + 1) & mask;
+        }
     }
 
+    /**
+     * Attaches a tranlocal to this transaction. The size is not incremented; that is the responsibility of the caller,
+     * and should be done before the next tranlocal is attached.
+     *
+     * @param tranlocal the tranlocal to attach.
+     * @param hash      the identityHashCode of the owner of the tranlocal.
+     */
     public final void attach(final Tranlocal tranlocal, final int hash) {
-        int jump = 0;
-        boolean goLeft = true;
+        if (size >= (array.length >> 1) + (array.length >> 2)) {
+            expand();
+        }
 
-        do {
-            final int offset = goLeft ? -jump : jump;
-            final int index = (hash + offset) % array.length;
+        slots[size] = tranlocal;
+        tranlocal.slot = size;
+        tableIndexes[size] = insert(tranlocal, hash);
+    }
 
-            Tranlocal current = array[index];
-            if (current == null) {
-                array[index] = tranlocal;
-                return;
-            }
+    private int insert(final Tranlocal tranlocal, final int hash) {
+        final int mask = array.length - 1;
+        int index = spread(hash) & mask;
+        while (array[index] != null) {
+            index = (index + 1) & mask;
+        }
 
-            final int currentHash = current.owner.identityHashCode();
-            goLeft = currentHash > hash;
-            jump = jump == 0 ? 1 : jump * 2;
-        } while (jump < array.length);
+        array[index] = tranlocal;
+        return index;
+    }
+
+    /**
+     * Removes the tranlocal at the index from the hash table. Since linear probing is used, the entries after it in
+     * the same run are shifted back when the removal would make them unreachable.
+     */
+    private void removeFromTable(int index) {
+        final Tranlocal[] array = this.array;
+        final int mask = array.length - 1;
+        array[index] = null;
+
+        int hole = index;
+        int current = (index + 1) & mask;
+        while (array[current] != null) {
+            final Tranlocal tranlocal = array[current];
+            final int home = spread(tranlocal.owner.identityHashCode()) & mask;
+
+            //the entry can be moved into the hole if its home isn't in the (cyclic) range (hole, current].
+            final boolean reachable = hole <= current
+                    ? home > hole && home <= current
+                    : home > hole || home <= current;
+            if (!reachable) {
+                array[hole] = tranlocal;
+                array[current] = null;
+                tableIndexes[tranlocal.slot] = hole;
+                hole = current;
+            }
 
-        expand();
-        attach(tranlocal, hash);
+            current = (current + 1) & mask;
+        }
     }
 
     private void expand() {
-        Tranlocal[] oldArray = array;
-        int newSize = oldArray.length * 2;
-        array = pool.takeTranlocalArray(newSize);
-
-        for (int k = 0; k < oldArray.length; k++) {
-            final Tranlocal tranlocal = oldArray[k];
+        final Tranlocal[] oldArray = array;
+        final Tranlocal[] oldSlots = slots;
+        final int newLength = oldArray.length * 2;
 
-            if (tranlocal == null) {
-                continue;
-            }
+        array = pool.takeTranlocalArray(newLength);
+        slots = pool.takeTranlocalArray(newLength);
+        System.arraycopy(oldSlots, 0, slots, 0, size);
+        if (tableIndexes.length < newLength) {
+            tableIndexes = new int[newLength];
+        }
 
-            oldArray[k] = null;
-            attach(tranlocal, tranlocal.owner.identityHashCode());
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = slots[k];
+            tableIndexes[k] = insert(tranlocal, tranlocal.owner.identityHashCode());
         }
 
         pool.putTranlocalArray(oldArray);
+        pool.putTranlocalArray(oldSlots);
+    }
+
+    private void clearTable() {
+        for (int k = 0; k < size; k++) {
+            array[tableIndexes[k]] = null;
+            slots[k] = null;
+        }
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableLength(final int minimalSize) {
+        int length = 2;
+        while (length < minimalSize) {
+            length <<= 1;
+        }
+        return length;
     }
 }
@@ -7,6 +7,7 @@ import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 
 import static org.multiverse.utils.Bugshaker.shakeBugs;
 
@@ -356,4 +357,21 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
     public void initLocalConflictCounter() {
         //ignore
     }
+
+    @Override
+    protected final void recordSavepoint(Savepoint savepoint) {
+        //a lean transaction can't rollback its tranlocals, so a fat transaction is used on the next attempt.
+        throw abortSavepointOnOrElseDetected();
+    }
+
+    @Override
+    protected final void revertToSavepoint(Savepoint savepoint) {
+        //no Savepoint can be recorded by a lean transaction, so a fat transaction is used on the next attempt.
+        throw abortSavepointOnOrElseDetected();
+    }
+
+    @Override
+    protected final void releaseRead(Tranlocal tranlocal) {
+        //a lean transaction doesn't release reads.
+    }
 }
@@ -1,11 +1,13 @@
 package org.multiverse.stms.gamma.transactions.lean;
 
+import org.multiverse.stms.gamma.CommitStream;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
 
 import static org.multiverse.utils.Bugshaker.shakeBugs;
 
@@ -99,6 +101,11 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         owner.ref_value = tranlocal.ref_value;
         owner.version = version + 1;
 
+        final CommitStream commitStream = owner.commitStream;
+        if (commitStream != null) {
+            commitStream.publish(owner, version + 1, 0, tranlocal.ref_value);
+        }
+
         Listeners listeners = owner.listeners;
 
         if (listeners != null) {
@@ -240,4 +247,21 @@ public final class LeanMonoGammaTxn extends GammaTxn {
     public void initLocalConflictCounter() {
         //ignore
     }
+
+    @Override
+    protected final void recordSavepoint(Savepoint savepoint) {
+        //a lean transaction can't rollback its tranlocals, so a fat transaction is used on the next attempt.
+        throw abortSavepointOnOrElseDetected();
+    }
+
+    @Override
+    protected final void revertToSavepoint(Savepoint savepoint) {
+        //no Savepoint can be recorded by a lean transaction, so a fat transaction is used on the next attempt.
+        throw abortSavepointOnOrElseDetected();
+    }
+
+    @Override
+    protected final void releaseRead(Tranlocal tranlocal) {
+        //a lean transaction doesn't release reads.
+    }
 }
@@ -0,0 +1,96 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnCacheStressTest {
+
+    private Stm stm;
+    private NaiveTxnCache<Integer, Integer> cache;
+    private TxnExecutor executor;
+    private int threadCount = 4;
+    private int operationCount = 20000;
+    private int keyCount = 200;
+    private int maxSize = 50;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+        cache = new NaiveTxnCache<Integer, Integer>(stm, maxSize);
+        executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+    }
+
+    @Test
+    public void test() {
+        WorkerThread[] threads = new WorkerThread[threadCount];
+        for (int k = 0; k < threadCount; k++) {
+            threads[k] = new WorkerThread(k);
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                int found = 0;
+                for (int k = 0; k < keyCount; k++) {
+                    Integer value = cache.get(tx, k);
+                    if (value != null) {
+                        assertEquals(k, value.intValue());
+                        found++;
+                    }
+                }
+
+                assertEquals(found, cache.size(tx));
+                assertEquals(found, cache.getWeight(tx));
+                assertTrue(found <= maxSize);
+            }
+        });
+    }
+
+    class WorkerThread extends TestThread {
+        WorkerThread(int id) {
+            super("WorkerThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            final Random random = new Random();
+            for (int k = 0; k < operationCount; k++) {
+                final int key = random.nextInt(keyCount);
+                final int operation = random.nextInt(10);
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        if (operation == 0) {
+                            cache.put(tx, key, key);
+                        } else if (operation == 1) {
+                            cache.remove(tx, key);
+                        } else {
+                            Integer value = cache.get(tx, key);
+                            if (value != null) {
+                                assertEquals(key, value.intValue());
+                            }
+                        }
+                    }
+                });
+            }
+        }
+    }
+}
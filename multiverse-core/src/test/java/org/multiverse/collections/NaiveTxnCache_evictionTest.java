@@ -0,0 +1,113 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnCache_evictionTest {
+
+    private Stm stm;
+    private NaiveTxnCache<Integer, String> cache;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        cache = new NaiveTxnCache<Integer, String>(stm, 3);
+    }
+
+    @Test
+    public void whenNoneReferenced_thenOldestEvicted() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put(1, "a");
+                cache.put(2, "b");
+                cache.put(3, "c");
+                cache.put(4, "d");
+
+                assertFalse(cache.containsKey(1));
+                assertTrue(cache.containsKey(2));
+                assertTrue(cache.containsKey(3));
+                assertTrue(cache.containsKey(4));
+                assertEquals(3, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenReferenced_thenSecondChance() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put(1, "a");
+                cache.put(2, "b");
+                cache.put(3, "c");
+
+                cache.get(1);
+                cache.put(4, "d");
+
+                assertTrue(cache.containsKey(1));
+                assertFalse(cache.containsKey(2));
+
+                //the second chance is used up, the next entry without access bit is evicted.
+                cache.put(5, "e");
+                assertTrue(cache.containsKey(1));
+                assertFalse(cache.containsKey(3));
+
+                cache.put(6, "f");
+                assertFalse(cache.containsKey(1));
+                assertTrue(cache.containsKey(4));
+                assertTrue(cache.containsKey(5));
+                assertTrue(cache.containsKey(6));
+            }
+        });
+    }
+
+    @Test
+    public void whenAllReferenced_thenHandGoesAround() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put(1, "a");
+                cache.put(2, "b");
+                cache.put(3, "c");
+                cache.get(1);
+                cache.get(2);
+                cache.get(3);
+
+                cache.put(4, "d");
+
+                assertFalse(cache.containsKey(1));
+                assertTrue(cache.containsKey(4));
+                assertEquals(3, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenManyPuts_thenSizeBounded() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < 1000; k++) {
+                    cache.put(k, "" + k);
+                    if (k % 3 == 0) {
+                        cache.get(k);
+                    }
+                    assertTrue(cache.size() <= 3);
+                }
+
+                assertEquals(3, cache.size());
+                assertTrue(cache.containsKey(999));
+            }
+        });
+    }
+}
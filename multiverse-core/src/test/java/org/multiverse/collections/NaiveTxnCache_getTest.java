@@ -0,0 +1,94 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnCache_getTest {
+
+    private Stm stm;
+    private NaiveTxnCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        cache = new NaiveTxnCache<String, String>(stm, 10);
+    }
+
+    @Test
+    public void whenNullKey_thenNullPointerException() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                try {
+                    cache.get(null);
+                    fail();
+                } catch (NullPointerException expected) {
+                }
+            }
+        });
+    }
+
+    @Test
+    public void whenNotFound() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+
+                assertNull(cache.get("2"));
+                assertFalse(cache.containsKey("2"));
+            }
+        });
+    }
+
+    @Test
+    public void whenFound() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < 10; k++) {
+                    cache.put("" + k, "value" + k);
+                }
+
+                for (int k = 0; k < 10; k++) {
+                    assertEquals("value" + k, cache.get("" + k));
+                    assertTrue(cache.containsKey("" + k));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void whenHitInReadonlyTxn_thenNoWrites() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+            }
+        });
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setReadonly(true)
+                .newTxnExecutor();
+
+        String result = executor.execute(new TxnCallable<String>() {
+            @Override
+            public String call(Txn tx) throws Exception {
+                return cache.get(tx, "1");
+            }
+        });
+
+        assertEquals("a", result);
+    }
+}
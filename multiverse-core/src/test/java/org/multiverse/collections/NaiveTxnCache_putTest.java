@@ -0,0 +1,181 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnCache;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnCache_putTest {
+
+    private Stm stm;
+    private NaiveTxnCache<String, String> cache;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        cache = new NaiveTxnCache<String, String>(stm, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMaxSizeTooSmall_thenIllegalArgumentException() {
+        new NaiveTxnCache<String, String>(stm, 0);
+    }
+
+    @Test
+    public void whenNullKeyOrValue_thenNullPointerException() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                try {
+                    cache.put(null, "a");
+                    fail();
+                } catch (NullPointerException expected) {
+                }
+
+                try {
+                    cache.put("1", null);
+                    fail();
+                } catch (NullPointerException expected) {
+                }
+
+                assertEquals(0, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenNew() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertNull(cache.put("1", "a"));
+
+                assertEquals("a", cache.get("1"));
+                assertEquals(1, cache.size());
+                assertEquals(1, cache.getWeight());
+            }
+        });
+    }
+
+    @Test
+    public void whenReplace_thenPreviousValueReturned() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+
+                assertEquals("a", cache.put("1", "b"));
+
+                assertEquals("b", cache.get("1"));
+                assertEquals(1, cache.size());
+                assertEquals(1, cache.getWeight());
+            }
+        });
+    }
+
+    @Test
+    public void whenRemove() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+                cache.put("2", "b");
+
+                assertEquals("a", cache.remove("1"));
+                assertNull(cache.remove("1"));
+
+                assertNull(cache.get("1"));
+                assertEquals("b", cache.get("2"));
+                assertEquals(1, cache.size());
+
+                assertEquals("b", cache.remove("2"));
+                assertEquals(0, cache.size());
+
+                cache.put("3", "c");
+                assertEquals("c", cache.get("3"));
+            }
+        });
+    }
+
+    @Test
+    public void whenClear() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+                cache.put("2", "b");
+                cache.clear();
+
+                assertEquals(0, cache.size());
+                assertEquals(0, cache.getWeight());
+                assertNull(cache.get("1"));
+
+                cache.put("3", "c");
+                assertEquals("c", cache.get("3"));
+                assertEquals(1, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenWeightBound() {
+        final NaiveTxnCache<String, String> cache = new NaiveTxnCache<String, String>(
+                stm, 10, new LengthWeigher());
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "aaaa");
+                cache.put("2", "bbbb");
+                assertEquals(8, cache.getWeight());
+
+                //fits exactly, so nothing is evicted.
+                cache.put("3", "cc");
+                assertEquals(10, cache.getWeight());
+                assertEquals(3, cache.size());
+
+                cache.put("4", "d");
+                assertNull(cache.get("1"));
+                assertEquals(7, cache.getWeight());
+                assertEquals(3, cache.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenEntryTooHeavy_thenIllegalArgumentException() {
+        final NaiveTxnCache<String, String> cache = new NaiveTxnCache<String, String>(
+                stm, 10, new LengthWeigher());
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                cache.put("1", "a");
+
+                try {
+                    cache.put("2", "aaaaaaaaaaa");
+                    fail();
+                } catch (IllegalArgumentException expected) {
+                }
+
+                assertEquals("a", cache.get("1"));
+                assertEquals(1, cache.getWeight());
+            }
+        });
+    }
+
+    static class LengthWeigher implements TxnCache.Weigher<String, String> {
+        @Override
+        public long weigh(String key, String value) {
+            return value.length();
+        }
+    }
+}
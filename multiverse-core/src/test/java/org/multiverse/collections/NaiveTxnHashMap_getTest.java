@@ -6,9 +6,12 @@ import org.multiverse.api.Stm;
 import org.multiverse.api.StmUtils;
 import org.multiverse.api.Txn;
 import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.references.TxnLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
 import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
@@ -93,4 +96,77 @@ public class NaiveTxnHashMap_getTest {
             }
         });
     }
+
+    //"Aa", "BB" and "C#" have the same hashcode, so they end up in the chain of the same bucket.
+
+    @Test
+    public void whenElasticAndInsertInSameBucket_thenNoConflict() {
+        atomicPut("Aa", "a");
+        atomicPut("BB", "b");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertEquals("a", map.get(tx, "Aa"));
+
+        atomicPut("C#", "c");
+        ref.atomicIncrementAndGet(1);
+
+        assertEquals(1, ref.get(tx));
+        tx.commit();
+    }
+
+    @Test
+    public void whenNotElasticAndInsertInSameBucket_thenReadWriteConflict() {
+        atomicPut("Aa", "a");
+        atomicPut("BB", "b");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(false);
+        assertEquals("a", map.get(tx, "Aa"));
+
+        atomicPut("C#", "c");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    @Test
+    public void whenElasticAndFoundValueChanged_thenReadWriteConflict() {
+        atomicPut("Aa", "a");
+        atomicPut("BB", "b");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertEquals("a", map.get(tx, "Aa"));
+
+        atomicPut("Aa", "z");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    private Txn newTxn(boolean elastic) {
+        return stm.newTxnFactoryBuilder()
+                .setElastic(elastic)
+                .setSpeculative(false)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    private void atomicPut(final String key, final String value) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                map.put(tx, key, value);
+            }
+        });
+    }
 }
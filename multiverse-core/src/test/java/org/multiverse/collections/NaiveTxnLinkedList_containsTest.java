@@ -6,10 +6,13 @@ import org.multiverse.api.Stm;
 import org.multiverse.api.StmUtils;
 import org.multiverse.api.Txn;
 import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.references.TxnLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
 import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
@@ -87,4 +90,92 @@ public class NaiveTxnLinkedList_containsTest {
             }
         });
     }
+
+    @Test
+    public void whenElasticAndInsertBeforeFoundItem_thenNoConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertTrue(stack.contains(tx, "c"));
+
+        atomicAddFirst("z");
+        ref.atomicIncrementAndGet(1);
+
+        assertEquals(1, ref.get(tx));
+        tx.commit();
+    }
+
+    @Test
+    public void whenNotElasticAndInsertBeforeFoundItem_thenReadWriteConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(false);
+        assertTrue(stack.contains(tx, "c"));
+
+        atomicAddFirst("z");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    @Test
+    public void whenElasticAndFoundItemChanged_thenReadWriteConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertTrue(stack.contains(tx, "c"));
+
+        atomicSet(2, "d");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    private Txn newTxn(boolean elastic) {
+        return stm.newTxnFactoryBuilder()
+                .setElastic(elastic)
+                .setSpeculative(false)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    private void atomicAdd(final String... items) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (String item : items) {
+                    stack.add(tx, item);
+                }
+            }
+        });
+    }
+
+    private void atomicAddFirst(final String item) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                stack.addFirst(tx, item);
+            }
+        });
+    }
+
+    private void atomicSet(final int index, final String item) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                stack.set(tx, index, item);
+            }
+        });
+    }
 }
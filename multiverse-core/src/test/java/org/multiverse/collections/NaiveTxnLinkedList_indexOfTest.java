@@ -6,8 +6,11 @@ import org.multiverse.api.Stm;
 import org.multiverse.api.StmUtils;
 import org.multiverse.api.Txn;
 import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.references.TxnLong;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
 import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
@@ -100,4 +103,95 @@ public class NaiveTxnLinkedList_indexOfTest {
               }
           });
     }
+
+    @Test
+    public void whenElasticAndInsertBeforeFoundItem_thenReadWriteConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertEquals(2, list.indexOf(tx, "c"));
+
+        atomicAddFirst("z");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    @Test
+    public void whenNotElasticAndInsertBeforeFoundItem_thenReadWriteConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(false);
+        assertEquals(2, list.indexOf(tx, "c"));
+
+        atomicAddFirst("z");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    @Test
+    public void whenElasticAndFoundItemChanged_thenReadWriteConflict() {
+        atomicAdd("a", "b", "c");
+        TxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        Txn tx = newTxn(true);
+        assertEquals(2, list.indexOf(tx, "c"));
+
+        atomicSet(2, "d");
+        ref.atomicIncrementAndGet(1);
+
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+    }
+
+    private Txn newTxn(boolean elastic) {
+        return stm.newTxnFactoryBuilder()
+                .setElastic(elastic)
+                .setSpeculative(false)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    private void atomicAdd(final String... items) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (String item : items) {
+                    list.add(tx, item);
+                }
+            }
+        });
+    }
+
+    private void atomicAddFirst(final String item) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                list.addFirst(tx, item);
+            }
+        });
+    }
+
+    private void atomicSet(final int index, final String item) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                list.set(tx, index, item);
+            }
+        });
+    }
 }
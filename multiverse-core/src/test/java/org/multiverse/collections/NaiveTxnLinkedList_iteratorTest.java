@@ -1,12 +1,66 @@
 package org.multiverse.collections;
 
-import org.junit.Ignore;
+import org.junit.Before;
 import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnIterator;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
 public class NaiveTxnLinkedList_iteratorTest {
+
+    private Stm stm;
+    private NaiveTxnLinkedList<String> list;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        list = new NaiveTxnLinkedList<String>(stm);
+    }
+
+    @Test
+    public void whenEmpty() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                TxnIterator<String> it = list.iterator();
+                assertFalse(it.hasNext());
+
+                try {
+                    it.next();
+                    fail();
+                } catch (NoSuchElementException expected) {
+                }
+            }
+        });
+    }
+
     @Test
-    @Ignore
-    public void test(){
+    public void whenMultipleItems() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                list.add("1");
+                list.add("2");
+                list.add("3");
 
+                TxnIterator<String> it = list.iterator();
+                assertTrue(it.hasNext());
+                assertEquals("1", it.next());
+                assertTrue(it.hasNext());
+                assertEquals("2", it.next());
+                assertTrue(it.hasNext());
+                assertEquals("3", it.next());
+                assertFalse(it.hasNext());
+            }
+        });
     }
 }
@@ -0,0 +1,179 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnIterator;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsActive;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnLinkedList_snapshotIteratorTest {
+
+    private GammaStm stm;
+    private NaiveTxnLinkedList<String> list;
+
+    @Before
+    public void setUp() {
+        stm = (GammaStm) getGlobalStmInstance();
+        clearThreadLocalTxn();
+        list = new NaiveTxnLinkedList<String>(stm);
+    }
+
+    private void fill(final int count) {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < count; k++) {
+                    list.add(tx, "" + k);
+                }
+            }
+        });
+    }
+
+    private void createFirstSnapshotIterator() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                list.snapshotIterator(tx);
+            }
+        });
+    }
+
+    @Test
+    public void whenEmpty() {
+        Txn tx = stm.newDefaultTxn();
+        TxnIterator<String> it = list.snapshotIterator(tx);
+
+        assertFalse(it.hasNext(tx));
+        try {
+            it.next(tx);
+            fail();
+        } catch (NoSuchElementException expected) {
+        }
+        assertIsActive(tx);
+    }
+
+    @Test
+    public void whenMultipleItems() {
+        fill(3);
+
+        Txn tx = stm.newDefaultTxn();
+        TxnIterator<String> it = list.snapshotIterator(tx);
+
+        assertTrue(it.hasNext(tx));
+        assertEquals("0", it.next(tx));
+        assertTrue(it.hasNext(tx));
+        assertEquals("1", it.next(tx));
+        assertTrue(it.hasNext(tx));
+        assertEquals("2", it.next(tx));
+        assertFalse(it.hasNext(tx));
+        assertIsActive(tx);
+        tx.commit();
+    }
+
+    @Test
+    public void whenLargeList_thenEntriesNotTracked() {
+        int count = 10000;
+        fill(count);
+        createFirstSnapshotIterator();
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        TxnIterator<String> it = list.snapshotIterator(tx);
+        int found = 0;
+        while (it.hasNext(tx)) {
+            assertEquals("" + found, it.next(tx));
+            found++;
+        }
+
+        assertEquals(count, found);
+        assertEquals(2, tx.size);
+        tx.commit();
+    }
+
+    @Test
+    public void whenModifiedByOwnTransaction_thenModificationsVisible() {
+        fill(2);
+
+        Txn tx = stm.newDefaultTxn();
+        list.add(tx, "2");
+        TxnIterator<String> it = list.snapshotIterator(tx);
+
+        assertEquals("0", it.next(tx));
+        assertEquals("1", it.next(tx));
+        assertEquals("2", it.next(tx));
+        assertFalse(it.hasNext(tx));
+    }
+
+    @Test
+    public void whenModifiedByOtherTransaction_thenReadWriteConflict() {
+        fill(3);
+        createFirstSnapshotIterator();
+
+        Txn tx = stm.newDefaultTxn();
+        TxnIterator<String> it = list.snapshotIterator(tx);
+        assertEquals("0", it.next(tx));
+
+        Txn otherTx = stm.newDefaultTxn();
+        list.set(otherTx, 1, "changed");
+        otherTx.commit();
+
+        it.next(tx);
+        it.next(tx);
+        try {
+            it.hasNext(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenFirstSnapshotIterator_thenEntriesTracked() {
+        fill(3);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        TxnIterator<String> it = list.snapshotIterator(tx);
+        while (it.hasNext(tx)) {
+            it.next(tx);
+        }
+
+        assertTrue(tx.size > 2);
+        tx.commit();
+    }
+
+    @Test
+    public void whenModificationInFlightWhenFirstSnapshotIteratorCommits_thenModificationConflicts() {
+        fill(3);
+
+        Txn otherTx = stm.newDefaultTxn();
+        list.set(otherTx, 1, "changed");
+
+        Txn tx = stm.newDefaultTxn();
+        TxnIterator<String> it = list.snapshotIterator(tx);
+        assertEquals("0", it.next(tx));
+        assertEquals("1", it.next(tx));
+        assertEquals("2", it.next(tx));
+        assertFalse(it.hasNext(tx));
+        tx.commit();
+
+        try {
+            otherTx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(otherTx);
+    }
+}
@@ -3,12 +3,19 @@ package org.multiverse.collections;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.multiverse.TestThread;
 import org.multiverse.api.Stm;
 import org.multiverse.api.StmUtils;
 import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnCallable;
 import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
+
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
 import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
 import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
@@ -74,4 +81,103 @@ public class NaiveTxnLinkedList_takeTest {
         });
     }
 
+    @Test
+    public void whenEmptyInEitherBranch_thenOrElseBranchTakes() {
+        final NaiveTxnLinkedList<String> other = new NaiveTxnLinkedList<String>(stm);
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                other.put("1");
+
+                String found = StmUtils.atomic(new TakeCallable(list), new TakeCallable(other));
+
+                assertEquals("1", found);
+                assertEquals(0, list.size());
+                assertEquals(0, other.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenMultipleTakersWaiting_thenPutWakesUpOne() {
+        final AtomicInteger executions = new AtomicInteger();
+        TakeThread[] threads = new TakeThread[5];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TakeThread(executions);
+        }
+        startAll(threads);
+        awaitListenerCount(threads.length);
+
+        put("1");
+        awaitListenerCount(threads.length - 1);
+        sleepMs(100);
+
+        assertEquals(threads.length + 1, executions.get());
+
+        for (int k = 1; k < threads.length; k++) {
+            put(String.valueOf(k + 1));
+        }
+        joinAll(threads);
+        assertEquals(0, listenerCount());
+    }
+
+    private void put(final String item) {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                list.put(item);
+            }
+        });
+    }
+
+    private void awaitListenerCount(int expected) {
+        long deadline = System.currentTimeMillis() + 60 * 1000;
+        while (listenerCount() != expected) {
+            assertTrue("Listeners didn't register in time", System.currentTimeMillis() < deadline);
+            sleepMs(1);
+        }
+    }
+
+    private int listenerCount() {
+        BaseGammaTxnRef size = (BaseGammaTxnRef) getField(list, "size");
+        int count = 0;
+        for (Listeners listeners = size.listeners; listeners != null; listeners = listeners.next) {
+            count++;
+        }
+        return count;
+    }
+
+    class TakeThread extends TestThread {
+        private final AtomicInteger executions;
+
+        TakeThread(AtomicInteger executions) {
+            super("TakeThread");
+            this.executions = executions;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            StmUtils.atomic(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    executions.incrementAndGet();
+                    list.take(tx);
+                }
+            });
+        }
+    }
+
+    static class TakeCallable implements TxnCallable<String> {
+        private final NaiveTxnLinkedList<String> list;
+
+        TakeCallable(NaiveTxnLinkedList<String> list) {
+            this.list = list;
+        }
+
+        @Override
+        public String call(Txn tx) throws Exception {
+            return list.take(tx);
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnBooleanCallable;
+import org.multiverse.api.callables.TxnIntCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnPriorityQueueStressTest {
+
+    private Stm stm;
+    private NaiveTxnPriorityQueue<Integer> queue;
+    private TxnExecutor executor;
+    private int producerCount = 4;
+    private int itemsPerProducer = 5000;
+    private AtomicIntegerArray taken;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+        queue = new NaiveTxnPriorityQueue<Integer>(stm);
+        executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+        taken = new AtomicIntegerArray(producerCount * itemsPerProducer);
+    }
+
+    @Test
+    public void test() {
+        ProducerThread[] producers = new ProducerThread[producerCount];
+        ConsumerThread[] consumers = new ConsumerThread[producerCount];
+        for (int k = 0; k < producerCount; k++) {
+            producers[k] = new ProducerThread(k);
+            consumers[k] = new ConsumerThread(k);
+        }
+
+        startAll(producers);
+        startAll(consumers);
+        joinAll(producers);
+        joinAll(consumers);
+
+        for (int k = 0; k < taken.length(); k++) {
+            assertEquals("item " + k, 1, taken.get(k));
+        }
+        assertTrue(executor.execute(new TxnBooleanCallable() {
+            @Override
+            public boolean call(Txn tx) throws Exception {
+                return queue.isEmpty(tx);
+            }
+        }));
+    }
+
+    class ProducerThread extends TestThread {
+        private final int id;
+
+        ProducerThread(int id) {
+            super("ProducerThread-" + id);
+            this.id = id;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < itemsPerProducer; k++) {
+                //the producers insert interleaved priorities, so they insert in different places of the queue.
+                final int item = k * producerCount + id;
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        queue.put(tx, item);
+                    }
+                });
+            }
+        }
+    }
+
+    class ConsumerThread extends TestThread {
+        ConsumerThread(int id) {
+            super("ConsumerThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < itemsPerProducer; k++) {
+                int item = executor.execute(new TxnIntCallable() {
+                    @Override
+                    public int call(Txn tx) throws Exception {
+                        return queue.take(tx);
+                    }
+                });
+                taken.incrementAndGet(item);
+            }
+        }
+    }
+}
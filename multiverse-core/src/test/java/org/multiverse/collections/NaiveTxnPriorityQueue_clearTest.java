@@ -0,0 +1,169 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnIntCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.collections.TxnIterator;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnPriorityQueue_clearTest {
+
+    private Stm stm;
+    private NaiveTxnPriorityQueue<Integer> queue;
+    private TxnExecutor executor;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+        queue = new NaiveTxnPriorityQueue<Integer>(stm);
+        executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+    }
+
+    @Test
+    public void whenEmpty() {
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.clear(tx);
+
+                assertEquals("[]", queue.toString(tx));
+                assertEquals(0, queue.size(tx));
+            }
+        });
+    }
+
+    @Test
+    public void whenNotEmpty() {
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer(tx, 2);
+                queue.offer(tx, 1);
+                queue.offer(tx, 3);
+
+                queue.clear(tx);
+
+                assertEquals("[]", queue.toString(tx));
+                assertEquals(0, queue.size(tx));
+                queue.offer(tx, 4);
+                assertEquals("[4]", queue.toString(tx));
+                assertEquals(1, queue.size(tx));
+            }
+        });
+    }
+
+    @Test
+    public void whenClearedWhileOfferAfterLastItem_thenOfferConflicts() {
+        for (int k = 1; k <= 10; k++) {
+            atomicOffer(k);
+        }
+
+        Txn offerTx = newTxn();
+        queue.offer(offerTx, 20);
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.clear(tx);
+            }
+        });
+
+        try {
+            offerTx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(0, atomicSize());
+        assertEquals(0, atomicCount());
+    }
+
+    @Test
+    public void whenOfferedAndClearedConcurrently_thenSizeMatchesItems() {
+        final int threadCount = 4;
+        final int offersPerThread = 2000;
+
+        TestThread[] threads = new TestThread[threadCount + 1];
+        for (int k = 0; k < threadCount; k++) {
+            final int id = k;
+            threads[k] = new TestThread("OfferThread-" + k) {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < offersPerThread; i++) {
+                        atomicOffer(i * threadCount + id);
+                    }
+                }
+            };
+        }
+        threads[threadCount] = new TestThread("ClearThread") {
+            @Override
+            public void doRun() throws Exception {
+                for (int i = 0; i < offersPerThread / 10; i++) {
+                    executor.execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            queue.clear(tx);
+                        }
+                    });
+                    sleepMs(1);
+                }
+            }
+        };
+
+        startAll(threads);
+        joinAll(threads);
+
+        assertEquals(atomicCount(), atomicSize());
+    }
+
+    private Txn newTxn() {
+        return stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    private void atomicOffer(final int item) {
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer(tx, item);
+            }
+        });
+    }
+
+    private int atomicSize() {
+        return executor.execute(new TxnIntCallable() {
+            @Override
+            public int call(Txn tx) throws Exception {
+                return queue.size(tx);
+            }
+        });
+    }
+
+    private int atomicCount() {
+        return executor.execute(new TxnIntCallable() {
+            @Override
+            public int call(Txn tx) throws Exception {
+                int count = 0;
+                for (TxnIterator<Integer> it = queue.iterator(tx); it.hasNext(tx); it.next(tx)) {
+                    count++;
+                }
+                return count;
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import java.util.Collections;
+import java.util.Comparator;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnPriorityQueue_offerTest {
+
+    private Stm stm;
+    private NaiveTxnPriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        queue = new NaiveTxnPriorityQueue<Integer>(stm);
+    }
+
+    @Test
+    public void whenNullItem_thenNullPointerException() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                try {
+                    queue.offer(null);
+                    fail();
+                } catch (NullPointerException expected) {
+                }
+
+                assertEquals("[]", queue.toString());
+                assertEquals(0, queue.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenItemsOfferedOutOfOrder_thenSorted() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertTrue(queue.offer(5));
+                assertTrue(queue.offer(1));
+                assertTrue(queue.offer(3));
+                assertTrue(queue.offer(2));
+                assertTrue(queue.offer(4));
+
+                assertEquals("[1, 2, 3, 4, 5]", queue.toString());
+                assertEquals(5, queue.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenManyItems_thenSorted() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < 1000; k++) {
+                    queue.offer((k * 7919) % 1000);
+                }
+
+                assertEquals(1000, queue.size());
+                for (int k = 0; k < 1000; k++) {
+                    assertEquals(new Integer(k), queue.poll());
+                }
+                assertTrue(queue.isEmpty());
+            }
+        });
+    }
+
+    @Test
+    public void whenComparator() {
+        final NaiveTxnPriorityQueue<Integer> queue = new NaiveTxnPriorityQueue<Integer>(
+                stm, Collections.<Integer>reverseOrder());
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer(1);
+                queue.offer(3);
+                queue.offer(2);
+
+                assertEquals("[3, 2, 1]", queue.toString());
+            }
+        });
+    }
+
+    @Test
+    public void whenSamePriority_thenInsertionOrder() {
+        final NaiveTxnPriorityQueue<String> queue = new NaiveTxnPriorityQueue<String>(stm, new Comparator<String>() {
+            @Override
+            public int compare(String o1, String o2) {
+                return o1.charAt(0) - o2.charAt(0);
+            }
+        });
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer("b1");
+                queue.offer("a1");
+                queue.offer("b2");
+                queue.offer("a2");
+                queue.offer("b3");
+
+                assertEquals("[a1, a2, b1, b2, b3]", queue.toString());
+            }
+        });
+    }
+
+    @Test
+    public void whenCommitted_thenVisibleInNextTxn() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer(2);
+                queue.offer(1);
+            }
+        });
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertEquals("[1, 2]", queue.toString());
+                assertEquals(2, queue.size());
+            }
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnPriorityQueue_pollTest {
+
+    private Stm stm;
+    private NaiveTxnPriorityQueue<String> queue;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        queue = new NaiveTxnPriorityQueue<String>(stm);
+    }
+
+    @Test
+    public void whenEmpty() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertNull(queue.poll());
+                assertNull(queue.peek());
+                assertEquals("[]", queue.toString());
+                assertEquals(0, queue.size());
+            }
+        });
+    }
+
+    @Test
+    public void whenEmpty_thenRemoveAndElementThrowNoSuchElementException() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                try {
+                    queue.remove();
+                    fail();
+                } catch (NoSuchElementException expected) {
+                }
+
+                try {
+                    queue.element();
+                    fail();
+                } catch (NoSuchElementException expected) {
+                }
+            }
+        });
+    }
+
+    @Test
+    public void whenMultipleItems_thenLeastReturned() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer("2");
+                queue.offer("3");
+                queue.offer("1");
+
+                assertEquals("1", queue.peek());
+                assertEquals("1", queue.poll());
+                assertEquals("[2, 3]", queue.toString());
+                assertEquals(2, queue.size());
+                assertEquals("2", queue.remove());
+                assertEquals("3", queue.element());
+            }
+        });
+    }
+
+    @Test
+    public void whenRemoveObject() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                for (int k = 0; k < 100; k++) {
+                    queue.offer("" + (char) ('a' + k % 26) + k);
+                }
+
+                assertTrue(queue.contains("c2"));
+                assertTrue(queue.remove("c2"));
+                assertFalse(queue.contains("c2"));
+                assertFalse(queue.remove("c2"));
+                assertFalse(queue.remove((Object) null));
+                assertEquals(99, queue.size());
+
+                String previous = queue.poll();
+                while (!queue.isEmpty()) {
+                    String item = queue.poll();
+                    assertTrue(previous.compareTo(item) <= 0);
+                    previous = item;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void whenClear() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.offer("1");
+                queue.offer("2");
+                queue.clear();
+
+                assertEquals("[]", queue.toString());
+                assertEquals(0, queue.size());
+
+                queue.offer("3");
+                assertEquals("[3]", queue.toString());
+            }
+        });
+    }
+}
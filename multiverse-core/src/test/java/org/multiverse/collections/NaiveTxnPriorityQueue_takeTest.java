@@ -0,0 +1,77 @@
+package org.multiverse.collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Stm;
+import org.multiverse.api.StmUtils;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NaiveTxnPriorityQueue_takeTest {
+
+    private Stm stm;
+    private NaiveTxnPriorityQueue<Integer> queue;
+
+    @Before
+    public void setUp() {
+        stm = getGlobalStmInstance();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+        queue = new NaiveTxnPriorityQueue<Integer>(stm);
+    }
+
+    @Test
+    public void whenItemAvailable() {
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.put(2);
+                queue.put(1);
+
+                assertEquals(new Integer(1), queue.take());
+                assertEquals("[2]", queue.toString());
+            }
+        });
+    }
+
+    @Test
+    public void whenEmpty_thenBlockedTillPut() {
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                StmUtils.atomic(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        assertEquals(new Integer(10), queue.take());
+                    }
+                });
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                queue.put(10);
+            }
+        });
+
+        joinAll(thread);
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertTrue(queue.isEmpty());
+            }
+        });
+    }
+}
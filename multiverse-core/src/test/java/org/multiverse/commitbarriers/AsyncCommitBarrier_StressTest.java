@@ -0,0 +1,125 @@
+package org.multiverse.commitbarriers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnFactory;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+/**
+ * Every round all threads join the same AsyncCommitBarrier without waiting for each other, so a thread can be
+ * many rounds ahead of the others. Each thread/round writes its own ref, so the only thing that can prevent a commit
+ * is the random abort of the barrier.
+ */
+public class AsyncCommitBarrier_StressTest {
+
+    private int threadCount = 10;
+    private int iterationCount = 10;
+    private int roundCount = 100;
+    private int oneOfFails = 4;
+
+    private GammaStm stm;
+    private TxnFactory txnFactory;
+    private AsyncCommitBarrier[] barriers;
+    private GammaTxnLong[][] refs;
+    private AtomicLong commitCount;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+        txnFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory();
+    }
+
+    @Test
+    public void test() {
+        for (int k = 0; k < iterationCount; k++) {
+            runIteration();
+        }
+    }
+
+    public void runIteration() {
+        commitCount = new AtomicLong();
+
+        barriers = new AsyncCommitBarrier[roundCount];
+        for (int k = 0; k < roundCount; k++) {
+            barriers[k] = new AsyncCommitBarrier(threadCount);
+        }
+
+        refs = new GammaTxnLong[threadCount][roundCount];
+        for (int t = 0; t < threadCount; t++) {
+            for (int k = 0; k < roundCount; k++) {
+                refs[t][k] = new GammaTxnLong(stm);
+            }
+        }
+
+        JoinThread[] threads = new JoinThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new JoinThread(k);
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        long sum = 0;
+        int committedBarriers = 0;
+        for (int k = 0; k < roundCount; k++) {
+            assertFalse(barriers[k].isClosed());
+            if (barriers[k].isCommitted()) {
+                committedBarriers++;
+            }
+
+            for (int t = 0; t < threadCount; t++) {
+                sum += refs[t][k].atomicGet();
+            }
+        }
+
+        System.out.printf("committed barriers %s of %s\n", committedBarriers, roundCount);
+        assertEquals(committedBarriers * threadCount, commitCount.get());
+        assertEquals(commitCount.get(), sum);
+    }
+
+    class JoinThread extends TestThread {
+        private final int id;
+
+        JoinThread(int id) {
+            super("JoinThread-" + id);
+            this.id = id;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            JoinCommitFuture[] futures = new JoinCommitFuture[roundCount];
+
+            for (int k = 0; k < roundCount; k++) {
+                if (id == 0 && randomOneOf(oneOfFails)) {
+                    barriers[k].abort();
+                }
+
+                Txn tx = txnFactory.newTxn();
+                refs[id][k].increment(tx);
+                try {
+                    futures[k] = barriers[k].joinCommit(tx);
+                } catch (CommitBarrierOpenException expected) {
+                }
+            }
+
+            for (JoinCommitFuture future : futures) {
+                if (future != null && future.getUninterruptibly()) {
+                    commitCount.incrementAndGet();
+                }
+            }
+        }
+    }
+}
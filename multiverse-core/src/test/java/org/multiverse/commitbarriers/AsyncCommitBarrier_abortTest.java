@@ -0,0 +1,90 @@
+package org.multiverse.commitbarriers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnFactory;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsCommitted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
+
+public class AsyncCommitBarrier_abortTest {
+    private AsyncCommitBarrier barrier;
+    private GammaStm stm;
+    private TxnFactory txnFactory;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        txnFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenNoPartiesJoined() {
+        barrier = new AsyncCommitBarrier(1);
+        barrier.abort();
+
+        assertTrue(barrier.isAborted());
+        assertEquals(0, barrier.getNumberWaiting());
+    }
+
+    @Test
+    public void whenPartiesJoined_thenTheyAreAborted() {
+        barrier = new AsyncCommitBarrier(3);
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        Txn tx1 = txnFactory.newTxn();
+        ref1.set(tx1, 1);
+        JoinCommitFuture future1 = barrier.joinCommit(tx1);
+
+        Txn tx2 = txnFactory.newTxn();
+        ref2.set(tx2, 1);
+        JoinCommitFuture future2 = barrier.joinCommit(tx2);
+
+        barrier.abort();
+
+        assertTrue(barrier.isAborted());
+        assertIsAborted(tx1);
+        assertIsAborted(tx2);
+        assertTrue(future1.isAborted());
+        assertFalse(future2.getUninterruptibly());
+        assertRefHasNoLocks(ref1);
+        assertRefHasNoLocks(ref2);
+        assertEquals(0, ref1.atomicGet());
+        assertEquals(0, ref2.atomicGet());
+    }
+
+    @Test
+    public void whenAborted_thenIgnored() {
+        barrier = new AsyncCommitBarrier(1);
+        barrier.abort();
+        barrier.abort();
+
+        assertTrue(barrier.isAborted());
+    }
+
+    @Test
+    public void whenCommitted() {
+        barrier = new AsyncCommitBarrier(1);
+        Txn tx = txnFactory.newTxn();
+        barrier.joinCommit(tx);
+
+        try {
+            barrier.abort();
+            fail();
+        } catch (CommitBarrierOpenException expected) {
+        }
+
+        assertTrue(barrier.isCommitted());
+        assertIsCommitted(tx);
+    }
+}
@@ -0,0 +1,163 @@
+package org.multiverse.commitbarriers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnFactory;
+import org.multiverse.api.exceptions.DeadTxnException;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class AsyncCommitBarrier_joinCommitTest {
+    private AsyncCommitBarrier barrier;
+    private GammaStm stm;
+    private TxnFactory txnFactory;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        txnFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+    }
+
+    @Test
+    public void whenNullTransaction() {
+        barrier = new AsyncCommitBarrier(1);
+
+        try {
+            barrier.joinCommit(null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+
+        assertTrue(barrier.isClosed());
+        assertEquals(0, barrier.getNumberWaiting());
+    }
+
+    @Test
+    public void whenTransactionDead() {
+        barrier = new AsyncCommitBarrier(1);
+        Txn tx = txnFactory.newTxn();
+        tx.abort();
+
+        try {
+            barrier.joinCommit(tx);
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertTrue(barrier.isClosed());
+        assertEquals(0, barrier.getNumberWaiting());
+    }
+
+    @Test
+    public void whenLastOneEntering() throws Exception {
+        barrier = new AsyncCommitBarrier(1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        Txn tx = txnFactory.newTxn();
+        ref.set(tx, 10);
+        JoinCommitFuture future = barrier.joinCommit(tx);
+
+        assertTrue(future.isDone());
+        assertTrue(future.get());
+        assertIsCommitted(tx);
+        assertTrue(barrier.isCommitted());
+        assertEquals(0, barrier.getNumberWaiting());
+        assertEquals(10, ref.atomicGet());
+    }
+
+    @Test
+    public void whenNotLast_thenPreparedAndNotBlocking() throws Exception {
+        barrier = new AsyncCommitBarrier(2);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        Txn tx = txnFactory.newTxn();
+        ref.set(tx, 10);
+        JoinCommitFuture future = barrier.joinCommit(tx);
+
+        assertFalse(future.isDone());
+        assertIsPrepared(tx);
+        assertTrue(barrier.isClosed());
+        assertEquals(1, barrier.getNumberWaiting());
+        assertEquals(0, ref.atomicWeakGet());
+
+        try {
+            future.get(10, TimeUnit.MILLISECONDS);
+            fail();
+        } catch (TimeoutException expected) {
+        }
+    }
+
+    @Test
+    public void whenLastArrives_thenAllJoinedTransactionsCommitted() throws Exception {
+        int parties = 10;
+        barrier = new AsyncCommitBarrier(parties);
+
+        GammaTxnLong[] refs = new GammaTxnLong[parties];
+        Txn[] txs = new Txn[parties];
+        JoinCommitFuture[] futures = new JoinCommitFuture[parties];
+        for (int k = 0; k < parties; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            txs[k] = txnFactory.newTxn();
+            refs[k].set(txs[k], k + 1);
+            futures[k] = barrier.joinCommit(txs[k]);
+        }
+
+        assertTrue(barrier.isCommitted());
+        for (int k = 0; k < parties; k++) {
+            assertTrue(futures[k].isCommitted());
+            assertIsCommitted(txs[k]);
+            assertEquals(k + 1, refs[k].atomicGet());
+        }
+    }
+
+    @Test
+    public void whenAllPartiesAlreadyJoined() {
+        barrier = new AsyncCommitBarrier(1);
+        barrier.joinCommit(txnFactory.newTxn());
+
+        Txn tx = txnFactory.newTxn();
+        try {
+            barrier.joinCommit(tx);
+            fail();
+        } catch (CommitBarrierOpenException expected) {
+        }
+
+        assertIsAborted(tx);
+        assertTrue(barrier.isCommitted());
+    }
+
+    @Test
+    public void whenAborted() {
+        barrier = new AsyncCommitBarrier(2);
+        barrier.abort();
+
+        Txn tx = txnFactory.newTxn();
+        try {
+            barrier.joinCommit(tx);
+            fail();
+        } catch (CommitBarrierOpenException expected) {
+        }
+
+        assertIsAborted(tx);
+        assertTrue(barrier.isAborted());
+    }
+
+    @Test
+    public void whenZeroParties_thenCommitted() {
+        barrier = new AsyncCommitBarrier(0);
+
+        assertTrue(barrier.isCommitted());
+    }
+}
@@ -0,0 +1,155 @@
+package org.multiverse.commitbarriers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+public class DecisionLogTest {
+
+    private File file;
+    private DecisionLog log;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("decisionlog", ".log");
+        file.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (log != null) {
+            log.close();
+        }
+        file.delete();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullFile() throws IOException {
+        new DecisionLog(null, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNoSlots() throws IOException {
+        new DecisionLog(file, 0);
+    }
+
+    @Test
+    public void whenEmpty() throws IOException {
+        log = new DecisionLog(file, 10);
+
+        assertTrue(log.getInDoubt().isEmpty());
+        assertEquals(0, log.getMaxRecoveredId());
+    }
+
+    @Test
+    public void whenCommitLogged_thenCommitting() throws IOException {
+        log = new DecisionLog(file, 10);
+
+        log.logCommit(1);
+
+        assertTrue(log.isCommitting(1));
+        assertEquals(1, log.getForceCount());
+    }
+
+    @Test
+    public void whenDone_thenNotCommitting() throws IOException {
+        log = new DecisionLog(file, 10);
+
+        log.logCommit(1);
+        log.logDone(1);
+
+        assertFalse(log.isCommitting(1));
+    }
+
+    @Test
+    public void whenSlotReused() throws IOException {
+        log = new DecisionLog(file, 2);
+
+        for (long id = 1; id <= 10; id++) {
+            log.logCommit(id);
+            log.logDone(id);
+        }
+
+        assertFalse(log.isCommitting(10));
+    }
+
+    @Test
+    public void whenReopened_thenCommittingDecisionsInDoubt() throws IOException {
+        log = new DecisionLog(file, 10);
+        log.logCommit(1);
+        log.logDone(1);
+        log.logCommit(2);
+        log.logCommit(3);
+        log.close();
+
+        log = new DecisionLog(file, 10);
+
+        List<Long> inDoubt = log.getInDoubt();
+        assertEquals(Arrays.asList(2L, 3L), inDoubt);
+        assertEquals(3, log.getMaxRecoveredId());
+    }
+
+    @Test
+    public void whenInDoubtNotResolved_thenLogCommitFails() throws IOException {
+        log = new DecisionLog(file, 10);
+        log.logCommit(1);
+        log.close();
+
+        log = new DecisionLog(file, 10);
+        try {
+            log.logCommit(2);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        log.resolveInDoubt();
+        assertTrue(log.getInDoubt().isEmpty());
+        log.logCommit(2);
+        log.close();
+
+        log = new DecisionLog(file, 10);
+        assertEquals(Arrays.asList(2L), log.getInDoubt());
+    }
+
+    @Test
+    public void whenConcurrentCommits_thenAllDurable() throws IOException {
+        log = new DecisionLog(file, 64);
+        final int threadCount = 4;
+        final int commitsPerThread = 500;
+
+        TestThread[] threads = new TestThread[threadCount];
+        for (int k = 0; k < threadCount; k++) {
+            final int threadId = k;
+            threads[k] = new TestThread() {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < commitsPerThread; i++) {
+                        long id = 1 + threadId + (long) i * threadCount;
+                        log.logCommit(id);
+                        log.logDone(id);
+                    }
+                }
+            };
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        assertTrue(log.getForceCount() <= threadCount * commitsPerThread);
+        log.close();
+
+        log = new DecisionLog(file, 64);
+        assertTrue(log.getInDoubt().isEmpty());
+        assertEquals(threadCount * commitsPerThread, log.getMaxRecoveredId());
+    }
+}
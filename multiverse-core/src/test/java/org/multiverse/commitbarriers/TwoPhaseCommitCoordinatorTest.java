@@ -0,0 +1,224 @@
+package org.multiverse.commitbarriers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.exceptions.DeadTxnException;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.lifecycle.TxnEvent;
+import org.multiverse.api.lifecycle.TxnListener;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsCommitted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
+
+public class TwoPhaseCommitCoordinatorTest {
+
+    private File file;
+    private DecisionLog log;
+    private TwoPhaseCommitCoordinator coordinator;
+    private GammaStm stm1;
+    private GammaStm stm2;
+
+    @Before
+    public void setUp() throws IOException {
+        clearThreadLocalTxn();
+        file = File.createTempFile("decisionlog", ".log");
+        file.deleteOnExit();
+        log = new DecisionLog(file, 16);
+        coordinator = new TwoPhaseCommitCoordinator(log);
+        stm1 = new GammaStm();
+        stm2 = new GammaStm();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        log.close();
+        file.delete();
+    }
+
+    private Txn newTxn(GammaStm stm) {
+        return stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    private Txn newReadonlyTxn(GammaStm stm) {
+        return stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setReadonly(true)
+                .newTransactionFactory()
+                .newTxn();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullLog() {
+        new TwoPhaseCommitCoordinator(null);
+    }
+
+    @Test
+    public void whenNullTransaction_thenOthersAborted() {
+        Txn tx = newTxn(stm1);
+
+        try {
+            coordinator.commit(tx, null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenDeadTransaction_thenOthersAborted() {
+        Txn tx1 = newTxn(stm1);
+        Txn tx2 = newTxn(stm2);
+        tx2.abort();
+
+        try {
+            coordinator.commit(tx1, tx2);
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertIsAborted(tx1);
+    }
+
+    @Test
+    public void whenMultipleStms_thenAllCommitted() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm2);
+
+        Txn tx1 = newTxn(stm1);
+        ref1.set(tx1, 10);
+        Txn tx2 = newTxn(stm2);
+        ref2.set(tx2, 20);
+
+        coordinator.commit(tx1, tx2);
+
+        assertIsCommitted(tx1, tx2);
+        assertEquals(10, ref1.atomicGet());
+        assertEquals(20, ref2.atomicGet());
+        assertEquals(1, log.getForceCount());
+        assertFalse(log.isCommitting(1));
+    }
+
+    @Test
+    public void whenSingleWriter_thenNoDecisionLogged() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm1, 5);
+        GammaTxnLong ref2 = new GammaTxnLong(stm2);
+
+        Txn tx1 = newReadonlyTxn(stm1);
+        assertEquals(5, ref1.get(tx1));
+        Txn tx2 = newTxn(stm2);
+        ref2.set(tx2, 20);
+
+        coordinator.commit(tx1, tx2);
+
+        assertIsCommitted(tx1, tx2);
+        assertEquals(20, ref2.atomicGet());
+        assertEquals(0, log.getForceCount());
+    }
+
+    @Test
+    public void whenPrepareFails_thenAllAbortedAndNothingLogged() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm2);
+
+        Txn tx1 = newTxn(stm1);
+        ref1.set(tx1, 10);
+        Txn tx2 = newTxn(stm2);
+        ref2.set(tx2, 20);
+
+        //causes the prepare of tx2 to fail.
+        Txn otherTx = newTxn(stm2);
+        ref2.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        try {
+            coordinator.commit(tx1, tx2);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx1, tx2);
+        otherTx.abort();
+        assertEquals(0, ref1.atomicGet());
+        assertEquals(0, ref2.atomicGet());
+        assertRefHasNoLocks(ref1);
+        assertRefHasNoLocks(ref2);
+        assertEquals(0, log.getForceCount());
+    }
+
+    @Test
+    public void whenCommitFails_thenOthersCommittedAndSlotFreed() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm2);
+
+        final RuntimeException failure = new RuntimeException();
+        Txn tx1 = newTxn(stm1);
+        ref1.set(tx1, 10);
+        tx1.register(new TxnListener() {
+            @Override
+            public void notify(Txn txn, TxnEvent e) {
+                if (e == TxnEvent.PostCommit) {
+                    throw failure;
+                }
+            }
+        });
+        Txn tx2 = newTxn(stm2);
+        ref2.set(tx2, 20);
+
+        try {
+            coordinator.commit(tx1, tx2);
+            fail();
+        } catch (RuntimeException expected) {
+            assertSame(failure, expected);
+        }
+
+        assertIsCommitted(tx1, tx2);
+        assertEquals(10, ref1.atomicGet());
+        assertEquals(20, ref2.atomicGet());
+        assertFalse(log.isCommitting(1));
+    }
+
+    @Test
+    public void whenRestarted_thenIdsContinue() throws IOException {
+        GammaTxnLong ref1 = new GammaTxnLong(stm1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm2);
+
+        Txn tx1 = newTxn(stm1);
+        ref1.set(tx1, 10);
+        Txn tx2 = newTxn(stm2);
+        ref2.set(tx2, 20);
+        coordinator.commit(tx1, tx2);
+        log.close();
+
+        log = new DecisionLog(file, 16);
+        assertTrue(log.getInDoubt().isEmpty());
+        assertEquals(1, log.getMaxRecoveredId());
+
+        coordinator = new TwoPhaseCommitCoordinator(log);
+        tx1 = newTxn(stm1);
+        ref1.set(tx1, 11);
+        tx2 = newTxn(stm2);
+        ref2.set(tx2, 21);
+        coordinator.commit(tx1, tx2);
+
+        assertIsCommitted(tx1, tx2);
+        assertEquals(11, ref1.atomicGet());
+        assertEquals(21, ref2.atomicGet());
+        assertEquals(1, log.getForceCount());
+        assertFalse(log.isCommitting(1));
+        assertFalse(log.isCommitting(2));
+    }
+}
@@ -0,0 +1,193 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class CommitStreamTest {
+
+    private GammaStm stm;
+    private CommitStream stream;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        stream = new CommitStream(16);
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenIllegalCapacity() {
+        new CommitStream(0);
+    }
+
+    @Test
+    public void whenCapacityNotPowerOfTwo_thenRoundedUp() {
+        assertEquals(16, new CommitStream(10).getCapacity());
+    }
+
+    @Test
+    public void whenNothingPublished() {
+        CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[10];
+
+        assertEquals(0, stream.drain(batch));
+    }
+
+    @Test
+    public void whenWriteCommitted_thenPublished() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ref.setCommitStream(stream);
+        long initialVersion = ref.getVersion();
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.set(tx, 20);
+        tx.commit();
+
+        CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[10];
+        assertEquals(1, stream.drain(batch));
+        assertSame(ref, batch[0].ref);
+        assertEquals(initialVersion + 1, batch[0].version);
+        assertEquals(20L, batch[0].getValue());
+        assertEquals(0, batch[0].sequence);
+        assertEquals(1, stream.getConsumedCount());
+    }
+
+    @Test
+    public void whenRefWriteCommittedInLeanTransaction_thenPublished() {
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, "foo");
+        ref.setCommitStream(stream);
+        long initialVersion = ref.getVersion();
+
+        GammaTxn tx = new LeanMonoGammaTxn(stm);
+        ref.set(tx, "bar");
+        tx.commit();
+
+        CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[10];
+        assertEquals(1, stream.drain(batch));
+        assertSame(ref, batch[0].ref);
+        assertEquals(initialVersion + 1, batch[0].version);
+        assertEquals("bar", batch[0].getValue());
+    }
+
+    @Test
+    public void whenNotOptedIn_thenNotPublished() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        GammaTxn tx = new FatMonoGammaTxn(stm);
+        ref.set(tx, 20);
+        tx.commit();
+
+        assertEquals(0, stream.getPublishedCount());
+    }
+
+    @Test
+    public void whenOnlyRead_thenNotPublished() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ref.setCommitStream(stream);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.get(tx);
+        tx.commit();
+
+        assertEquals(0, stream.getPublishedCount());
+    }
+
+    @Test
+    public void whenAborted_thenNotPublished() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ref.setCommitStream(stream);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.set(tx, 20);
+        tx.abort();
+
+        assertEquals(0, stream.getPublishedCount());
+    }
+
+    @Test
+    public void whenDrainedInBatches() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        ref.setCommitStream(stream);
+
+        for (int k = 1; k <= 10; k++) {
+            GammaTxn tx = new FatMonoGammaTxn(stm);
+            ref.set(tx, k);
+            tx.commit();
+        }
+
+        CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[4];
+        assertEquals(4, stream.drain(batch));
+        assertEquals(4L, batch[3].getValue());
+        assertEquals(4, stream.drain(batch));
+        assertEquals(8L, batch[3].getValue());
+        assertEquals(2, stream.drain(batch));
+        assertEquals(10L, batch[1].getValue());
+        assertEquals(0, stream.drain(batch));
+    }
+
+    @Test
+    public void whenConcurrentCommitsOnSameRef_thenVersionsInCommitOrder() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        ref.setCommitStream(stream);
+        final long initialVersion = ref.getVersion();
+        final int threadCount = 4;
+        final int incrementsPerThread = 2000;
+
+        TestThread[] threads = new TestThread[threadCount];
+        for (int k = 0; k < threadCount; k++) {
+            threads[k] = new TestThread() {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < incrementsPerThread; i++) {
+                        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                            @Override
+                            public void call(Txn tx) throws Exception {
+                                ref.increment(tx);
+                            }
+                        });
+                    }
+                }
+            };
+        }
+
+        final int total = threadCount * incrementsPerThread;
+        final long[] seen = new long[1];
+        final long[] lastVersion = {initialVersion};
+        TestThread consumer = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                CommitStream.CommitEvent[] batch = new CommitStream.CommitEvent[8];
+                while (seen[0] < total) {
+                    int count = stream.drain(batch);
+                    for (int k = 0; k < count; k++) {
+                        assertEquals(lastVersion[0] + 1, batch[k].version);
+                        assertEquals(batch[k].version - initialVersion, batch[k].longValue);
+                        lastVersion[0] = batch[k].version;
+                    }
+                    seen[0] += count;
+                }
+            }
+        };
+
+        startAll(consumer);
+        startAll(threads);
+        joinAll(threads);
+        joinAll(consumer);
+
+        assertEquals(total, seen[0]);
+        assertEquals(total, ref.atomicGet());
+    }
+}
@@ -0,0 +1,258 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.*;
+import org.multiverse.api.exceptions.InvisibleCheckedException;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxn;
+
+public class FlatCombiningGammaTxnExecutorTest {
+
+    private GammaStm stm;
+    private GammaTxnExecutor executor;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        executor = stm.newTxnFactoryBuilder().newFlatCombiningTxnExecutor();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullCallable_thenNullPointerException() {
+        executor.execute((TxnVoidCallable) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMaxBatchSizeTooSmall_thenIllegalArgumentException() {
+        new FlatCombiningGammaTxnExecutor(
+                stm.newTxnFactoryBuilder().newTransactionFactory(), stm.getDefaultTxnExecutor(), 0);
+    }
+
+    @Test
+    public void whenAllKindsOfCallables() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        long longResult = executor.execute(new TxnLongCallable() {
+            @Override
+            public long call(Txn tx) throws Exception {
+                return ref.incrementAndGet(tx, 1);
+            }
+        });
+        assertEquals(11, longResult);
+
+        int intResult = executor.execute(new TxnIntCallable() {
+            @Override
+            public int call(Txn tx) throws Exception {
+                return (int) ref.get(tx);
+            }
+        });
+        assertEquals(11, intResult);
+
+        double doubleResult = executor.execute(new TxnDoubleCallable() {
+            @Override
+            public double call(Txn tx) throws Exception {
+                return ref.get(tx) / 2.0;
+            }
+        });
+        assertEqualsDouble(5.5, doubleResult);
+
+        boolean booleanResult = executor.execute(new TxnBooleanCallable() {
+            @Override
+            public boolean call(Txn tx) throws Exception {
+                return ref.get(tx) == 11;
+            }
+        });
+        assertTrue(booleanResult);
+
+        String refResult = executor.execute(new TxnCallable<String>() {
+            @Override
+            public String call(Txn tx) throws Exception {
+                return "" + ref.get(tx);
+            }
+        });
+        assertEquals("11", refResult);
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.set(tx, 20);
+            }
+        });
+        assertEquals(20, ref.atomicGet());
+        assertNull(getThreadLocalTxn());
+    }
+
+    @Test
+    public void whenRuntimeException_thenRethrownAndChangesRolledBack() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        final IllegalStateException exception = new IllegalStateException();
+
+        try {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.set(tx, 20);
+                    throw exception;
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+            assertSame(exception, expected);
+        }
+
+        assertEquals(10, ref.atomicGet());
+        assertNull(getThreadLocalTxn());
+    }
+
+    @Test
+    public void whenCheckedException() throws Exception {
+        final IOException exception = new IOException();
+        final TxnVoidCallable callable = new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                throw exception;
+            }
+        };
+
+        try {
+            executor.execute(callable);
+            fail();
+        } catch (InvisibleCheckedException expected) {
+            assertSame(exception, expected.getCause());
+        }
+
+        try {
+            executor.executeChecked(callable);
+            fail();
+        } catch (IOException expected) {
+            assertSame(exception, expected);
+        }
+    }
+
+    @Test
+    public void whenAliveTxn_thenJoined() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn outer) throws Exception {
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.set(tx, 20);
+                    }
+                });
+
+                assertEquals(10, ref.atomicGet());
+                assertEquals(20, ref.get(outer));
+            }
+        });
+
+        assertEquals(20, ref.atomicGet());
+    }
+
+    @Test
+    public void whenRetry_thenExecutedWithoutCombining() {
+        final GammaTxnRef<String> ref = new GammaTxnRef<String>(stm);
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                String result = executor.execute(new TxnCallable<String>() {
+                    @Override
+                    public String call(Txn tx) throws Exception {
+                        return ref.awaitNotNullAndGet(tx);
+                    }
+                });
+                assertEquals("foo", result);
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
+
+        //the retrying thread doesn't hold back the other callables.
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.set(tx, "foo");
+            }
+        });
+
+        joinAll(thread);
+    }
+
+    @Test
+    public void whenCallableAbortsTxn_thenOnlyThatCallableFails() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        try {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.set(tx, 20);
+                    tx.abort();
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(10, ref.atomicGet());
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.increment(tx);
+            }
+        });
+
+        assertEquals(11, ref.atomicGet());
+    }
+
+    @Test
+    public void whenBatchUsesSingleTxn() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final TxnVoidCallable callable = new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                GammaTxn gammaTxn = (GammaTxn) tx;
+                assertTrue(gammaTxn.isAlive());
+                assertTrue(gammaTxn.getConfig().isFat);
+                ref.increment(tx);
+            }
+        };
+
+        TestThread[] threads = new TestThread[4];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TestThread("IncThread-" + k) {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < 1000; i++) {
+                        executor.execute(callable);
+                    }
+                }
+            };
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        assertEquals(4000, ref.atomicGet());
+    }
+}
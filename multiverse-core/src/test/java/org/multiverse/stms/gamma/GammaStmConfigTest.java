@@ -19,6 +19,13 @@ public class GammaStmConfigTest {
         config.validate();
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void readBiasedMinimalDurationNs_whenNegative() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readBiasedMinimalDurationNs = -1;
+        config.validate();
+    }
+
     @Test(expected = IllegalStateException.class)
     public void propagationLevel_whenNull() {
         GammaStmConfig config = new GammaStmConfig();
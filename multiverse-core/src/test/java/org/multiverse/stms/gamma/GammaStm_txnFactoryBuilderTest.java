@@ -241,6 +241,18 @@ public class GammaStm_txnFactoryBuilderTest implements GammaConstants{
         assertTrue(tx instanceof FatMonoGammaTxn);
     }
 
+    @Test
+    public void whenSerializableSnapshotThenFatTransaction() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(true)
+                .setDirtyCheckEnabled(false)
+                .setIsolationLevel(IsolationLevel.SerializableSnapshot)
+                .newTransactionFactory();
+
+        GammaTxn tx = txFactory.newTxn();
+        assertTrue(tx instanceof FatMonoGammaTxn);
+    }
+
     @Test
     public void whenSnapshotIsolationLevelThenLeanTransaction() {
         GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
@@ -264,4 +276,84 @@ public class GammaStm_txnFactoryBuilderTest implements GammaConstants{
         GammaTxn tx = txFactory.newTxn();
         assertEquals(TRANSACTIONTYPE_FAT_MONO,tx.transactionType);
     }
+
+    @Test
+    public void whenOrderedLockingThenFatTransactionAndLocksDeferred() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(true)
+                .setDirtyCheckEnabled(false)
+                .setReadLockMode(LockMode.Read)
+                .setWriteLockMode(LockMode.Exclusive)
+                .setOrderedLockingEnabled(true)
+                .newTransactionFactory();
+
+        GammaTxnConfig config = txFactory.getConfig();
+        assertTrue(config.isOrderedLockingEnabled());
+        assertEquals(LockMode.Read, config.readLockMode);
+        assertEquals(LockMode.Exclusive, config.writeLockMode);
+        assertEquals(LOCKMODE_NONE, config.readLockModeAsInt);
+        assertEquals(LOCKMODE_NONE, config.writeLockModeAsInt);
+        assertEquals(LOCKMODE_READ, config.orderedReadLockModeAsInt);
+        assertEquals(LOCKMODE_EXCLUSIVE, config.orderedWriteLockModeAsInt);
+
+        GammaTxn tx = txFactory.newTxn();
+        assertEquals(TRANSACTIONTYPE_FAT_MONO, tx.transactionType);
+    }
+
+    @Test
+    public void whenIrrevocableThenNonSpeculativeAndExclusiveLocks() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(true)
+                .setIrrevocable(true)
+                .newTransactionFactory();
+
+        GammaTxnConfig config = txFactory.getConfig();
+        assertTrue(config.isIrrevocable());
+        assertEquals(LOCKMODE_EXCLUSIVE, config.readLockModeAsInt);
+        assertEquals(LOCKMODE_EXCLUSIVE, config.writeLockModeAsInt);
+
+        GammaTxn tx = txFactory.newTxn();
+        assertEquals(TRANSACTIONTYPE_FAT_VARIABLE_LENGTH, tx.transactionType);
+        tx.abort();
+    }
+
+    @Test
+    public void whenElasticThenFatTransaction() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(true)
+                .setDirtyCheckEnabled(false)
+                .setElastic(true)
+                .newTransactionFactory();
+
+        assertTrue(txFactory.getConfig().isElastic());
+
+        GammaTxn tx = txFactory.newTxn();
+        assertEquals(TRANSACTIONTYPE_FAT_MONO, tx.transactionType);
+    }
+
+    @Test
+    public void whenInvisibleReadsThenNoRichMansConflictScan() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setInvisibleReadsEnabled(true)
+                .newTransactionFactory();
+
+        assertTrue(txFactory.getConfig().isInvisibleReadsEnabled());
+
+        GammaTxn tx = txFactory.newTxn();
+        assertEquals(TRANSACTIONTYPE_FAT_VARIABLE_LENGTH, tx.transactionType);
+        assertFalse(tx.richmansMansConflictScan);
+    }
+
+    @Test
+    public void whenDeferredConflictsThenFat() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setDeferredConflictsEnabled(true)
+                .newTransactionFactory();
+
+        assertTrue(txFactory.getConfig().isDeferredConflictsEnabled());
+
+        GammaTxn tx = txFactory.newTxn();
+        assertEquals(TRANSACTIONTYPE_FAT_MONO, tx.transactionType);
+    }
 }
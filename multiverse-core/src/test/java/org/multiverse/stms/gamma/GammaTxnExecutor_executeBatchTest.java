@@ -0,0 +1,258 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxn;
+
+public class GammaTxnExecutor_executeBatchTest {
+
+    private GammaStm stm;
+    private GammaTxnExecutor executor;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullList_thenNullPointerException() {
+        executor.executeBatch(null);
+    }
+
+    @Test
+    public void whenNullCallable_thenNullPointerException() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        try {
+            executor.executeBatch(Arrays.asList(new IncrementCallable(ref), null));
+            fail();
+        } catch (NullPointerException expected) {
+        }
+
+        assertEquals(0, ref.atomicGet());
+    }
+
+    @Test
+    public void whenEmpty() {
+        Throwable[] failures = executor.executeBatch(new LinkedList<TxnVoidCallable>());
+        assertEquals(0, failures.length);
+    }
+
+    @Test
+    public void whenAllSucceed_thenExecutedInSingleTxn() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final List<Txn> txns = new ArrayList<Txn>();
+
+        List<TxnVoidCallable> callables = new LinkedList<TxnVoidCallable>();
+        for (int k = 0; k < 100; k++) {
+            callables.add(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    txns.add(tx);
+                    ref.increment(tx);
+                }
+            });
+        }
+
+        Throwable[] failures = executor.executeBatch(callables);
+
+        assertArrayEquals(new Throwable[100], failures);
+        assertEquals(100, ref.atomicGet());
+        assertEquals(100, txns.size());
+        for (Txn tx : txns) {
+            assertSame(txns.get(0), tx);
+        }
+        assertNull(getThreadLocalTxn());
+    }
+
+    @Test
+    public void whenOneFails_thenOthersCommitted() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxnLong failingRef = new GammaTxnLong(stm);
+        final IllegalStateException exception = new IllegalStateException();
+
+        List<TxnVoidCallable> callables = new LinkedList<TxnVoidCallable>();
+        for (int k = 0; k < 10; k++) {
+            if (k == 7) {
+                callables.add(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        failingRef.increment(tx);
+                        throw exception;
+                    }
+                });
+            } else {
+                callables.add(new IncrementCallable(ref));
+            }
+        }
+
+        Throwable[] failures = executor.executeBatch(callables);
+
+        for (int k = 0; k < failures.length; k++) {
+            if (k == 7) {
+                assertSame(exception, failures[k]);
+            } else {
+                assertNull(failures[k]);
+            }
+        }
+        assertEquals(9, ref.atomicGet());
+        assertEquals(0, failingRef.atomicGet());
+        assertNull(getThreadLocalTxn());
+    }
+
+    @Test
+    public void whenCheckedException_thenReturnedAsIs() {
+        final IOException exception = new IOException();
+
+        Throwable[] failures = executor.executeBatch(Arrays.asList(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                throw exception;
+            }
+        }));
+
+        assertSame(exception, failures[0]);
+    }
+
+    @Test
+    public void whenError_thenPropagated() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AssertionError error = new AssertionError();
+
+        try {
+            executor.executeBatch(Arrays.asList(new IncrementCallable(ref), new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    throw error;
+                }
+            }));
+            fail();
+        } catch (AssertionError expected) {
+            assertSame(error, expected);
+        }
+
+        assertEquals(0, ref.atomicGet());
+        assertNull(getThreadLocalTxn());
+    }
+
+    @Test
+    public void whenConflict_thenSplit() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxnLong other = new GammaTxnLong(stm);
+        final List<Txn> txns = new ArrayList<Txn>();
+
+        TxnVoidCallable reader = new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                txns.add(tx);
+                ref.get(tx);
+                other.increment(tx);
+            }
+        };
+
+        TxnVoidCallable conflicting = new TxnVoidCallable() {
+            boolean conflicted;
+
+            @Override
+            public void call(Txn tx) throws Exception {
+                txns.add(tx);
+                if (!conflicted) {
+                    conflicted = true;
+                    //a write done outside of the batch, so the read of the first callable becomes stale.
+                    ref.atomicIncrementAndGet(1);
+                }
+                other.increment(tx);
+            }
+        };
+
+        //not speculative, so the batch isn't split because of a speculative failure.
+        GammaTxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTxnExecutor();
+        Throwable[] failures = executor.executeBatch(Arrays.asList(reader, conflicting));
+
+        assertArrayEquals(new Throwable[2], failures);
+        assertEquals(1, ref.atomicGet());
+        assertEquals(2, other.atomicGet());
+        //the first attempt of the batch, and after the split both callables are executed in their own txn.
+        assertEquals(4, txns.size());
+    }
+
+    @Test
+    public void whenAliveTxn_thenJoined() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                Throwable[] failures = executor.executeBatch(
+                        Arrays.asList(new IncrementCallable(ref), new IncrementCallable(ref)));
+
+                assertArrayEquals(new Throwable[2], failures);
+                assertEquals(0, ref.atomicGet());
+                assertEquals(2, ref.get(tx));
+            }
+        });
+
+        assertEquals(2, ref.atomicGet());
+    }
+
+    @Test
+    public void whenAliveTxnAndOneFails_thenItsChangesRolledBack() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxnLong failingRef = new GammaTxnLong(stm);
+        final IllegalStateException exception = new IllegalStateException();
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.increment(tx);
+
+                Throwable[] failures = executor.executeBatch(Arrays.asList(new IncrementCallable(ref),
+                        new TxnVoidCallable() {
+                            @Override
+                            public void call(Txn tx) throws Exception {
+                                ref.increment(tx);
+                                failingRef.increment(tx);
+                                throw exception;
+                            }
+                        }));
+
+                assertNull(failures[0]);
+                assertSame(exception, failures[1]);
+                assertEquals(2, ref.get(tx));
+                assertEquals(0, failingRef.get(tx));
+            }
+        });
+
+        assertEquals(2, ref.atomicGet());
+        assertEquals(0, failingRef.atomicGet());
+    }
+
+    static class IncrementCallable implements TxnVoidCallable {
+        private final GammaTxnLong ref;
+
+        IncrementCallable(GammaTxnLong ref) {
+            this.ref = ref;
+        }
+
+        @Override
+        public void call(Txn tx) throws Exception {
+            ref.increment(tx);
+        }
+    }
+}
@@ -3,16 +3,21 @@ package org.multiverse.stms.gamma;
 import org.junit.Before;
 import org.junit.Test;
 import org.multiverse.api.blocking.RetryLatch;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
 
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.verify;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+import static org.multiverse.api.predicates.LongPredicate.newLargerThanPredicate;
 
 public class Listeners_openAllTest {
     private GammaObjectPool pool;
+    private GammaStm stm;
 
     @Before
     public void setUp() {
         pool = new GammaObjectPool();
+        stm = new GammaStm();
     }
 
     @Test
@@ -33,4 +38,93 @@ public class Listeners_openAllTest {
         verify(latch1).open(1);
         verify(latch2).open(2);
     }
+
+    @Test
+    public void whenPredicateHolds_thenOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RetryLatch latch = mock(RetryLatch.class);
+
+        Listeners listeners = newPredicateListeners(ref, latch, 5);
+
+        listeners.openAll(pool);
+
+        verify(latch).open(0);
+        assertNull(ref.listeners);
+    }
+
+    @Test
+    public void whenPredicateDoesNotHold_thenRegisteredAgain() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RetryLatch latch = mock(RetryLatch.class);
+
+        Listeners listeners = newPredicateListeners(ref, latch, 20);
+
+        listeners.openAll(pool);
+
+        verify(latch, never()).open(anyLong());
+        assertSame(listeners, ref.listeners);
+        assertNull(listeners.next);
+    }
+
+    @Test
+    public void whenLatchAlreadyOpen_thenDropped() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RetryLatch latch = mock(RetryLatch.class);
+        when(latch.isOpen()).thenReturn(true);
+
+        Listeners listeners = newPredicateListeners(ref, latch, 20);
+
+        listeners.openAll(pool);
+
+        verify(latch, never()).open(anyLong());
+        assertNull(ref.listeners);
+    }
+
+    @Test
+    public void whenWakeOne_thenOnlyFirstMatchingOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ref.setWakeOne(true);
+        RetryLatch latch1 = mock(RetryLatch.class);
+        RetryLatch latch2 = mock(RetryLatch.class);
+        RetryLatch latch3 = mock(RetryLatch.class);
+
+        Listeners listeners = newPredicateListeners(ref, latch1, 20);
+        Listeners second = newPredicateListeners(ref, latch2, 5);
+        Listeners third = newPredicateListeners(ref, latch3, 5);
+        listeners.next = second;
+        second.next = third;
+
+        listeners.openAll(pool);
+
+        verify(latch1, never()).open(anyLong());
+        verify(latch2).open(0);
+        verify(latch3, never()).open(anyLong());
+        assertSame(listeners, ref.listeners);
+        assertSame(third, ref.listeners.next);
+    }
+
+    @Test
+    public void whenNoWakeOne_thenAllMatchingOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RetryLatch latch1 = mock(RetryLatch.class);
+        RetryLatch latch2 = mock(RetryLatch.class);
+
+        Listeners listeners = newPredicateListeners(ref, latch1, 5);
+        listeners.next = newPredicateListeners(ref, latch2, 5);
+
+        listeners.openAll(pool);
+
+        verify(latch1).open(0);
+        verify(latch2).open(0);
+        assertNull(ref.listeners);
+    }
+
+    private static Listeners newPredicateListeners(GammaTxnLong ref, RetryLatch latch, long largerThan) {
+        Listeners listeners = new Listeners();
+        listeners.listener = latch;
+        listeners.listenerEra = 0;
+        listeners.predicate = newLargerThanPredicate(largerThan);
+        listeners.owner = ref;
+        return listeners;
+    }
 }
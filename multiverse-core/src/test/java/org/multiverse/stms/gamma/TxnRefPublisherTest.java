@@ -0,0 +1,307 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Flow;
+import org.multiverse.api.Txn;
+import org.multiverse.api.blocking.DefaultRetryLatch;
+import org.multiverse.api.blocking.RetryLatch;
+import org.multiverse.api.callables.TxnCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.getField;
+import static org.multiverse.TestUtils.sleepMs;
+import static org.multiverse.TestUtils.clearCurrentThreadInterruptedStatus;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class TxnRefPublisherTest {
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private GammaStm stm;
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+    }
+
+    @After
+    public void tearDown() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNoRefs() {
+        new TxnRefPublisher<Object>(DIRECT, new TxnCallable<Object>() {
+            @Override
+            public Object call(Txn txn) throws Exception {
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void whenNoDemand_thenNothingDelivered() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        ref.atomicSet(20);
+        incrementInTransaction(ref);
+
+        assertNotNull(subscriber.subscription);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void whenRequested_thenCurrentValueDelivered() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        assertEquals(1, subscriber.items.size());
+        assertEquals(10L, (long) subscriber.items.get(0));
+    }
+
+    @Test
+    public void whenCommitted_thenNewValueDelivered() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(10);
+        incrementInTransaction(ref);
+        incrementInTransaction(ref);
+
+        assertEquals(3, subscriber.items.size());
+        assertEquals(11L, (long) subscriber.items.get(1));
+        assertEquals(12L, (long) subscriber.items.get(2));
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void whenMultipleCommitsWithoutDemand_thenCoalesced() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        incrementInTransaction(ref);
+        incrementInTransaction(ref);
+        incrementInTransaction(ref);
+
+        assertEquals(1, subscriber.items.size());
+
+        subscriber.subscription.request(5);
+
+        assertEquals(2, subscriber.items.size());
+        assertEquals(13L, (long) subscriber.items.get(1));
+    }
+
+    @Test
+    public void whenGroupOfRefs_thenConsistentSnapshotDelivered() {
+        final GammaTxnLong from = new GammaTxnLong(stm, 100);
+        final GammaTxnLong to = new GammaTxnLong(stm, 0);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher<Long> publisher = new TxnRefPublisher<Long>(DIRECT, new TxnCallable<Long>() {
+            @Override
+            public Long call(Txn tx) throws Exception {
+                return from.get(tx) + to.get(tx);
+            }
+        }, from, to);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        for (int k = 0; k < 10; k++) {
+            stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    from.decrement(tx);
+                    to.increment(tx);
+                }
+            });
+        }
+
+        assertTrue(subscriber.items.size() >= 11);
+        for (Long item : subscriber.items) {
+            assertEquals(100L, (long) item);
+        }
+    }
+
+    @Test
+    public void whenRefValue() {
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, "foo");
+        RecordingSubscriber<String> subscriber = new RecordingSubscriber<String>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(2);
+        ref.atomicSet("bar");
+
+        assertEquals(2, subscriber.items.size());
+        assertEquals("foo", subscriber.items.get(0));
+        assertEquals("bar", subscriber.items.get(1));
+    }
+
+    @Test
+    public void whenCancelled_thenNothingDelivered() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(10);
+        subscriber.subscription.cancel();
+        incrementInTransaction(ref);
+
+        assertEquals(1, subscriber.items.size());
+    }
+
+    @Test
+    public void whenCancelled_thenRegistrationPruned() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(10);
+        RetryLatch latch = ((Listeners) getField(ref, "listeners")).listener;
+        subscriber.subscription.cancel();
+
+        GammaObjectPool pool = new GammaObjectPool();
+        for (int k = 0; k < Listeners.MIN_PRUNE_LENGTH; k++) {
+            RetryLatch other = new DefaultRetryLatch();
+            ref.registerChangeListener(other, ref.getVersion(), pool, other.getEra());
+        }
+
+        assertEquals(Listeners.MIN_PRUNE_LENGTH, ref.getListenerCount());
+        assertFalse(latch.isOpen());
+    }
+
+    @Test
+    public void whenLatchOpened_thenAwaitReturns() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(1);
+        RetryLatch latch = ((Listeners) getField(ref, "listeners")).listener;
+        long era = latch.getEra();
+
+        assertFalse(latch.isOpen());
+        assertEquals(-1, latch.awaitNanosUninterruptible(era, 1000));
+
+        incrementInTransaction(ref);
+
+        assertTrue(latch.isOpen());
+        latch.awaitUninterruptible(era);
+        assertEquals(1000, latch.awaitNanosUninterruptible(era, 1000));
+        latch.reset();
+        assertFalse(latch.isOpen());
+        assertEquals(era + 1, latch.getEra());
+    }
+
+    @Test
+    public void whenRequestNotPositive_thenError() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+
+        TxnRefPublisher.newPublisher(ref, DIRECT).subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void whenManySubscribersOnManyRefs_thenAllSeeLastValue() {
+        executorService = Executors.newFixedThreadPool(4);
+        int refCount = 100;
+        int subscribersPerRef = 10;
+
+        GammaTxnLong[] refs = new GammaTxnLong[refCount];
+        final List<RecordingSubscriber<Long>> subscribers = new CopyOnWriteArrayList<RecordingSubscriber<Long>>();
+        for (int k = 0; k < refCount; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            TxnRefPublisher<Long> publisher = TxnRefPublisher.newPublisher(refs[k], executorService);
+            for (int i = 0; i < subscribersPerRef; i++) {
+                RecordingSubscriber<Long> subscriber = new RecordingSubscriber<Long>();
+                publisher.subscribe(subscriber);
+                subscriber.subscription.request(Long.MAX_VALUE);
+                subscribers.add(subscriber);
+            }
+        }
+
+        for (int round = 0; round < 10; round++) {
+            for (GammaTxnLong ref : refs) {
+                incrementInTransaction(ref);
+            }
+        }
+
+        long deadline = System.currentTimeMillis() + 60 * 1000;
+        for (RecordingSubscriber<Long> subscriber : subscribers) {
+            while (!subscriber.hasReceived(10L)) {
+                assertTrue("Subscriber didn't receive the last value in time", System.currentTimeMillis() < deadline);
+                sleepMs(10);
+            }
+        }
+    }
+
+    private void incrementInTransaction(final GammaTxnLong ref) {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.increment(tx);
+            }
+        });
+    }
+
+    static class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        volatile Flow.Subscription subscription;
+        final List<T> items = new CopyOnWriteArrayList<T>();
+        volatile Throwable error;
+
+        boolean hasReceived(T item) {
+            return !items.isEmpty() && items.get(items.size() - 1).equals(item);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package org.multiverse.stms.gamma.integration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsActive;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class DeferredConflictsTest implements GammaConstants {
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenNotDeferred_thenReadWriteConflictThrown() {
+        GammaTxnConfig config = new GammaTxnConfig(stm);
+        GammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+
+        ref1.get(tx);
+        ref1.atomicIncrementAndGet(1);
+
+        try {
+            ref2.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertFalse(tx.doomed);
+    }
+
+    @Test
+    public void fixedLength_whenConflictWhileReading_thenDoomed() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true);
+        whenConflictWhileReading_thenDoomed(new FatFixedLengthGammaTxn(config));
+    }
+
+    @Test
+    public void variableLength_whenConflictWhileReading_thenDoomed() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true);
+        whenConflictWhileReading_thenDoomed(new FatVariableLengthGammaTxn(config));
+    }
+
+    private void whenConflictWhileReading_thenDoomed(GammaTxn tx) {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+        GammaTxnLong ref3 = new GammaTxnLong(stm, 30);
+
+        ref1.get(tx);
+        long version = ref1.getVersion();
+        ref1.atomicIncrementAndGet(1);
+
+        assertEquals(20, ref2.get(tx));
+        assertIsActive(tx);
+        assertTrue(tx.doomed);
+
+        ref3.set(tx, 31);
+        assertIsActive(tx);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertVersionAndValue(ref1, version + 1, 11);
+        assertEquals(30, ref3.atomicGet());
+        assertRefHasNoLocks(ref3);
+        assertSurplus(ref1, 0);
+        assertSurplus(ref2, 0);
+        assertSurplus(ref3, 0);
+    }
+
+    @Test
+    public void fixedLength_whenDoomedAndMaxDoomedOpensExceeded_thenReadWriteConflict() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true)
+                .setMaxDoomedOpens(2);
+        whenDoomedAndMaxDoomedOpensExceeded_thenReadWriteConflict(new FatFixedLengthGammaTxn(config));
+    }
+
+    @Test
+    public void variableLength_whenDoomedAndMaxDoomedOpensExceeded_thenReadWriteConflict() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true)
+                .setMaxDoomedOpens(2);
+        whenDoomedAndMaxDoomedOpensExceeded_thenReadWriteConflict(new FatVariableLengthGammaTxn(config));
+    }
+
+    private void whenDoomedAndMaxDoomedOpensExceeded_thenReadWriteConflict(GammaTxn tx) {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+
+        ref1.get(tx);
+        ref1.atomicIncrementAndGet(1);
+        ref2.get(tx);
+        assertTrue(tx.doomed);
+
+        //opens of refs that already are attached count as well.
+        ref1.get(tx);
+        ref2.get(tx);
+        assertIsActive(tx);
+
+        try {
+            ref1.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertSurplus(ref1, 0);
+        assertSurplus(ref2, 0);
+    }
+
+    @Test
+    public void executor_whenDoomedTxnLoopsOnInconsistentData_thenRetried() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm, 10);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setDeferredConflictsEnabled(true)
+                .newTxnExecutor();
+
+        final int[] attempts = new int[1];
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                attempts[0]++;
+                ref1.get(tx);
+                if (attempts[0] == 1) {
+                    //ref1 and ref2 are always changed together, so the loop only ends on consistent data.
+                    ref1.atomicIncrementAndGet(1);
+                    ref2.atomicIncrementAndGet(1);
+                }
+
+                while (ref1.get(tx) != ref2.get(tx)) {
+                }
+            }
+        });
+
+        assertEquals(2, attempts[0]);
+    }
+
+    @Test
+    public void whenDoomed_thenPrepareFails() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true);
+        GammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+
+        ref1.get(tx);
+        ref1.atomicIncrementAndGet(1);
+        ref2.get(tx);
+
+        try {
+            tx.prepare();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenDoomed_thenSoftResetClearsDoomed() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setDeferredConflictsEnabled(true);
+        GammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+
+        ref1.get(tx);
+        ref1.atomicIncrementAndGet(1);
+        ref2.get(tx);
+        assertTrue(tx.doomed);
+
+        tx.abort();
+        assertTrue(tx.softReset());
+        assertFalse(tx.doomed);
+
+        assertEquals(11, ref1.get(tx));
+        assertEquals(20, ref2.get(tx));
+        tx.commit();
+    }
+
+    @Test
+    public void executor_whenDoomed_thenRetriedWithoutThrowing() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+        final GammaTxnLong ref3 = new GammaTxnLong(stm, 0);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setDeferredConflictsEnabled(true)
+                .newTxnExecutor();
+
+        final int[] attempts = new int[1];
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                attempts[0]++;
+                long sum = ref1.get(tx);
+                if (attempts[0] == 1) {
+                    ref1.atomicIncrementAndGet(1);
+                }
+
+                sum += ref2.get(tx);
+                assertEquals(attempts[0] == 1, ((GammaTxn) tx).doomed);
+                ref3.set(tx, sum);
+            }
+        });
+
+        assertEquals(2, attempts[0]);
+        assertEquals(31, ref3.atomicGet());
+    }
+
+    @Test
+    public void executor_whenExceptionWhileDoomed_thenRetried() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm, 10);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm, 20);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setDeferredConflictsEnabled(true)
+                .newTxnExecutor();
+
+        final int[] attempts = new int[1];
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                attempts[0]++;
+                ref1.get(tx);
+                if (attempts[0] == 1) {
+                    ref1.atomicIncrementAndGet(1);
+                }
+
+                ref2.get(tx);
+                if (attempts[0] == 1) {
+                    throw new IllegalStateException();
+                }
+            }
+        });
+
+        assertEquals(2, attempts[0]);
+    }
+
+    @Test
+    public void executor_whenExceptionWhileNotDoomed_thenPropagated() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setDeferredConflictsEnabled(true)
+                .newTxnExecutor();
+
+        final int[] attempts = new int[1];
+        try {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    attempts[0]++;
+                    ref.set(tx, 11);
+                    throw new IllegalStateException();
+                }
+            });
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(1, attempts[0]);
+        assertEquals(10, ref.atomicGet());
+        assertRefHasNoLocks(ref);
+    }
+}
@@ -0,0 +1,131 @@
+package org.multiverse.stms.gamma.integration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnLongCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaTxnExecutor;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+/**
+ * Checks that the flat combining executor keeps the callables atomic and isolated from each other, also when some
+ * of them fail.
+ */
+public class FlatCombiningStressTest {
+
+    private static final long INITIAL_BALANCE = 1000000;
+
+    private GammaStm stm;
+    private GammaTxnExecutor executor;
+    private GammaTxnLong from;
+    private GammaTxnLong to;
+    private GammaTxnLong counter;
+    private int threadCount = 8;
+    private int operationCount = 20000;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+        stm = new GammaStm();
+        executor = stm.newTxnFactoryBuilder().newFlatCombiningTxnExecutor();
+        from = new GammaTxnLong(stm, INITIAL_BALANCE);
+        to = new GammaTxnLong(stm, 0);
+        counter = new GammaTxnLong(stm, 0);
+    }
+
+    @Test
+    public void test() {
+        StressThread[] threads = new StressThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new StressThread(k);
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        long incrementCount = 0;
+        for (StressThread thread : threads) {
+            incrementCount += thread.incrementCount;
+        }
+
+        assertEquals(INITIAL_BALANCE, from.atomicGet() + to.atomicGet());
+        assertEquals(incrementCount, counter.atomicGet());
+    }
+
+    class StressThread extends TestThread {
+        private long incrementCount;
+
+        StressThread(int id) {
+            super("StressThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < operationCount; k++) {
+                switch (randomInt(4)) {
+                    case 0:
+                        transfer(randomInt(10), randomOneOf(5));
+                        break;
+                    case 1:
+                        transferBack();
+                        break;
+                    default:
+                        increment();
+                        break;
+                }
+            }
+        }
+
+        private void transfer(final long amount, final boolean fail) {
+            try {
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        from.decrement(tx, amount);
+                        to.increment(tx, amount);
+                        if (fail) {
+                            throw new IllegalStateException();
+                        }
+                    }
+                });
+            } catch (IllegalStateException expected) {
+            }
+        }
+
+        private void transferBack() {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    long balance = to.get(tx);
+                    if (balance == 0) {
+                        return;
+                    }
+
+                    to.decrement(tx, 1);
+                    from.increment(tx, 1);
+                }
+            });
+        }
+
+        private void increment() {
+            long result = executor.execute(new TxnLongCallable() {
+                @Override
+                public long call(Txn tx) throws Exception {
+                    return counter.incrementAndGet(tx, 1);
+                }
+            });
+
+            if (result > 0) {
+                incrementCount++;
+            }
+        }
+    }
+}
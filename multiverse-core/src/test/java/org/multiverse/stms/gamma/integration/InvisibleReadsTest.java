@@ -0,0 +1,159 @@
+package org.multiverse.stms.gamma.integration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
+import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class InvisibleReadsTest implements GammaConstants {
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenNotInvisibleReads_thenReadsRegistered() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setReadonly(true)
+                .newTransactionFactory();
+
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        GammaTxn tx = txFactory.newTxn();
+        ref.get(tx);
+
+        assertTrue(tx.richmansMansConflictScan);
+        assertSurplus(ref, 1);
+
+        tx.commit();
+        assertSurplus(ref, 0);
+    }
+
+    @Test
+    public void whenInvisibleReads_thenReadsNotRegistered() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setReadonly(true)
+                .setInvisibleReadsEnabled(true)
+                .newTransactionFactory();
+
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        long orec = ref.orec;
+        long version = ref.getVersion();
+
+        GammaTxn tx = txFactory.newTxn();
+        assertTrue(txFactory.getConfig().isInvisibleReadsEnabled());
+        assertFalse(tx.richmansMansConflictScan);
+        assertEquals(10, ref.get(tx));
+
+        assertEquals(orec, ref.orec);
+        tx.commit();
+
+        assertEquals(orec, ref.orec);
+        assertSurplus(ref, 0);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, version, 10);
+    }
+
+    @Test
+    public void whenInvisibleReadsAndManyReads_thenNoRegistrationAndNoSpeculativeFailure() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0)
+                .setInvisibleReadsEnabled(true);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong[] refs = new GammaTxnLong[100];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm, k);
+        }
+
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k, refs[k].get(tx));
+        }
+
+        for (GammaTxnLong ref : refs) {
+            assertSurplus(ref, 0);
+        }
+
+        tx.commit();
+        for (GammaTxnLong ref : refs) {
+            assertSurplus(ref, 0);
+            assertRefHasNoLocks(ref);
+        }
+    }
+
+    @Test
+    public void whenInvisibleReadsAndFixedLength_thenConflictDetected() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0)
+                .setInvisibleReadsEnabled(true);
+        whenInvisibleReads_thenConflictDetected(new FatFixedLengthGammaTxn(config));
+    }
+
+    @Test
+    public void whenInvisibleReadsAndVariableLength_thenConflictDetected() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0)
+                .setInvisibleReadsEnabled(true);
+        whenInvisibleReads_thenConflictDetected(new FatVariableLengthGammaTxn(config));
+    }
+
+    private void whenInvisibleReads_thenConflictDetected(GammaTxn tx) {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+
+        ref1.get(tx);
+        ref1.atomicIncrementAndGet(1);
+
+        try {
+            ref2.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertSurplus(ref1, 0);
+        assertSurplus(ref2, 0);
+        assertRefHasNoLocks(ref1);
+        assertRefHasNoLocks(ref2);
+    }
+
+    @Test
+    public void whenInvisibleReadsAndUpdate_thenWritesStillLocked() {
+        GammaTxnFactory txFactory = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setInvisibleReadsEnabled(true)
+                .newTransactionFactory();
+
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+        long version2 = ref2.getVersion();
+
+        GammaTxn tx = txFactory.newTxn();
+        ref1.increment(tx, ref2.get(tx));
+        assertSurplus(ref2, 0);
+        tx.prepare();
+        assertRefHasExclusiveLock(ref1, tx);
+        tx.commit();
+
+        assertEquals(3, ref1.atomicGet());
+        assertSurplus(ref1, 0);
+        assertRefHasNoLocks(ref1);
+        assertVersionAndValue(ref2, version2, 2);
+    }
+}
@@ -1,24 +1,34 @@
 package org.multiverse.stms.gamma.integration.blocking;
 
-import org.junit.Ignore;
+import org.junit.Before;
 import org.junit.Test;
+import org.multiverse.TestThread;
 import org.multiverse.api.StmUtils;
 import org.multiverse.api.Txn;
 import org.multiverse.api.callables.TxnCallable;
 import org.multiverse.api.callables.TxnLongCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
 import org.multiverse.api.exceptions.TxnMandatoryException;
 import org.multiverse.api.references.TxnLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
+import static org.multiverse.TestUtils.*;
 import static org.multiverse.api.StmUtils.newTxnLong;
 import static org.multiverse.api.StmUtils.retry;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
 
 /**
  * @author Peter Veentjer
  */
 public class OrElseTest {
 
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+    }
+
     @Test(expected = TxnMandatoryException.class)
     public void whenCalledWithoutTransaction_thenTxnMandatoryException() {
         TxnCallable callable = mock(TxnCallable.class);
@@ -59,7 +69,6 @@ public class OrElseTest {
     }
 
     @Test
-    @Ignore
     public void whenOrElseBranchIsSuccess() {
         final TxnLong ref1 = newTxnLong(0);
         final TxnLong ref2 = newTxnLong(2);
@@ -75,8 +84,116 @@ public class OrElseTest {
     }
 
     @Test
-    @Ignore
+    public void whenEitherBranchWritesAndRetries_thenWritesRolledBack() {
+        final TxnLong ref1 = newTxnLong(0);
+        final TxnLong ref2 = newTxnLong(0);
+
+        StmUtils.atomic(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                StmUtils.atomic(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref1.set(10);
+                        retry();
+                    }
+                }, new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref2.set(20);
+                    }
+                });
+            }
+        });
+
+        assertEquals(0, ref1.atomicGet());
+        assertEquals(20, ref2.atomicGet());
+    }
+
+    @Test
+    public void whenNestedOrElse() {
+        final TxnLong ref1 = newTxnLong(0);
+        final TxnLong ref2 = newTxnLong(0);
+        final TxnLong ref3 = newTxnLong(3);
+
+        long value = StmUtils.atomic(new TxnLongCallable() {
+            @Override
+            public long call(Txn tx) throws Exception {
+                return StmUtils.atomic(new TxnLongCallable() {
+                    @Override
+                    public long call(Txn tx) throws Exception {
+                        return StmUtils.atomic(new GetCallable(ref1), new GetCallable(ref2));
+                    }
+                }, new GetCallable(ref3));
+            }
+        });
+
+        assertEquals(3, value);
+    }
+
+    @Test
     public void whenBothBranchedBlock() {
+        final TxnLong ref1 = newTxnLong(0);
+        final TxnLong ref2 = newTxnLong(0);
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                long value = StmUtils.atomic(new TxnLongCallable() {
+                    @Override
+                    public long call(Txn tx) throws Exception {
+                        return StmUtils.atomic(new GetCallable(ref1), new GetCallable(ref2));
+                    }
+                });
+                assertEquals(5, value);
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
+
+        ref2.atomicSet(5);
+        joinAll(thread);
+    }
+
+    @Test
+    public void whenEitherBranchAwaitsAndOrElseBranchRetries_thenWokenUpByChangeForOrElseBranch() {
+        final TxnLong ref = newTxnLong(0);
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                long value = StmUtils.atomic(new TxnLongCallable() {
+                    @Override
+                    public long call(Txn tx) throws Exception {
+                        return StmUtils.atomic(new TxnLongCallable() {
+                            @Override
+                            public long call(Txn tx) throws Exception {
+                                ref.await(5);
+                                return 5;
+                            }
+                        }, new TxnLongCallable() {
+                            @Override
+                            public long call(Txn tx) throws Exception {
+                                if (ref.get() < 10) {
+                                    retry();
+                                }
+                                return ref.get();
+                            }
+                        });
+                    }
+                });
+                assertEquals(12, value);
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
 
+        //doesn't match the predicate of the either branch, but should wake up the orelse branch.
+        ref.atomicSet(12);
+        joinAll(thread);
     }
 }
@@ -0,0 +1,115 @@
+package org.multiverse.stms.gamma.integration.blocking;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.api.predicates.LongPredicate.newLargerThanPredicate;
+
+/**
+ * Tests that a transaction waiting using a predicate is only woken up when the predicate holds, and that with
+ * wake-one semantics only a single waiting transaction is woken up.
+ */
+public class PredicateWakeupTest {
+
+    private GammaStm stm;
+    private GammaTxnLong ref;
+    private AtomicInteger executions;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+        ref = new GammaTxnLong(stm);
+        executions = new AtomicInteger();
+    }
+
+    @Test
+    public void whenPredicateDoesNotHold_thenNotWokenUp() {
+        AwaitThread thread = new AwaitThread(10);
+        startAll(thread);
+
+        for (int k = 0; k < 10; k++) {
+            awaitListenerCount(1);
+            ref.atomicIncrementAndGet(1);
+        }
+
+        joinAll(thread);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void whenWakeOne_thenOnlySingleTransactionWokenUp() {
+        ref.setWakeOne(true);
+        AwaitThread[] threads = new AwaitThread[5];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new AwaitThread(1);
+        }
+        startAll(threads);
+        awaitListenerCount(threads.length);
+
+        ref.atomicIncrementAndGet(1);
+        awaitListenerCount(threads.length - 1);
+        sleepMs(100);
+
+        assertEquals(threads.length + 1, executions.get());
+        assertEquals(0, ref.atomicGet());
+
+        ref.atomicIncrementAndGet(threads.length - 1);
+        joinAll(threads);
+        assertEquals(0, ref.atomicGet());
+    }
+
+    private void awaitListenerCount(int expected) {
+        long deadline = System.currentTimeMillis() + 60 * 1000;
+        while (listenerCount() != expected) {
+            assertTrue("Listeners didn't register in time", System.currentTimeMillis() < deadline);
+            sleepMs(1);
+        }
+    }
+
+    private int listenerCount() {
+        int count = 0;
+        for (Listeners listeners = ref.listeners; listeners != null; listeners = listeners.next) {
+            count++;
+        }
+        return count;
+    }
+
+    class AwaitThread extends TestThread {
+        private final long amount;
+
+        AwaitThread(long amount) {
+            super("AwaitThread");
+            this.amount = amount;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setFat()
+                    .newTxnExecutor();
+
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    executions.incrementAndGet();
+                    ref.await(tx, newLargerThanPredicate(amount - 1));
+                    ref.decrement(tx, amount);
+                }
+            });
+        }
+    }
+}
@@ -10,6 +10,7 @@ import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxnFactory;
 public class DiningPhilosophers_FatFixedLengthGammaTxn_StressTest extends DiningPhilosophers_AbstractTest {
 
     private LockMode lockMode;
+    private boolean orderedLocking;
 
     @Test
     public void whenNoLock() {
@@ -35,11 +36,26 @@ public class DiningPhilosophers_FatFixedLengthGammaTxn_StressTest extends Dining
         run();
     }
 
+    @Test
+    public void whenOrderedReadLock() {
+        lockMode = LockMode.Read;
+        orderedLocking = true;
+        run();
+    }
+
+    @Test
+    public void whenOrderedExclusiveLock() {
+        lockMode = LockMode.Exclusive;
+        orderedLocking = true;
+        run();
+    }
+
     @Override
     protected TxnExecutor newTakeForksBlock() {
         GammaTxnConfig config = new GammaTxnConfig(stm)
                 .setMaxRetries(10000)
-                .setReadLockMode(lockMode);
+                .setReadLockMode(lockMode)
+                .setOrderedLockingEnabled(orderedLocking);
         return new LeanGammaTxnExecutor(new FatFixedLengthGammaTxnFactory(config));
     }
 
@@ -47,7 +63,8 @@ public class DiningPhilosophers_FatFixedLengthGammaTxn_StressTest extends Dining
     protected TxnExecutor newReleaseForksBlock() {
         GammaTxnConfig config = new GammaTxnConfig(stm)
                 .setMaxRetries(10000)
-                .setReadLockMode(lockMode);
+                .setReadLockMode(lockMode)
+                .setOrderedLockingEnabled(orderedLocking);
         return new LeanGammaTxnExecutor(new FatFixedLengthGammaTxnFactory(config));
     }
 }
@@ -0,0 +1,169 @@
+package org.multiverse.stms.gamma.integration.irrevocable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.BenchmarkUtils.transactionsPerSecondAsString;
+
+/**
+ * Checks that an irrevocable transaction never is re-executed while normal transactions are updating the same
+ * refs, and shows the throughput of the normal transactions with and without an irrevocable transaction active.
+ */
+public class IrrevocableStressTest {
+
+    private volatile boolean stop;
+    private int refCount = 20;
+    private int normalThreadCount = 4;
+    private GammaTxnLong[] refs;
+    private GammaStm stm;
+    private final AtomicLong executions = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stop = false;
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenNoIrrevocable() {
+        test(0);
+    }
+
+    @Test
+    public void whenOneIrrevocableThread() {
+        test(1);
+    }
+
+    @Test
+    public void whenMultipleIrrevocableThreads() {
+        test(2);
+    }
+
+    public void test(int irrevocableThreadCount) {
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refCount; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        NormalThread[] normalThreads = new NormalThread[normalThreadCount];
+        for (int k = 0; k < normalThreads.length; k++) {
+            normalThreads[k] = new NormalThread(k);
+        }
+
+        IrrevocableThread[] irrevocableThreads = new IrrevocableThread[irrevocableThreadCount];
+        for (int k = 0; k < irrevocableThreads.length; k++) {
+            irrevocableThreads[k] = new IrrevocableThread(k);
+        }
+
+        long durationMs = getStressTestDurationMs(30 * 1000);
+        startAll(normalThreads);
+        startAll(irrevocableThreads);
+        sleepMs(durationMs);
+        stop = true;
+        joinAll(normalThreads);
+        joinAll(irrevocableThreads);
+
+        long normalCount = 0;
+        for (NormalThread thread : normalThreads) {
+            normalCount += thread.count;
+        }
+
+        long irrevocableCount = 0;
+        for (IrrevocableThread thread : irrevocableThreads) {
+            irrevocableCount += thread.count;
+        }
+
+        System.out.println("--------------------------------------------------------");
+        System.out.printf("Irrevocable threads:      %s\n", irrevocableThreadCount);
+        System.out.printf("Irrevocable transactions: %s\n", irrevocableCount);
+        System.out.printf("Normal performance:       %s transactions/second\n",
+                transactionsPerSecondAsString(normalCount, durationMs));
+
+        assertEquals(irrevocableCount, executions.get());
+        assertEquals(2 * (normalCount + irrevocableCount), sum());
+    }
+
+    private long sum() {
+        long sum = 0;
+        for (GammaTxnLong ref : refs) {
+            sum += ref.atomicGet();
+        }
+        return sum;
+    }
+
+    private void incrementTwo(GammaTxn tx) {
+        int index1 = randomInt(refs.length);
+        int index2 = (index1 + 1 + randomInt(refs.length - 1)) % refs.length;
+        refs[index1].increment(tx);
+        refs[index2].getAndSet(tx, refs[index2].get(tx) + 1);
+    }
+
+    public class NormalThread extends TestThread {
+        private long count;
+
+        public NormalThread(int id) {
+            super("NormalThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    incrementTwo((GammaTxn) tx);
+                }
+            };
+
+            while (!stop) {
+                executor.execute(callable);
+                count++;
+            }
+        }
+    }
+
+    public class IrrevocableThread extends TestThread {
+        private long count;
+
+        public IrrevocableThread(int id) {
+            super("IrrevocableThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setIrrevocable(true)
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    //the 'non undoable' action; if the transaction would be retried, it is counted twice.
+                    executions.incrementAndGet();
+                    incrementTwo((GammaTxn) tx);
+                }
+            };
+
+            while (!stop) {
+                executor.execute(callable);
+                count++;
+                sleepMs(1);
+            }
+        }
+    }
+}
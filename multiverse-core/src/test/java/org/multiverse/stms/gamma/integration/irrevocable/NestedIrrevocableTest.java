@@ -0,0 +1,94 @@
+package org.multiverse.stms.gamma.integration.irrevocable;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.PropagationLevel;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.IllegalTxnStateException;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+/**
+ * Checks that an irrevocable transaction that starts a nested irrevocable transaction with
+ * {@link PropagationLevel#RequiresNew} fails instead of waiting for the token it already owns.
+ */
+public class NestedIrrevocableTest {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenRequiresNewIrrevocableNested_thenIllegalTxnStateException() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        final TxnExecutor outerExecutor = stm.newTxnFactoryBuilder()
+                .setIrrevocable(true)
+                .newTxnExecutor();
+
+        final TxnExecutor innerExecutor = stm.newTxnFactoryBuilder()
+                .setIrrevocable(true)
+                .setPropagationLevel(PropagationLevel.RequiresNew)
+                .newTxnExecutor();
+
+        try {
+            outerExecutor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.set(tx, 1);
+                    innerExecutor.execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            ref.set(tx, 2);
+                        }
+                    });
+                }
+            });
+            fail();
+        } catch (IllegalTxnStateException expected) {
+        }
+
+        assertEquals(0, ref.atomicGet());
+        assertNull(stm.irrevocableToken.getOwner());
+    }
+
+    @Test
+    public void whenRequiresNewNotIrrevocableNested_thenSuccess() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxnLong otherRef = new GammaTxnLong(stm);
+
+        final TxnExecutor outerExecutor = stm.newTxnFactoryBuilder()
+                .setIrrevocable(true)
+                .newTxnExecutor();
+
+        final TxnExecutor innerExecutor = stm.newTxnFactoryBuilder()
+                .setPropagationLevel(PropagationLevel.RequiresNew)
+                .newTxnExecutor();
+
+        outerExecutor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.set(tx, 1);
+                innerExecutor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        otherRef.set(tx, 2);
+                    }
+                });
+            }
+        });
+
+        assertEquals(1, ref.atomicGet());
+        assertEquals(2, otherRef.atomicGet());
+        assertNull(stm.irrevocableToken.getOwner());
+    }
+}
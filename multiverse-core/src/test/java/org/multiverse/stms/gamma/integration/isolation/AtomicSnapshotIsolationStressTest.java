@@ -0,0 +1,145 @@
+package org.multiverse.stms.gamma.integration.isolation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaAtomicSnapshot;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+/**
+ * A stress test that checks if the {@link GammaAtomicSnapshot} provides a consistent view on multiple refs. The
+ * writing threads increment all refs in a single transaction, so all refs always have the same value, and the reading
+ * threads verify that every snapshot contains the same value for all refs.
+ *
+ * @author Peter Veentjer.
+ */
+public class AtomicSnapshotIsolationStressTest {
+
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private volatile boolean stop;
+    private int refCount = 4;
+    private int readingThreadCount = 2;
+    private int writingThreadCount = 2;
+    private int durationMs = 30 * 1000;
+
+    @Before
+    public void setUp() {
+        clearThreadLocalTxn();
+        stm = new GammaStm();
+        stop = false;
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+    }
+
+    @Test
+    public void test() {
+        ReadingThread[] readingThreads = new ReadingThread[readingThreadCount];
+        for (int k = 0; k < readingThreads.length; k++) {
+            readingThreads[k] = new ReadingThread(k);
+        }
+
+        WritingThread[] writingThreads = new WritingThread[writingThreadCount];
+        for (int k = 0; k < writingThreads.length; k++) {
+            writingThreads[k] = new WritingThread(k);
+        }
+
+        startAll(readingThreads);
+        startAll(writingThreads);
+        sleepMs(durationMs);
+        stop = true;
+        joinAll(readingThreads);
+        joinAll(writingThreads);
+
+        long expected = 0;
+        for (WritingThread thread : writingThreads) {
+            expected += thread.iteration;
+        }
+
+        for (GammaTxnLong ref : refs) {
+            assertEquals(expected, ref.atomicGet());
+        }
+    }
+
+    class WritingThread extends TestThread {
+        private long iteration;
+
+        public WritingThread(int id) {
+            super("WritingThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            TxnExecutor executor = stm.newTxnFactoryBuilder()
+                    .setSpeculative(false)
+                    .setMaxRetries(100000)
+                    .newTxnExecutor();
+
+            TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    for (GammaTxnLong ref : refs) {
+                        ref.increment(tx);
+                    }
+                }
+            };
+
+            while (!stop) {
+                executor.execute(callable);
+                iteration++;
+
+                if (iteration % 100000 == 0) {
+                    System.out.printf("%s is at %s\n", getName(), iteration);
+                }
+            }
+        }
+    }
+
+    class ReadingThread extends TestThread {
+
+        public ReadingThread(int id) {
+            super("ReadingThread-" + id);
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(refs);
+
+            long iteration = 0;
+            long lastValue = 0;
+            while (!stop) {
+                try {
+                    snapshot.take();
+                } catch (LockedException expected) {
+                    continue;
+                }
+
+                long value = snapshot.getLong(0);
+                for (int k = 1; k < refs.length; k++) {
+                    assertEquals(value, snapshot.getLong(k));
+                }
+
+                //a snapshot should never be older than the previous one.
+                assertTrue(value >= lastValue);
+                lastValue = value;
+                iteration++;
+
+                if (iteration % 1000000 == 0) {
+                    System.out.printf("%s is at %s\n", getName(), iteration);
+                }
+            }
+        }
+    }
+}
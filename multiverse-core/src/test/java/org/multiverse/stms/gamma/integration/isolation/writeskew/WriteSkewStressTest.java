@@ -39,7 +39,8 @@ public class WriteSkewStressTest {
         pessimisticWriteLevel,
         pessimisticReads,
         pessimisticWrites,
-        serialized
+        serialized,
+        serializableSnapshot
     }
 
     private Mode mode;
@@ -233,6 +234,21 @@ public class WriteSkewStressTest {
         assertFalse("writeskew detected", writeSkewEncountered.get());
     }
 
+    @Test
+    public void whenSerializableSnapshotIsolationLevel_thenWriteSkewNotPossible() {
+        mode = Mode.serializableSnapshot;
+        startAll(threads);
+        sleepMs(getStressTestDurationMs(30 * 1000));
+        stop = true;
+
+        joinAll(threads);
+
+        System.out.println("User1: " + customer1);
+        System.out.println("User2: " + customer2);
+
+        assertFalse("writeskew detected", writeSkewEncountered.get());
+    }
+
     public class TransferThread extends TestThread {
 
         private final TxnExecutor snapshotBlock = stm.newTxnFactoryBuilder()
@@ -244,6 +260,11 @@ public class WriteSkewStressTest {
                 .setIsolationLevel(IsolationLevel.Serializable)
                 .setMaxRetries(10000)
                 .newTxnExecutor();
+        private final TxnExecutor serializableSnapshotBlock = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setIsolationLevel(IsolationLevel.SerializableSnapshot)
+                .setMaxRetries(10000)
+                .newTxnExecutor();
         private final TxnExecutor pessimisticReadsBlock = stm.newTxnFactoryBuilder()
                 .setSpeculative(false)
                 .setReadLockMode(LockMode.Read)
@@ -275,6 +296,9 @@ public class WriteSkewStressTest {
                     case serialized:
                         runWithSerializedIsolation();
                         break;
+                    case serializableSnapshot:
+                        runWithSerializableSnapshotIsolation();
+                        break;
                     case pessimisticReadLevel:
                         runWithPessimisticReadLevel();
                         break;
@@ -325,6 +349,16 @@ public class WriteSkewStressTest {
             });
         }
 
+        private void runWithSerializableSnapshotIsolation() {
+            serializableSnapshotBlock.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    GammaTxn btx = (GammaTxn) tx;
+                    run(btx, LockMode.None, LockMode.None);
+                }
+            });
+        }
+
         private void runWithSnapshotIsolation() {
             snapshotBlock.execute(new TxnVoidCallable() {
                 @Override
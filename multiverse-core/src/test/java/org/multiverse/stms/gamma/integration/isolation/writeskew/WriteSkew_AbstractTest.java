@@ -15,6 +15,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 import static org.multiverse.api.GlobalStmInstance.getGlobalStmInstance;
 import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
 
 public abstract class WriteSkew_AbstractTest<T extends GammaTxn> {
     protected GammaStm stm;
@@ -195,4 +196,118 @@ public abstract class WriteSkew_AbstractTest<T extends GammaTxn> {
         } catch (ReadWriteConflict expected) {
         }
     }
+
+    @Test
+    public void whenSerializableSnapshotIsolationLevel_thenWriteSkewNotPossible() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx = newTransaction(newSerializableSnapshotConfig());
+
+        ref1.incrementAndGet(tx, 1);
+        ref2.get(tx);
+
+        ref2.atomicIncrementAndGet(1);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(0, ref1.atomicGet());
+    }
+
+    @Test
+    public void whenSerializableSnapshotIsolationLevelAndBothReadWhatOtherWrites_thenSecondAborted() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx1 = newTransaction(newSerializableSnapshotConfig());
+        GammaTxn tx2 = newTransaction(newSerializableSnapshotConfig());
+
+        ref1.get(tx1);
+        ref2.incrementAndGet(tx1, 1);
+
+        ref2.get(tx2);
+        ref1.incrementAndGet(tx2, 1);
+
+        tx1.prepare();
+
+        try {
+            tx2.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        tx1.commit();
+        assertEquals(0, ref1.atomicGet());
+        assertEquals(1, ref2.atomicGet());
+    }
+
+    @Test
+    public void whenSerializableSnapshotIsolationLevelAndReadNotChanged_thenReadNotLocked() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx = newTransaction(newSerializableSnapshotConfig());
+
+        ref1.incrementAndGet(tx, 1);
+        ref2.get(tx);
+
+        tx.prepare();
+        assertRefHasNoLocks(ref2);
+
+        //the other transaction is serialized after the prepared transaction.
+        ref2.atomicIncrementAndGet(1);
+
+        tx.commit();
+        assertEquals(1, ref1.atomicGet());
+        assertEquals(1, ref2.atomicGet());
+    }
+
+    @Test
+    public void whenSerializableSnapshotIsolationLevelAndReadLockedByOther_thenReadWriteConflict() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx = newTransaction(newSerializableSnapshotConfig());
+
+        ref1.incrementAndGet(tx, 1);
+        ref2.get(tx);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        ref2.getLock().acquire(otherTx, LockMode.Write);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        otherTx.abort();
+        assertEquals(0, ref1.atomicGet());
+    }
+
+    @Test
+    public void whenSerializableSnapshotIsolationLevelAndReadonly_thenNotValidated() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx = newTransaction(newSerializableSnapshotConfig());
+
+        ref1.get(tx);
+        ref2.get(tx);
+
+        ref2.atomicIncrementAndGet(1);
+
+        tx.commit();
+    }
+
+    private GammaTxnConfig newSerializableSnapshotConfig() {
+        return new GammaTxnConfig(stm)
+                .setSpeculative(false)
+                .setIsolationLevel(IsolationLevel.SerializableSnapshot)
+                .setControlFlowErrorsReused(false);
+    }
 }
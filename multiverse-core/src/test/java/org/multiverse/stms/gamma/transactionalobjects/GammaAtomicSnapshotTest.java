@@ -0,0 +1,149 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class GammaAtomicSnapshotTest {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.spinCount = 10;
+        stm = new GammaStm(config);
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullRefs_thenNullPointerException() {
+        new GammaAtomicSnapshot((BaseGammaTxnRef[]) null);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullRef_thenNullPointerException() {
+        new GammaAtomicSnapshot(new GammaTxnLong(stm), null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNoRefs_thenIllegalArgumentException() {
+        new GammaAtomicSnapshot();
+    }
+
+    @Test
+    public void whenAllTypes() {
+        GammaTxnLong longRef = new GammaTxnLong(stm, 10);
+        GammaTxnInteger intRef = new GammaTxnInteger(stm, 20);
+        GammaTxnBoolean booleanRef = new GammaTxnBoolean(stm, true);
+        GammaTxnDouble doubleRef = new GammaTxnDouble(stm, 1.5);
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, "foo");
+
+        GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(longRef, intRef, booleanRef, doubleRef, ref);
+        snapshot.take();
+
+        assertEquals(5, snapshot.size());
+        assertEquals(10, snapshot.getLong(0));
+        assertEquals(20, snapshot.getInt(1));
+        assertTrue(snapshot.getBoolean(2));
+        assertEquals(1.5, snapshot.getDouble(3), 0.0);
+        assertEquals("foo", snapshot.<String>get(4));
+    }
+
+    @Test
+    public void whenTakenAgain_thenNewValuesRead() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+
+        GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(ref1, ref2);
+        snapshot.take();
+
+        ref1.atomicSet(10);
+        ref2.atomicSet(20);
+
+        assertEquals(1, snapshot.getLong(0));
+        assertEquals(2, snapshot.getLong(1));
+
+        snapshot.take();
+        assertEquals(10, snapshot.getLong(0));
+        assertEquals(20, snapshot.getLong(1));
+    }
+
+    @Test
+    public void whenTaken_thenNothingWritten() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+        long orec1 = ref1.orec;
+        long orec2 = ref2.orec;
+        long version1 = ref1.getVersion();
+        long version2 = ref2.getVersion();
+
+        GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(ref1, ref2);
+        for (int k = 0; k < 1000; k++) {
+            snapshot.take();
+        }
+
+        assertEquals(orec1, ref1.orec);
+        assertEquals(orec2, ref2.orec);
+        assertVersionAndValue(ref1, version1, 1);
+        assertVersionAndValue(ref2, version2, 2);
+        assertSurplus(ref1, 0);
+        assertRefHasNoLocks(ref1);
+    }
+
+    @Test
+    public void whenExclusivelyLocked_thenLockedException() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        ref2.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(ref1, ref2);
+        assertFalse(snapshot.tryTake());
+
+        try {
+            snapshot.take();
+            fail();
+        } catch (LockedException expected) {
+        }
+
+        otherTx.abort();
+        snapshot.take();
+        assertEquals(2, snapshot.getLong(1));
+    }
+
+    @Test
+    public void whenWriteLocked_thenSuccess() {
+        whenLocked_thenSuccess(LockMode.Write);
+    }
+
+    @Test
+    public void whenReadLocked_thenSuccess() {
+        whenLocked_thenSuccess(LockMode.Read);
+    }
+
+    private void whenLocked_thenSuccess(LockMode lockMode) {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        ref2.getLock().acquire(otherTx, lockMode);
+        ref2.set(otherTx, 20);
+
+        GammaAtomicSnapshot snapshot = new GammaAtomicSnapshot(ref1, ref2);
+        assertTrue(snapshot.tryTake());
+        assertEquals(1, snapshot.getLong(0));
+        assertEquals(2, snapshot.getLong(1));
+
+        otherTx.abort();
+    }
+}
@@ -0,0 +1,233 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.Savepoint;
+import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertSurplus;
+
+public class GammaTxnRecordTest {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeLongFieldCount_thenIllegalArgumentException() {
+        new GammaTxnRecord(stm, -1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeRefFieldCount_thenIllegalArgumentException() {
+        new GammaTxnRecord(stm, 0, -1);
+    }
+
+    @Test
+    public void whenCreated() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 2, 3);
+
+        assertEquals(2, record.getLongFieldCount());
+        assertEquals(3, record.getRefFieldCount());
+        assertEquals(0, record.atomicGetLongField(0));
+        assertEquals(0, record.atomicGetLongField(1));
+        assertNull(record.atomicGetRefField(2));
+    }
+
+    @Test
+    public void whenFieldsUpdated_thenSingleVersionIncrease() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 2, 1);
+        long version = record.getVersion();
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.setLongField(tx, 0, 10);
+        record.incrementLongField(tx, 1, 5);
+        record.setRefField(tx, 0, "foo");
+        tx.commit();
+
+        assertEquals(version + 1, record.getVersion());
+        assertEquals(10, record.atomicGetLongField(0));
+        assertEquals(5, record.atomicGetLongField(1));
+        assertEquals("foo", record.atomicGetRefField(0));
+        assertRefHasNoLocks(record);
+        assertSurplus(record, 0);
+    }
+
+    @Test
+    public void whenWritten_thenCommittedValuesNotChangedBeforeCommit() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 1);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.setLongField(tx, 0, 10);
+        record.setRefField(tx, 0, "foo");
+
+        assertEquals(10, record.getLongField(tx, 0));
+        assertEquals("foo", record.getRefField(tx, 0));
+        assertEquals(0, record.atomicGetLongField(0));
+        assertNull(record.atomicGetRefField(0));
+
+        tx.abort();
+
+        assertEquals(0, record.atomicGetLongField(0));
+        assertNull(record.atomicGetRefField(0));
+    }
+
+    @Test
+    public void whenSameValueWritten_thenNoVersionIncrease() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 1);
+        long version = record.getVersion();
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.setLongField(tx, 0, 0);
+        record.setRefField(tx, 0, null);
+        record.incrementLongField(tx, 0, 0);
+        tx.commit();
+
+        assertEquals(version, record.getVersion());
+    }
+
+    @Test
+    public void whenUsedByLeanTransaction() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 1);
+
+        LeanMonoGammaTxn tx = new LeanMonoGammaTxn(stm);
+        record.setLongField(tx, 0, 10);
+        record.setRefField(tx, 0, "foo");
+        tx.commit();
+
+        assertEquals(10, record.atomicGetLongField(0));
+        assertEquals("foo", record.atomicGetRefField(0));
+    }
+
+    @Test
+    public void whenOtherTransactionUpdatesOtherField_thenConflict() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 2, 0);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.getLongField(tx, 0);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        record.setLongField(otherTx, 1, 10);
+        otherTx.commit();
+
+        try {
+            record.setLongField(tx, 0, 20);
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(0, record.atomicGetLongField(0));
+        assertEquals(10, record.atomicGetLongField(1));
+    }
+
+    @Test
+    public void whenExclusivelyLocked_thenAtomicGetFails() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 0);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        record.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        try {
+            record.atomicGetLongField(0);
+            fail();
+        } catch (LockedException expected) {
+        }
+
+        otherTx.abort();
+        assertEquals(0, record.atomicGetLongField(0));
+    }
+
+    @Test
+    public void whenMultipleFieldsWritten_thenValuesCopiedOnce() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 2, 1);
+        Object committed = record.ref_value;
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.setLongField(tx, 0, 10);
+        Tranlocal tranlocal = tx.getRefTranlocal(record);
+        Object copy = tranlocal.ref_value;
+        record.incrementLongField(tx, 1, 5);
+        record.setRefField(tx, 0, "foo");
+
+        assertNotSame(committed, copy);
+        assertSame(copy, tranlocal.ref_value);
+        tx.commit();
+
+        assertSame(copy, record.ref_value);
+    }
+
+    @Test
+    public void whenCommittedCopyLoadedAgainByPooledTranlocal_thenCopiedAgain() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 0);
+
+        LeanMonoGammaTxn tx = new LeanMonoGammaTxn(stm);
+        record.setLongField(tx, 0, 10);
+        tx.commit();
+
+        tx.hardReset();
+        record.setLongField(tx, 0, 20);
+
+        assertEquals(20, record.getLongField(tx, 0));
+        assertEquals(10, record.atomicGetLongField(0));
+        tx.abort();
+
+        assertEquals(10, record.atomicGetLongField(0));
+    }
+
+    @Test
+    public void whenWrittenBeforeAndAfterSavepoint_thenValuesBeforeSavepointRestored() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 1);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.setLongField(tx, 0, 10);
+        record.setRefField(tx, 0, "foo");
+        Savepoint savepoint = tx.createSavepoint();
+        record.setLongField(tx, 0, 20);
+        record.setRefField(tx, 0, "bar");
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        assertEquals(10, record.getLongField(tx, 0));
+        assertEquals("foo", record.getRefField(tx, 0));
+
+        record.incrementLongField(tx, 0, 5);
+        tx.commit();
+
+        assertEquals(15, record.atomicGetLongField(0));
+        assertEquals("foo", record.atomicGetRefField(0));
+    }
+
+    @Test
+    public void whenRolledBackToSavepointBeforeFirstWrite_thenCommittedValuesNotUpdatedInPlace() {
+        GammaTxnRecord record = new GammaTxnRecord(stm, 1, 0);
+        Object committed = record.ref_value;
+
+        GammaTxn tx = stm.newDefaultTxn();
+        record.getLongField(tx, 0);
+        Savepoint savepoint = tx.createSavepoint();
+        record.setLongField(tx, 0, 10);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        record.setLongField(tx, 0, 20);
+
+        assertSame(committed, record.ref_value);
+        assertEquals(0, record.atomicGetLongField(0));
+        tx.commit();
+
+        assertEquals(20, record.atomicGetLongField(0));
+    }
+}
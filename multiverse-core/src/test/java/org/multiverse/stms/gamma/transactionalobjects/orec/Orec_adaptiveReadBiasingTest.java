@@ -0,0 +1,120 @@
+package org.multiverse.stms.gamma.transactionalobjects.orec;
+
+import org.junit.Test;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.sleepMs;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class Orec_adaptiveReadBiasingTest {
+
+    private GammaStm newStm(boolean adaptiveReadBiasing, long readBiasedMinimalDurationNs) {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readBiasedThreshold = 128;
+        config.adaptiveReadBiasing = adaptiveReadBiasing;
+        config.readBiasedMinimalDurationNs = readBiasedMinimalDurationNs;
+        return new GammaStm(config);
+    }
+
+    private void update(AbstractGammaObject orec) {
+        orec.arriveAndLock(1, LOCKMODE_EXCLUSIVE);
+        orec.departAfterUpdateAndUnlock();
+    }
+
+    @Test
+    public void whenNotReadBiased_thenThresholdUnchanged() {
+        GammaStm stm = newStm(true, Long.MAX_VALUE);
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+
+        update(orec);
+
+        assertEquals(128, orec.getReadBiasedThreshold());
+        assertEquals(0, orec.getReadBiasedRevocationCount());
+    }
+
+    @Test
+    public void whenUpdatedShortlyAfterBecomingReadBiased_thenThresholdDoubled() {
+        GammaStm stm = newStm(true, Long.MAX_VALUE);
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+
+        makeReadBiased(orec);
+        update(orec);
+
+        assertWriteBiased(orec);
+        assertSurplus(orec, 0);
+        assertRefHasNoLocks(orec);
+        assertEquals(256, orec.getReadBiasedThreshold());
+        assertEquals(1, orec.getReadBiasedRevocationCount());
+
+        //the next time it takes 256 reads before it becomes readbiased.
+        for (int k = 0; k < 255; k++) {
+            orec.arrive(1);
+            orec.departAfterReading();
+        }
+        assertWriteBiased(orec);
+        orec.arrive(1);
+        orec.departAfterReading();
+        assertReadBiased(orec);
+    }
+
+    @Test
+    public void whenUpdatedShortlyAfterBecomingReadBiasedRepeatedly_thenThresholdLimited() {
+        GammaStm stm = newStm(true, Long.MAX_VALUE);
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+
+        for (int k = 0; k < 5; k++) {
+            makeReadBiased(orec);
+            update(orec);
+        }
+
+        assertEquals(AbstractGammaObject.MAX_READBIASED_THRESHOLD, orec.getReadBiasedThreshold());
+        assertEquals(5, orec.getReadBiasedRevocationCount());
+    }
+
+    @Test
+    public void whenUpdatedLongAfterBecomingReadBiased_thenThresholdHalvedTillDefault() {
+        GammaStm stm = newStm(true, TimeUnit.MILLISECONDS.toNanos(100));
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+
+        makeReadBiased(orec);
+        update(orec);
+        makeReadBiased(orec);
+        update(orec);
+        assertEquals(512, orec.getReadBiasedThreshold());
+
+        makeReadBiased(orec);
+        sleepMs(200);
+        update(orec);
+        assertEquals(256, orec.getReadBiasedThreshold());
+
+        makeReadBiased(orec);
+        sleepMs(200);
+        update(orec);
+        assertEquals(128, orec.getReadBiasedThreshold());
+
+        makeReadBiased(orec);
+        sleepMs(200);
+        update(orec);
+        assertEquals(128, orec.getReadBiasedThreshold());
+        assertEquals(5, orec.getReadBiasedRevocationCount());
+    }
+
+    @Test
+    public void whenAdaptiveReadBiasingDisabled_thenThresholdUnchanged() {
+        GammaStm stm = newStm(false, Long.MAX_VALUE);
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+
+        makeReadBiased(orec);
+        update(orec);
+
+        assertWriteBiased(orec);
+        assertEquals(128, orec.getReadBiasedThreshold());
+        assertEquals(1, orec.getReadBiasedRevocationCount());
+    }
+}
@@ -52,6 +52,19 @@ public class Orec_arriveTest implements GammaConstants {
         assertLockMode(orec, LOCKMODE_NONE);
     }
 
+    @Test
+    public void writeBiased_whenLargeReadonlyCount_thenReadonlyCountPreserved() {
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+        orec.orec = AbstractGammaObject.setReadonlyCount(0, 1000);
+
+        int result = orec.arrive(1);
+
+        assertHasMasks(result, MASK_SUCCESS);
+        assertSurplus(orec, 1);
+        assertReadonlyCount(orec, 1000);
+        assertWriteBiased(orec);
+    }
+
     @Test
     public void writeBiased_whenExclusiveLock_thenLockNotFree() {
         AbstractGammaObject orec = new GammaTxnLong(stm);
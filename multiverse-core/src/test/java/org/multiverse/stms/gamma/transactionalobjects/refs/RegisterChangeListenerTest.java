@@ -3,8 +3,11 @@ package org.multiverse.stms.gamma.transactionalobjects.refs;
 import org.junit.Before;
 import org.junit.Test;
 import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
 import org.multiverse.api.blocking.DefaultRetryLatch;
 import org.multiverse.api.blocking.RetryLatch;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.RetryTimeoutException;
 import org.multiverse.api.functions.LongFunction;
 import org.multiverse.stms.gamma.GammaConstants;
 import org.multiverse.stms.gamma.GammaObjectPool;
@@ -14,6 +17,8 @@ import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -234,4 +239,136 @@ public class RegisterChangeListenerTest implements GammaConstants {
         assertEquals(listenerEra1, listeners.next.listenerEra);
         assertFalse(latch1.isOpen());
     }
+
+    private RetryLatch register(GammaTxnLong ref) {
+        GammaTxn tx = stm.newDefaultTxn();
+        Tranlocal read = ref.openForRead(tx, LOCKMODE_NONE);
+        RetryLatch latch = new DefaultRetryLatch();
+        ref.registerChangeListener(latch, read, pool, latch.getEra());
+        return latch;
+    }
+
+    @Test
+    public void whenChainShorterThanPruneLength_thenStaleListenersNotPruned() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        RetryLatch latch1 = register(ref);
+        //e.g. the transaction timed out.
+        latch1.reset();
+        RetryLatch latch2 = register(ref);
+
+        Listeners listeners = (Listeners) getField(ref, "listeners");
+        assertSame(latch2, listeners.listener);
+        assertSame(latch1, listeners.next.listener);
+        assertEquals(2, listeners.chainLength);
+        assertEquals(2, ref.getListenerCount());
+    }
+
+    @Test
+    public void whenListenerWithMovedEraRegistered_thenPrunedOncePruneLengthReached() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        for (int k = 0; k < Listeners.MIN_PRUNE_LENGTH; k++) {
+            register(ref).reset();
+        }
+        assertEquals(Listeners.MIN_PRUNE_LENGTH, ref.getListenerCount());
+
+        RetryLatch latch = register(ref);
+
+        Listeners listeners = (Listeners) getField(ref, "listeners");
+        assertSame(latch, listeners.listener);
+        assertNull(listeners.next);
+        assertEquals(1, listeners.chainLength);
+        assertEquals(1, ref.getListenerCount());
+    }
+
+    @Test
+    public void whenListenerWithOpenLatchRegistered_thenPrunedOncePruneLengthReached() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        for (int k = 0; k < Listeners.MIN_PRUNE_LENGTH; k++) {
+            RetryLatch latch = register(ref);
+            latch.open(latch.getEra());
+        }
+
+        register(ref);
+
+        assertEquals(1, ref.getListenerCount());
+    }
+
+    @Test
+    public void whenManyListeners_thenLiveOnesKept() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        RetryLatch[] latches = new RetryLatch[Listeners.MIN_PRUNE_LENGTH + 1];
+        for (int k = 0; k < latches.length; k++) {
+            latches[k] = register(ref);
+            if (k % 2 == 0 && k < Listeners.MIN_PRUNE_LENGTH) {
+                latches[k].reset();
+            }
+        }
+
+        //the last registration pruned the stale listeners.
+        assertEquals(Listeners.MIN_PRUNE_LENGTH / 2 + 1, ref.getListenerCount());
+
+        ref.atomicIncrementAndGet(1);
+
+        for (int k = 0; k < latches.length; k++) {
+            assertEquals(k % 2 == 1 || k == Listeners.MIN_PRUNE_LENGTH, latches[k].isOpen());
+        }
+        assertEquals(0, ref.getListenerCount());
+    }
+
+    @Test
+    public void whenChainPruned_thenNotPrunedAgainTillLengthDoubled() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        for (int k = 0; k <= Listeners.MIN_PRUNE_LENGTH; k++) {
+            register(ref);
+        }
+
+        Listeners listeners = (Listeners) getField(ref, "listeners");
+        int length = Listeners.MIN_PRUNE_LENGTH + 1;
+        assertEquals(length, listeners.chainLength);
+        assertEquals(2 * length, listeners.pruneLength);
+
+        for (int k = length; k < 2 * length; k++) {
+            register(ref).reset();
+        }
+
+        assertEquals(2 * length, ref.getListenerCount());
+
+        register(ref);
+
+        assertEquals(length + 1, ref.getListenerCount());
+    }
+
+    @Test
+    public void whenRetryTimedOut_thenListenerPrunedOncePruneLengthReached() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        try {
+            stm.newTxnFactoryBuilder()
+                    .setTimeoutNs(TimeUnit.MILLISECONDS.toNanos(10))
+                    .newTxnExecutor()
+                    .execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            ref.await(tx, 1);
+                        }
+                    });
+            fail();
+        } catch (RetryTimeoutException expected) {
+        }
+
+        assertEquals(1, ref.getListenerCount());
+
+        RetryLatch latch = null;
+        for (int k = 1; k <= Listeners.MIN_PRUNE_LENGTH; k++) {
+            latch = register(ref);
+        }
+
+        assertEquals(Listeners.MIN_PRUNE_LENGTH, ref.getListenerCount());
+        assertSame(latch, ((Listeners) getField(ref, "listeners")).listener);
+    }
 }
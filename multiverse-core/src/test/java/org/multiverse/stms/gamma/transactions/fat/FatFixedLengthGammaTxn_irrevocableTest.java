@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatFixedLengthGammaTxn_irrevocableTest extends FatGammaTxn_irrevocableTest<FatFixedLengthGammaTxn> {
+
+    @Override
+    protected FatFixedLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatFixedLengthGammaTxn(config);
+    }
+}
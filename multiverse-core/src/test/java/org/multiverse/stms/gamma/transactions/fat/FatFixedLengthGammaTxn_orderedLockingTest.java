@@ -0,0 +1,67 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.multiverse.TestUtils.assertIsCommitted;
+import static org.multiverse.TestUtils.assertIsPrepared;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class FatFixedLengthGammaTxn_orderedLockingTest extends FatGammaTxn_orderedLockingTest<FatFixedLengthGammaTxn> {
+
+    @Override
+    protected FatFixedLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatFixedLengthGammaTxn(config);
+    }
+
+    @Test
+    public void whenMultipleRefs_thenAllLockedAtPrepare() {
+        GammaTxnLong[] refs = new GammaTxnLong[20];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm, k);
+        }
+
+        GammaTxnConfig config = new GammaTxnConfig(stm, refs.length)
+                .setReadLockMode(LockMode.Read)
+                .setWriteLockMode(LockMode.Write)
+                .setOrderedLockingEnabled(true);
+        FatFixedLengthGammaTxn tx = newTransaction(config);
+
+        for (int k = 0; k < refs.length; k++) {
+            if (k % 2 == 0) {
+                refs[k].get(tx);
+            } else {
+                refs[k].increment(tx);
+            }
+        }
+
+        for (GammaTxnLong ref : refs) {
+            assertRefHasNoLocks(ref);
+        }
+
+        tx.prepare();
+
+        assertIsPrepared(tx);
+        for (int k = 0; k < refs.length; k++) {
+            if (k % 2 == 0) {
+                assertRefHasReadLock(refs[k], tx);
+            } else {
+                assertRefHasExclusiveLock(refs[k], tx);
+            }
+        }
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        for (int k = 0; k < refs.length; k++) {
+            assertRefHasNoLocks(refs[k]);
+            if (k % 2 == 0) {
+                assertVersionAndValue(refs[k], VERSION_UNCOMMITTED + 1, k);
+            } else {
+                assertVersionAndValue(refs[k], VERSION_UNCOMMITTED + 2, k + 1);
+            }
+        }
+    }
+}
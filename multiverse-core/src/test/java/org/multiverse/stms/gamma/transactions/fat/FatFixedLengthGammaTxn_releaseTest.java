@@ -0,0 +1,65 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Test;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class FatFixedLengthGammaTxn_releaseTest extends FatGammaTxn_releaseTest<FatFixedLengthGammaTxn> {
+
+    @Override
+    protected FatFixedLengthGammaTxn newTransaction() {
+        return new FatFixedLengthGammaTxn(stm);
+    }
+
+    @Override
+    protected FatFixedLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatFixedLengthGammaTxn(config);
+    }
+
+    @Test
+    public void whenReleased_thenRoomForMoreReads() {
+        GammaTxnConfig config = new GammaTxnConfig(stm, 3);
+        FatFixedLengthGammaTxn tx = newTransaction(config);
+
+        GammaTxnLong previous = null;
+        for (int k = 0; k < 10; k++) {
+            GammaTxnLong ref = new GammaTxnLong(stm, k);
+            assertEquals(k, ref.get(tx));
+            if (previous != null) {
+                tx.release(previous);
+                assertNull(tx.getRefTranlocal(previous));
+            }
+            previous = ref;
+        }
+
+        assertEquals(1, tx.size);
+        assertNotNull(tx.getRefTranlocal(previous));
+        tx.commit();
+    }
+
+    @Test
+    public void whenReleasedInTheMiddle_thenOthersStillFound() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 2);
+        GammaTxnLong ref3 = new GammaTxnLong(stm, 3);
+        GammaTxnLong ref4 = new GammaTxnLong(stm, 4);
+
+        FatFixedLengthGammaTxn tx = newTransaction(new GammaTxnConfig(stm, 3));
+        ref1.get(tx);
+        ref2.get(tx);
+        ref3.get(tx);
+        tx.release(ref2);
+        ref4.get(tx);
+
+        assertEquals(3, tx.size);
+        assertNotNull(tx.getRefTranlocal(ref1));
+        assertNull(tx.getRefTranlocal(ref2));
+        assertNotNull(tx.getRefTranlocal(ref3));
+        assertNotNull(tx.getRefTranlocal(ref4));
+        tx.commit();
+    }
+}
@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatFixedLengthGammaTxn_savepointTest extends FatGammaTxn_savepointTest<FatFixedLengthGammaTxn> {
+
+    @Override
+    protected FatFixedLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatFixedLengthGammaTxn(config);
+    }
+}
@@ -0,0 +1,186 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.IllegalTxnStateException;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public abstract class FatGammaTxn_irrevocableTest<T extends GammaTxn> implements GammaConstants {
+
+    public GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+        clearCurrentThreadInterruptedStatus();
+    }
+
+    protected abstract T newTransaction(GammaTxnConfig config);
+
+    private GammaTxnConfig newIrrevocableConfig() {
+        return new GammaTxnConfig(stm)
+                .setIrrevocable(true);
+    }
+
+    @Test
+    public void whenCreated_thenTokenAcquired() {
+        T tx = newTransaction(newIrrevocableConfig());
+
+        assertIsActive(tx);
+        assertSame(tx, stm.irrevocableToken.getOwner());
+    }
+
+    @Test
+    public void whenNotIrrevocable_thenTokenNotAcquired() {
+        T tx = newTransaction(new GammaTxnConfig(stm));
+
+        assertIsActive(tx);
+        assertNull(stm.irrevocableToken.getOwner());
+    }
+
+    @Test
+    public void whenRead_thenExclusiveLockAcquired() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newIrrevocableConfig());
+        long value = ref.get(tx);
+
+        assertEquals(initialValue, value);
+        assertRefHasExclusiveLock(ref, tx);
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.irrevocableToken.getOwner());
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenWrite_thenExclusiveLockAcquired() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newIrrevocableConfig());
+        ref.set(tx, initialValue + 1);
+
+        assertRefHasExclusiveLock(ref, tx);
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.irrevocableToken.getOwner());
+        assertVersionAndValue(ref, initialVersion + 1, initialValue + 1);
+    }
+
+    @Test
+    public void whenAborted_thenTokenReleased() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newIrrevocableConfig());
+        ref.set(tx, initialValue + 1);
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.irrevocableToken.getOwner());
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenLockedByOther_thenWaitsTillReleased() {
+        long initialValue = 10;
+        final GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        GammaTxn otherTx = newTransaction(new GammaTxnConfig(stm));
+        ref.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        final T tx = newTransaction(newIrrevocableConfig().setSpinCount(1));
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                ref.set(tx, 100);
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
+
+        otherTx.abort();
+        joinAll(thread);
+
+        assertRefHasExclusiveLock(ref, tx);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion + 1, 100);
+    }
+
+    @Test
+    public void whenOtherIrrevocableActive_thenWaitsTillCompleted() {
+        final GammaTxnConfig config = newIrrevocableConfig();
+        T tx = newTransaction(config);
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                GammaTxn otherTx = newTransaction(config);
+                assertSame(otherTx, stm.irrevocableToken.getOwner());
+                otherTx.commit();
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertAlive(thread);
+        assertSame(tx, stm.irrevocableToken.getOwner());
+
+        tx.commit();
+        joinAll(thread);
+
+        assertNull(stm.irrevocableToken.getOwner());
+    }
+
+    @Test
+    public void whenOtherIrrevocableActiveOnSameThread_thenIllegalTxnStateException() {
+        GammaTxnConfig config = newIrrevocableConfig();
+        T tx = newTransaction(config);
+
+        try {
+            newTransaction(config);
+            fail();
+        } catch (IllegalTxnStateException expected) {
+        }
+
+        assertIsActive(tx);
+        assertSame(tx, stm.irrevocableToken.getOwner());
+
+        tx.commit();
+
+        T otherTx = newTransaction(config);
+        assertSame(otherTx, stm.irrevocableToken.getOwner());
+        otherTx.commit();
+        assertNull(stm.irrevocableToken.getOwner());
+    }
+}
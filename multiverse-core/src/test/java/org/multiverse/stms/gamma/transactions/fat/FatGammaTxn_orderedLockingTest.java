@@ -0,0 +1,215 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public abstract class FatGammaTxn_orderedLockingTest<T extends GammaTxn> implements GammaConstants {
+
+    public GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    protected abstract T newTransaction(GammaTxnConfig config);
+
+    private GammaTxnConfig newOrderedConfig(LockMode readLockMode, LockMode writeLockMode) {
+        return new GammaTxnConfig(stm)
+                .setReadLockMode(readLockMode)
+                .setWriteLockMode(writeLockMode)
+                .setOrderedLockingEnabled(true);
+    }
+
+    @Test
+    public void whenWrite_thenLockNotAcquiredBeforePrepare() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.Exclusive));
+        ref.set(tx, initialValue + 1);
+
+        assertRefHasNoLocks(ref);
+
+        tx.prepare();
+
+        assertIsPrepared(tx);
+        assertRefHasExclusiveLock(ref, tx);
+        assertSame(tx, stm.lockOwnerTable.get(ref));
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion + 1, initialValue + 1);
+    }
+
+    @Test
+    public void whenNonDirtyWrite_thenWriteLockModeUsedAtPrepare() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.Write));
+        ref.set(tx, initialValue);
+
+        assertRefHasNoLocks(ref);
+
+        tx.prepare();
+
+        assertIsPrepared(tx);
+        assertRefHasWriteLock(ref, tx);
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenAbortedAfterPrepare_thenLockReleased() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.Exclusive));
+        ref.set(tx, initialValue + 1);
+        tx.prepare();
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenUpdatedByOtherBeforePrepare_thenReadWriteConflict() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.Read, LockMode.Exclusive));
+        ref.set(tx, initialValue + 1);
+
+        ref.atomicSet(100);
+
+        try {
+            tx.prepare();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion + 1, 100);
+    }
+
+    @Test
+    public void whenLockedByOtherBeforePrepare_thenReadWriteConflict() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.Exclusive).setSpinCount(1));
+        ref.set(tx, initialValue + 1);
+
+        GammaTxn otherTx = newTransaction(newOrderedConfig(LockMode.None, LockMode.None));
+        ref.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        try {
+            tx.prepare();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertRefHasExclusiveLock(ref, otherTx);
+        assertSame(otherTx, stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenWaitForCycleDetected_thenReadWriteConflict() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        GammaTxnLong otherRef = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.Exclusive));
+        ref.set(tx, initialValue + 1);
+
+        //the owner of ref is waiting for otherRef, that is owned by tx. So tx should not wait for ref.
+        GammaTxn otherTx = newTransaction(new GammaTxnConfig(stm));
+        stm.lockOwnerTable.set(ref, otherTx);
+        otherTx.waitingFor = otherRef;
+        stm.lockOwnerTable.set(otherRef, tx);
+
+        try {
+            tx.prepare();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertNull(tx.waitingFor);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenOrderedLockingDisabled_thenLockOwnerNotRegistered() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(new GammaTxnConfig(stm));
+        ref.getLock().acquire(tx, LockMode.Exclusive);
+        ref.set(tx, initialValue + 1);
+
+        assertRefHasExclusiveLock(ref, tx);
+        assertNull(stm.lockOwnerTable.get(ref));
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion + 1, initialValue + 1);
+    }
+
+    @Test
+    public void whenWriteLockAcquiredExplicitly_thenLockOwnerClearedOnCommit() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction(newOrderedConfig(LockMode.None, LockMode.None));
+        ref.getLock().acquire(tx, LockMode.Write);
+
+        assertRefHasWriteLock(ref, tx);
+        assertSame(tx, stm.lockOwnerTable.get(ref));
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertNull(stm.lockOwnerTable.get(ref));
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+}
@@ -0,0 +1,194 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.DeadTxnException;
+import org.multiverse.api.exceptions.PreparedTxnException;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public abstract class FatGammaTxn_releaseTest<T extends GammaTxn> implements GammaConstants {
+
+    public GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    protected abstract T newTransaction();
+
+    protected abstract T newTransaction(GammaTxnConfig config);
+
+    @Test
+    public void whenNull_thenNullPointerException() {
+        T tx = newTransaction();
+
+        try {
+            tx.release(null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenNotRead_thenIgnored() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        tx.release(ref);
+
+        assertIsActive(tx);
+        assertNull(tx.getRefTranlocal(ref));
+    }
+
+    @Test
+    public void whenRead_thenReleased() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.get(tx);
+        tx.release(ref);
+
+        assertIsActive(tx);
+        assertNull(tx.getRefTranlocal(ref));
+        assertRefHasNoLocks(ref);
+
+        tx.commit();
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenReleasedAndChanged_thenNewValueRead() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        assertEquals(10, ref.get(tx));
+        tx.release(ref);
+
+        ref.atomicSet(20);
+
+        assertEquals(20, ref.get(tx));
+        tx.commit();
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenReadBiased_thenDeparted() {
+        GammaTxnLong ref = makeReadBiased(new GammaTxnLong(stm, 10));
+
+        T tx = newTransaction();
+        ref.get(tx);
+        tx.release(ref);
+
+        assertNull(tx.getRefTranlocal(ref));
+        assertSurplus(ref, 0);
+        assertRefHasNoLocks(ref);
+
+        tx.commit();
+        assertSurplus(ref, 0);
+    }
+
+    @Test
+    public void whenWritten_thenNotReleased() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        ref.set(tx, 20);
+        tx.release(ref);
+
+        assertNotNull(tx.getRefTranlocal(ref));
+
+        tx.commit();
+        assertVersionAndValue(ref, initialVersion + 1, 20);
+    }
+
+    @Test
+    public void whenLocked_thenNotReleased() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.getAndLock(tx, LockMode.Read);
+        tx.release(ref);
+
+        assertNotNull(tx.getRefTranlocal(ref));
+        assertRefHasReadLock(ref, tx);
+
+        tx.abort();
+        assertRefHasNoLocks(ref);
+    }
+
+    @Test
+    public void whenEnsured_thenNotReleased() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.get(tx);
+        ref.ensure(tx);
+        tx.release(ref);
+
+        assertNotNull(tx.getRefTranlocal(ref));
+    }
+
+    @Test
+    public void whenPrepared_thenPreparedTxnException() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.get(tx);
+        tx.prepare();
+
+        try {
+            tx.release(ref);
+            fail();
+        } catch (PreparedTxnException expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenCommitted_thenDeadTxnException() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        tx.commit();
+
+        try {
+            tx.release(ref);
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenAborted_thenDeadTxnException() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        tx.abort();
+
+        try {
+            tx.release(ref);
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+}
@@ -0,0 +1,317 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.DeadTxnException;
+import org.multiverse.api.exceptions.RetryError;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.Savepoint;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.api.functions.Functions.incLongFunction;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertVersionAndValue;
+
+public abstract class FatGammaTxn_savepointTest<T extends GammaTxn> implements GammaConstants {
+
+    public GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    protected abstract T newTransaction(GammaTxnConfig config);
+
+    protected T newTransaction() {
+        return newTransaction(new GammaTxnConfig(stm));
+    }
+
+    @Test
+    public void whenWriteAfterSavepoint_thenRolledBackToRead() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, initialValue + 1);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        Tranlocal tranlocal = tx.getRefTranlocal(ref);
+        assertNotNull(tranlocal);
+        assertTrue(tranlocal.isRead());
+        assertFalse(tranlocal.isDirty);
+        assertEquals(initialValue, ref.get(tx));
+        assertIsActive(tx);
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenWriteBeforeAndAfterSavepoint_thenValueBeforeSavepointRestored() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        ref.set(tx, 20);
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, 30);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        Tranlocal tranlocal = tx.getRefTranlocal(ref);
+        assertTrue(tranlocal.isWrite());
+        assertEquals(20, ref.get(tx));
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertVersionAndValue(ref, initialVersion + 1, 20);
+    }
+
+    @Test
+    public void whenReleasedWithoutRollback_thenChangesKept() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, 20);
+        tx.releaseSavepoint(savepoint);
+
+        assertEquals(0, tx.nestingDepth);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertVersionAndValue(ref, initialVersion + 1, 20);
+    }
+
+    @Test
+    public void whenCommuteAfterSavepoint_thenDropped() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        Savepoint savepoint = tx.createSavepoint();
+        ref.commute(tx, incLongFunction());
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenCommuteBeforeSavepoint_thenKept() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        ref.commute(tx, incLongFunction());
+        Savepoint savepoint = tx.createSavepoint();
+        ref.commute(tx, incLongFunction());
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        assertTrue(tx.getRefTranlocal(ref).isCommuting());
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertVersionAndValue(ref, initialVersion + 1, initialValue + 1);
+    }
+
+    @Test
+    public void whenCommuteBeforeSavepointFlattenedAfter_thenCommuteReapplied() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        ref.commute(tx, incLongFunction());
+        Savepoint savepoint = tx.createSavepoint();
+        assertEquals(initialValue + 1, ref.get(tx));
+        ref.set(tx, 100);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        assertTrue(tx.getRefTranlocal(ref).isWrite());
+        assertEquals(initialValue + 1, ref.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertVersionAndValue(ref, initialVersion + 1, initialValue + 1);
+    }
+
+    @Test
+    public void whenRetryWhileSavepointInUse_thenTransactionRemainsActive() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+
+        T tx = newTransaction();
+        ref.get(tx);
+        Savepoint savepoint = tx.createSavepoint();
+
+        try {
+            tx.retry();
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        assertIsActive(tx);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+        assertIsActive(tx);
+    }
+
+    @Test
+    public void whenOnlyWritesAfterSavepoint_thenHasWritesRestored() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.get(tx);
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, 20);
+        assertTrue(tx.hasWrites);
+
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        assertFalse(tx.hasWrites);
+        tx.commit();
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenWritesBeforeSavepoint_thenHasWritesKept() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+
+        T tx = newTransaction();
+        ref.set(tx, 20);
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, 30);
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        assertTrue(tx.hasWrites);
+    }
+
+    @Test
+    public void whenConstructedAfterSavepoint_thenInitialValueReverted() {
+        T tx = newTransaction();
+        Savepoint savepoint = tx.createSavepoint();
+        GammaTxnLong ref = new GammaTxnLong(tx, 10);
+        ref.set(tx, 20);
+
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        Tranlocal tranlocal = tx.getRefTranlocal(ref);
+        assertTrue(tranlocal.isConstructing());
+        assertEquals(0, tranlocal.long_value);
+        assertFalse(tx.hasWrites);
+    }
+
+    @Test
+    public void whenConstructedBeforeSavepointAndWrittenAfter_thenValueBeforeSavepointRestored() {
+        T tx = newTransaction();
+        GammaTxnLong ref = new GammaTxnLong(tx, 10);
+        Savepoint savepoint = tx.createSavepoint();
+        ref.set(tx, 20);
+
+        tx.rollbackToSavepoint(savepoint);
+        tx.releaseSavepoint(savepoint);
+
+        Tranlocal tranlocal = tx.getRefTranlocal(ref);
+        assertTrue(tranlocal.isConstructing());
+        assertEquals(10, ref.get(tx));
+        assertTrue(tx.hasWrites);
+
+        tx.commit();
+        assertEquals(10, ref.atomicGet());
+    }
+
+    @Test
+    public void whenNested() {
+        long initialValue = 10;
+        GammaTxnLong ref = new GammaTxnLong(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        Savepoint outer = tx.createSavepoint();
+        ref.set(tx, 20);
+        Savepoint inner = tx.createSavepoint();
+        ref.set(tx, 30);
+        assertEquals(2, tx.nestingDepth);
+
+        tx.rollbackToSavepoint(inner);
+        tx.releaseSavepoint(inner);
+        assertEquals(20, ref.get(tx));
+
+        tx.rollbackToSavepoint(outer);
+        tx.releaseSavepoint(outer);
+        assertEquals(initialValue, ref.get(tx));
+        assertEquals(0, tx.nestingDepth);
+
+        tx.commit();
+        assertVersionAndValue(ref, initialVersion, initialValue);
+    }
+
+    @Test
+    public void whenAborted_thenCreateSavepointFails() {
+        T tx = newTransaction();
+        tx.abort();
+
+        try {
+            tx.createSavepoint();
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenCommitted_thenCreateSavepointFails() {
+        T tx = newTransaction();
+        tx.commit();
+
+        try {
+            tx.createSavepoint();
+            fail();
+        } catch (DeadTxnException expected) {
+        }
+
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenSavepointInUseAndTransactionReset_thenNestingDepthCleared() {
+        T tx = newTransaction();
+        tx.createSavepoint();
+        tx.abort();
+
+        tx.hardReset();
+
+        assertEquals(0, tx.nestingDepth);
+    }
+}
@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatMonoGammaTxn_irrevocableTest extends FatGammaTxn_irrevocableTest<FatMonoGammaTxn> {
+
+    @Override
+    protected FatMonoGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatMonoGammaTxn(config);
+    }
+}
@@ -0,0 +1,16 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatMonoGammaTxn_releaseTest extends FatGammaTxn_releaseTest<FatMonoGammaTxn> {
+
+    @Override
+    protected FatMonoGammaTxn newTransaction() {
+        return new FatMonoGammaTxn(stm);
+    }
+
+    @Override
+    protected FatMonoGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatMonoGammaTxn(config);
+    }
+}
@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatMonoGammaTxn_savepointTest extends FatGammaTxn_savepointTest<FatMonoGammaTxn> {
+
+    @Override
+    protected FatMonoGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatMonoGammaTxn(config);
+    }
+}
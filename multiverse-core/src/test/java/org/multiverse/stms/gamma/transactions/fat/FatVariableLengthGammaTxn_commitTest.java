@@ -1,9 +1,12 @@
 package org.multiverse.stms.gamma.transactions.fat;
 
 import org.junit.Test;
+import org.multiverse.api.functions.Functions;
 import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertGlobalConflictCount;
 import static org.multiverse.stms.gamma.GammaTestUtils.assertSurplus;
 
 public class FatVariableLengthGammaTxn_commitTest extends FatGammaTxn_commitTest<FatVariableLengthGammaTxn> {
@@ -44,5 +47,28 @@ public class FatVariableLengthGammaTxn_commitTest extends FatGammaTxn_commitTest
 
          assertSurplus(ref, 3);
      }
-    
+
+    @Test
+    public void richmansConflict_whenCommuteFlattenedAfterConflictingWrite() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        GammaTxnLong commutingRef = new GammaTxnLong(stm, 0);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.set(tx, 1);
+        commutingRef.commute(tx, Functions.incLongFunction());
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+
+        FatVariableLengthGammaTxn otherTx = new FatVariableLengthGammaTxn(config);
+        ref.get(otherTx);
+
+        long globalConflictCount = stm.globalConflictCounter.count();
+        tx.commit();
+
+        //flattening the commute during the prepare should not forget the conflict found when locking the ref.
+        assertGlobalConflictCount(stm, globalConflictCount + 1);
+        assertEquals(1, ref.atomicGet());
+        assertEquals(1, commutingRef.atomicGet());
+    }
 }
@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatVariableLengthGammaTxn_irrevocableTest extends FatGammaTxn_irrevocableTest<FatVariableLengthGammaTxn> {
+
+    @Override
+    protected FatVariableLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatVariableLengthGammaTxn(config);
+    }
+}
@@ -11,7 +11,11 @@ import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 import static junit.framework.Assert.assertSame;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.multiverse.TestUtils.assertIsAborted;
 import static org.multiverse.TestUtils.assertIsActive;
+import static org.multiverse.TestUtils.assertIsCommitted;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertVersionAndValue;
 
 public class FatVariableLengthGammaTxn_openingManyItemsTest implements GammaConstants {
     private GammaStm stm;
@@ -61,4 +65,56 @@ public class FatVariableLengthGammaTxn_openingManyItemsTest implements GammaCons
 
         assertIsActive(tx);
     }
+
+    @Test
+    public void whenManyItemsCommitted() {
+        int refCount = 10000;
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(refCount);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong[] refs = new GammaTxnLong[refCount];
+        long[] initialVersions = new long[refCount];
+        for (int k = 0; k < refCount; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            initialVersions[k] = refs[k].getVersion();
+            refs[k].set(tx, k + 1);
+        }
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        for (int k = 0; k < refCount; k++) {
+            assertVersionAndValue(refs[k], initialVersions[k] + 1, k + 1);
+        }
+    }
+
+    @Test
+    public void whenManyItemsAbortedAndReset_thenTableCleared() {
+        int refCount = 1000;
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(refCount);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+
+        GammaTxnLong[] refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refCount; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            refs[k].openForWrite(tx, LOCKMODE_NONE);
+        }
+
+        tx.abort();
+        assertIsAborted(tx);
+
+        tx.softReset();
+
+        assertEquals(0, tx.size());
+        for (Tranlocal tranlocal : tx.array) {
+            assertNull(tranlocal);
+        }
+        for (GammaTxnLong ref : refs) {
+            assertNull(tx.getRefTranlocal(ref));
+        }
+    }
 }
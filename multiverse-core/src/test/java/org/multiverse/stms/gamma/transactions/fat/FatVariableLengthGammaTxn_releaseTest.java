@@ -0,0 +1,68 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Test;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class FatVariableLengthGammaTxn_releaseTest extends FatGammaTxn_releaseTest<FatVariableLengthGammaTxn> {
+
+    @Override
+    protected FatVariableLengthGammaTxn newTransaction() {
+        return new FatVariableLengthGammaTxn(stm);
+    }
+
+    @Override
+    protected FatVariableLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatVariableLengthGammaTxn(config);
+    }
+
+    @Test
+    public void whenManyReleasedInRandomOrder_thenRemainingStillFound() {
+        Random random = new Random(1);
+
+        for (int round = 0; round < 20; round++) {
+            List<GammaTxnLong> refs = new ArrayList<GammaTxnLong>();
+            for (int k = 0; k < 100; k++) {
+                refs.add(new GammaTxnLong(stm, k));
+            }
+
+            GammaTxnConfig config = new GammaTxnConfig(stm)
+                    .setMaximumPoorMansConflictScanLength(refs.size());
+            FatVariableLengthGammaTxn tx = newTransaction(config);
+            for (GammaTxnLong ref : refs) {
+                ref.get(tx);
+            }
+
+            List<GammaTxnLong> released = new ArrayList<GammaTxnLong>(refs);
+            Collections.shuffle(released, random);
+            released = released.subList(0, random.nextInt(refs.size()));
+            for (GammaTxnLong ref : released) {
+                tx.release(ref);
+            }
+
+            assertEquals(refs.size() - released.size(), tx.size());
+            for (GammaTxnLong ref : refs) {
+                if (released.contains(ref)) {
+                    assertNull(tx.getRefTranlocal(ref));
+                } else {
+                    Tranlocal tranlocal = tx.getRefTranlocal(ref);
+                    assertNotNull(tranlocal);
+                    assertSame(tranlocal, tx.slots[tranlocal.slot]);
+                }
+            }
+
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+public class FatVariableLengthGammaTxn_savepointTest extends FatGammaTxn_savepointTest<FatVariableLengthGammaTxn> {
+
+    @Override
+    protected FatVariableLengthGammaTxn newTransaction(GammaTxnConfig config) {
+        return new FatVariableLengthGammaTxn(config);
+    }
+}
@@ -0,0 +1,10 @@
+package org.multiverse.stms.gamma.transactions.lean;
+
+public class LeanFixedLengthGammaTxn_savepointTest
+        extends LeanGammaTxn_savepointTest<LeanFixedLengthGammaTxn> {
+
+    @Override
+    public LeanFixedLengthGammaTxn newTransaction() {
+        return new LeanFixedLengthGammaTxn(stm);
+    }
+}
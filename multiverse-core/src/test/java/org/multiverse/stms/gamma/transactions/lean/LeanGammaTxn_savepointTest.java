@@ -0,0 +1,66 @@
+package org.multiverse.stms.gamma.transactions.lean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.Savepoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasNoLocks;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertVersionAndValue;
+
+public abstract class LeanGammaTxn_savepointTest<T extends GammaTxn> {
+
+    protected GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    public abstract T newTransaction();
+
+    @Test
+    public void whenCreateSavepoint_thenSpeculativeConfigurationError() {
+        String initialValue = "foo";
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, initialValue);
+        long initialVersion = ref.getVersion();
+
+        T tx = newTransaction();
+        ref.get(tx);
+        try {
+            tx.createSavepoint();
+            fail();
+        } catch (SpeculativeConfigurationError expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(0, tx.nestingDepth);
+        assertRefHasNoLocks(ref);
+        assertVersionAndValue(ref, initialVersion, initialValue);
+        assertTrue(tx.getConfig().speculativeConfiguration.get().orelseDetected);
+    }
+
+    @Test
+    public void whenRollbackToSavepoint_thenSpeculativeConfigurationError() {
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, "foo");
+
+        T tx = newTransaction();
+        ref.get(tx);
+        try {
+            tx.rollbackToSavepoint(new Savepoint());
+            fail();
+        } catch (SpeculativeConfigurationError expected) {
+        }
+
+        assertIsAborted(tx);
+        assertRefHasNoLocks(ref);
+        assertTrue(tx.getConfig().speculativeConfiguration.get().orelseDetected);
+    }
+}
@@ -0,0 +1,10 @@
+package org.multiverse.stms.gamma.transactions.lean;
+
+public class LeanMonoGammaTxn_savepointTest
+        extends LeanGammaTxn_savepointTest<LeanMonoGammaTxn> {
+
+    @Override
+    public LeanMonoGammaTxn newTransaction() {
+        return new LeanMonoGammaTxn(stm);
+    }
+}